@@ -1,6 +1,8 @@
 package com.apicatalog.alps;
 
+import com.apicatalog.alps.dom.Document;
 import com.apicatalog.alps.dom.DocumentVersion;
+import com.apicatalog.alps.dom.element.Descriptor;
 
 public final class Alps {
 
@@ -8,10 +10,42 @@ public final class Alps {
         return new DocumentBuilderImpl(version);
     }
 
+    /**
+     * Creates a builder initialized with the document. Elements of the
+     * document are shared, a set is copied when changed for the first time.
+     *
+     * @param document a document to edit
+     * @return a new builder
+     */
+    public static final DocumentBuilder createDocument(Document document) {
+
+        if (document == null) {
+            throw new IllegalArgumentException("The document must not be null.");
+        }
+
+        return new DocumentBuilderImpl(document);
+    }
+
     public static final DescriptorBuilder createDescriptor() {
         return new DescriptorBuilderImpl();
     }
 
+    /**
+     * Creates a builder initialized with the descriptor. Nested elements are
+     * shared, a set is copied when changed for the first time.
+     *
+     * @param descriptor a descriptor to edit
+     * @return a new builder
+     */
+    public static final DescriptorBuilder createDescriptor(Descriptor descriptor) {
+
+        if (descriptor == null) {
+            throw new IllegalArgumentException("The descriptor must not be null.");
+        }
+
+        return new DescriptorBuilderImpl(descriptor);
+    }
+
     public static final DocumentationBuilder createDocumentation() {
         return new DocumentationBuilderImpl();
     }
@@ -0,0 +1,454 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.dom.element.DescriptorType;
+import com.apicatalog.alps.dom.element.Documentation;
+import com.apicatalog.alps.dom.element.Extension;
+import com.apicatalog.alps.dom.element.Link;
+
+/**
+ * A canonical form of a document. Documents that differ only in the order of
+ * their elements, in implied default values or in an alias of a documentation
+ * content type have the same canonical form and the same digest, regardless
+ * of the format they were read from.
+ * <p>
+ * A canonical document sets the <code>semantic</code> descriptor type and the
+ * <code>text/plain</code> documentation content type if not set. Descriptors
+ * are ordered by their ids, names and references, other elements and ties are
+ * ordered by their digests, extension attributes by their names.
+ * </p>
+ */
+public final class CanonicalDocument {
+
+    static final String DEFAULT_CONTENT_TYPE = "text/plain";
+
+    private static final byte DOCUMENT = 1;
+    private static final byte DESCRIPTOR = 2;
+    private static final byte DOCUMENTATION = 3;
+    private static final byte LINK = 4;
+    private static final byte EXTENSION = 5;
+
+    private static final Comparator<Canonical<Descriptor>> DESCRIPTOR_ORDER = Comparator
+                .<Canonical<Descriptor>, String>comparing(c -> c.element.id().map(URI::toString).orElse(""))
+                .thenComparing(c -> c.element.name().orElse(""))
+                .thenComparing(c -> c.element.href().map(URI::toString).orElse(""))
+                .thenComparing(Canonical::compareTo);
+
+    private CanonicalDocument() {
+    }
+
+    /**
+     * Returns the canonical form of the document.
+     *
+     * @param document a document
+     * @return an equivalent canonical document
+     */
+    public static final Document of(final Document document) {
+        return new Canonicalizer(true).document(document).element;
+    }
+
+    /**
+     * Computes a SHA-256 digest of the canonical form of the document. The
+     * digest is computed from the document elements, the document is neither
+     * written nor converted to the canonical form. A base URI is not a part of
+     * the digest.
+     *
+     * @param document a document
+     * @return a digest of 32 bytes
+     */
+    public static final byte[] digest(final Document document) {
+        return new Canonicalizer(false).document(document).digest.clone();
+    }
+
+    /**
+     * Computes a SHA-256 digest of the canonical form of the document as
+     * a hexadecimal string, e.g. to be used as a cache key.
+     *
+     * @param document a document
+     * @return a lower case hexadecimal digest
+     */
+    public static final String hash(final Document document) {
+
+        final byte[] digest = digest(document);
+
+        final StringBuilder hash = new StringBuilder(2 * digest.length);
+
+        for (final byte b : digest) {
+            hash.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+
+        return hash.toString();
+    }
+
+    private static final class Canonicalizer {
+
+        private final MessageDigest md;
+        private final boolean build;
+
+        Canonicalizer(final boolean build) {
+            this.build = build;
+
+            try {
+                this.md = MessageDigest.getInstance("SHA-256");
+
+            } catch (NoSuchAlgorithmException e) {
+                // every Java platform supports SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        Canonical<Document> document(final Document document) {
+
+            final List<Canonical<Documentation>> documentation = documentation(document.documentation());
+            final List<Canonical<Link>> links = links(document.links());
+            final List<Canonical<Extension>> extensions = extensions(document.extensions());
+            final List<Canonical<Descriptor>> descriptors = descriptors(document.descriptors());
+
+            md.update(DOCUMENT);
+            string(document.version().name());
+            string(document.title());
+            digests(documentation);
+            digests(links);
+            digests(extensions);
+            digests(descriptors);
+
+            final byte[] digest = md.digest();
+
+            if (!build) {
+                return new Canonical<>(null, digest);
+            }
+
+            final DocumentBuilderImpl builder = new DocumentBuilderImpl(document.version());
+
+            builder.base(document.baseUri()).title(document.title().orElse(null));
+
+            documentation.forEach(c -> builder.add(c.element));
+            links.forEach(c -> builder.add(c.element));
+            extensions.forEach(c -> builder.add(c.element));
+            descriptors.forEach(c -> builder.add(c.element));
+
+            return new Canonical<>(builder.build(), digest);
+        }
+
+        /**
+         * Canonicalizes nested descriptors without recursion.
+         */
+        List<Canonical<Descriptor>> descriptors(final Set<Descriptor> descriptors) {
+
+            final Deque<Frame> stack = new ArrayDeque<>();
+            stack.push(new Frame(null, descriptors));
+
+            while (true) {
+
+                final Frame frame = stack.peek();
+
+                if (frame.iterator.hasNext()) {
+                    final Descriptor next = frame.iterator.next();
+                    stack.push(new Frame(next, next.descriptors()));
+                    continue;
+                }
+
+                stack.pop();
+
+                // a digest does not depend on the order
+                if (build) {
+                    frame.descriptors.sort(DESCRIPTOR_ORDER);
+                }
+
+                if (frame.descriptor == null) {
+                    return frame.descriptors;
+                }
+
+                stack.peek().descriptors.add(descriptor(frame.descriptor, frame.descriptors));
+            }
+        }
+
+        Canonical<Descriptor> descriptor(final Descriptor descriptor, final List<Canonical<Descriptor>> descriptors) {
+
+            final List<Canonical<Documentation>> documentation = documentation(descriptor.documentation());
+            final List<Canonical<Link>> links = links(descriptor.links());
+            final List<Canonical<Extension>> extensions = extensions(descriptor.extensions());
+
+            final DescriptorType type = descriptor.type() != null ? descriptor.type() : DescriptorType.SEMANTIC;
+
+            md.update(DESCRIPTOR);
+            uri(descriptor.id());
+            uri(descriptor.href());
+            uri(descriptor.definition());
+            string(descriptor.name());
+            string(type.name());
+            uri(descriptor.returnType());
+            string(descriptor.title());
+            strings(descriptor.tag());
+            digests(documentation);
+            digests(links);
+            digests(extensions);
+            digests(descriptors);
+
+            final byte[] digest = md.digest();
+
+            if (!build) {
+                return new Canonical<>(null, digest);
+            }
+
+            final DescriptorBuilder builder = Alps.createDescriptor()
+                                                .id(descriptor.id().orElse(null))
+                                                .href(descriptor.href().orElse(null))
+                                                .definition(descriptor.definition().orElse(null))
+                                                .name(descriptor.name().orElse(null))
+                                                .type(type)
+                                                .returnType(descriptor.returnType().orElse(null))
+                                                .title(descriptor.title().orElse(null))
+                                                .tag(descriptor.tag().isEmpty() ? null : descriptor.tag());
+
+            documentation.forEach(c -> builder.add(c.element));
+            links.forEach(c -> builder.add(c.element));
+            extensions.forEach(c -> builder.add(c.element));
+            descriptors.forEach(c -> builder.add(c.element));
+
+            return new Canonical<>(builder.build(), digest);
+        }
+
+        List<Canonical<Documentation>> documentation(final Set<Documentation> documentation) {
+
+            final List<Canonical<Documentation>> canonical = new ArrayList<>(documentation.size());
+
+            for (final Documentation doc : documentation) {
+
+                // an empty content is not built
+                final String value = doc.content().map(Documentation.Content::value).filter(v -> !v.isEmpty()).orElse(null);
+
+                final String type = value != null
+                                        ? doc.content().map(Documentation.Content::type).map(DocumentationBuilderImpl::normalizeType).orElse(DEFAULT_CONTENT_TYPE)
+                                        : null;
+
+                md.update(DOCUMENTATION);
+                uri(doc.href());
+                string(type);
+                string(value);
+                strings(doc.tag());
+
+                final byte[] digest = md.digest();
+
+                Documentation element = null;
+
+                if (build) {
+                    final DocumentationBuilder builder = Alps.createDocumentation()
+                                                            .href(doc.href().orElse(null))
+                                                            .tag(doc.tag().isEmpty() ? null : doc.tag());
+
+                    if (value != null) {
+                        builder.type(type).append(value);
+                    }
+
+                    element = builder.build();
+                }
+
+                canonical.add(new Canonical<>(element, digest));
+            }
+
+            canonical.sort(Canonical::compareTo);
+
+            return canonical;
+        }
+
+        List<Canonical<Link>> links(final Set<Link> links) {
+
+            final List<Canonical<Link>> canonical = new ArrayList<>(links.size());
+
+            for (final Link link : links) {
+
+                md.update(LINK);
+                uri(link.href());
+                string(link.rel());
+                string(link.title());
+                strings(link.tag());
+
+                final byte[] digest = md.digest();
+
+                canonical.add(new Canonical<>(
+                                build
+                                    ? Alps.createLink()
+                                            .href(link.href())
+                                            .rel(link.rel())
+                                            .title(link.title().orElse(null))
+                                            .tag(link.tag().isEmpty() ? null : link.tag())
+                                            .build()
+                                    : null,
+                                digest));
+            }
+
+            canonical.sort(Canonical::compareTo);
+
+            return canonical;
+        }
+
+        List<Canonical<Extension>> extensions(final Set<Extension> extensions) {
+
+            final List<Canonical<Extension>> canonical = new ArrayList<>(extensions.size());
+
+            for (final Extension extension : extensions) {
+
+                final Map<String, String> attributes = new TreeMap<>(extension.attributes());
+
+                md.update(EXTENSION);
+                uri(extension.id());
+                uri(extension.href());
+                string(extension.value());
+                strings(extension.tag());
+
+                count(attributes.size());
+
+                for (final Map.Entry<String, String> attribute : attributes.entrySet()) {
+                    string(attribute.getKey());
+                    string(attribute.getValue());
+                }
+
+                final byte[] digest = md.digest();
+
+                Extension element = null;
+
+                if (build) {
+                    final ExtensionBuilder builder = Alps.createExtension()
+                                                        .id(extension.id())
+                                                        .href(extension.href().orElse(null))
+                                                        .value(extension.value().orElse(null))
+                                                        .tag(extension.tag().isEmpty() ? null : extension.tag());
+
+                    attributes.forEach(builder::attribute);
+
+                    element = builder.build();
+                }
+
+                canonical.add(new Canonical<>(element, digest));
+            }
+
+            canonical.sort(Canonical::compareTo);
+
+            return canonical;
+        }
+
+        /**
+         * Updates the digest with digests of the elements in the digest order.
+         */
+        void digests(final List<? extends Canonical<?>> elements) {
+
+            final byte[][] digests = new byte[elements.size()][];
+
+            for (int i = 0; i < digests.length; i++) {
+                digests[i] = elements.get(i).digest;
+            }
+
+            Arrays.sort(digests, Arrays::compareUnsigned);
+
+            count(digests.length);
+
+            for (final byte[] digest : digests) {
+                md.update(digest);
+            }
+        }
+
+        void strings(final List<String> strings) {
+
+            count(strings.size());
+
+            for (final String string : strings) {
+                string(string);
+            }
+        }
+
+        void uri(final Optional<URI> uri) {
+            uri(uri.orElse(null));
+        }
+
+        void uri(final URI uri) {
+            string(uri != null ? uri.toString() : null);
+        }
+
+        void string(final Optional<String> string) {
+            string(string.orElse(null));
+        }
+
+        void string(final String string) {
+
+            if (string == null) {
+                md.update((byte) 0);
+                return;
+            }
+
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+
+            md.update((byte) 1);
+            count(bytes.length);
+            md.update(bytes);
+        }
+
+        void count(final int count) {
+            md.update((byte) (count >>> 24));
+            md.update((byte) (count >>> 16));
+            md.update((byte) (count >>> 8));
+            md.update((byte) count);
+        }
+    }
+
+    private static final class Canonical<T> implements Comparable<Canonical<T>> {
+
+        final T element;
+        final byte[] digest;
+
+        Canonical(final T element, final byte[] digest) {
+            this.element = element;
+            this.digest = digest;
+        }
+
+        @Override
+        public int compareTo(final Canonical<T> other) {
+            return Arrays.compareUnsigned(digest, other.digest);
+        }
+    }
+
+    private static final class Frame {
+
+        final Descriptor descriptor;
+        final Iterator<Descriptor> iterator;
+        final List<Canonical<Descriptor>> descriptors;
+
+        Frame(final Descriptor descriptor, final Set<Descriptor> descriptors) {
+            this.descriptor = descriptor;
+            this.iterator = descriptors.iterator();
+            this.descriptors = new ArrayList<>(descriptors.size());
+        }
+    }
+}
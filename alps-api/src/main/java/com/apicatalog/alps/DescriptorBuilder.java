@@ -29,6 +29,19 @@ public interface DescriptorBuilder {
 
     DescriptorBuilder add(LinkBuilder link);
 
+    DescriptorBuilder remove(Descriptor descriptor);
+
+    /**
+     * Replaces a nested descriptor keeping its position. The descriptors are
+     * copied to keep the order, the cost is proportional to their number.
+     *
+     * @param descriptor a descriptor to replace
+     * @param replacement a new descriptor
+     * @return the builder
+     * @throws IllegalArgumentException if the descriptor is not present
+     */
+    DescriptorBuilder replace(Descriptor descriptor, Descriptor replacement);
+
 
     DescriptorBuilder id(URI id);
     DescriptorBuilder type(DescriptorType type);
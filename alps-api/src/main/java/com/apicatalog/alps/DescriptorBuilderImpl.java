@@ -1,9 +1,15 @@
 package com.apicatalog.alps;
 
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
@@ -15,19 +21,100 @@ import com.apicatalog.alps.dom.element.Link;
 
 final class DescriptorBuilderImpl implements DescriptorBuilder {
 
-    private final DescriptorImpl descriptor;
+    private URI id;
+
+    private URI href;
+
+    private URI definition;
+
+    private String name;
+
+    private DescriptorType type;
+
+    private URI returnType;
+
+    private String title;
+
+    private List<String> tag;
+
+    private Set<Documentation> documentation;
+
+    private Set<Descriptor> descriptors;
+
+    private Set<Link> links;
+
+    private Set<Extension> extensions;
+
+    /**
+     * sets shared with built elements, a shared set is a read-only view created
+     * by a builder and is copied on a change, other sets are owned by the builder
+     */
+    private int shared;
+
+    static final int DESCRIPTORS = 1;
+    static final int DOCUMENTATION = 2;
+    static final int LINKS = 4;
+    static final int EXTENSIONS = 8;
+    static final int ALL = DESCRIPTORS | DOCUMENTATION | LINKS | EXTENSIONS;
 
     public DescriptorBuilderImpl() {
-        this.descriptor = new DescriptorImpl();
+        this.descriptors = new LinkedHashSet<>();
+        this.documentation = new LinkedHashSet<>();
+        this.links = new LinkedHashSet<>();
+        this.extensions = new LinkedHashSet<>();
+        this.shared = 0;
+    }
 
-        this.descriptor.descriptors = new LinkedHashSet<>();
-        this.descriptor.documentation = new LinkedHashSet<>();
-        this.descriptor.links = new LinkedHashSet<>();
-        this.descriptor.extensions = new LinkedHashSet<>();
+    /**
+     * Creates a builder initialized by the given descriptor. Sets of a descriptor
+     * built by a builder are shared until changed, sets of other descriptor
+     * implementations are copied.
+     */
+    public DescriptorBuilderImpl(Descriptor descriptor) {
+        this.id = descriptor.id().orElse(null);
+        this.href = descriptor.href().orElse(null);
+        this.definition = descriptor.definition().orElse(null);
+        this.name = descriptor.name().orElse(null);
+        this.type = descriptor.type();
+        this.returnType = descriptor.returnType().orElse(null);
+        this.title = descriptor.title().orElse(null);
+        this.tag = descriptor.tag();
+
+        if (descriptor instanceof DescriptorImpl) {
+            final DescriptorImpl built = (DescriptorImpl)descriptor;
+
+            this.descriptors = built.descriptors;
+            this.documentation = built.documentation;
+            this.links = built.links;
+            this.extensions = built.extensions;
+            this.shared = ALL;
+
+        } else {
+            this.descriptors = new LinkedHashSet<>(descriptor.descriptors());
+            this.documentation = new LinkedHashSet<>(descriptor.documentation());
+            this.links = new LinkedHashSet<>(descriptor.links());
+            this.extensions = new LinkedHashSet<>(descriptor.extensions());
+            this.shared = 0;
+        }
     }
 
     public final DescriptorBuilder add(Descriptor descriptor) {
-        this.descriptor.descriptors.add(descriptor);
+        unshare(DESCRIPTORS);
+        this.descriptors.add(descriptor);
+        return this;
+    }
+
+    @Override
+    public final DescriptorBuilder remove(Descriptor descriptor) {
+        unshare(DESCRIPTORS);
+        this.descriptors.remove(descriptor);
+        return this;
+    }
+
+    @Override
+    public final DescriptorBuilder replace(Descriptor descriptor, Descriptor replacement) {
+        this.descriptors = replace(descriptors, descriptor, replacement);
+        this.shared &= ~DESCRIPTORS;
         return this;
     }
 
@@ -36,57 +123,81 @@ final class DescriptorBuilderImpl implements DescriptorBuilder {
     }
 
     public final DescriptorBuilder add(Link link) {
-        this.descriptor.links.add(link);
+        unshare(LINKS);
+        this.links.add(link);
         return this;
     }
 
     public final DescriptorBuilder add(Extension extension) {
-        this.descriptor.extensions.add(extension);
+        unshare(EXTENSIONS);
+        this.extensions.add(extension);
         return this;
     }
 
     public final DescriptorBuilder add(Documentation documentation) {
-        this.descriptor.documentation.add(documentation);
+        unshare(DOCUMENTATION);
+        this.documentation.add(documentation);
         return this;
     }
 
     public final DescriptorBuilder id(URI id) {
-        descriptor.id = id;
+        this.id = id;
         return this;
     }
 
     public final DescriptorBuilder title(String title) {
-        descriptor.title = title;
+        this.title = title;
         return this;
     }
 
     public final DescriptorBuilder name(String name) {
-        descriptor.name = name;
+        this.name = name;
         return this;
     }
 
     public final DescriptorBuilder href(URI href) {
-        descriptor.href = href;
+        this.href = href;
         return this;
     }
 
     public final DescriptorBuilder definition(URI definition) {
-        descriptor.definition = definition;
+        this.definition = definition;
         return this;
     }
 
     public final DescriptorBuilder returnType(URI returnType) {
-        descriptor.returnType = returnType;
+        this.returnType = returnType;
         return this;
     }
 
     public final DescriptorBuilder tag(List<String> tag) {
-        descriptor.tag = tag;
+        this.tag = tag;
         return this;
     }
 
     public final Descriptor build() {
-        return descriptor;
+
+        documentation = share(documentation, shared, DOCUMENTATION);
+        descriptors = share(descriptors, shared, DESCRIPTORS);
+        links = share(links, shared, LINKS);
+        extensions = share(extensions, shared, EXTENSIONS);
+
+        shared = ALL;
+
+        return new DescriptorImpl(
+                    id,
+                    href,
+                    definition,
+                    name,
+                    type,
+                    returnType,
+                    title,
+                    tag,
+                    documentation,
+                    descriptors,
+                    links,
+                    extensions
+                    );
     }
 
     @Override
@@ -111,35 +222,258 @@ final class DescriptorBuilderImpl implements DescriptorBuilder {
 
     @Override
     public DescriptorBuilder type(DescriptorType type) {
-        descriptor.type = type;
+        this.type = type;
         return this;
     }
 
+    private final void unshare(final int set) {
+
+        if ((shared & set) == 0) {
+            return;
+        }
+
+        if (set == DESCRIPTORS) {
+            descriptors = new LinkedHashSet<>(descriptors);
+
+        } else if (set == DOCUMENTATION) {
+            documentation = new LinkedHashSet<>(documentation);
+
+        } else if (set == LINKS) {
+            links = new LinkedHashSet<>(links);
+
+        } else if (set == EXTENSIONS) {
+            extensions = new LinkedHashSet<>(extensions);
+        }
+
+        shared &= ~set;
+    }
+
+    /**
+     * Returns a read-only view of the set to be shared with a built element.
+     * A set already shared is a view created by a builder and is not wrapped again.
+     */
+    static final <T> Set<T> share(final Set<T> set, final int shared, final int flag) {
+
+        if ((shared & flag) != 0) {
+            return set;
+        }
+
+        return set.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * Returns a copy of the set with the element replaced at its position. An
+     * insertion ordered set cannot replace an element in place, the cost is
+     * proportional to the size of the set.
+     */
+    static final <T> Set<T> replace(final Set<T> set, final T element, final T replacement) {
+
+        if (element == null || replacement == null) {
+            throw new IllegalArgumentException("The replaced and the replacement elements must not be null.");
+        }
+
+        final Set<T> copy = new LinkedHashSet<>(Math.max(16, (int)(set.size() / .75f) + 1));
+
+        boolean found = false;
+
+        for (final T item : set) {
+            if (!found && item.equals(element)) {
+                copy.add(replacement);
+                found = true;
+
+            } else {
+                copy.add(item);
+            }
+        }
+
+        if (!found) {
+            throw new IllegalArgumentException("The replaced element is not present.");
+        }
+
+        return copy;
+    }
+
+    /**
+     * Compares nested descriptors without recursion, a nesting depth is
+     * limited only by the available memory.
+     *
+     * @param descriptors descriptors to compare
+     * @param others descriptors to compare with
+     * @return <code>true</code> if both sets contain equal descriptors
+     */
+    static final boolean equals(final Set<Descriptor> descriptors, final Set<Descriptor> others) {
+
+        final Deque<DescriptorImpl> pending = new ArrayDeque<>();
+
+        return match(descriptors, others, pending) && compare(pending);
+    }
+
+    static final boolean equals(final DescriptorImpl descriptor, final DescriptorImpl other) {
+
+        final Deque<DescriptorImpl> pending = new ArrayDeque<>();
+
+        pending.push(other);
+        pending.push(descriptor);
+
+        return compare(pending);
+    }
+
+    // compares pending pairs, nested pairs are pushed on the stack
+    private static final boolean compare(final Deque<DescriptorImpl> pending) {
+
+        while (!pending.isEmpty()) {
+
+            final DescriptorImpl descriptor = pending.pop();
+            final DescriptorImpl other = pending.pop();
+
+            if (descriptor != other
+                    && (!descriptor.equalsProperties(other)
+                            || !match(descriptor.descriptors, other.descriptors, pending))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Pairs descriptors with candidates of the same hash code and equal
+     * properties, the pairs are pushed for a comparison of nested descriptors.
+     * Elements of a set are never equal, so each descriptor must have its own
+     * equal candidate.
+     */
+    private static final boolean match(final Set<Descriptor> descriptors, final Set<Descriptor> others, final Deque<DescriptorImpl> pending) {
+
+        if (descriptors == others) {
+            return true;
+        }
+
+        if (descriptors.size() != others.size()) {
+            return false;
+        }
+
+        if (descriptors.isEmpty()) {
+            return true;
+        }
+
+        final Map<Integer, List<Descriptor>> index = new HashMap<>(Math.max(16, (int)(others.size() / .75f) + 1));
+
+        for (final Descriptor other : others) {
+            index.computeIfAbsent(other.hashCode(), h -> new ArrayList<>(1)).add(other);
+        }
+
+        for (final Descriptor descriptor : descriptors) {
+
+            final List<Descriptor> candidates = index.get(descriptor.hashCode());
+
+            if (candidates == null) {
+                return false;
+            }
+
+            final Descriptor candidate = candidate(descriptor, candidates);
+
+            if (candidate == null) {
+                return false;
+            }
+
+            if (candidate != descriptor) {
+                pending.push((DescriptorImpl) candidate);
+                pending.push((DescriptorImpl) descriptor);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns a candidate to compare nested descriptors with, the given
+     * descriptor if an equal candidate has been found, or <code>null</code>.
+     */
+    private static final Descriptor candidate(final Descriptor descriptor, final List<Descriptor> candidates) {
+
+        if (!(descriptor instanceof DescriptorImpl)) {
+            return candidates.stream().anyMatch(descriptor::equals) ? descriptor : null;
+        }
+
+        DescriptorImpl found = null;
+
+        for (final Descriptor candidate : candidates) {
+
+            if (candidate == descriptor) {
+                return descriptor;
+            }
+
+            if (!(candidate instanceof DescriptorImpl) || !((DescriptorImpl) descriptor).equalsProperties((DescriptorImpl) candidate)) {
+                continue;
+            }
+
+            if (found == null) {
+                found = (DescriptorImpl) candidate;
+                continue;
+            }
+
+            // hash collisions are resolved by comparing the candidates one by one
+            for (final Descriptor collision : candidates) {
+                if (collision instanceof DescriptorImpl && equals((DescriptorImpl) descriptor, (DescriptorImpl) collision)) {
+                    return descriptor;
+                }
+            }
+            return null;
+        }
+
+        return found;
+    }
+
+    /**
+     * An immutable descriptor. Descriptors are equal if all their properties
+     * and nested elements are equal, nested descriptors are compared without
+     * recursion. A hash code is computed once from the hash codes of nested
+     * elements.
+     */
     static final class DescriptorImpl implements Descriptor {
 
-        URI id;
+        final URI id;
 
-        URI href;
+        final URI href;
 
-        URI definition;
+        final URI definition;
 
-        String name;
+        final String name;
 
-        DescriptorType type;
+        final DescriptorType type;
 
-        URI returnType;
+        final URI returnType;
 
-        String title;
+        final String title;
 
-        List<String> tag;
+        final List<String> tag;
 
-        Set<Documentation> documentation;
+        final Set<Documentation> documentation;
 
-        Set<Descriptor> descriptors;
+        final Set<Descriptor> descriptors;
 
-        Set<Link> links;
+        final Set<Link> links;
 
-        Set<Extension> extensions;
+        final Set<Extension> extensions;
+
+        final int hashCode;
+
+        DescriptorImpl(URI id, URI href, URI definition, String name, DescriptorType type, URI returnType, String title, List<String> tag,
+                Set<Documentation> documentation, Set<Descriptor> descriptors, Set<Link> links, Set<Extension> extensions) {
+            this.id = id;
+            this.href = href;
+            this.definition = definition;
+            this.name = name;
+            this.type = type;
+            this.returnType = returnType;
+            this.title = title;
+            this.tag = tag != null ? tag : Collections.emptyList();
+            this.documentation = documentation;
+            this.descriptors = descriptors;
+            this.links = links;
+            this.extensions = extensions;
+            this.hashCode = Objects.hash(id, href, definition, name, type, returnType, title, this.tag, documentation, descriptors, links, extensions);
+        }
 
         @Override
         public Optional<URI> id() {
@@ -198,7 +532,42 @@ final class DescriptorBuilderImpl implements DescriptorBuilder {
 
         @Override
         public List<String> tag() {
-            return tag != null ? tag : Collections.emptyList();
+            return tag;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof DescriptorImpl)) {
+                return false;
+            }
+
+            return DescriptorBuilderImpl.equals(this, (DescriptorImpl) obj);
+        }
+
+        // compares all but nested descriptors
+        boolean equalsProperties(final DescriptorImpl other) {
+            return hashCode == other.hashCode
+                    && type == other.type
+                    && Objects.equals(id, other.id)
+                    && Objects.equals(href, other.href)
+                    && Objects.equals(definition, other.definition)
+                    && Objects.equals(name, other.name)
+                    && Objects.equals(returnType, other.returnType)
+                    && Objects.equals(title, other.title)
+                    && tag.equals(other.tag)
+                    && documentation.equals(other.documentation)
+                    && links.equals(other.links)
+                    && extensions.equals(other.extensions);
         }
     }
 }
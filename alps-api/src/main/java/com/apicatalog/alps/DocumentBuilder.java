@@ -1,6 +1,7 @@
 package com.apicatalog.alps;
 
 import java.net.URI;
+import java.util.List;
 
 import com.apicatalog.alps.dom.Document;
 import com.apicatalog.alps.dom.element.Descriptor;
@@ -27,6 +28,30 @@ public interface DocumentBuilder {
 
     DocumentBuilder add(LinkBuilder link);
 
+    DocumentBuilder remove(Descriptor descriptor);
+
+    /**
+     * Replaces a top level descriptor keeping its position. The descriptors are
+     * copied to keep the order, the cost is proportional to their number.
+     *
+     * @param descriptor a descriptor to replace
+     * @param replacement a new descriptor
+     * @return the builder
+     * @throws IllegalArgumentException if the descriptor is not present
+     */
+    DocumentBuilder replace(Descriptor descriptor, Descriptor replacement);
+
+    /**
+     * Replaces a nested descriptor, only the descriptors on the path are
+     * re-built. The cost is proportional to the number of siblings along the path.
+     *
+     * @param path descriptors from a top level descriptor to the replaced one
+     * @param replacement a new descriptor
+     * @return the builder
+     * @throws IllegalArgumentException if the path is empty or broken
+     */
+    DocumentBuilder replace(List<Descriptor> path, Descriptor replacement);
+
     DocumentBuilder base(URI baseUri);
     
     DocumentBuilder title(String title);
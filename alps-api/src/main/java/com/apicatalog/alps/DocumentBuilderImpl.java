@@ -2,6 +2,8 @@ package com.apicatalog.alps;
 
 import java.net.URI;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -15,32 +17,133 @@ import com.apicatalog.alps.dom.element.Link;
 
 final class DocumentBuilderImpl implements DocumentBuilder {
 
-    final DocumentImpl document;
+    private final DocumentVersion version;
+
+    private URI baseUri;
+
+    private String title;
+
+    private Set<Documentation> documentation;
+
+    private Set<Link> links;
+
+    private Set<Extension> extensions;
+
+    private Set<Descriptor> descriptors;
+
+    /**
+     * sets shared with built elements, a shared set is a read-only view created
+     * by a builder and is copied on a change, other sets are owned by the builder
+     */
+    private int shared;
 
     public DocumentBuilderImpl(DocumentVersion version) {
-        this.document = new DocumentImpl(version);
+        this.version = version;
+
+        this.documentation = new LinkedHashSet<>();
+        this.links = new LinkedHashSet<>();
+        this.descriptors = new LinkedHashSet<>();
+        this.extensions = new LinkedHashSet<>();
+        this.shared = 0;
+    }
 
-        this.document.documentation = new LinkedHashSet<>();
-        this.document.links = new LinkedHashSet<>();
-        this.document.descriptors = new LinkedHashSet<>();
-        this.document.extensions = new LinkedHashSet<>();
+    /**
+     * Creates a builder initialized by the given document. Sets of a document
+     * built by a builder are shared until changed, sets of other document
+     * implementations are copied.
+     */
+    public DocumentBuilderImpl(Document document) {
+        this.version = document.version();
+        this.baseUri = document.baseUri();
+        this.title = document.title().orElse(null);
+
+        if (document instanceof DocumentImpl) {
+            final DocumentImpl built = (DocumentImpl)document;
+
+            this.documentation = built.documentation;
+            this.links = built.links;
+            this.descriptors = built.descriptors;
+            this.extensions = built.extensions;
+            this.shared = DescriptorBuilderImpl.ALL;
+
+        } else {
+            this.documentation = new LinkedHashSet<>(document.documentation());
+            this.links = new LinkedHashSet<>(document.links());
+            this.descriptors = new LinkedHashSet<>(document.descriptors());
+            this.extensions = new LinkedHashSet<>(document.extensions());
+            this.shared = 0;
+        }
     }
 
     public Document build() {
-        return document;
+
+        documentation = DescriptorBuilderImpl.share(documentation, shared, DescriptorBuilderImpl.DOCUMENTATION);
+        links = DescriptorBuilderImpl.share(links, shared, DescriptorBuilderImpl.LINKS);
+        extensions = DescriptorBuilderImpl.share(extensions, shared, DescriptorBuilderImpl.EXTENSIONS);
+        descriptors = DescriptorBuilderImpl.share(descriptors, shared, DescriptorBuilderImpl.DESCRIPTORS);
+
+        shared = DescriptorBuilderImpl.ALL;
+
+        return new DocumentImpl(
+                    version,
+                    baseUri,
+                    title,
+                    documentation,
+                    links,
+                    extensions,
+                    descriptors
+                    );
     }
 
     public DocumentBuilderImpl add(Descriptor descriptor) {
-        document.descriptors.add(descriptor);
+        unshare(DescriptorBuilderImpl.DESCRIPTORS);
+        descriptors.add(descriptor);
         return this;
     }
 
+    @Override
+    public DocumentBuilder remove(Descriptor descriptor) {
+        unshare(DescriptorBuilderImpl.DESCRIPTORS);
+        descriptors.remove(descriptor);
+        return this;
+    }
+
+    @Override
+    public DocumentBuilder replace(Descriptor descriptor, Descriptor replacement) {
+        descriptors = DescriptorBuilderImpl.replace(descriptors, descriptor, replacement);
+        shared &= ~DescriptorBuilderImpl.DESCRIPTORS;
+        return this;
+    }
+
+    /**
+     * Replaces the last descriptor of the path. Only the descriptors on the
+     * path are re-built, all other elements are shared. The nested descriptors
+     * of each descriptor on the path are copied to keep their order, the cost
+     * is proportional to the number of siblings along the path.
+     */
+    @Override
+    public DocumentBuilder replace(List<Descriptor> path, Descriptor replacement) {
+
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("The path must contain at least one descriptor.");
+        }
+
+        Descriptor current = replacement;
+
+        for (int i = path.size() - 1; i > 0; i--) {
+            current = new DescriptorBuilderImpl(path.get(i - 1)).replace(path.get(i), current).build();
+        }
+
+        return replace(path.get(0), current);
+    }
+
     public DocumentBuilderImpl add(DescriptorBuilder descriptor) {
         return add(descriptor.build());
     }
 
     public DocumentBuilderImpl add(Documentation documentation) {
-        document.documentation.add(documentation);
+        unshare(DescriptorBuilderImpl.DOCUMENTATION);
+        this.documentation.add(documentation);
         return this;
     }
 
@@ -49,7 +152,8 @@ final class DocumentBuilderImpl implements DocumentBuilder {
     }
 
     public DocumentBuilderImpl add(Extension extension) {
-        document.extensions.add(extension);
+        unshare(DescriptorBuilderImpl.EXTENSIONS);
+        extensions.add(extension);
         return this;
     }
 
@@ -59,7 +163,8 @@ final class DocumentBuilderImpl implements DocumentBuilder {
     }
 
     public DocumentBuilderImpl add(Link link) {
-        document.links.add(link);
+        unshare(DescriptorBuilderImpl.LINKS);
+        links.add(link);
         return this;
     }
 
@@ -70,34 +175,69 @@ final class DocumentBuilderImpl implements DocumentBuilder {
 
     @Override
     public DocumentBuilder base(URI baseUri) {
-        document.baseUri = baseUri;
+        this.baseUri = baseUri;
         return this;
     }
 
     @Override
     public DocumentBuilder title(String title) {
-        document.title = title;
+        this.title = title;
         return this;
     }
 
+    private final void unshare(final int set) {
+
+        if ((shared & set) == 0) {
+            return;
+        }
+
+        if (set == DescriptorBuilderImpl.DESCRIPTORS) {
+            descriptors = new LinkedHashSet<>(descriptors);
+
+        } else if (set == DescriptorBuilderImpl.DOCUMENTATION) {
+            documentation = new LinkedHashSet<>(documentation);
+
+        } else if (set == DescriptorBuilderImpl.LINKS) {
+            links = new LinkedHashSet<>(links);
+
+        } else if (set == DescriptorBuilderImpl.EXTENSIONS) {
+            extensions = new LinkedHashSet<>(extensions);
+        }
+
+        shared &= ~set;
+    }
+
+    /**
+     * An immutable document. Documents are equal if their versions, base URIs,
+     * titles and all elements are equal.
+     */
     static final class DocumentImpl implements Document {
 
-        protected DocumentVersion version;
+        final DocumentVersion version;
 
-        protected URI baseUri;
+        final URI baseUri;
         
-        protected String title;
+        final String title;
+
+        final Set<Documentation> documentation;
 
-        protected Set<Documentation> documentation;
+        final Set<Link> links;
 
-        protected Set<Link> links;
+        final Set<Extension> extensions;
 
-        protected Set<Extension> extensions;
+        final Set<Descriptor> descriptors;
 
-        protected Set<Descriptor> descriptors;
+        final int hashCode;
 
-        public DocumentImpl(DocumentVersion version) {
+        DocumentImpl(DocumentVersion version, URI baseUri, String title, Set<Documentation> documentation, Set<Link> links, Set<Extension> extensions, Set<Descriptor> descriptors) {
             this.version = version;
+            this.baseUri = baseUri;
+            this.title = title;
+            this.documentation = documentation;
+            this.links = links;
+            this.extensions = extensions;
+            this.descriptors = descriptors;
+            this.hashCode = Objects.hash(version, baseUri, title, documentation, links, extensions, descriptors);
         }
 
         @Override
@@ -147,5 +287,33 @@ final class DocumentBuilderImpl implements DocumentBuilder {
                         .filter(d -> d.name().isPresent() && name.equals(d.name().get()))
                         .collect(Collectors.toSet());
         }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof DocumentImpl)) {
+                return false;
+            }
+
+            final DocumentImpl other = (DocumentImpl) obj;
+
+            return hashCode == other.hashCode
+                    && version == other.version
+                    && Objects.equals(baseUri, other.baseUri)
+                    && Objects.equals(title, other.title)
+                    && documentation.equals(other.documentation)
+                    && links.equals(other.links)
+                    && extensions.equals(other.extensions)
+                    && DescriptorBuilderImpl.equals(descriptors, other.descriptors);
+        }
     }
 }
@@ -0,0 +1,398 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import com.apicatalog.alps.DescriptorBuilderImpl.DescriptorImpl;
+import com.apicatalog.alps.DocumentBuilderImpl.DocumentImpl;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.dom.element.Documentation;
+import com.apicatalog.alps.dom.element.Extension;
+import com.apicatalog.alps.dom.element.Link;
+
+/**
+ * Changes between two versions of a document.
+ * <p>
+ * Descriptors are matched by their ids, descriptors without an id by their
+ * names and the others by their position. Built descriptors with different
+ * hash codes are known to differ, equal descriptors are skipped without
+ * visiting their nested descriptors. Documentation, links and extensions
+ * have no identity, an element not present in the other version is reported
+ * as removed or added. A change of the document version, base URI or title is
+ * reported as a changed document.
+ * </p>
+ */
+public final class DocumentDiff {
+
+    public enum Element {
+        DOCUMENT,
+        DESCRIPTOR,
+        DOCUMENTATION,
+        LINK,
+        EXTENSION,
+    }
+
+    public enum ChangeType {
+        ADDED,
+        REMOVED,
+        CHANGED,
+    }
+
+    private final List<Change> changes;
+
+    private DocumentDiff(final List<Change> changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * Compares the documents.
+     *
+     * @param source an original document
+     * @param target a changed document
+     * @return changes turning the source into the target
+     */
+    public static final DocumentDiff of(final Document source, final Document target) {
+
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("The documents must not be null.");
+        }
+
+        final List<Change> changes = new ArrayList<>();
+
+        if (source == target || (source instanceof DocumentImpl && source.equals(target))) {
+            return new DocumentDiff(changes);
+        }
+
+        if (source.version() != target.version()
+                || !Objects.equals(source.baseUri(), target.baseUri())
+                || !Objects.equals(source.title(), target.title())) {
+            changes.add(new Change(ChangeType.CHANGED, Element.DOCUMENT, "", source, target));
+        }
+
+        elements(changes, "", source.documentation(), target.documentation(), Element.DOCUMENTATION, DocumentDiff::key);
+        elements(changes, "", source.links(), target.links(), Element.LINK, DocumentDiff::key);
+        elements(changes, "", source.extensions(), target.extensions(), Element.EXTENSION, DocumentDiff::key);
+
+        // nested descriptors are compared without recursion
+        final Deque<Pair> pending = new ArrayDeque<>();
+
+        match(changes, pending, "", source.descriptors(), target.descriptors());
+
+        while (!pending.isEmpty()) {
+
+            final Pair pair = pending.pop();
+
+            if (!isSame(pair.source, pair.target)) {
+                changes.add(new Change(ChangeType.CHANGED, Element.DESCRIPTOR, pair.path, pair.source, pair.target));
+            }
+
+            elements(changes, pair.path, pair.source.documentation(), pair.target.documentation(), Element.DOCUMENTATION, DocumentDiff::key);
+            elements(changes, pair.path, pair.source.links(), pair.target.links(), Element.LINK, DocumentDiff::key);
+            elements(changes, pair.path, pair.source.extensions(), pair.target.extensions(), Element.EXTENSION, DocumentDiff::key);
+
+            match(changes, pending, pair.path, pair.source.descriptors(), pair.target.descriptors());
+        }
+
+        return new DocumentDiff(changes);
+    }
+
+    /**
+     * Returns changes in the order of the compared elements, changes nested in
+     * a descriptor follow the changes of the descriptor.
+     *
+     * @return a list of changes, never <code>null</code>
+     */
+    public List<Change> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Matches nested descriptors, unchanged pairs are skipped.
+     */
+    private static final void match(final List<Change> changes, final Deque<Pair> pending, final String path, final Collection<Descriptor> source, final Collection<Descriptor> target) {
+
+        if (source.isEmpty() && target.isEmpty()) {
+            return;
+        }
+
+        final Map<URI, Descriptor> ids = new HashMap<>();
+        final Map<String, Deque<Descriptor>> names = new HashMap<>();
+        final Deque<Descriptor> anonymous = new ArrayDeque<>();
+
+        for (final Descriptor descriptor : target) {
+            if (descriptor.id().isPresent()) {
+                ids.putIfAbsent(descriptor.id().get(), descriptor);
+
+            } else if (descriptor.name().isPresent()) {
+                names.computeIfAbsent(descriptor.name().get(), n -> new ArrayDeque<>()).add(descriptor);
+
+            } else {
+                anonymous.add(descriptor);
+            }
+        }
+
+        final List<Pair> pairs = new ArrayList<>();
+        final Map<Descriptor, Boolean> matched = new IdentityHashMap<>();
+
+        int position = 0;
+
+        for (final Descriptor descriptor : source) {
+
+            final Descriptor match;
+            final String key;
+
+            if (descriptor.id().isPresent()) {
+                match = ids.remove(descriptor.id().get());
+                key = descriptor.id().get().toString();
+
+            } else if (descriptor.name().isPresent()) {
+                final Deque<Descriptor> candidates = names.get(descriptor.name().get());
+                match = candidates != null ? candidates.poll() : null;
+                key = descriptor.name().get();
+
+            } else {
+                match = anonymous.poll();
+                key = "[" + position + "]";
+            }
+
+            position++;
+
+            if (match == null) {
+                changes.add(new Change(ChangeType.REMOVED, Element.DESCRIPTOR, path + "/" + key, descriptor, null));
+                continue;
+            }
+
+            matched.put(match, Boolean.TRUE);
+
+            if (!isEqual(descriptor, match)) {
+                pairs.add(new Pair(path + "/" + key, descriptor, match));
+            }
+        }
+
+        position = 0;
+
+        for (final Descriptor descriptor : target) {
+
+            if (!matched.containsKey(descriptor)) {
+                changes.add(new Change(ChangeType.ADDED, Element.DESCRIPTOR, path + "/" + key(descriptor, position), null, descriptor));
+            }
+            position++;
+        }
+
+        // keep the document order on the stack
+        for (int i = pairs.size() - 1; i >= 0; i--) {
+            pending.push(pairs.get(i));
+        }
+    }
+
+    /**
+     * Matches elements without identity by keys of their properties, the target
+     * elements are indexed so each element is looked up once.
+     */
+    private static final <T> void elements(final List<Change> changes, final String path, final Collection<T> source, final Collection<T> target, final Element element, final Function<T, List<Object>> key) {
+
+        if (source.isEmpty() && target.isEmpty()) {
+            return;
+        }
+
+        final Map<List<Object>, Deque<T>> remaining = new HashMap<>();
+
+        for (final T item : target) {
+            remaining.computeIfAbsent(key.apply(item), k -> new ArrayDeque<>()).add(item);
+        }
+
+        final Map<T, Boolean> matched = new IdentityHashMap<>();
+
+        for (final T item : source) {
+
+            final Deque<T> candidates = remaining.get(key.apply(item));
+
+            final T match = candidates != null ? candidates.poll() : null;
+
+            if (match == null) {
+                changes.add(new Change(ChangeType.REMOVED, element, path, item, null));
+                continue;
+            }
+
+            matched.put(match, Boolean.TRUE);
+        }
+
+        for (final T item : target) {
+            if (!matched.containsKey(item)) {
+                changes.add(new Change(ChangeType.ADDED, element, path, null, item));
+            }
+        }
+    }
+
+    private static final String key(final Descriptor descriptor, final int position) {
+
+        if (descriptor.id().isPresent()) {
+            return descriptor.id().get().toString();
+        }
+
+        if (descriptor.name().isPresent()) {
+            return descriptor.name().get();
+        }
+
+        return "[" + position + "]";
+    }
+
+    /**
+     * Checks whether the descriptors and their nested elements are equal. Built
+     * descriptors are compared by their cached hash codes first.
+     */
+    private static final boolean isEqual(final Descriptor source, final Descriptor target) {
+
+        if (source == target) {
+            return true;
+        }
+
+        if (source instanceof DescriptorImpl && target instanceof DescriptorImpl) {
+            return source.hashCode() == target.hashCode() && source.equals(target);
+        }
+
+        return false;
+    }
+
+    /**
+     * Compares descriptor properties, nested elements are not compared.
+     */
+    private static final boolean isSame(final Descriptor source, final Descriptor target) {
+        return source.type() == target.type()
+                && source.id().equals(target.id())
+                && source.href().equals(target.href())
+                && source.definition().equals(target.definition())
+                && source.name().equals(target.name())
+                && source.title().equals(target.title())
+                && source.returnType().equals(target.returnType())
+                && source.tag().equals(target.tag());
+    }
+
+    /**
+     * Returns compared properties, documentation with equal keys is the same.
+     */
+    private static final List<Object> key(final Documentation documentation) {
+        return Arrays.asList(
+                    documentation.href(),
+                    documentation.tag(),
+                    documentation.content().isPresent(),
+                    documentation.content().map(Documentation.Content::type).orElse(null),
+                    documentation.content().map(Documentation.Content::value).orElse(null)
+                    );
+    }
+
+    private static final List<Object> key(final Link link) {
+        return Arrays.asList(link.href(), link.rel(), link.title(), link.tag());
+    }
+
+    private static final List<Object> key(final Extension extension) {
+        return Arrays.asList(extension.id(), extension.href(), extension.value(), extension.tag(), extension.attributes());
+    }
+
+    /**
+     * A change of an element.
+     */
+    public static final class Change {
+
+        private final ChangeType type;
+        private final Element element;
+        private final String path;
+        private final Object source;
+        private final Object target;
+
+        Change(final ChangeType type, final Element element, final String path, final Object source, final Object target) {
+            this.type = type;
+            this.element = element;
+            this.path = path;
+            this.source = source;
+            this.target = target;
+        }
+
+        public ChangeType getType() {
+            return type;
+        }
+
+        public Element getElement() {
+            return element;
+        }
+
+        /**
+         * Returns a path of the changed descriptor or of a descriptor containing
+         * the changed element. A path is a sequence of descriptor ids, names or
+         * positions, e.g. <code>/contact/name</code>, an empty path denotes the
+         * document.
+         *
+         * @return a path, never <code>null</code>
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Returns the original element.
+         *
+         * @return the original element or <code>null</code> if the element has been added
+         */
+        public Object getSource() {
+            return source;
+        }
+
+        /**
+         * Returns the changed element.
+         *
+         * @return the changed element or <code>null</code> if the element has been removed
+         */
+        public Object getTarget() {
+            return target;
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + element + " [" + path + "]";
+        }
+    }
+
+    private static final class Pair {
+
+        final String path;
+        final Descriptor source;
+        final Descriptor target;
+
+        Pair(final String path, final Descriptor source, final Descriptor target) {
+            this.path = path;
+            this.source = source;
+            this.target = target;
+        }
+    }
+}
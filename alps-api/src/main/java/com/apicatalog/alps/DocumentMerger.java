@@ -0,0 +1,279 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.dom.element.Documentation;
+import com.apicatalog.alps.dom.element.Extension;
+import com.apicatalog.alps.dom.element.Link;
+import com.apicatalog.alps.error.DocumentError;
+import com.apicatalog.alps.error.InvalidDocumentException;
+
+/**
+ * Combines documents into one document.
+ * <p>
+ * Top level descriptors, documentation, links and extensions are added in
+ * the order of the documents, equal elements are added once. A top level
+ * descriptor is in conflict if it, or any of its nested descriptors, has an
+ * id already used by another top level descriptor. Conflicts are resolved by
+ * a {@link ConflictPolicy}, a descriptor equal to the one it is in conflict
+ * with is never reported. Ids are kept in a hash index, so merging is linear
+ * in the total number of descriptors.
+ * </p>
+ * <p>
+ * The merged document has the version of the first document, the base URI
+ * and the title of the first document declaring them unless set explicitly.
+ * </p>
+ */
+public final class DocumentMerger {
+
+    public enum ConflictPolicy {
+
+        /** a conflict fails with {@link DocumentError#DUPLICATED_ID} */
+        FAIL,
+
+        /** a conflicting descriptor is dropped, the first one is kept */
+        KEEP_FIRST,
+
+        /** a conflicting descriptor replaces the previous ones */
+        KEEP_LAST,
+    }
+
+    private ConflictPolicy policy;
+
+    private URI baseUri;
+
+    private String title;
+
+    public DocumentMerger() {
+        this.policy = ConflictPolicy.FAIL;
+    }
+
+    public DocumentMerger policy(final ConflictPolicy policy) {
+
+        if (policy == null) {
+            throw new IllegalArgumentException("The conflict policy must not be null.");
+        }
+
+        this.policy = policy;
+        return this;
+    }
+
+    public DocumentMerger base(final URI baseUri) {
+        this.baseUri = baseUri;
+        return this;
+    }
+
+    public DocumentMerger title(final String title) {
+        this.title = title;
+        return this;
+    }
+
+    /**
+     * Merges the documents.
+     *
+     * @param documents documents to merge, at least one
+     * @return a new document
+     * @throws InvalidDocumentException with {@link DocumentError#DUPLICATED_ID}
+     *          if a conflict is found and the policy is {@link ConflictPolicy#FAIL}
+     */
+    public Document merge(final Collection<? extends Document> documents) throws InvalidDocumentException {
+
+        if (documents == null || documents.isEmpty()) {
+            throw new IllegalArgumentException("At least one document is required.");
+        }
+
+        final Document first = documents.iterator().next();
+
+        final DocumentBuilder builder = Alps.createDocument(first.version());
+
+        URI mergedBase = baseUri;
+        String mergedTitle = title;
+
+        final List<Descriptor> descriptors = new ArrayList<>();
+
+        for (final Document document : documents) {
+
+            if (document == null) {
+                throw new IllegalArgumentException("The documents must not be null.");
+            }
+
+            if (mergedBase == null) {
+                mergedBase = document.baseUri();
+            }
+
+            if (mergedTitle == null) {
+                mergedTitle = document.title().orElse(null);
+            }
+
+            for (final Documentation documentation : document.documentation()) {
+                builder.add(documentation);
+            }
+            for (final Link link : document.links()) {
+                builder.add(link);
+            }
+            for (final Extension extension : document.extensions()) {
+                builder.add(extension);
+            }
+
+            descriptors.addAll(document.descriptors());
+        }
+
+        // the last descriptors win if they are visited first
+        if (ConflictPolicy.KEEP_LAST.equals(policy)) {
+            Collections.reverse(descriptors);
+        }
+
+        final List<Descriptor> merged = resolve(descriptors);
+
+        if (ConflictPolicy.KEEP_LAST.equals(policy)) {
+            Collections.reverse(merged);
+        }
+
+        for (final Descriptor descriptor : merged) {
+            builder.add(descriptor);
+        }
+
+        return builder.base(mergedBase).title(mergedTitle).build();
+    }
+
+    public Document merge(final Document... documents) throws InvalidDocumentException {
+
+        if (documents == null) {
+            throw new IllegalArgumentException("At least one document is required.");
+        }
+
+        final List<Document> list = new ArrayList<>(documents.length);
+        Collections.addAll(list, documents);
+
+        return merge(list);
+    }
+
+    /**
+     * Returns the top level descriptors which are not in conflict with the
+     * preceding ones.
+     */
+    private final List<Descriptor> resolve(final List<Descriptor> descriptors) throws InvalidDocumentException {
+
+        final List<Descriptor> merged = new ArrayList<>(descriptors.size());
+
+        // an id to the top level descriptor using it
+        final Map<String, Descriptor> owners = new HashMap<>();
+
+        final List<Path> ids = new ArrayList<>();
+
+        for (final Descriptor descriptor : descriptors) {
+
+            ids.clear();
+            collect(descriptor, ids);
+
+            Path conflict = null;
+            Descriptor owner = null;
+
+            for (final Path id : ids) {
+                owner = owners.get(id.id);
+                if (owner != null) {
+                    conflict = id;
+                    break;
+                }
+            }
+
+            if (conflict == null) {
+                for (final Path id : ids) {
+                    owners.put(id.id, descriptor);
+                }
+                merged.add(descriptor);
+                continue;
+            }
+
+            // the same descriptor contributed by more documents
+            if (owner.equals(descriptor)) {
+                continue;
+            }
+
+            if (ConflictPolicy.FAIL.equals(policy)) {
+                throw new InvalidDocumentException(DocumentError.DUPLICATED_ID, conflict.path, "Duplicated descriptor id '" + conflict.id + "'.");
+            }
+        }
+
+        return merged;
+    }
+
+    /**
+     * Collects ids of the descriptor and its nested descriptors without
+     * recursion.
+     */
+    private final void collect(final Descriptor descriptor, final List<Path> ids) throws InvalidDocumentException {
+
+        final Set<String> unique = new HashSet<>();
+
+        final Deque<Path> stack = new ArrayDeque<>();
+        stack.push(new Path(descriptor, ""));
+
+        while (!stack.isEmpty()) {
+
+            final Path path = stack.pop();
+
+            if (path.id != null) {
+                if (!unique.add(path.id)) {
+                    if (ConflictPolicy.FAIL.equals(policy)) {
+                        throw new InvalidDocumentException(DocumentError.DUPLICATED_ID, path.path, "Duplicated descriptor id '" + path.id + "'.");
+                    }
+                } else {
+                    ids.add(path);
+                }
+            }
+
+            int position = 0;
+
+            for (final Descriptor nested : path.descriptor.descriptors()) {
+                stack.push(new Path(nested, path.path, position++));
+            }
+        }
+    }
+
+    private static final class Path {
+
+        final Descriptor descriptor;
+        final String id;
+        final String path;
+
+        Path(final Descriptor descriptor, final String parent) {
+            this(descriptor, parent, 0);
+        }
+
+        Path(final Descriptor descriptor, final String parent, final int position) {
+            this.descriptor = descriptor;
+            this.id = descriptor.id().map(URI::toString).orElse(null);
+            this.path = parent + "/" + (id != null
+                                            ? id
+                                            : descriptor.name().orElseGet(() -> "[" + position + "]"));
+        }
+    }
+}
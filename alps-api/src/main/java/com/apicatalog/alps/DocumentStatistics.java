@@ -15,13 +15,17 @@
  */
 package com.apicatalog.alps;
 
-import java.util.Collection;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.DocumentVersion;
 import com.apicatalog.alps.dom.element.Descriptor;
 
 public final class DocumentStatistics {
 
+    private DocumentVersion version;
+
     private long descriptors;
     private long docs;
     private long links;
@@ -38,30 +42,55 @@ public final class DocumentStatistics {
 
         final DocumentStatistics stats = new DocumentStatistics();
 
-        stats.descriptors = document.descriptors().size();
+        stats.version = document.version();
         stats.docs = document.documentation().size();
         stats.links = document.links().size();
         stats.extensions = document.extensions().size();
 
-        add(stats, document.descriptors());
-
-        return stats;
-    }
-
-    static final void add(DocumentStatistics stats, Collection<Descriptor> descriptors) {
+        // nested descriptors are visited without recursion, the nesting depth is not limited
+        final Deque<Descriptor> pending = new ArrayDeque<>(document.descriptors());
 
-        stats.descriptors += descriptors.size();
+        while (!pending.isEmpty()) {
 
-        for (final Descriptor descriptor : descriptors) {
+            final Descriptor descriptor = pending.pop();
 
+            stats.descriptors++;
             stats.docs += descriptor.documentation().size();
             stats.links += descriptor.links().size();
             stats.extensions += descriptor.extensions().size();
 
-            if (!descriptor.descriptors().isEmpty()) {
-                add(stats, descriptor.descriptors());
-            }
+            pending.addAll(descriptor.descriptors());
         }
+
+        return stats;
+    }
+
+    /**
+     * Creates statistics counted by a parser validating a document without
+     * building it.
+     *
+     * @param version the document version
+     * @param descriptors the number of descriptors, nested descriptors included
+     * @param docs the number of documentation elements
+     * @param links the number of links
+     * @param extensions the number of extensions
+     * @return the document statistics
+     */
+    public static final DocumentStatistics of(DocumentVersion version, long descriptors, long docs, long links, long extensions) {
+
+        final DocumentStatistics stats = new DocumentStatistics();
+
+        stats.version = version;
+        stats.descriptors = descriptors;
+        stats.docs = docs;
+        stats.links = links;
+        stats.extensions = extensions;
+
+        return stats;
+    }
+
+    public DocumentVersion getVersion() {
+        return version;
     }
 
     public long getDescriptors() {
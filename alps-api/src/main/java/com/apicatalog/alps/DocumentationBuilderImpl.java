@@ -3,6 +3,7 @@ package com.apicatalog.alps;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import com.apicatalog.alps.dom.element.Documentation;
@@ -39,21 +40,23 @@ final class DocumentationBuilderImpl implements DocumentationBuilder {
 
     @Override
     public DocumentationBuilder type(String contentType) {
+        this.contentType = normalizeType(contentType);
+        return this;
+    }
+
+    static final String normalizeType(String contentType) {
 
         if ("html".equalsIgnoreCase(contentType)) {
-            this.contentType = "text/html";
+            return "text/html";
 
         } else  if ("markdown".equalsIgnoreCase(contentType)) {
-            this.contentType = "text/markdown";
+            return "text/markdown";
 
         } else if ("text".equalsIgnoreCase(contentType) || "asciidoc".equals(contentType)) {
-            this.contentType = "text/plain";
-
-        } else {
-            this.contentType = contentType;
+            return "text/plain";
         }
 
-        return this;
+        return contentType;
     }
 
     @Override
@@ -68,11 +71,17 @@ final class DocumentationBuilderImpl implements DocumentationBuilder {
         return this;
     }
 
+    /**
+     * An immutable documentation, equal to documentation with the same
+     * reference, content and tags.
+     */
     static final class DocumentationImpl implements Documentation {
 
         private final URI href;
         private final Content content;
-        private List<String> tag;
+        private final List<String> tag;
+
+        private final int hashCode;
 
         public DocumentationImpl(URI href) {
             this(href, null, null);
@@ -85,7 +94,8 @@ final class DocumentationBuilderImpl implements DocumentationBuilder {
         public DocumentationImpl(URI href, Content content, List<String> tag) {
             this.href = href;
             this.content = content;
-            this.tag = tag;
+            this.tag = tag != null ? tag : Collections.emptyList();
+            this.hashCode = Objects.hash(href, content, this.tag);
         }
 
         @Override
@@ -100,7 +110,31 @@ final class DocumentationBuilderImpl implements DocumentationBuilder {
 
         @Override
         public List<String> tag() {
-            return tag != null ? tag : Collections.emptyList();
+            return tag;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof DocumentationImpl)) {
+                return false;
+            }
+
+            final DocumentationImpl other = (DocumentationImpl) obj;
+
+            return hashCode == other.hashCode
+                    && Objects.equals(href, other.href)
+                    && Objects.equals(content, other.content)
+                    && tag.equals(other.tag);
         }
     }
 
@@ -123,5 +157,26 @@ final class DocumentationBuilderImpl implements DocumentationBuilder {
         public String value() {
             return value;
         }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, value);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof ContentImpl)) {
+                return false;
+            }
+
+            final ContentImpl other = (ContentImpl) obj;
+
+            return Objects.equals(type, other.type) && Objects.equals(value, other.value);
+        }
     }
 }
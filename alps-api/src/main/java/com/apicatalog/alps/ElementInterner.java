@@ -0,0 +1,239 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.dom.element.Documentation;
+import com.apicatalog.alps.dom.element.Extension;
+import com.apicatalog.alps.dom.element.Link;
+
+/**
+ * Shares equal elements. An interned element is replaced by the first equal
+ * element interned before, so equal descriptors, documentation, links and
+ * extensions of many documents are kept in memory once.
+ * <p>
+ * Elements are held until the interner is cleared. An interner is safe to
+ * use from many threads.
+ * </p>
+ */
+public final class ElementInterner {
+
+    private final Map<Object, Object> elements;
+
+    public ElementInterner() {
+        this.elements = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Interns all document elements, nested descriptors included.
+     *
+     * @param document a document to intern
+     * @return an equal document sharing interned elements
+     */
+    public Document intern(final Document document) {
+
+        final DocumentBuilderImpl builder = new DocumentBuilderImpl(document.version());
+
+        builder.base(document.baseUri()).title(document.title().orElse(null));
+
+        document.documentation().stream().map(this::intern).forEach(builder::add);
+        document.links().stream().map(this::intern).forEach(builder::add);
+        document.extensions().stream().map(this::intern).forEach(builder::add);
+
+        for (final Descriptor descriptor : document.descriptors()) {
+            builder.add(intern(descriptor));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Interns the descriptor and its nested elements. Nested descriptors are
+     * interned without recursion, a subtree equal to an interned descriptor is
+     * not visited.
+     *
+     * @param descriptor a descriptor to intern
+     * @return an equal interned descriptor
+     */
+    public Descriptor intern(final Descriptor descriptor) {
+
+        final Descriptor interned = get(descriptor);
+
+        if (interned != null) {
+            return interned;
+        }
+
+        final Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(descriptor));
+
+        Descriptor result = null;
+
+        while (true) {
+
+            final Frame frame = stack.peek();
+
+            if (result != null) {
+                frame.add(result);
+                result = null;
+            }
+
+            if (frame.iterator.hasNext()) {
+
+                final Descriptor next = frame.iterator.next();
+                final Descriptor nextInterned = get(next);
+
+                frame.current = next;
+
+                if (nextInterned != null) {
+                    frame.add(nextInterned);
+
+                } else {
+                    stack.push(new Frame(next));
+                }
+                continue;
+            }
+
+            stack.pop();
+
+            result = put(frame.build(this));
+
+            if (stack.isEmpty()) {
+                return result;
+            }
+        }
+    }
+
+    public Documentation intern(final Documentation documentation) {
+        return put(documentation);
+    }
+
+    public Link intern(final Link link) {
+        return put(link);
+    }
+
+    public Extension intern(final Extension extension) {
+        return put(extension);
+    }
+
+    /**
+     * Returns the number of interned elements.
+     *
+     * @return the number of interned elements
+     */
+    public int size() {
+        return elements.size();
+    }
+
+    public void clear() {
+        elements.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private final <T> T get(final T element) {
+        return (T) elements.get(element);
+    }
+
+    @SuppressWarnings("unchecked")
+    private final <T> T put(final T element) {
+
+        final Object interned = elements.putIfAbsent(element, element);
+
+        return interned != null ? (T) interned : element;
+    }
+
+    private static final <T> boolean intern(final Set<T> elements, final List<T> interned, final Function<T, T> intern) {
+
+        boolean changed = false;
+
+        for (final T element : elements) {
+
+            final T value = intern.apply(element);
+
+            interned.add(value);
+            changed |= value != element;
+        }
+
+        return changed;
+    }
+
+    private static final class Frame {
+
+        final Descriptor descriptor;
+        final Iterator<Descriptor> iterator;
+
+        final List<Descriptor> descriptors;
+
+        /** the nested descriptor being interned */
+        Descriptor current;
+
+        boolean changed;
+
+        Frame(final Descriptor descriptor) {
+            this.descriptor = descriptor;
+            this.iterator = descriptor.descriptors().iterator();
+            this.descriptors = new ArrayList<>(descriptor.descriptors().size());
+            this.changed = false;
+        }
+
+        void add(final Descriptor interned) {
+            changed |= interned != current;
+            descriptors.add(interned);
+        }
+
+        Descriptor build(final ElementInterner interner) {
+
+            final List<Documentation> documentation = new ArrayList<>(descriptor.documentation().size());
+            final List<Link> links = new ArrayList<>(descriptor.links().size());
+            final List<Extension> extensions = new ArrayList<>(descriptor.extensions().size());
+
+            changed |= intern(descriptor.documentation(), documentation, interner::intern);
+            changed |= intern(descriptor.links(), links, interner::intern);
+            changed |= intern(descriptor.extensions(), extensions, interner::intern);
+
+            if (!changed) {
+                return descriptor;
+            }
+
+            final DescriptorBuilder builder = Alps.createDescriptor()
+                                                .id(descriptor.id().orElse(null))
+                                                .href(descriptor.href().orElse(null))
+                                                .definition(descriptor.definition().orElse(null))
+                                                .name(descriptor.name().orElse(null))
+                                                .type(descriptor.type())
+                                                .title(descriptor.title().orElse(null))
+                                                .returnType(descriptor.returnType().orElse(null))
+                                                .tag(descriptor.tag());
+
+            documentation.forEach(builder::add);
+            links.forEach(builder::add);
+            extensions.forEach(builder::add);
+            descriptors.forEach(builder::add);
+
+            return builder.build();
+        }
+    }
+}
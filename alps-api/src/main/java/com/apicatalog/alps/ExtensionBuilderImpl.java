@@ -5,62 +5,95 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import com.apicatalog.alps.dom.element.Extension;
 
 final class ExtensionBuilderImpl implements ExtensionBuilder {
 
-    private ExtensionImpl extension;
+    private URI id;
+    private URI href;
+    private String value;
+    private List<String> tag;
+
+    private Map<String, String> attributes;
+
+    /** attributes are shared with a built extension and are copied on a change */
+    private boolean shared;
 
     public ExtensionBuilderImpl() {
-        this.extension = new ExtensionImpl();
-        this.extension.attributes = new LinkedHashMap<>();
+        this.attributes = new LinkedHashMap<>();
+        this.shared = false;
     }
 
     @Override
     public Extension build() {
-        return extension;
+
+        shared = true;
+
+        return new ExtensionImpl(id, href, value, tag, attributes.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(attributes));
     }
 
     @Override
     public ExtensionBuilder attribute(String key, String value) {
-        extension.attributes.put(key, value);
+
+        if (shared) {
+            attributes = new LinkedHashMap<>(attributes);
+            shared = false;
+        }
+
+        attributes.put(key, value);
         return this;
     }
 
     @Override
     public ExtensionBuilder href(URI href) {
-        extension.href = href;
+        this.href = href;
         return this;
     }
 
     @Override
     public ExtensionBuilder value(String value) {
-        extension.value = value;
+        this.value = value;
         return this;
     }
 
     @Override
     public ExtensionBuilder id(URI id) {
-        extension.id = id;
+        this.id = id;
         return this;
     }
 
     @Override
     public ExtensionBuilder tag(List<String> tag) {
-        extension.tag = tag;
+        this.tag = tag;
         return this;
     }
 
+    /**
+     * An immutable extension, equal to an extension with the same properties
+     * and attributes.
+     */
     static final class ExtensionImpl implements Extension {
 
-        private URI id;
-        private URI href;
-        private String value;
-        private List<String> tag;
+        private final URI id;
+        private final URI href;
+        private final String value;
+        private final List<String> tag;
+
+        private final Map<String, String> attributes;
 
-        private Map<String, String> attributes;
+        private final int hashCode;
+
+        ExtensionImpl(URI id, URI href, String value, List<String> tag, Map<String, String> attributes) {
+            this.id = id;
+            this.href = href;
+            this.value = value;
+            this.tag = tag != null ? tag : Collections.emptyList();
+            this.attributes = attributes;
+            this.hashCode = Objects.hash(id, href, value, this.tag, attributes);
+        }
 
         @Override
         public Optional<URI> href() {
@@ -84,7 +117,33 @@ final class ExtensionBuilderImpl implements ExtensionBuilder {
 
         @Override
         public List<String> tag() {
-            return tag != null ? tag : Collections.emptyList();
+            return tag;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof ExtensionImpl)) {
+                return false;
+            }
+
+            final ExtensionImpl other = (ExtensionImpl) obj;
+
+            return hashCode == other.hashCode
+                    && Objects.equals(id, other.id)
+                    && Objects.equals(href, other.href)
+                    && Objects.equals(value, other.value)
+                    && tag.equals(other.tag)
+                    && attributes.equals(other.attributes);
         }
     }
 }
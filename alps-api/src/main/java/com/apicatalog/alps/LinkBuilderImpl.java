@@ -3,55 +3,68 @@ package com.apicatalog.alps;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import com.apicatalog.alps.dom.element.Link;
 
 final class LinkBuilderImpl implements LinkBuilder {
 
-    private final LinkImpl link;
-
-    public LinkBuilderImpl() {
-        link = new LinkImpl();
-    }
+    private URI href;
+    private String rel;
+    private String title;
+    private List<String> tag;
 
     @Override
     public Link build() {
-        return link;
+        return new LinkImpl(href, rel, title, tag);
     }
 
     @Override
     public LinkBuilder href(URI href) {
-        this.link.href = href;
+        this.href = href;
         return this;
     }
 
     @Override
     public LinkBuilder rel(String rel) {
-        this.link.rel = rel;
+        this.rel = rel;
         return this;
     }
 
     @Override
     public LinkBuilder tag(List<String> tag) {
-        this.link.tag = tag;
+        this.tag = tag;
         return this;
     }
     
     @Override
     public LinkBuilder title(String title) {
-        this.link.title = title;
+        this.title = title;
         return this;
     }
 
+    /**
+     * An immutable link, equal to a link with the same properties.
+     */
     static final class LinkImpl implements Link {
 
-        URI href;
-        String rel;
+        final URI href;
+        final String rel;
         
-        String title;
+        final String title;
+
+        final List<String> tag;
+
+        final int hashCode;
 
-        List<String> tag;
+        LinkImpl(URI href, String rel, String title, List<String> tag) {
+            this.href = href;
+            this.rel = rel;
+            this.title = title;
+            this.tag = tag != null ? tag : Collections.emptyList();
+            this.hashCode = Objects.hash(href, rel, title, this.tag);
+        }
 
         @Override
         public URI href() {
@@ -65,12 +78,37 @@ final class LinkBuilderImpl implements LinkBuilder {
 
         @Override
         public List<String> tag() {
-            return tag != null ? tag : Collections.emptyList();
+            return tag;
         }
         
         @Override
         public Optional<String> title() {
             return Optional.ofNullable(title);
         }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof LinkImpl)) {
+                return false;
+            }
+
+            final LinkImpl other = (LinkImpl) obj;
+
+            return hashCode == other.hashCode
+                    && Objects.equals(href, other.href)
+                    && Objects.equals(rel, other.rel)
+                    && Objects.equals(title, other.title)
+                    && tag.equals(other.tag);
+        }
     }
 }
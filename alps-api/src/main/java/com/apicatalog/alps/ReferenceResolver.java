@@ -0,0 +1,491 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.dom.element.DescriptorType;
+import com.apicatalog.alps.dom.element.Documentation;
+import com.apicatalog.alps.dom.element.Extension;
+import com.apicatalog.alps.dom.element.Link;
+
+/**
+ * Resolves descriptor <code>href</code> references within a document. All
+ * descriptors, nested descriptors included, are indexed by their ids once,
+ * a local reference, e.g. <code>#search</code>, is then resolved in constant
+ * time.
+ * <p>
+ * A reference to another document is external and is not resolved. A local
+ * reference to a missing descriptor is dangling. References within a cycle
+ * are reported and not followed.
+ * </p>
+ * <p>
+ * An instance is immutable and reflects the document at the time it was
+ * created.
+ * </p>
+ */
+public final class ReferenceResolver {
+
+    private final Document document;
+
+    /** the base URI without a fragment, can be <code>null</code> */
+    private final URI base;
+
+    /** descriptors by their ids, the first descriptor wins */
+    private final Map<String, Descriptor> ids;
+
+    /** resolved references except references within a cycle */
+    private final Map<Descriptor, Descriptor> targets;
+
+    /** descriptors with a resolved reference in the document order */
+    private final List<Descriptor> referencing;
+
+    private final List<Descriptor> dangling;
+    private final List<Descriptor> external;
+
+    private final List<List<Descriptor>> cycles;
+
+    private ReferenceResolver(final Document document) {
+        this.document = document;
+        this.base = document.baseUri() != null ? withoutFragment(document.baseUri()) : null;
+        this.ids = new HashMap<>();
+        this.targets = new IdentityHashMap<>();
+        this.referencing = new ArrayList<>();
+        this.dangling = new ArrayList<>();
+        this.external = new ArrayList<>();
+        this.cycles = new ArrayList<>();
+    }
+
+    /**
+     * Creates a resolver of the document references.
+     *
+     * @param document a document to resolve
+     * @return a new resolver
+     */
+    public static final ReferenceResolver of(final Document document) {
+
+        if (document == null) {
+            throw new IllegalArgumentException("The document must not be null.");
+        }
+
+        final ReferenceResolver resolver = new ReferenceResolver(document);
+
+        resolver.index();
+        resolver.link();
+        resolver.findCycles();
+
+        return resolver;
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    /**
+     * Finds a descriptor by its id, nested descriptors included.
+     *
+     * @param id a descriptor id
+     * @return the descriptor or {@link Optional#empty()} if there is no such descriptor
+     */
+    public Optional<Descriptor> findById(final String id) {
+        return Optional.ofNullable(ids.get(id));
+    }
+
+    /**
+     * Resolves the reference against the document.
+     *
+     * @param href a reference to resolve
+     * @return the referenced descriptor or {@link Optional#empty()} if the reference is dangling or external
+     */
+    public Optional<Descriptor> resolve(final URI href) {
+
+        final String fragment = getLocalFragment(href);
+
+        if (fragment != null) {
+            return findById(fragment);
+        }
+
+        // an id can be an absolute URI
+        return findById(href.toString());
+    }
+
+    /**
+     * Returns a descriptor referenced by the given descriptor.
+     *
+     * @param descriptor a descriptor
+     * @return the referenced descriptor or {@link Optional#empty()} if the descriptor does not have resolvable reference or the reference is a part of a cycle
+     */
+    public Optional<Descriptor> getTarget(final Descriptor descriptor) {
+        return Optional.ofNullable(targets.get(descriptor));
+    }
+
+    /**
+     * Returns descriptors with a local reference to a missing descriptor.
+     *
+     * @return an unmodifiable list of descriptors in the document order
+     */
+    public List<Descriptor> getDanglingReferences() {
+        return Collections.unmodifiableList(dangling);
+    }
+
+    /**
+     * Returns descriptors referencing another document.
+     *
+     * @return an unmodifiable list of descriptors in the document order
+     */
+    public List<Descriptor> getExternalReferences() {
+        return Collections.unmodifiableList(external);
+    }
+
+    /**
+     * Returns reference cycles, each cycle lists its descriptors in the
+     * reference order.
+     *
+     * @return an unmodifiable list of cycles
+     */
+    public List<List<Descriptor>> getCycles() {
+        return Collections.unmodifiableList(cycles);
+    }
+
+    public boolean isResolved() {
+        return dangling.isEmpty() && cycles.isEmpty();
+    }
+
+    /**
+     * Returns a view of the descriptor with the referenced descriptors inlined.
+     * A property missing in the descriptor is taken from the referenced
+     * descriptor, documentation, extensions, links and nested descriptors are
+     * joined. Nested descriptors are inlined views too.
+     * <p>
+     * Nothing is copied, the view reads the document descriptors. A semantic
+     * type is considered as not set and is replaced by a type of the
+     * referenced descriptor.
+     * </p>
+     *
+     * @param descriptor a document descriptor
+     * @return an inlined view of the descriptor
+     */
+    public Descriptor inline(final Descriptor descriptor) {
+
+        if (descriptor instanceof InlinedDescriptor && ((InlinedDescriptor)descriptor).resolver() == this) {
+            return descriptor;
+        }
+
+        return new InlinedDescriptor(descriptor);
+    }
+
+    /**
+     * Indexes all descriptors, nested descriptors are visited without recursion.
+     */
+    private final void index() {
+
+        final Deque<Descriptor> pending = new ArrayDeque<>();
+
+        pushReversed(pending, document.descriptors());
+
+        while (!pending.isEmpty()) {
+
+            final Descriptor descriptor = pending.pop();
+
+            descriptor.id().map(URI::toString).ifPresent(id -> ids.putIfAbsent(id, descriptor));
+
+            pushReversed(pending, descriptor.descriptors());
+        }
+    }
+
+    /**
+     * Resolves all references, the document order is kept.
+     */
+    private final void link() {
+
+        final Deque<Descriptor> pending = new ArrayDeque<>();
+
+        pushReversed(pending, document.descriptors());
+
+        while (!pending.isEmpty()) {
+
+            final Descriptor descriptor = pending.pop();
+
+            if (descriptor.href().isPresent()) {
+
+                final URI href = descriptor.href().get();
+
+                final Descriptor target = resolve(href).orElse(null);
+
+                if (target != null) {
+                    targets.put(descriptor, target);
+                    referencing.add(descriptor);
+
+                } else if (getLocalFragment(href) != null) {
+                    dangling.add(descriptor);
+
+                } else {
+                    external.add(descriptor);
+                }
+            }
+
+            pushReversed(pending, descriptor.descriptors());
+        }
+    }
+
+    /**
+     * Finds cycles of references and removes references within a cycle. A
+     * descriptor references at most one descriptor, chains are followed
+     * iteratively.
+     */
+    private final void findCycles() {
+
+        // a chain a descriptor has been visited by
+        final Map<Descriptor, Integer> visited = new IdentityHashMap<>(targets.size());
+
+        int chain = 0;
+
+        for (final Descriptor start : referencing) {
+
+            if (visited.containsKey(start)) {
+                continue;
+            }
+
+            chain++;
+
+            Descriptor descriptor = start;
+
+            while (descriptor != null && !visited.containsKey(descriptor)) {
+                visited.put(descriptor, chain);
+                descriptor = targets.get(descriptor);
+            }
+
+            // a cycle closed by the current chain
+            if (descriptor != null && visited.get(descriptor) == chain) {
+
+                final List<Descriptor> cycle = new ArrayList<>();
+
+                Descriptor member = descriptor;
+
+                do {
+                    cycle.add(member);
+                    member = targets.get(member);
+                } while (member != descriptor);
+
+                cycles.add(Collections.unmodifiableList(cycle));
+            }
+        }
+
+        for (final List<Descriptor> cycle : cycles) {
+            cycle.forEach(targets::remove);
+        }
+    }
+
+    /**
+     * Returns a fragment of the local reference.
+     *
+     * @return the fragment or <code>null</code> if the reference is not local
+     */
+    private final String getLocalFragment(final URI href) {
+
+        if (href.getFragment() == null) {
+            return null;
+        }
+
+        // e.g. #search
+        if (!href.isAbsolute() && href.getRawSchemeSpecificPart().isEmpty()) {
+            return href.getFragment();
+        }
+
+        if (base != null && base.equals(withoutFragment(base.resolve(href)))) {
+            return href.getFragment();
+        }
+
+        return null;
+    }
+
+    private static final URI withoutFragment(final URI uri) {
+
+        if (uri.getRawFragment() == null) {
+            return uri;
+        }
+
+        try {
+            return new URI(uri.getScheme(), uri.getSchemeSpecificPart(), null);
+
+        } catch (URISyntaxException e) {
+            return uri;
+        }
+    }
+
+    private static final void pushReversed(final Deque<Descriptor> pending, final Set<Descriptor> descriptors) {
+
+        if (descriptors.isEmpty()) {
+            return;
+        }
+
+        final Descriptor[] array = descriptors.toArray(new Descriptor[0]);
+
+        for (int i = array.length - 1; i >= 0; i--) {
+            pending.push(array[i]);
+        }
+    }
+
+    /**
+     * A descriptor with referenced descriptors inlined. A property is read
+     * from the first descriptor in the reference chain having it.
+     */
+    private final class InlinedDescriptor implements Descriptor {
+
+        private final Descriptor descriptor;
+
+        private Set<Descriptor> descriptors;
+
+        InlinedDescriptor(final Descriptor descriptor) {
+            this.descriptor = descriptor;
+            this.descriptors = null;
+        }
+
+        ReferenceResolver resolver() {
+            return ReferenceResolver.this;
+        }
+
+        @Override
+        public Optional<URI> id() {
+            return descriptor.id();
+        }
+
+        /**
+         * A resolved reference is inlined, a dangling or an external reference is kept.
+         */
+        @Override
+        public Optional<URI> href() {
+            Descriptor last = descriptor;
+
+            for (Descriptor next = targets.get(last); next != null; next = targets.get(next)) {
+                last = next;
+            }
+            return last.href();
+        }
+
+        @Override
+        public Optional<URI> definition() {
+            return first(Descriptor::definition);
+        }
+
+        @Override
+        public Optional<String> name() {
+            return first(Descriptor::name);
+        }
+
+        @Override
+        public DescriptorType type() {
+            for (Descriptor next = descriptor; next != null; next = targets.get(next)) {
+                if (!DescriptorType.SEMANTIC.equals(next.type())) {
+                    return next.type();
+                }
+            }
+            return DescriptorType.SEMANTIC;
+        }
+
+        @Override
+        public Optional<URI> returnType() {
+            return first(Descriptor::returnType);
+        }
+
+        @Override
+        public Optional<String> title() {
+            return first(Descriptor::title);
+        }
+
+        @Override
+        public List<String> tag() {
+            for (Descriptor next = descriptor; next != null; next = targets.get(next)) {
+                if (!next.tag().isEmpty()) {
+                    return next.tag();
+                }
+            }
+            return descriptor.tag();
+        }
+
+        @Override
+        public Set<Documentation> documentation() {
+            return join(Descriptor::documentation);
+        }
+
+        @Override
+        public Set<Extension> extensions() {
+            return join(Descriptor::extensions);
+        }
+
+        @Override
+        public Set<Link> links() {
+            return join(Descriptor::links);
+        }
+
+        @Override
+        public Set<Descriptor> descriptors() {
+
+            if (descriptors == null) {
+
+                final Set<Descriptor> inlined = new LinkedHashSet<>();
+
+                for (final Descriptor nested : join(Descriptor::descriptors)) {
+                    inlined.add(new InlinedDescriptor(nested));
+                }
+
+                descriptors = Collections.unmodifiableSet(inlined);
+            }
+
+            return descriptors;
+        }
+
+        private final <T> Optional<T> first(final Function<Descriptor, Optional<T>> property) {
+            for (Descriptor next = descriptor; next != null; next = targets.get(next)) {
+                final Optional<T> value = property.apply(next);
+                if (value.isPresent()) {
+                    return value;
+                }
+            }
+            return Optional.empty();
+        }
+
+        private final <T> Set<T> join(final Function<Descriptor, Set<T>> property) {
+
+            if (!targets.containsKey(descriptor)) {
+                return property.apply(descriptor);
+            }
+
+            final Set<T> joined = new LinkedHashSet<>(property.apply(descriptor));
+
+            for (Descriptor next = targets.get(descriptor); next != null; next = targets.get(next)) {
+                joined.addAll(property.apply(next));
+            }
+
+            return Collections.unmodifiableSet(joined);
+        }
+    }
+}
@@ -61,4 +61,16 @@ public enum DocumentError {
 
     INVALID_REL,
 
+    INVALID_PATCH,
+
+    MAX_DEPTH_EXCEEDED,
+
+    MAX_INPUT_LENGTH_EXCEEDED,
+
+    MAX_DESCRIPTORS_EXCEEDED,
+
+    MAX_EXTENSIONS_EXCEEDED,
+
+    MAX_DOC_LENGTH_EXCEEDED,
+
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.io;
+
+import java.io.FilterOutputStream;
+import java.io.FilterWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+import jdk.jfr.EventType;
+
+/**
+ * Outputs counting written bytes or characters for {@link WriteEvent}.
+ * <p>
+ * Kept apart from the event class, the event class is instrumented on load
+ * and must not refer to types unknown to the instrumentation.
+ * </p>
+ */
+final class CountedOutput {
+
+    // the event type is registered on the first use
+    private static final EventType TYPE = EventType.getEventType(WriteEvent.class);
+
+    private CountedOutput() {
+    }
+
+    static final OutputStream of(final OutputStream stream) {
+        return TYPE.isEnabled() ? new Stream(stream) : stream;
+    }
+
+    static final Writer of(final Writer writer) {
+        return TYPE.isEnabled() ? new CharStream(writer) : writer;
+    }
+
+    static final long count(final Flushable output) {
+
+        if (output instanceof Stream) {
+            return ((Stream)output).count;
+        }
+
+        if (output instanceof CharStream) {
+            return ((CharStream)output).count;
+        }
+
+        return -1;
+    }
+
+    static final class Stream extends FilterOutputStream {
+
+        long count;
+
+        Stream(final OutputStream stream) {
+            super(stream);
+            this.count = 0;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+    }
+
+    static final class CharStream extends FilterWriter {
+
+        long count;
+
+        CharStream(final Writer writer) {
+            super(writer);
+            this.count = 0;
+        }
+
+        @Override
+        public void write(final int c) throws IOException {
+            out.write(c);
+            count++;
+        }
+
+        @Override
+        public void write(final char[] chars, final int offset, final int length) throws IOException {
+            out.write(chars, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void write(final String string, final int offset, final int length) throws IOException {
+            out.write(string, offset, length);
+            count += length;
+        }
+    }
+}
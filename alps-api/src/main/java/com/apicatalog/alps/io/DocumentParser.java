@@ -20,8 +20,10 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.net.URI;
 
+import com.apicatalog.alps.DocumentStatistics;
 import com.apicatalog.alps.dom.Document;
 import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.InvalidDocumentException;
 
 public interface DocumentParser {
 
@@ -29,4 +31,95 @@ public interface DocumentParser {
 
     Document parse(URI baseUri, Reader reader) throws IOException, DocumentParserException;
 
+    /**
+     * Checks the document and counts its elements. The default implementation
+     * parses the document, an implementation should check the rules without
+     * building the document.
+     *
+     * @param baseUri a base URI of the document, can be <code>null</code>
+     * @param stream a document to validate
+     * @return the statistics of the valid document
+     * @throws IOException if the document cannot be read
+     * @throws DocumentParserException if the document is not valid
+     */
+    default DocumentStatistics validate(URI baseUri, InputStream stream) throws IOException, DocumentParserException {
+        return toStatistics(parse(baseUri, stream));
+    }
+
+    /**
+     * Checks the document and counts its elements. The default implementation
+     * parses the document, an implementation should check the rules without
+     * building the document.
+     *
+     * @param baseUri a base URI of the document, can be <code>null</code>
+     * @param reader a document to validate
+     * @return the statistics of the valid document
+     * @throws IOException if the document cannot be read
+     * @throws DocumentParserException if the document is not valid
+     */
+    default DocumentStatistics validate(URI baseUri, Reader reader) throws IOException, DocumentParserException {
+        return toStatistics(parse(baseUri, reader));
+    }
+
+    /**
+     * Checks the document and collects found errors, the validation continues
+     * after an invalid element. The default implementation reports the first
+     * error only.
+     *
+     * @param baseUri a base URI of the document, can be <code>null</code>
+     * @param stream a document to validate
+     * @param maxErrors the maximum number of errors recorded, must be greater than zero
+     * @return the report of the validation
+     * @throws IOException if the document cannot be read
+     * @throws DocumentParserException if the document is malformed or exceeds a limit
+     */
+    default ValidationReport validate(URI baseUri, InputStream stream, int maxErrors) throws IOException, DocumentParserException {
+
+        final ValidationReport report = new ValidationReport(maxErrors);
+
+        try {
+            report.setStatistics(validate(baseUri, stream));
+
+        } catch (InvalidDocumentException e) {
+            report.add(e);
+        }
+
+        return report;
+    }
+
+    /**
+     * Checks the document and collects found errors, the validation continues
+     * after an invalid element. The default implementation reports the first
+     * error only.
+     *
+     * @param baseUri a base URI of the document, can be <code>null</code>
+     * @param reader a document to validate
+     * @param maxErrors the maximum number of errors recorded, must be greater than zero
+     * @return the report of the validation
+     * @throws IOException if the document cannot be read
+     * @throws DocumentParserException if the document is malformed or exceeds a limit
+     */
+    default ValidationReport validate(URI baseUri, Reader reader, int maxErrors) throws IOException, DocumentParserException {
+
+        final ValidationReport report = new ValidationReport(maxErrors);
+
+        try {
+            report.setStatistics(validate(baseUri, reader));
+
+        } catch (InvalidDocumentException e) {
+            report.add(e);
+        }
+
+        return report;
+    }
+
+    private static DocumentStatistics toStatistics(final Document document) throws DocumentParserException {
+
+        if (document == null) {
+            throw new DocumentParserException("The input does not contain a document.");
+        }
+
+        return DocumentStatistics.of(document);
+    }
+
 }
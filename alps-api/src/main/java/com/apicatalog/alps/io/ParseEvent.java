@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.io;
+
+import com.apicatalog.alps.DocumentStatistics;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.error.InvalidDocumentException;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event emitted by {@link DocumentParser#parse} methods.
+ * <p>
+ * The event is disabled by default, an input is counted and the event
+ * fields are computed only if the event is enabled in a recording, e.g.
+ * by <code>jfr configure +com.apicatalog.alps.Parse#enabled=true</code> or
+ * a custom <code>.jfc</code> settings file.
+ * </p>
+ */
+@Name("com.apicatalog.alps.Parse")
+@Label("ALPS Parse")
+@Category("ALPS")
+@Description("A document read by a parser")
+@Enabled(false)
+@StackTrace(false)
+public final class ParseEvent extends Event {
+
+    @Label("Format")
+    @Description("Media type of the input")
+    String format;
+
+    @Label("Input Length")
+    @Description("Bytes or characters read, -1 if not counted")
+    @DataAmount
+    long inputLength;
+
+    @Label("Descriptors")
+    @Description("Descriptors in the document, or parsed before a failure")
+    long descriptors;
+
+    @Label("Error")
+    @Description("An error code or an exception name if the parsing failed")
+    String error;
+
+    /**
+     * Begins an event if enabled.
+     *
+     * @param format a media type of the parsed input
+     * @param limits limits of the parsing, an input is counted if the event is enabled
+     * @return a new event
+     */
+    public static final ParseEvent start(final String format, final ParserLimits limits) {
+
+        final ParseEvent event = new ParseEvent();
+
+        if (event.isEnabled()) {
+            event.format = format;
+            limits.countInput();
+            event.begin();
+        }
+
+        return event;
+    }
+
+    public final Document complete(final Document document, final ParserLimits limits) {
+
+        if (shouldCommit()) {
+            inputLength = limits.getInputLength();
+            descriptors = document != null ? DocumentStatistics.of(document).getDescriptors() : 0;
+            commit();
+        }
+
+        return document;
+    }
+
+    public final void fail(final Throwable e, final ParserLimits limits) {
+
+        if (shouldCommit()) {
+            inputLength = limits.getInputLength();
+            descriptors = limits.getDescriptorCount();
+            error = getError(e);
+            commit();
+        }
+    }
+
+    static final String getError(final Throwable e) {
+
+        if (e instanceof InvalidDocumentException && ((InvalidDocumentException)e).getCode() != null) {
+            return ((InvalidDocumentException)e).getCode().name();
+        }
+
+        return e.getClass().getSimpleName();
+    }
+}
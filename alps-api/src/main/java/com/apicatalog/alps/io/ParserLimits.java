@@ -0,0 +1,222 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.io;
+
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+import com.apicatalog.alps.error.DocumentError;
+import com.apicatalog.alps.error.InvalidDocumentException;
+
+/**
+ * Tracks resources consumed by a single parsing against {@link ParserOptions}.
+ * A new instance is created for each document, an instance is not thread-safe.
+ */
+public final class ParserLimits {
+
+    private final ParserOptions options;
+
+    private long descriptors;
+    private long extensions;
+
+    private boolean inputExceeded;
+
+    private long inputLength;
+    private boolean inputCounted;
+
+    public ParserLimits(final ParserOptions options) {
+        this.options = options;
+        this.descriptors = 0;
+        this.extensions = 0;
+        this.inputExceeded = false;
+        this.inputLength = 0;
+        this.inputCounted = false;
+    }
+
+    public ParserOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Returns a stream failing when more than the maximum input length is read.
+     *
+     * @param stream a stream to limit
+     * @return a limited stream, or the given stream if the input length is not limited
+     */
+    public InputStream limit(final InputStream stream) {
+        return options.getMaxInputLength() == Long.MAX_VALUE && !inputCounted ? stream : new LimitedInputStream(stream);
+    }
+
+    /**
+     * Returns a reader failing when more than the maximum input length is read.
+     *
+     * @param reader a reader to limit
+     * @return a limited reader, or the given reader if the input length is not limited
+     */
+    public Reader limit(final Reader reader) {
+        return options.getMaxInputLength() == Long.MAX_VALUE && !inputCounted ? reader : new LimitedReader(reader);
+    }
+
+    /**
+     * Counts the input read even if the input length is not limited. Must be
+     * called before the input is limited.
+     */
+    public void countInput() {
+        this.inputCounted = true;
+    }
+
+    /**
+     * Returns the number of bytes or characters read from a limited or
+     * counted input.
+     *
+     * @return the input length read so far, or <code>-1</code> if the input is neither limited nor counted
+     */
+    public long getInputLength() {
+        return options.getMaxInputLength() == Long.MAX_VALUE && !inputCounted ? -1 : inputLength;
+    }
+
+    public long getDescriptorCount() {
+        return descriptors;
+    }
+
+    /**
+     * Reports the exceeded input length. A limited input fails with
+     * {@link IOException} that is usually wrapped by an underlying parser,
+     * a parser calls this method when handling a failure.
+     *
+     * @throws InvalidDocumentException if the input length has been exceeded
+     */
+    public void checkInput() throws InvalidDocumentException {
+        if (inputExceeded) {
+            throw new InvalidDocumentException(DocumentError.MAX_INPUT_LENGTH_EXCEEDED, "The input exceeds the maximum length of " + options.getMaxInputLength());
+        }
+    }
+
+    public void checkDepth(final int depth) throws InvalidDocumentException {
+        if (depth > options.getMaxDepth()) {
+            throw new InvalidDocumentException(DocumentError.MAX_DEPTH_EXCEEDED, "Descriptors nesting exceeds the maximum depth of " + options.getMaxDepth());
+        }
+    }
+
+    public void checkDocumentation(final long length) throws InvalidDocumentException {
+        if (length > options.getMaxDocumentationLength()) {
+            throw new InvalidDocumentException(DocumentError.MAX_DOC_LENGTH_EXCEEDED, "Documentation exceeds the maximum length of " + options.getMaxDocumentationLength() + " characters");
+        }
+    }
+
+    public void addDescriptor() throws InvalidDocumentException {
+        if (++descriptors > options.getMaxDescriptors()) {
+            throw new InvalidDocumentException(DocumentError.MAX_DESCRIPTORS_EXCEEDED, "The document contains more than " + options.getMaxDescriptors() + " descriptors");
+        }
+    }
+
+    public void addExtension() throws InvalidDocumentException {
+        if (++extensions > options.getMaxExtensions()) {
+            throw new InvalidDocumentException(DocumentError.MAX_EXTENSIONS_EXCEEDED, "The document contains more than " + options.getMaxExtensions() + " extensions");
+        }
+    }
+
+    private final void read(final long count, final long length) throws IOException {
+        inputLength = length;
+        if (count > 0 && length > options.getMaxInputLength()) {
+            inputExceeded = true;
+            throw new IOException("The input exceeds the maximum length of " + options.getMaxInputLength());
+        }
+    }
+
+    private final class LimitedInputStream extends FilterInputStream {
+
+        private long length;
+
+        LimitedInputStream(final InputStream stream) {
+            super(stream);
+            this.length = 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int value = super.read();
+            if (value != -1) {
+                ParserLimits.this.read(1, ++length);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int count) throws IOException {
+            final int read = super.read(bytes, offset, count);
+            if (read > 0) {
+                ParserLimits.this.read(read, length += read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long count) throws IOException {
+            final long skipped = super.skip(count);
+            ParserLimits.this.read(skipped, length += skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+    private final class LimitedReader extends FilterReader {
+
+        private long length;
+
+        LimitedReader(final Reader reader) {
+            super(reader);
+            this.length = 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int value = super.read();
+            if (value != -1) {
+                ParserLimits.this.read(1, ++length);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(final char[] chars, final int offset, final int count) throws IOException {
+            final int read = super.read(chars, offset, count);
+            if (read > 0) {
+                ParserLimits.this.read(read, length += read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long count) throws IOException {
+            final long skipped = super.skip(count);
+            ParserLimits.this.read(skipped, length += skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
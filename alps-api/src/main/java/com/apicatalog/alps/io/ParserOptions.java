@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.io;
+
+/**
+ * Options limiting resources a {@link DocumentParser} spends on a single
+ * document. A parser fails as soon as a limit is exceeded. Only the nesting
+ * depth is limited by default.
+ * <p>
+ * Documentation, extensions and links can be skipped, skipped elements are
+ * neither validated nor counted by the limits.
+ * </p>
+ */
+public final class ParserOptions {
+
+    /** the maximum depth of nested descriptors accepted by default */
+    public static final int DEFAULT_MAX_DEPTH = 1000;
+
+    private int maxDepth;
+    private long maxInputLength;
+    private long maxDescriptors;
+    private long maxExtensions;
+    private long maxDocumentationLength;
+
+    private boolean skipDocumentation;
+    private boolean skipExtensions;
+    private boolean skipLinks;
+
+    public ParserOptions() {
+        this.maxDepth = DEFAULT_MAX_DEPTH;
+        this.maxInputLength = Long.MAX_VALUE;
+        this.maxDescriptors = Long.MAX_VALUE;
+        this.maxExtensions = Long.MAX_VALUE;
+        this.maxDocumentationLength = Long.MAX_VALUE;
+        this.skipDocumentation = false;
+        this.skipExtensions = false;
+        this.skipLinks = false;
+    }
+
+    /**
+     * Sets the maximum depth of nested descriptors, a top-level descriptor
+     * is at depth one.
+     *
+     * @param maxDepth a positive number
+     * @return the options
+     */
+    public ParserOptions maxDepth(final int maxDepth) {
+
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("The 'maxDepth' must be greater than zero but was " + maxDepth + ".");
+        }
+
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * Sets the maximum input length, a number of bytes read from a stream or
+     * a number of characters read from a reader.
+     *
+     * @param maxInputLength a positive number
+     * @return the options
+     */
+    public ParserOptions maxInputLength(final long maxInputLength) {
+
+        if (maxInputLength < 1) {
+            throw new IllegalArgumentException("The 'maxInputLength' must be greater than zero but was " + maxInputLength + ".");
+        }
+
+        this.maxInputLength = maxInputLength;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of descriptors, nested descriptors included.
+     *
+     * @param maxDescriptors a non-negative number
+     * @return the options
+     */
+    public ParserOptions maxDescriptors(final long maxDescriptors) {
+
+        if (maxDescriptors < 0) {
+            throw new IllegalArgumentException("The 'maxDescriptors' must not be negative but was " + maxDescriptors + ".");
+        }
+
+        this.maxDescriptors = maxDescriptors;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of extensions in the whole document.
+     *
+     * @param maxExtensions a non-negative number
+     * @return the options
+     */
+    public ParserOptions maxExtensions(final long maxExtensions) {
+
+        if (maxExtensions < 0) {
+            throw new IllegalArgumentException("The 'maxExtensions' must not be negative but was " + maxExtensions + ".");
+        }
+
+        this.maxExtensions = maxExtensions;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of characters of a single documentation content.
+     *
+     * @param maxDocumentationLength a non-negative number
+     * @return the options
+     */
+    public ParserOptions maxDocumentationLength(final long maxDocumentationLength) {
+
+        if (maxDocumentationLength < 0) {
+            throw new IllegalArgumentException("The 'maxDocumentationLength' must not be negative but was " + maxDocumentationLength + ".");
+        }
+
+        this.maxDocumentationLength = maxDocumentationLength;
+        return this;
+    }
+
+    /**
+     * Skips documentation of the document and descriptors.
+     *
+     * @param skip <code>true</code> to skip documentation
+     * @return the options
+     */
+    public ParserOptions skipDocumentation(final boolean skip) {
+        this.skipDocumentation = skip;
+        return this;
+    }
+
+    /**
+     * Skips extensions of the document and descriptors.
+     *
+     * @param skip <code>true</code> to skip extensions
+     * @return the options
+     */
+    public ParserOptions skipExtensions(final boolean skip) {
+        this.skipExtensions = skip;
+        return this;
+    }
+
+    /**
+     * Skips links of the document and descriptors.
+     *
+     * @param skip <code>true</code> to skip links
+     * @return the options
+     */
+    public ParserOptions skipLinks(final boolean skip) {
+        this.skipLinks = skip;
+        return this;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMaxInputLength() {
+        return maxInputLength;
+    }
+
+    public long getMaxDescriptors() {
+        return maxDescriptors;
+    }
+
+    public long getMaxExtensions() {
+        return maxExtensions;
+    }
+
+    public long getMaxDocumentationLength() {
+        return maxDocumentationLength;
+    }
+
+    public boolean isDocumentationSkipped() {
+        return skipDocumentation;
+    }
+
+    public boolean isExtensionsSkipped() {
+        return skipExtensions;
+    }
+
+    public boolean isLinksSkipped() {
+        return skipLinks;
+    }
+}
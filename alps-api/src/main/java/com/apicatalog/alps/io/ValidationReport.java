@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.apicatalog.alps.DocumentStatistics;
+import com.apicatalog.alps.error.DocumentError;
+import com.apicatalog.alps.error.InvalidDocumentException;
+
+/**
+ * Collects errors found by a single validation that continues after an error.
+ * At most the maximum number of errors is kept, the other errors are counted
+ * only. An instance is not thread-safe.
+ */
+public final class ValidationReport {
+
+    /** exceeded limits stop a validation */
+    private static final Set<DocumentError> FATAL = EnumSet.of(
+                                                        DocumentError.MAX_DEPTH_EXCEEDED,
+                                                        DocumentError.MAX_INPUT_LENGTH_EXCEEDED,
+                                                        DocumentError.MAX_DESCRIPTORS_EXCEEDED,
+                                                        DocumentError.MAX_EXTENSIONS_EXCEEDED,
+                                                        DocumentError.MAX_DOC_LENGTH_EXCEEDED
+                                                        );
+
+    private final int maxErrors;
+
+    private final List<InvalidDocumentException> errors;
+
+    private long errorCount;
+
+    private DocumentStatistics statistics;
+
+    public ValidationReport(final int maxErrors) {
+
+        if (maxErrors < 1) {
+            throw new IllegalArgumentException("The maximum number of errors must be greater than zero but was " + maxErrors + ".");
+        }
+
+        this.maxErrors = maxErrors;
+        this.errors = new ArrayList<>(Math.min(maxErrors, 16));
+        this.errorCount = 0;
+        this.statistics = null;
+    }
+
+    /**
+     * Records the error, an exceeded limit is not recorded but thrown.
+     *
+     * @param error an error to record
+     * @throws InvalidDocumentException if the error is an exceeded limit
+     */
+    public void add(final InvalidDocumentException error) throws InvalidDocumentException {
+
+        if (error.getCode() != null && FATAL.contains(error.getCode())) {
+            throw error;
+        }
+
+        if (errors.size() < maxErrors) {
+            errors.add(error);
+        }
+
+        errorCount++;
+    }
+
+    public void setStatistics(final DocumentStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns the statistics of elements read, invalid elements included.
+     *
+     * @return the statistics or <code>null</code> if the document has not been read completely
+     */
+    public DocumentStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns recorded errors in the order they were found.
+     *
+     * @return an unmodifiable list of errors
+     */
+    public List<InvalidDocumentException> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Returns the number of all errors found, recorded or not.
+     *
+     * @return the number of errors
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    public boolean isTruncated() {
+        return errorCount > errors.size();
+    }
+
+    public boolean isValid() {
+        return errorCount == 0;
+    }
+}
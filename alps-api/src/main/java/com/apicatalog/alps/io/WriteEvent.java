@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.io;
+
+import java.io.Flushable;
+import java.io.OutputStream;
+import java.io.Writer;
+
+import com.apicatalog.alps.DocumentStatistics;
+import com.apicatalog.alps.dom.Document;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event emitted by {@link DocumentWriter#write(Document)}.
+ * <p>
+ * The event is disabled by default. An output is counted only if the event
+ * is enabled when a writer is created, otherwise the output length is
+ * <code>-1</code>.
+ * </p>
+ */
+@Name("com.apicatalog.alps.Write")
+@Label("ALPS Write")
+@Category("ALPS")
+@Description("A document written by a writer")
+@Enabled(false)
+@StackTrace(false)
+public final class WriteEvent extends Event {
+
+    @Label("Format")
+    @Description("Media type of the output")
+    String format;
+
+    @Label("Output Length")
+    @Description("Bytes or characters written, -1 if not counted")
+    @DataAmount
+    long outputLength;
+
+    @Label("Descriptors")
+    @Description("Descriptors in the document")
+    long descriptors;
+
+    @Label("Error")
+    @Description("An exception name if the writing failed")
+    String error;
+
+    /**
+     * Returns a counted stream if the event is enabled.
+     *
+     * @param stream an output stream of a writer
+     * @return a counted stream or the given stream
+     */
+    public static final OutputStream count(final OutputStream stream) {
+        return CountedOutput.of(stream);
+    }
+
+    /**
+     * Returns a counted writer if the event is enabled.
+     *
+     * @param writer an output writer of a writer
+     * @return a counted writer or the given writer
+     */
+    public static final Writer count(final Writer writer) {
+        return CountedOutput.of(writer);
+    }
+
+    public static final WriteEvent start(final String format) {
+
+        final WriteEvent event = new WriteEvent();
+
+        if (event.isEnabled()) {
+            event.format = format;
+            event.begin();
+        }
+
+        return event;
+    }
+
+    /**
+     * Commits the event if enabled.
+     *
+     * @param document a written document
+     * @param output an output returned by a <code>count</code> method, or <code>null</code>
+     * @param e an exception thrown by the writing, or <code>null</code>
+     */
+    public final void complete(final Document document, final Flushable output, final Throwable e) {
+
+        if (shouldCommit()) {
+
+            outputLength = CountedOutput.count(output);
+
+            descriptors = document != null ? DocumentStatistics.of(document).getDescriptors() : 0;
+
+            if (e != null) {
+                error = ParseEvent.getError(e);
+            }
+
+            commit();
+        }
+    }
+}
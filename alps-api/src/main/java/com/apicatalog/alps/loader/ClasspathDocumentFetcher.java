@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.loader;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * Fetches <code>classpath:</code> documents, e.g.
+ * <code>classpath:/profiles/contacts.json</code>. Resources do not change,
+ * a loaded document is never considered modified.
+ */
+public final class ClasspathDocumentFetcher implements DocumentFetcher {
+
+    public static final String SCHEME = "classpath";
+
+    private final ClassLoader classLoader;
+
+    public ClasspathDocumentFetcher() {
+        this(ClasspathDocumentFetcher.class.getClassLoader());
+    }
+
+    public ClasspathDocumentFetcher(final ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public boolean isSupported(final URI uri) {
+        return SCHEME.equalsIgnoreCase(uri.getScheme());
+    }
+
+    @Override
+    public DocumentSource fetch(final URI uri) throws IOException {
+
+        final String path = uri.getSchemeSpecificPart();
+
+        if (path == null || path.isBlank()) {
+            throw new FileNotFoundException("Resource [" + uri + "] does not exist.");
+        }
+
+        final String name = path.startsWith("/") ? path.substring(1) : path;
+
+        final InputStream stream = classLoader.getResourceAsStream(name);
+
+        if (stream == null) {
+            throw new FileNotFoundException("Resource [" + uri + "] does not exist.");
+        }
+
+        return new DocumentSource(stream, DocumentSource.guessMediaType(name), null);
+    }
+
+    @Override
+    public boolean isModified(final URI uri, final String tag) {
+        return false;
+    }
+}
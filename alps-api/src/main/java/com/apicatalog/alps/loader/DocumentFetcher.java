@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.loader;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Fetches a content of a document identified by an absolute URI.
+ */
+public interface DocumentFetcher {
+
+    /**
+     * Checks whether the URI can be fetched by the fetcher.
+     *
+     * @param uri an absolute document URI without a fragment
+     * @return <code>true</code> if the URI is supported
+     */
+    boolean isSupported(URI uri);
+
+    /**
+     * Opens the document content.
+     *
+     * @param uri an absolute document URI without a fragment
+     * @return an opened content, the caller closes it
+     * @throws IOException if the document cannot be fetched
+     */
+    DocumentSource fetch(URI uri) throws IOException;
+
+    /**
+     * Checks whether the document has changed since it was fetched. The
+     * default implementation considers the document modified.
+     *
+     * @param uri an absolute document URI without a fragment
+     * @param tag a tag of the previously fetched content, can be <code>null</code>
+     * @return <code>true</code> if the document has to be fetched again
+     * @throws IOException if the check fails
+     */
+    default boolean isModified(URI uri, String tag) throws IOException {
+        return true;
+    }
+}
@@ -0,0 +1,548 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.loader;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.apicatalog.alps.ElementInterner;
+import com.apicatalog.alps.ReferenceResolver;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.io.DocumentParser;
+
+/**
+ * Loads documents referenced by descriptors of other documents. A document is
+ * fetched by the first fetcher supporting its URI and parsed by a parser
+ * registered for its media type.
+ * <p>
+ * Loaded documents are cached, the least recently used document is evicted
+ * when the cache is full. If a revalidation period is set, an older document
+ * is checked by its fetcher and loaded again if it has been modified.
+ * </p>
+ * <p>
+ * An instance is thread-safe. A document requested concurrently is fetched
+ * and parsed once, other requests wait for it. Requests of other documents
+ * are not blocked, the cache is locked only while it is accessed.
+ * </p>
+ *
+ * <pre>
+ * final DocumentLoader loader = new DocumentLoader()
+ *                                   .parser(DocumentSource.MEDIA_TYPE_ALPS_JSON, new JsonDocumentParser())
+ *                                   .parser(DocumentSource.MEDIA_TYPE_ALPS_XML, new XmlDocumentParser())
+ *                                   .fetcher(new FileDocumentFetcher());
+ *
+ * final Optional&lt;Descriptor&gt; descriptor = loader.resolve(document, URI.create("other.json#search"));
+ * </pre>
+ */
+public final class DocumentLoader {
+
+    public static final int DEFAULT_CACHE_SIZE = 100;
+
+    private final List<DocumentFetcher> fetchers;
+    private final Map<String, DocumentParser> parsers;
+
+    /** guarded by the loader instance */
+    private final Map<URI, Entry> cache;
+
+    /** documents being fetched, guarded by the loader instance */
+    private final Map<URI, CompletableFuture<Entry>> pending;
+
+    private int maxCacheSize;
+    private Duration revalidateAfter;
+
+    private volatile Clock clock;
+
+    private volatile ElementInterner interner;
+
+    private final AtomicLong loaded;
+
+    /** a resolver of the last resolved document not loaded by the loader */
+    private volatile ReferenceResolver lastResolver;
+
+    public DocumentLoader() {
+        this.fetchers = new CopyOnWriteArrayList<>();
+        this.parsers = new ConcurrentHashMap<>();
+        this.pending = new HashMap<>();
+        this.maxCacheSize = DEFAULT_CACHE_SIZE;
+        this.revalidateAfter = null;
+        this.clock = Clock.systemUTC();
+        this.interner = null;
+        this.loaded = new AtomicLong();
+        this.lastResolver = null;
+
+        // iterated in the access order
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<URI, Entry> eldest) {
+                return size() > maxCacheSize;
+            }
+        };
+    }
+
+    /**
+     * Adds a fetcher, fetchers are tried in the order they were added.
+     *
+     * @param fetcher a fetcher
+     * @return the loader
+     */
+    public synchronized DocumentLoader fetcher(final DocumentFetcher fetcher) {
+        fetchers.add(fetcher);
+        return this;
+    }
+
+    /**
+     * Sets a parser of documents of the given media type.
+     *
+     * @param mediaType a media type, e.g. <code>application/alps+json</code>
+     * @param parser a parser
+     * @return the loader
+     */
+    public synchronized DocumentLoader parser(final String mediaType, final DocumentParser parser) {
+        parsers.put(mediaType, parser);
+        return this;
+    }
+
+    public synchronized DocumentLoader maxCacheSize(final int maxCacheSize) {
+
+        if (maxCacheSize < 1) {
+            throw new IllegalArgumentException("The maximum cache size must be greater than zero but was " + maxCacheSize + ".");
+        }
+
+        this.maxCacheSize = maxCacheSize;
+        return this;
+    }
+
+    /**
+     * Sets a period after which a cached document is revalidated.
+     *
+     * @param revalidateAfter a period or <code>null</code> if cached documents are never revalidated
+     * @return the loader
+     */
+    public synchronized DocumentLoader revalidateAfter(final Duration revalidateAfter) {
+
+        if (revalidateAfter != null && revalidateAfter.isNegative()) {
+            throw new IllegalArgumentException("The revalidation period must not be negative but was " + revalidateAfter + ".");
+        }
+
+        this.revalidateAfter = revalidateAfter;
+        return this;
+    }
+
+    /**
+     * Sets an interner sharing equal elements of loaded documents.
+     *
+     * @param interner an interner or <code>null</code> if loaded documents are not interned
+     * @return the loader
+     */
+    public synchronized DocumentLoader interner(final ElementInterner interner) {
+        this.interner = interner;
+        return this;
+    }
+
+    synchronized DocumentLoader clock(final Clock clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    /**
+     * Loads the document, a cached document is returned if present.
+     *
+     * @param uri an absolute document URI, a fragment is ignored
+     * @return the loaded document
+     * @throws IOException if the document cannot be fetched
+     * @throws DocumentParserException if the document cannot be parsed
+     */
+    public Document load(final URI uri) throws IOException, DocumentParserException {
+        return entry(uri).document;
+    }
+
+    /**
+     * Resolves the reference against the document base URI. A local reference
+     * is resolved within the document, a reference to another document loads
+     * the document.
+     * <p>
+     * Descriptors of a document are indexed once for the document loaded by the
+     * loader or the last resolved document. Use
+     * {@link #resolve(ReferenceResolver, URI)} to resolve references of many
+     * documents not loaded by the loader.
+     * </p>
+     *
+     * @param document a document containing the reference
+     * @param href a reference to resolve
+     * @return the referenced descriptor or {@link Optional#empty()} if the document does not contain it
+     * @throws IOException if a referenced document cannot be fetched
+     * @throws DocumentParserException if a referenced document cannot be parsed
+     */
+    public Optional<Descriptor> resolve(final Document document, final URI href) throws IOException, DocumentParserException {
+        return resolve(resolver(document), href);
+    }
+
+    /**
+     * Resolves the reference against the base URI of the resolver document.
+     *
+     * @param local a resolver of a document containing the reference
+     * @param href a reference to resolve
+     * @return the referenced descriptor or {@link Optional#empty()} if the document does not contain it
+     * @throws IOException if a referenced document cannot be fetched
+     * @throws DocumentParserException if a referenced document cannot be parsed
+     */
+    public Optional<Descriptor> resolve(final ReferenceResolver local, final URI href) throws IOException, DocumentParserException {
+
+        if (local == null || href == null) {
+            throw new IllegalArgumentException("The resolver and the reference must not be null.");
+        }
+
+        final Document document = local.getDocument();
+
+        final Optional<Descriptor> descriptor = local.resolve(href);
+
+        if (descriptor.isPresent() || href.getFragment() == null) {
+            return descriptor;
+        }
+
+        final URI target = document.baseUri() != null ? document.baseUri().resolve(href) : href;
+
+        if (!target.isAbsolute() || (document.baseUri() != null && withoutFragment(target).equals(withoutFragment(document.baseUri())))) {
+            return Optional.empty();
+        }
+
+        return entry(target).resolver.findById(target.getFragment());
+    }
+
+    /**
+     * Loads all documents referenced by the document, directly or through
+     * other referenced documents. Each document is loaded once. Loading is
+     * all-or-nothing, the first document that cannot be loaded fails the call,
+     * use {@link #loadReferenced(Document, Map)} to collect failures.
+     *
+     * @param document a document
+     * @return loaded documents by their URIs in the order they were found
+     * @throws IOException if a referenced document cannot be fetched
+     * @throws DocumentParserException if a referenced document cannot be parsed
+     */
+    public Map<URI, Document> loadReferenced(final Document document) throws IOException, DocumentParserException {
+        return load(document, null);
+    }
+
+    /**
+     * Loads all documents referenced by the document, directly or through
+     * other referenced documents. A document that cannot be fetched or parsed
+     * is reported as failed and its references are not followed, other
+     * documents are loaded.
+     *
+     * @param document a document
+     * @param failed receives URIs of documents that cannot be loaded and the failures
+     * @return loaded documents by their URIs in the order they were found
+     */
+    public Map<URI, Document> loadReferenced(final Document document, final Map<URI, Exception> failed) {
+
+        if (failed == null) {
+            throw new IllegalArgumentException("The failed documents map must not be null.");
+        }
+
+        try {
+            return load(document, failed);
+
+        } catch (IOException | DocumentParserException e) {
+            // failures are collected
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<URI, Document> load(final Document document, final Map<URI, Exception> failed) throws IOException, DocumentParserException {
+
+        final Map<URI, Document> documents = new LinkedHashMap<>();
+
+        final Deque<ReferenceResolver> pending = new ArrayDeque<>();
+        pending.add(resolver(document));
+
+        if (document.baseUri() != null) {
+            documents.put(withoutFragment(document.baseUri()), document);
+        }
+
+        while (!pending.isEmpty()) {
+
+            final ReferenceResolver resolver = pending.poll();
+
+            for (final Descriptor descriptor : resolver.getExternalReferences()) {
+
+                final URI base = resolver.getDocument().baseUri();
+                final URI href = descriptor.href().get();
+
+                final URI target = withoutFragment(base != null ? base.resolve(href) : href);
+
+                if (!target.isAbsolute() || documents.containsKey(target) || (failed != null && failed.containsKey(target))) {
+                    continue;
+                }
+
+                final Entry entry;
+
+                try {
+                    entry = entry(target);
+
+                } catch (IOException | DocumentParserException e) {
+
+                    if (failed == null) {
+                        throw e;
+                    }
+
+                    failed.put(target, e);
+                    continue;
+                }
+
+                documents.put(target, entry.document);
+                pending.add(entry.resolver);
+            }
+        }
+
+        // the document itself is not referenced
+        if (document.baseUri() != null) {
+            documents.remove(withoutFragment(document.baseUri()));
+        }
+
+        return documents;
+    }
+
+    /**
+     * Returns the number of documents parsed by the loader.
+     *
+     * @return the number of documents parsed
+     */
+    public long getLoadedCount() {
+        return loaded.get();
+    }
+
+    public synchronized int getCacheSize() {
+        return cache.size();
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    private final ReferenceResolver resolver(final Document document) {
+
+        if (document == null) {
+            throw new IllegalArgumentException("The document must not be null.");
+        }
+
+        if (document.baseUri() != null) {
+            synchronized (this) {
+                final Entry entry = cache.get(withoutFragment(document.baseUri()));
+
+                if (entry != null && entry.document == document) {
+                    return entry.resolver;
+                }
+            }
+        }
+
+        final ReferenceResolver last = lastResolver;
+
+        if (last != null && last.getDocument() == document) {
+            return last;
+        }
+
+        final ReferenceResolver resolver = ReferenceResolver.of(document);
+
+        lastResolver = resolver;
+
+        return resolver;
+    }
+
+    /**
+     * Returns a cached or fetched document. The loader is locked only to access
+     * the cache and the pending fetches, a document is fetched, revalidated and
+     * parsed by the first requesting thread without the lock.
+     */
+    private Entry entry(final URI uri) throws IOException, DocumentParserException {
+
+        final URI key = withoutFragment(uri);
+
+        if (!key.isAbsolute()) {
+            throw new IllegalArgumentException("The document URI must be absolute but was [" + uri + "].");
+        }
+
+        final Entry cached;
+        final CompletableFuture<Entry> future;
+        final boolean owner;
+
+        synchronized (this) {
+
+            final CompletableFuture<Entry> fetching = pending.get(key);
+
+            if (fetching != null) {
+                cached = null;
+                future = fetching;
+                owner = false;
+
+            } else {
+                cached = cache.get(key);
+
+                if (cached != null && (revalidateAfter == null || clock.instant().isBefore(cached.validated.plus(revalidateAfter)))) {
+                    return cached;
+                }
+
+                future = new CompletableFuture<>();
+                owner = true;
+                pending.put(key, future);
+            }
+        }
+
+        // another thread is fetching the document
+        if (!owner) {
+            return await(future);
+        }
+
+        try {
+            final Entry entry;
+
+            if (cached != null && !cached.fetcher.isModified(key, cached.tag)) {
+                cached.validated = clock.instant();
+                entry = cached;
+
+            } else {
+                entry = fetch(key);
+            }
+
+            synchronized (this) {
+                cache.put(key, entry);
+                pending.remove(key);
+            }
+
+            future.complete(entry);
+            return entry;
+
+        } catch (Throwable e) {
+
+            // waiting threads must not wait forever
+            synchronized (this) {
+                pending.remove(key);
+            }
+
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static final Entry await(final CompletableFuture<Entry> future) throws IOException, DocumentParserException {
+
+        try {
+            return future.join();
+
+        } catch (CompletionException e) {
+
+            if (e.getCause() instanceof IOException) {
+                throw (IOException)e.getCause();
+            }
+
+            if (e.getCause() instanceof DocumentParserException) {
+                throw (DocumentParserException)e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    private final Entry fetch(final URI uri) throws IOException, DocumentParserException {
+
+        for (final DocumentFetcher fetcher : fetchers) {
+
+            if (!fetcher.isSupported(uri)) {
+                continue;
+            }
+
+            try (final DocumentSource source = fetcher.fetch(uri)) {
+
+                final DocumentParser parser = source.getMediaType() != null ? parsers.get(source.getMediaType()) : null;
+
+                if (parser == null) {
+                    throw new DocumentParserException("Document [" + uri + "] of media type [" + source.getMediaType() + "] cannot be parsed.");
+                }
+
+                Document document = parser.parse(uri, source.getStream());
+
+                if (document == null) {
+                    throw new DocumentParserException("Document [" + uri + "] is empty.");
+                }
+
+                final ElementInterner interner = this.interner;
+
+                if (interner != null) {
+                    document = interner.intern(document);
+                }
+
+                loaded.incrementAndGet();
+
+                return new Entry(document, ReferenceResolver.of(document), fetcher, source.getTag(), clock.instant());
+            }
+        }
+
+        throw new IOException("Document [" + uri + "] cannot be fetched, the URI scheme is not supported.");
+    }
+
+    private static final URI withoutFragment(final URI uri) {
+
+        if (uri.getRawFragment() == null) {
+            return uri;
+        }
+
+        try {
+            return new URI(uri.getScheme(), uri.getSchemeSpecificPart(), null);
+
+        } catch (URISyntaxException e) {
+            return uri;
+        }
+    }
+
+    private static final class Entry {
+
+        final Document document;
+        final ReferenceResolver resolver;
+        final DocumentFetcher fetcher;
+        final String tag;
+
+        volatile Instant validated;
+
+        Entry(final Document document, final ReferenceResolver resolver, final DocumentFetcher fetcher, final String tag, final Instant validated) {
+            this.document = document;
+            this.resolver = resolver;
+            this.fetcher = fetcher;
+            this.tag = tag;
+            this.validated = validated;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.loader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * A fetched document content.
+ */
+public final class DocumentSource implements Closeable {
+
+    public static final String MEDIA_TYPE_ALPS_JSON = "application/alps+json";
+    public static final String MEDIA_TYPE_ALPS_XML = "application/alps+xml";
+
+    private final InputStream stream;
+    private final String mediaType;
+    private final String tag;
+
+    /**
+     * Creates a new content.
+     *
+     * @param stream a content
+     * @param mediaType a media type of the content, can be <code>null</code> if not known
+     * @param tag a version of the content, e.g. HTTP <code>ETag</code>, can be <code>null</code>
+     */
+    public DocumentSource(final InputStream stream, final String mediaType, final String tag) {
+        this.stream = stream;
+        this.mediaType = mediaType;
+        this.tag = tag;
+    }
+
+    public InputStream getStream() {
+        return stream;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+
+    /**
+     * Guesses a media type from a file name extension.
+     *
+     * @param name a file name or a path
+     * @return the media type or <code>null</code> if not known
+     */
+    public static final String guessMediaType(final String name) {
+
+        if (name == null) {
+            return null;
+        }
+
+        final String lowerCase = name.toLowerCase(Locale.ROOT);
+
+        if (lowerCase.endsWith(".json")) {
+            return MEDIA_TYPE_ALPS_JSON;
+        }
+
+        if (lowerCase.endsWith(".xml")) {
+            return MEDIA_TYPE_ALPS_XML;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.loader;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Fetches <code>file:</code> documents. A document is considered modified
+ * if its last modified time or size have changed.
+ */
+public final class FileDocumentFetcher implements DocumentFetcher {
+
+    @Override
+    public boolean isSupported(final URI uri) {
+        return "file".equalsIgnoreCase(uri.getScheme());
+    }
+
+    @Override
+    public DocumentSource fetch(final URI uri) throws IOException {
+
+        final Path path = Paths.get(uri);
+
+        final String tag = getTag(path);
+
+        return new DocumentSource(new BufferedInputStream(Files.newInputStream(path)), DocumentSource.guessMediaType(path.toString()), tag);
+    }
+
+    @Override
+    public boolean isModified(final URI uri, final String tag) throws IOException {
+        return tag == null || !tag.equals(getTag(Paths.get(uri)));
+    }
+
+    private static final String getTag(final Path path) throws IOException {
+
+        final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+        return attributes.lastModifiedTime().toMillis() + "-" + attributes.size();
+    }
+}
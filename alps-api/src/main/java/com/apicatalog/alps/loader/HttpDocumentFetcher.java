@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.loader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+
+/**
+ * Fetches <code>http:</code> and <code>https:</code> documents. A document
+ * is revalidated by a conditional request if the server has sent
+ * <code>ETag</code> header.
+ */
+public final class HttpDocumentFetcher implements DocumentFetcher {
+
+    static final String ACCEPT = DocumentSource.MEDIA_TYPE_ALPS_JSON + ", " + DocumentSource.MEDIA_TYPE_ALPS_XML + ";q=0.9, */*;q=0.1";
+
+    private final HttpClient client;
+    private final Duration timeout;
+
+    public HttpDocumentFetcher() {
+        this(HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build(), Duration.ofSeconds(30));
+    }
+
+    public HttpDocumentFetcher(final HttpClient client, final Duration timeout) {
+        this.client = client;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public boolean isSupported(final URI uri) {
+        return "http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme());
+    }
+
+    @Override
+    public DocumentSource fetch(final URI uri) throws IOException {
+
+        final HttpResponse<InputStream> response = send(HttpRequest.newBuilder(uri).timeout(timeout).header("Accept", ACCEPT).GET().build());
+
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Document [" + uri + "] cannot be fetched, status code " + response.statusCode() + ".");
+        }
+
+        final String mediaType = response.headers()
+                                    .firstValue("Content-Type")
+                                    .map(value -> value.split(";")[0].strip())
+                                    .filter(value -> DocumentSource.MEDIA_TYPE_ALPS_JSON.equals(value) || DocumentSource.MEDIA_TYPE_ALPS_XML.equals(value))
+                                    .orElseGet(() -> DocumentSource.guessMediaType(uri.getPath()));
+
+        return new DocumentSource(response.body(), mediaType, response.headers().firstValue("ETag").orElse(null));
+    }
+
+    @Override
+    public boolean isModified(final URI uri, final String tag) throws IOException {
+
+        if (tag == null) {
+            return true;
+        }
+
+        final HttpResponse<InputStream> response = send(HttpRequest.newBuilder(uri).timeout(timeout).header("Accept", ACCEPT).header("If-None-Match", tag).method("HEAD", HttpRequest.BodyPublishers.noBody()).build());
+
+        response.body().close();
+
+        return response.statusCode() != 304;
+    }
+
+    private final HttpResponse<InputStream> send(final HttpRequest request) throws IOException {
+        try {
+            return client.send(request, BodyHandlers.ofInputStream());
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,457 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import com.apicatalog.alps.Alps;
+import com.apicatalog.alps.DescriptorBuilder;
+import com.apicatalog.alps.DocumentBuilder;
+import com.apicatalog.alps.DocumentationBuilder;
+import com.apicatalog.alps.ExtensionBuilder;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.DocumentVersion;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.dom.element.DescriptorType;
+import com.apicatalog.alps.dom.element.Documentation;
+import com.apicatalog.alps.dom.element.Extension;
+import com.apicatalog.alps.dom.element.Link;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.io.DocumentParser;
+import com.apicatalog.alps.io.ParseEvent;
+import com.apicatalog.alps.io.ParserLimits;
+import com.apicatalog.alps.io.ParserOptions;
+
+/**
+ * Reads a document written by {@link BinaryDocumentWriter}. Strings are
+ * decoded once and URIs are created once per distinct string.
+ */
+public final class BinaryDocumentParser implements DocumentParser {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final DocumentVersion[] VERSIONS = DocumentVersion.values();
+
+    private static final DescriptorType[] TYPES = DescriptorType.values();
+
+    private final ParserOptions options;
+
+    public BinaryDocumentParser() {
+        this(new ParserOptions());
+    }
+
+    public BinaryDocumentParser(final ParserOptions options) {
+        this.options = options;
+    }
+
+    @Override
+    public Document parse(final URI baseUri, final InputStream stream) throws IOException, DocumentParserException {
+
+        if (stream == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final ParserLimits limits = new ParserLimits(options);
+
+        final ParseEvent event = ParseEvent.start(BinaryFormat.MEDIA_TYPE, limits);
+
+        try {
+            try {
+                return event.complete(new Decoder(limits.limit(stream), limits).document(baseUri), limits);
+
+            } catch (IOException e) {
+                limits.checkInput();
+                throw e;
+            }
+
+        } catch (DocumentParserException | IOException e) {
+            event.fail(e, limits);
+            throw e;
+        }
+    }
+
+    @Override
+    public Document parse(final URI baseUri, final Reader reader) throws DocumentParserException {
+
+        if (reader == null) {
+            throw new IllegalArgumentException();
+        }
+
+        throw new DocumentParserException("A binary document cannot be read from a character stream.");
+    }
+
+    private static final class Decoder {
+
+        private final InputStream stream;
+        private final ParserLimits limits;
+
+        private final byte[] buffer;
+        private int position;
+        private int limit;
+
+        private String[] strings;
+        private URI[] uris;
+
+        Decoder(final InputStream stream, final ParserLimits limits) {
+            this.stream = stream;
+            this.limits = limits;
+            this.buffer = new byte[BUFFER_SIZE];
+            this.position = 0;
+            this.limit = 0;
+        }
+
+        Document document(final URI baseUri) throws IOException, DocumentParserException {
+
+            for (final byte magic : BinaryFormat.MAGIC) {
+                if (read() != magic) {
+                    throw new DocumentParserException("The input is not a binary ALPS document.");
+                }
+            }
+
+            final int formatVersion = read();
+
+            if (formatVersion != BinaryFormat.FORMAT_VERSION) {
+                throw new DocumentParserException("Unsupported binary format version " + formatVersion + ", expected " + BinaryFormat.FORMAT_VERSION + ".");
+            }
+
+            readStrings();
+
+            final DocumentBuilder document = Alps.createDocument(version()).base(baseUri);
+
+            document.title(string());
+
+            final ParserOptions options = limits.getOptions();
+
+            final Deque<DescriptorBuilder> stack = new ArrayDeque<>();
+
+            while (true) {
+
+                final int code = read();
+
+                switch (code) {
+                case BinaryFormat.END:
+                    if (stack.isEmpty()) {
+                        return document.build();
+                    }
+
+                    final Descriptor descriptor = stack.pop().build();
+
+                    if (stack.isEmpty()) {
+                        document.add(descriptor);
+
+                    } else {
+                        stack.peek().add(descriptor);
+                    }
+                    break;
+
+                case BinaryFormat.DOCUMENTATION:
+                    final Documentation documentation = documentation();
+
+                    if (!options.isDocumentationSkipped()) {
+                        if (stack.isEmpty()) {
+                            document.add(documentation);
+
+                        } else {
+                            stack.peek().add(documentation);
+                        }
+                    }
+                    break;
+
+                case BinaryFormat.LINK:
+                    final Link link = link();
+
+                    if (!options.isLinksSkipped()) {
+                        if (stack.isEmpty()) {
+                            document.add(link);
+
+                        } else {
+                            stack.peek().add(link);
+                        }
+                    }
+                    break;
+
+                case BinaryFormat.EXTENSION:
+                    final Extension extension = extension();
+
+                    if (!options.isExtensionsSkipped()) {
+                        if (stack.isEmpty()) {
+                            document.add(extension);
+
+                        } else {
+                            stack.peek().add(extension);
+                        }
+                    }
+                    break;
+
+                case BinaryFormat.DESCRIPTOR:
+                    limits.checkDepth(stack.size() + 1);
+                    limits.addDescriptor();
+                    stack.push(descriptor());
+                    break;
+
+                default:
+                    throw new DocumentParserException("Unknown element code " + code + ".");
+                }
+            }
+        }
+
+        private DescriptorBuilder descriptor() throws IOException, DocumentParserException {
+            return Alps.createDescriptor()
+                        .id(uri())
+                        .href(uri())
+                        .definition(uri())
+                        .name(string())
+                        .title(string())
+                        .returnType(uri())
+                        .type(type())
+                        .tag(tags());
+        }
+
+        private Documentation documentation() throws IOException, DocumentParserException {
+
+            final DocumentationBuilder builder = Alps.createDocumentation().href(uri());
+
+            final String type = string();
+            final String value = string();
+
+            if (value != null) {
+                limits.checkDocumentation(value.length());
+                builder.type(type).append(value);
+            }
+
+            return builder.tag(tags()).build();
+        }
+
+        private Link link() throws IOException, DocumentParserException {
+
+            return Alps.createLink()
+                        .href(uri())
+                        .rel(string())
+                        .title(string())
+                        .tag(tags())
+                        .build();
+        }
+
+        private Extension extension() throws IOException, DocumentParserException {
+
+            limits.addExtension();
+
+            final ExtensionBuilder builder = Alps.createExtension()
+                                                    .id(uri())
+                                                    .href(uri())
+                                                    .value(string())
+                                                    .tag(tags());
+
+            final int attributes = varint();
+
+            for (int i = 0; i < attributes; i++) {
+                builder.attribute(string(), string());
+            }
+
+            return builder.build();
+        }
+
+        private List<String> tags() throws IOException, DocumentParserException {
+
+            final int count = varint();
+
+            if (count == 0) {
+                return null;
+            }
+
+            final List<String> tags = new ArrayList<>(Math.min(count, 16));
+
+            for (int i = 0; i < count; i++) {
+                tags.add(string());
+            }
+
+            return Collections.unmodifiableList(tags);
+        }
+
+        private void readStrings() throws IOException, DocumentParserException {
+
+            final int count = varint();
+
+            // the count is not trusted to pre-allocate the table
+            final List<String> table = new ArrayList<>(Math.min(count, 1024));
+
+            for (int i = 0; i < count; i++) {
+                table.add(readString(varint()));
+            }
+
+            strings = table.toArray(new String[table.size()]);
+            uris = new URI[strings.length];
+        }
+
+        private String string() throws IOException, DocumentParserException {
+
+            final int index = varint();
+
+            if (index == BinaryFormat.NONE) {
+                return null;
+            }
+
+            if (index > strings.length) {
+                throw new DocumentParserException("String reference " + index + " is out of the string table of size " + strings.length + ".");
+            }
+
+            return strings[index - 1];
+        }
+
+        private URI uri() throws IOException, DocumentParserException {
+
+            final int index = varint();
+
+            if (index == BinaryFormat.NONE) {
+                return null;
+            }
+
+            if (index > strings.length) {
+                throw new DocumentParserException("String reference " + index + " is out of the string table of size " + strings.length + ".");
+            }
+
+            URI uri = uris[index - 1];
+
+            if (uri == null) {
+                try {
+                    uri = URI.create(strings[index - 1]);
+
+                } catch (IllegalArgumentException e) {
+                    throw new DocumentParserException(e);
+                }
+                uris[index - 1] = uri;
+            }
+
+            return uri;
+        }
+
+        private DocumentVersion version() throws IOException, DocumentParserException {
+
+            final int code = read();
+
+            if (code >= VERSIONS.length) {
+                throw new DocumentParserException("Unknown document version code " + code + ".");
+            }
+
+            return VERSIONS[code];
+        }
+
+        private DescriptorType type() throws IOException, DocumentParserException {
+
+            final int code = read();
+
+            if (code == BinaryFormat.NONE) {
+                return null;
+            }
+
+            if (code > TYPES.length) {
+                throw new DocumentParserException("Unknown descriptor type code " + code + ".");
+            }
+
+            return TYPES[code - 1];
+        }
+
+        private int varint() throws IOException, DocumentParserException {
+
+            int value = 0;
+
+            for (int shift = 0; shift < 32; shift += 7) {
+
+                final int b = read();
+
+                // the last byte can carry non-negative int bits only
+                if (shift == 28 && b > 0x07) {
+                    break;
+                }
+
+                value |= (b & 0x7f) << shift;
+
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+
+            throw new DocumentParserException("Malformed variable length integer.");
+        }
+
+        private String readString(final int length) throws IOException, DocumentParserException {
+
+            if (length <= buffer.length) {
+                ensure(length);
+                final String string = new String(buffer, position, length, StandardCharsets.UTF_8);
+                position += length;
+                return string;
+            }
+
+            // a long string, buffered bytes are followed by the rest of the stream
+            final int buffered = limit - position;
+            final byte[] rest = stream.readNBytes(length - buffered);
+
+            if (rest.length != length - buffered) {
+                throw new DocumentParserException("Unexpected end of the binary document.");
+            }
+
+            final byte[] bytes = new byte[length];
+            System.arraycopy(buffer, position, bytes, 0, buffered);
+            System.arraycopy(rest, 0, bytes, buffered, rest.length);
+
+            position = limit;
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private int read() throws IOException, DocumentParserException {
+
+            if (position == limit) {
+                ensure(1);
+            }
+
+            return buffer[position++] & 0xff;
+        }
+
+        private void ensure(final int length) throws IOException, DocumentParserException {
+
+            if (limit - position >= length) {
+                return;
+            }
+
+            // compact the buffer
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+
+            while (limit < length) {
+
+                final int count = stream.read(buffer, limit, buffer.length - limit);
+
+                if (count == -1) {
+                    throw new DocumentParserException("Unexpected end of the binary document.");
+                }
+
+                limit += count;
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+import java.io.BufferedOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.dom.element.Documentation;
+import com.apicatalog.alps.dom.element.Extension;
+import com.apicatalog.alps.dom.element.Link;
+import com.apicatalog.alps.io.DocumentWriter;
+import com.apicatalog.alps.io.WriteEvent;
+
+/**
+ * Writes a document in the compact binary format described by
+ * {@link BinaryFormat}. Each distinct string is written once.
+ */
+public final class BinaryDocumentWriter implements DocumentWriter {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final OutputStream stream;
+
+    /** a counted output, or null */
+    private final Flushable output;
+
+    public BinaryDocumentWriter(final OutputStream stream) {
+        this(stream, null);
+    }
+
+    private BinaryDocumentWriter(final OutputStream stream, final Flushable output) {
+        this.stream = stream;
+        this.output = output;
+    }
+
+    public static final DocumentWriter create(final OutputStream stream) {
+
+        final OutputStream output = WriteEvent.count(stream);
+
+        return new BinaryDocumentWriter(output instanceof BufferedOutputStream ? output : new BufferedOutputStream(output, BUFFER_SIZE), output);
+    }
+
+    /**
+     * Writes the document in two passes, the first pass collects the string
+     * table and the second pass writes the body.
+     */
+    @Override
+    public void write(final Document document) throws IOException {
+
+        if (document == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final WriteEvent event = WriteEvent.start(BinaryFormat.MEDIA_TYPE);
+
+        try {
+            writeDocument(document);
+
+        } catch (IOException | RuntimeException e) {
+            event.complete(document, output, e);
+            throw e;
+        }
+
+        event.complete(document, output, null);
+    }
+
+    private void writeDocument(final Document document) throws IOException {
+
+        final Map<String, Integer> strings = new HashMap<>();
+        final Encoder collector = new Encoder(null, strings);
+
+        collector.document(document);
+
+        stream.write(BinaryFormat.MAGIC);
+        stream.write(BinaryFormat.FORMAT_VERSION);
+
+        // string table ordered by indices
+        final String[] table = new String[strings.size()];
+
+        for (final Map.Entry<String, Integer> entry : strings.entrySet()) {
+            table[entry.getValue() - 1] = entry.getKey();
+        }
+
+        writeVarint(stream, table.length);
+
+        for (final String string : table) {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarint(stream, bytes.length);
+            stream.write(bytes);
+        }
+
+        new Encoder(stream, strings).document(document);
+
+        stream.flush();
+    }
+
+    @Override
+    public void close() throws Exception {
+        stream.close();
+    }
+
+    static final void writeVarint(final OutputStream stream, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            stream.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        stream.write(value);
+    }
+
+    /**
+     * Walks the document, collects strings if no stream is set.
+     */
+    private static final class Encoder {
+
+        private final OutputStream stream;
+        private final Map<String, Integer> strings;
+
+        Encoder(final OutputStream stream, final Map<String, Integer> strings) {
+            this.stream = stream;
+            this.strings = strings;
+        }
+
+        void document(final Document document) throws IOException {
+
+            code(document.version().ordinal());
+            string(document.title());
+
+            elements(document.documentation(), document.links(), document.extensions());
+
+            // nested descriptors are written without recursion
+            final Deque<Iterator<Descriptor>> stack = new ArrayDeque<>();
+            stack.push(document.descriptors().iterator());
+
+            while (!stack.isEmpty()) {
+
+                final Iterator<Descriptor> iterator = stack.peek();
+
+                if (!iterator.hasNext()) {
+                    stack.pop();
+                    code(BinaryFormat.END);
+                    continue;
+                }
+
+                final Descriptor descriptor = iterator.next();
+
+                code(BinaryFormat.DESCRIPTOR);
+                uri(descriptor.id());
+                uri(descriptor.href());
+                uri(descriptor.definition());
+                string(descriptor.name());
+                string(descriptor.title());
+                uri(descriptor.returnType());
+                code(descriptor.type() != null ? descriptor.type().ordinal() + 1 : BinaryFormat.NONE);
+                tags(descriptor.tag());
+
+                elements(descriptor.documentation(), descriptor.links(), descriptor.extensions());
+
+                stack.push(descriptor.descriptors().iterator());
+            }
+        }
+
+        void elements(final Collection<Documentation> documentation, final Collection<Link> links, final Collection<Extension> extensions) throws IOException {
+
+            for (final Documentation doc : documentation) {
+                code(BinaryFormat.DOCUMENTATION);
+                uri(doc.href());
+
+                if (doc.content().isPresent()) {
+                    string(doc.content().get().type());
+                    string(doc.content().get().value());
+
+                } else {
+                    string((String)null);
+                    string((String)null);
+                }
+                tags(doc.tag());
+            }
+
+            for (final Link link : links) {
+                code(BinaryFormat.LINK);
+                uri(link.href());
+                string(link.rel());
+                string(link.title());
+                tags(link.tag());
+            }
+
+            for (final Extension extension : extensions) {
+                code(BinaryFormat.EXTENSION);
+                uri(extension.id());
+                uri(extension.href());
+                string(extension.value());
+                tags(extension.tag());
+
+                final Map<String, String> attributes = extension.attributes();
+
+                varint(attributes.size());
+
+                for (final Map.Entry<String, String> attribute : attributes.entrySet()) {
+                    string(attribute.getKey());
+                    string(attribute.getValue());
+                }
+            }
+        }
+
+        void tags(final List<String> tags) throws IOException {
+            varint(tags.size());
+            for (final String tag : tags) {
+                string(tag);
+            }
+        }
+
+        void uri(final Optional<URI> uri) throws IOException {
+            uri(uri.orElse(null));
+        }
+
+        void uri(final URI uri) throws IOException {
+            string(uri != null ? uri.toString() : null);
+        }
+
+        void string(final Optional<String> string) throws IOException {
+            string(string.orElse(null));
+        }
+
+        void string(final String string) throws IOException {
+
+            if (stream == null) {
+                if (string != null) {
+                    strings.putIfAbsent(string, strings.size() + 1);
+                }
+                return;
+            }
+
+            writeVarint(stream, string != null ? strings.get(string) : BinaryFormat.NONE);
+        }
+
+        void varint(final int value) throws IOException {
+            if (stream != null) {
+                writeVarint(stream, value);
+            }
+        }
+
+        void code(final int code) throws IOException {
+            if (stream != null) {
+                stream.write(code);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+/**
+ * Constants of the binary document format.
+ * <p>
+ * A document starts with {@link #MAGIC} and {@link #FORMAT_VERSION} followed
+ * by a string table and by the document body. The string table is a varint
+ * count of strings followed by the strings, each string is a varint length
+ * of UTF-8 bytes followed by the bytes. The body refers the strings by a
+ * varint index plus one, zero denotes an absent value.
+ * </p>
+ * <p>
+ * The body is a document version and a title followed by elements terminated
+ * by {@link #END}. Each element starts with a type code, a descriptor
+ * contains its nested elements terminated by {@link #END}. Enumerations are
+ * written as ordinals, a descriptor type as an ordinal plus one.
+ * </p>
+ */
+final class BinaryFormat {
+
+    static final String MEDIA_TYPE = "application/alps+binary";
+
+    static final byte[] MAGIC = { 'A', 'L', 'P', 'B' };
+
+    static final int FORMAT_VERSION = 1;
+
+    static final int END = 0;
+    static final int DOCUMENTATION = 1;
+    static final int LINK = 2;
+    static final int EXTENSION = 3;
+    static final int DESCRIPTOR = 4;
+
+    /** an absent string reference */
+    static final int NONE = 0;
+
+    private BinaryFormat() {
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Decodes catalog values from a buffer. Only absolute reads are used, so a
+ * buffer is safely shared by many threads.
+ */
+final class CatalogBuffer {
+
+    private final ByteBuffer buffer;
+
+    private final int stringCount;
+    private final int stringOffsets;
+    private final int stringHashes;
+
+    CatalogBuffer(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.stringCount = buffer.getInt(CatalogFormat.HEADER_STRING_COUNT);
+        this.stringOffsets = buffer.getInt(CatalogFormat.HEADER_STRING_OFFSETS);
+        this.stringHashes = buffer.getInt(CatalogFormat.HEADER_STRING_HASHES);
+    }
+
+    int getInt(final int offset) {
+        return buffer.getInt(offset);
+    }
+
+    String string(final int reference) {
+
+        if (reference == CatalogFormat.NONE) {
+            return null;
+        }
+
+        final int start = buffer.getInt(stringOffsets + 4 * (reference - 1));
+        final int end = buffer.getInt(stringOffsets + 4 * reference);
+
+        final byte[] bytes = new byte[end - start];
+
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    URI uri(final int reference) {
+
+        final String uri = string(reference);
+
+        return uri != null ? URI.create(uri) : null;
+    }
+
+    /**
+     * Finds a reference of the given string.
+     *
+     * @param string a string to find
+     * @return the string reference or {@link CatalogFormat#NONE} if the catalog does not contain the string
+     */
+    int find(final String string) {
+
+        if (stringCount == 0) {
+            return CatalogFormat.NONE;
+        }
+
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+
+        final int capacity = buffer.getInt(stringHashes);
+
+        int slot = CatalogFormat.hash(string.hashCode()) & (capacity - 1);
+
+        while (true) {
+
+            final int reference = buffer.getInt(stringHashes + 4 + 4 * slot);
+
+            if (reference == CatalogFormat.NONE) {
+                return CatalogFormat.NONE;
+            }
+
+            if (matches(reference, bytes)) {
+                return reference;
+            }
+
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    /**
+     * Finds the first offset paired with the given reference in an index.
+     *
+     * @param index an index offset
+     * @param reference a string reference
+     * @return a record offset or {@link CatalogFormat#NONE} if the index does not contain the reference
+     */
+    int search(final int index, final int reference) {
+
+        if (index == CatalogFormat.NONE || reference == CatalogFormat.NONE) {
+            return CatalogFormat.NONE;
+        }
+
+        int low = 0;
+        int high = buffer.getInt(index);
+
+        while (low < high) {
+
+            final int middle = (low + high) >>> 1;
+
+            if (buffer.getInt(index + 4 + 8 * middle) < reference) {
+                low = middle + 1;
+
+            } else {
+                high = middle;
+            }
+        }
+
+        if (low < buffer.getInt(index) && buffer.getInt(index + 4 + 8 * low) == reference) {
+            return buffer.getInt(index + 8 + 8 * low);
+        }
+
+        return CatalogFormat.NONE;
+    }
+
+    int size(final int list) {
+        return list != CatalogFormat.NONE ? buffer.getInt(list) : 0;
+    }
+
+    List<String> strings(final int list) {
+
+        final int size = size(list);
+
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+
+        final String[] strings = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            strings[i] = string(buffer.getInt(list + 4 + 4 * i));
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(strings));
+    }
+
+    /**
+     * Returns a set view of a list of records, items are decoded on access.
+     */
+    <T> Set<T> records(final int list, final IntFunction<T> view) {
+
+        final int size = size(list);
+
+        if (size == 0) {
+            return Collections.emptySet();
+        }
+
+        return new AbstractSet<T>() {
+
+            @Override
+            public Iterator<T> iterator() {
+                return new Iterator<T>() {
+
+                    int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < size;
+                    }
+
+                    @Override
+                    public T next() {
+
+                        if (index >= size) {
+                            throw new NoSuchElementException();
+                        }
+
+                        return view.apply(buffer.getInt(list + 4 + 4 * index++));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private boolean matches(final int reference, final byte[] bytes) {
+
+        final int start = buffer.getInt(stringOffsets + 4 * (reference - 1));
+        final int end = buffer.getInt(stringOffsets + 4 * reference);
+
+        if (end - start != bytes.length) {
+            return false;
+        }
+
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
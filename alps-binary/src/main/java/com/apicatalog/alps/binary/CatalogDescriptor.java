@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.dom.element.DescriptorType;
+import com.apicatalog.alps.dom.element.Documentation;
+import com.apicatalog.alps.dom.element.Extension;
+import com.apicatalog.alps.dom.element.Link;
+
+final class CatalogDescriptor extends CatalogRecord implements Descriptor {
+
+    private static final DescriptorType[] TYPES = DescriptorType.values();
+
+    CatalogDescriptor(final CatalogBuffer buffer, final int offset) {
+        super(buffer, offset);
+    }
+
+    @Override
+    public Optional<URI> id() {
+        return Optional.ofNullable(buffer.uri(field(CatalogFormat.DESCRIPTOR_ID)));
+    }
+
+    @Override
+    public Optional<URI> href() {
+        return Optional.ofNullable(buffer.uri(field(CatalogFormat.DESCRIPTOR_HREF)));
+    }
+
+    @Override
+    public Optional<URI> definition() {
+        return Optional.ofNullable(buffer.uri(field(CatalogFormat.DESCRIPTOR_DEFINITION)));
+    }
+
+    @Override
+    public Optional<String> name() {
+        return Optional.ofNullable(buffer.string(field(CatalogFormat.DESCRIPTOR_NAME)));
+    }
+
+    @Override
+    public DescriptorType type() {
+
+        final int type = field(CatalogFormat.DESCRIPTOR_TYPE);
+
+        return type != CatalogFormat.NONE ? TYPES[type - 1] : null;
+    }
+
+    @Override
+    public Optional<URI> returnType() {
+        return Optional.ofNullable(buffer.uri(field(CatalogFormat.DESCRIPTOR_RETURN_TYPE)));
+    }
+
+    @Override
+    public Optional<String> title() {
+        return Optional.ofNullable(buffer.string(field(CatalogFormat.DESCRIPTOR_TITLE)));
+    }
+
+    @Override
+    public List<String> tag() {
+        return buffer.strings(field(CatalogFormat.DESCRIPTOR_TAGS));
+    }
+
+    @Override
+    public Set<Documentation> documentation() {
+        return buffer.records(field(CatalogFormat.DESCRIPTOR_DOCUMENTATION), offset -> new CatalogDocumentation(buffer, offset));
+    }
+
+    @Override
+    public Set<Extension> extensions() {
+        return buffer.records(field(CatalogFormat.DESCRIPTOR_EXTENSIONS), offset -> new CatalogExtension(buffer, offset));
+    }
+
+    @Override
+    public Set<Descriptor> descriptors() {
+        return buffer.records(field(CatalogFormat.DESCRIPTOR_DESCRIPTORS), offset -> new CatalogDescriptor(buffer, offset));
+    }
+
+    @Override
+    public Set<Link> links() {
+        return buffer.records(field(CatalogFormat.DESCRIPTOR_LINKS), offset -> new CatalogLink(buffer, offset));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+import java.net.URI;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.DocumentVersion;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.dom.element.Documentation;
+import com.apicatalog.alps.dom.element.Extension;
+import com.apicatalog.alps.dom.element.Link;
+
+final class CatalogDocument extends CatalogRecord implements Document {
+
+    private static final DocumentVersion[] VERSIONS = DocumentVersion.values();
+
+    CatalogDocument(final CatalogBuffer buffer, final int offset) {
+        super(buffer, offset);
+    }
+
+    @Override
+    public Optional<Descriptor> findById(final URI id) {
+
+        final int descriptor = buffer.search(field(CatalogFormat.DOCUMENT_INDEX), buffer.find(id.toString()));
+
+        return descriptor != CatalogFormat.NONE ? Optional.of(new CatalogDescriptor(buffer, descriptor)) : Optional.empty();
+    }
+
+    @Override
+    public Set<Descriptor> findByName(final String name) {
+
+        final Set<Descriptor> descriptors = new LinkedHashSet<>();
+
+        // an unknown name is not matched by any descriptor
+        if (buffer.find(name) == CatalogFormat.NONE) {
+            return descriptors;
+        }
+
+        for (final Descriptor descriptor : descriptors()) {
+            if (descriptor.name().isPresent() && name.equals(descriptor.name().get())) {
+                descriptors.add(descriptor);
+            }
+        }
+
+        return descriptors;
+    }
+
+    @Override
+    public DocumentVersion version() {
+        return VERSIONS[field(CatalogFormat.DOCUMENT_VERSION)];
+    }
+
+    @Override
+    public Set<Descriptor> descriptors() {
+        return buffer.records(field(CatalogFormat.DOCUMENT_DESCRIPTORS), offset -> new CatalogDescriptor(buffer, offset));
+    }
+
+    @Override
+    public Set<Link> links() {
+        return buffer.records(field(CatalogFormat.DOCUMENT_LINKS), offset -> new CatalogLink(buffer, offset));
+    }
+
+    @Override
+    public Set<Documentation> documentation() {
+        return buffer.records(field(CatalogFormat.DOCUMENT_DOCUMENTATION), offset -> new CatalogDocumentation(buffer, offset));
+    }
+
+    @Override
+    public Set<Extension> extensions() {
+        return buffer.records(field(CatalogFormat.DOCUMENT_EXTENSIONS), offset -> new CatalogExtension(buffer, offset));
+    }
+
+    @Override
+    public URI baseUri() {
+        return buffer.uri(field(CatalogFormat.DOCUMENT_BASE));
+    }
+
+    @Override
+    public Optional<String> title() {
+        return Optional.ofNullable(buffer.string(field(CatalogFormat.DOCUMENT_TITLE)));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+
+import com.apicatalog.alps.dom.element.Documentation;
+
+final class CatalogDocumentation extends CatalogRecord implements Documentation {
+
+    CatalogDocumentation(final CatalogBuffer buffer, final int offset) {
+        super(buffer, offset);
+    }
+
+    @Override
+    public Optional<URI> href() {
+        return Optional.ofNullable(buffer.uri(field(CatalogFormat.DOCUMENTATION_HREF)));
+    }
+
+    @Override
+    public Optional<Content> content() {
+
+        if (field(CatalogFormat.DOCUMENTATION_VALUE) == CatalogFormat.NONE) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new Content() {
+
+            @Override
+            public String type() {
+                return buffer.string(field(CatalogFormat.DOCUMENTATION_TYPE));
+            }
+
+            @Override
+            public String value() {
+                return buffer.string(field(CatalogFormat.DOCUMENTATION_VALUE));
+            }
+        });
+    }
+
+    @Override
+    public List<String> tag() {
+        return buffer.strings(field(CatalogFormat.DOCUMENTATION_TAGS));
+    }
+}
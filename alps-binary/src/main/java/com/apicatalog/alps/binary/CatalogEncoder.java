@@ -0,0 +1,461 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.dom.element.Documentation;
+import com.apicatalog.alps.dom.element.Extension;
+import com.apicatalog.alps.dom.element.Link;
+
+/**
+ * Encodes documents into a catalog in memory. Records are written in
+ * the breadth-first order, a list of nested descriptors is reserved and its
+ * items are set when the descriptors are written.
+ */
+final class CatalogEncoder {
+
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+    private final Map<String, Integer> strings;
+    private final Deque<Pending> pending;
+
+    private byte[] bytes;
+    private int size;
+
+    CatalogEncoder() {
+        this.strings = new HashMap<>();
+        this.pending = new ArrayDeque<>();
+        this.bytes = new byte[64 * 1024];
+        this.size = 0;
+    }
+
+    void encode(final Map<URI, ? extends Document> documents) throws IOException {
+
+        reserve(CatalogFormat.HEADER_SIZE);
+        System.arraycopy(CatalogFormat.MAGIC, 0, bytes, 0, CatalogFormat.MAGIC.length);
+        putInt(4, CatalogFormat.FORMAT_VERSION);
+
+        final int[] profiles = new int[documents.size()];
+        final int[] offsets = new int[documents.size()];
+
+        int index = 0;
+
+        for (final Map.Entry<URI, ? extends Document> entry : documents.entrySet()) {
+            profiles[index] = string(entry.getKey().toString());
+            offsets[index] = document(entry.getValue());
+            index++;
+        }
+
+        putInt(CatalogFormat.HEADER_PROFILE_COUNT, profiles.length);
+        putInt(CatalogFormat.HEADER_PROFILE_INDEX, index(profiles, offsets));
+
+        strings();
+    }
+
+    void writeTo(final WritableByteChannel channel) throws IOException {
+
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, size);
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private int document(final Document document) throws IOException {
+
+        final int offset = reserve(CatalogFormat.DOCUMENT_SIZE);
+
+        putInt(offset + CatalogFormat.DOCUMENT_VERSION, document.version().ordinal());
+        putInt(offset + CatalogFormat.DOCUMENT_BASE, uri(document.baseUri()));
+        putInt(offset + CatalogFormat.DOCUMENT_TITLE, string(document.title()));
+        putInt(offset + CatalogFormat.DOCUMENT_DOCUMENTATION, documentation(document.documentation()));
+        putInt(offset + CatalogFormat.DOCUMENT_LINKS, links(document.links()));
+        putInt(offset + CatalogFormat.DOCUMENT_EXTENSIONS, extensions(document.extensions()));
+
+        final int descriptors = descriptors(document.descriptors());
+
+        putInt(offset + CatalogFormat.DOCUMENT_DESCRIPTORS, descriptors);
+
+        // nested descriptors are written without recursion
+        while (!pending.isEmpty()) {
+            final Pending next = pending.poll();
+            putInt(next.slot, descriptor(next.descriptor));
+        }
+
+        putInt(offset + CatalogFormat.DOCUMENT_INDEX, idIndex(descriptors));
+
+        return offset;
+    }
+
+    private int descriptor(final Descriptor descriptor) throws IOException {
+
+        final int offset = reserve(CatalogFormat.DESCRIPTOR_SIZE);
+
+        putInt(offset + CatalogFormat.DESCRIPTOR_ID, uri(descriptor.id()));
+        putInt(offset + CatalogFormat.DESCRIPTOR_HREF, uri(descriptor.href()));
+        putInt(offset + CatalogFormat.DESCRIPTOR_DEFINITION, uri(descriptor.definition()));
+        putInt(offset + CatalogFormat.DESCRIPTOR_NAME, string(descriptor.name()));
+        putInt(offset + CatalogFormat.DESCRIPTOR_TITLE, string(descriptor.title()));
+        putInt(offset + CatalogFormat.DESCRIPTOR_RETURN_TYPE, uri(descriptor.returnType()));
+        putInt(offset + CatalogFormat.DESCRIPTOR_TYPE, descriptor.type() != null ? descriptor.type().ordinal() + 1 : CatalogFormat.NONE);
+        putInt(offset + CatalogFormat.DESCRIPTOR_TAGS, tags(descriptor.tag()));
+        putInt(offset + CatalogFormat.DESCRIPTOR_DOCUMENTATION, documentation(descriptor.documentation()));
+        putInt(offset + CatalogFormat.DESCRIPTOR_LINKS, links(descriptor.links()));
+        putInt(offset + CatalogFormat.DESCRIPTOR_EXTENSIONS, extensions(descriptor.extensions()));
+        putInt(offset + CatalogFormat.DESCRIPTOR_DESCRIPTORS, descriptors(descriptor.descriptors()));
+
+        return offset;
+    }
+
+    private int descriptors(final Collection<Descriptor> descriptors) throws IOException {
+
+        if (descriptors.isEmpty()) {
+            return CatalogFormat.NONE;
+        }
+
+        final int offset = list(descriptors.size());
+
+        int slot = offset + 4;
+
+        for (final Descriptor descriptor : descriptors) {
+            pending.add(new Pending(descriptor, slot));
+            slot += 4;
+        }
+
+        return offset;
+    }
+
+    private int documentation(final Collection<Documentation> documentation) throws IOException {
+
+        if (documentation.isEmpty()) {
+            return CatalogFormat.NONE;
+        }
+
+        final int offset = list(documentation.size());
+
+        int slot = offset + 4;
+
+        for (final Documentation doc : documentation) {
+
+            final int record = reserve(CatalogFormat.DOCUMENTATION_SIZE);
+
+            putInt(record + CatalogFormat.DOCUMENTATION_HREF, uri(doc.href()));
+
+            if (doc.content().isPresent()) {
+                putInt(record + CatalogFormat.DOCUMENTATION_TYPE, string(doc.content().get().type()));
+                putInt(record + CatalogFormat.DOCUMENTATION_VALUE, string(doc.content().get().value()));
+            }
+
+            putInt(record + CatalogFormat.DOCUMENTATION_TAGS, tags(doc.tag()));
+
+            putInt(slot, record);
+            slot += 4;
+        }
+
+        return offset;
+    }
+
+    private int links(final Collection<Link> links) throws IOException {
+
+        if (links.isEmpty()) {
+            return CatalogFormat.NONE;
+        }
+
+        final int offset = list(links.size());
+
+        int slot = offset + 4;
+
+        for (final Link link : links) {
+
+            final int record = reserve(CatalogFormat.LINK_SIZE);
+
+            putInt(record + CatalogFormat.LINK_HREF, uri(link.href()));
+            putInt(record + CatalogFormat.LINK_REL, string(link.rel()));
+            putInt(record + CatalogFormat.LINK_TITLE, string(link.title()));
+            putInt(record + CatalogFormat.LINK_TAGS, tags(link.tag()));
+
+            putInt(slot, record);
+            slot += 4;
+        }
+
+        return offset;
+    }
+
+    private int extensions(final Collection<Extension> extensions) throws IOException {
+
+        if (extensions.isEmpty()) {
+            return CatalogFormat.NONE;
+        }
+
+        final int offset = list(extensions.size());
+
+        int slot = offset + 4;
+
+        for (final Extension extension : extensions) {
+
+            final int record = reserve(CatalogFormat.EXTENSION_SIZE);
+
+            putInt(record + CatalogFormat.EXTENSION_ID, uri(extension.id()));
+            putInt(record + CatalogFormat.EXTENSION_HREF, uri(extension.href()));
+            putInt(record + CatalogFormat.EXTENSION_VALUE, string(extension.value()));
+            putInt(record + CatalogFormat.EXTENSION_TAGS, tags(extension.tag()));
+            putInt(record + CatalogFormat.EXTENSION_ATTRIBUTES, attributes(extension.attributes()));
+
+            putInt(slot, record);
+            slot += 4;
+        }
+
+        return offset;
+    }
+
+    private int tags(final List<String> tags) throws IOException {
+
+        if (tags == null || tags.isEmpty()) {
+            return CatalogFormat.NONE;
+        }
+
+        final int offset = list(tags.size());
+
+        int slot = offset + 4;
+
+        for (final String tag : tags) {
+            putInt(slot, string(tag));
+            slot += 4;
+        }
+
+        return offset;
+    }
+
+    private int attributes(final Map<String, String> attributes) throws IOException {
+
+        if (attributes == null || attributes.isEmpty()) {
+            return CatalogFormat.NONE;
+        }
+
+        final int offset = list(attributes.size() * 2);
+
+        putInt(offset, attributes.size());
+
+        int slot = offset + 4;
+
+        for (final Map.Entry<String, String> attribute : attributes.entrySet()) {
+            putInt(slot, string(attribute.getKey()));
+            putInt(slot + 4, string(attribute.getValue()));
+            slot += 8;
+        }
+
+        return offset;
+    }
+
+    /**
+     * Writes an index of top level descriptors having an id.
+     */
+    private int idIndex(final int descriptors) throws IOException {
+
+        if (descriptors == CatalogFormat.NONE) {
+            return CatalogFormat.NONE;
+        }
+
+        final int count = getInt(descriptors);
+
+        final int[] ids = new int[count];
+        final int[] offsets = new int[count];
+
+        int size = 0;
+
+        for (int i = 0; i < count; i++) {
+
+            final int offset = getInt(descriptors + 4 + 4 * i);
+            final int id = getInt(offset + CatalogFormat.DESCRIPTOR_ID);
+
+            if (id != CatalogFormat.NONE) {
+                ids[size] = id;
+                offsets[size] = offset;
+                size++;
+            }
+        }
+
+        if (size == 0) {
+            return CatalogFormat.NONE;
+        }
+
+        return index(Arrays.copyOf(ids, size), Arrays.copyOf(offsets, size));
+    }
+
+    /**
+     * Writes pairs of a string reference and an offset sorted by the reference,
+     * pairs with the same reference keep their order.
+     */
+    private int index(final int[] references, final int[] offsets) throws IOException {
+
+        final long[] keys = new long[references.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) references[i] << 32) | i;
+        }
+
+        Arrays.sort(keys);
+
+        final int offset = list(keys.length * 2);
+
+        putInt(offset, keys.length);
+
+        int slot = offset + 4;
+
+        for (final long key : keys) {
+            putInt(slot, (int) (key >>> 32));
+            putInt(slot + 4, offsets[(int) key]);
+            slot += 8;
+        }
+
+        return offset;
+    }
+
+    private void strings() throws IOException {
+
+        final String[] table = new String[strings.size()];
+
+        for (final Map.Entry<String, Integer> entry : strings.entrySet()) {
+            table[entry.getValue() - 1] = entry.getKey();
+        }
+
+        final int[] positions = new int[table.length + 1];
+
+        for (int i = 0; i < table.length; i++) {
+
+            final byte[] string = table[i].getBytes(StandardCharsets.UTF_8);
+
+            positions[i] = reserve(string.length);
+            System.arraycopy(string, 0, bytes, positions[i], string.length);
+        }
+
+        positions[table.length] = size;
+
+        final int offsets = reserve(4 * positions.length);
+
+        for (int i = 0; i < positions.length; i++) {
+            putInt(offsets + 4 * i, positions[i]);
+        }
+
+        int capacity = 2;
+
+        while (capacity < 2 * table.length) {
+            capacity <<= 1;
+        }
+
+        final int hashes = reserve(4 + 4 * capacity);
+
+        putInt(hashes, capacity);
+
+        for (int i = 0; i < table.length; i++) {
+
+            int slot = CatalogFormat.hash(table[i].hashCode()) & (capacity - 1);
+
+            while (getInt(hashes + 4 + 4 * slot) != CatalogFormat.NONE) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+
+            putInt(hashes + 4 + 4 * slot, i + 1);
+        }
+
+        putInt(CatalogFormat.HEADER_STRING_COUNT, table.length);
+        putInt(CatalogFormat.HEADER_STRING_OFFSETS, offsets);
+        putInt(CatalogFormat.HEADER_STRING_HASHES, hashes);
+    }
+
+    private int list(final int items) throws IOException {
+
+        final int offset = reserve(4 + 4 * items);
+
+        putInt(offset, items);
+
+        return offset;
+    }
+
+    private int uri(final Optional<URI> uri) {
+        return uri(uri.orElse(null));
+    }
+
+    private int uri(final URI uri) {
+        return uri != null ? string(uri.toString()) : CatalogFormat.NONE;
+    }
+
+    private int string(final Optional<String> string) {
+        return string(string.orElse(null));
+    }
+
+    private int string(final String string) {
+        return string != null ? strings.computeIfAbsent(string, s -> strings.size() + 1) : CatalogFormat.NONE;
+    }
+
+    /**
+     * Reserves zero filled bytes at the end.
+     */
+    private int reserve(final int length) throws IOException {
+
+        if (length > MAX_SIZE - size) {
+            throw new IOException("The catalog exceeds the maximum size of " + MAX_SIZE + " bytes.");
+        }
+
+        if (size + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, (int) Math.min(MAX_SIZE, Math.max(size + length, 2L * bytes.length)));
+        }
+
+        final int offset = size;
+        size += length;
+        return offset;
+    }
+
+    private void putInt(final int offset, final int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private int getInt(final int offset) {
+        return ((bytes[offset] & 0xff) << 24)
+                | ((bytes[offset + 1] & 0xff) << 16)
+                | ((bytes[offset + 2] & 0xff) << 8)
+                | (bytes[offset + 3] & 0xff);
+    }
+
+    private static final class Pending {
+
+        final Descriptor descriptor;
+        final int slot;
+
+        Pending(final Descriptor descriptor, final int slot) {
+            this.descriptor = descriptor;
+            this.slot = slot;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.apicatalog.alps.dom.element.Extension;
+
+final class CatalogExtension extends CatalogRecord implements Extension {
+
+    CatalogExtension(final CatalogBuffer buffer, final int offset) {
+        super(buffer, offset);
+    }
+
+    @Override
+    public URI id() {
+        return buffer.uri(field(CatalogFormat.EXTENSION_ID));
+    }
+
+    @Override
+    public List<String> tag() {
+        return buffer.strings(field(CatalogFormat.EXTENSION_TAGS));
+    }
+
+    @Override
+    public Optional<URI> href() {
+        return Optional.ofNullable(buffer.uri(field(CatalogFormat.EXTENSION_HREF)));
+    }
+
+    @Override
+    public Optional<String> value() {
+        return Optional.ofNullable(buffer.string(field(CatalogFormat.EXTENSION_VALUE)));
+    }
+
+    @Override
+    public Map<String, String> attributes() {
+
+        final int attributes = field(CatalogFormat.EXTENSION_ATTRIBUTES);
+        final int size = buffer.size(attributes);
+
+        if (size == 0) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, String> map = new LinkedHashMap<>(2 * size);
+
+        for (int i = 0; i < size; i++) {
+            map.put(buffer.string(buffer.getInt(attributes + 4 + 8 * i)), buffer.string(buffer.getInt(attributes + 8 + 8 * i)));
+        }
+
+        return Collections.unmodifiableMap(map);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+/**
+ * Constants of the catalog file format.
+ * <p>
+ * All values are big-endian 32-bit integers, offsets are absolute file
+ * positions. The header is {@link #MAGIC}, {@link #FORMAT_VERSION}, a string
+ * count, an offset of the string offsets, an offset of the string hash table,
+ * a profile count and an offset of the profile index.
+ * </p>
+ * <p>
+ * String offsets are the count plus one positions of UTF-8 bytes, a string
+ * ends where the next one starts. The hash table is a power of two capacity
+ * followed by slots holding a string reference, strings are probed linearly
+ * from their {@link String#hashCode()}. A string reference is an index plus
+ * one, zero denotes an absent value.
+ * </p>
+ * <p>
+ * Records have fixed sizes, lists are a count followed by the items and a
+ * zero list offset denotes an empty list. The profile index and a document
+ * index of top level descriptor ids are pairs of a string reference and a
+ * record offset sorted by the reference.
+ * </p>
+ */
+final class CatalogFormat {
+
+    static final byte[] MAGIC = { 'A', 'L', 'P', 'C' };
+
+    static final int FORMAT_VERSION = 1;
+
+    static final int HEADER_SIZE = 32;
+
+    static final int HEADER_STRING_COUNT = 8;
+    static final int HEADER_STRING_OFFSETS = 12;
+    static final int HEADER_STRING_HASHES = 16;
+    static final int HEADER_PROFILE_COUNT = 20;
+    static final int HEADER_PROFILE_INDEX = 24;
+
+    static final int DOCUMENT_VERSION = 0;
+    static final int DOCUMENT_BASE = 4;
+    static final int DOCUMENT_TITLE = 8;
+    static final int DOCUMENT_DOCUMENTATION = 12;
+    static final int DOCUMENT_LINKS = 16;
+    static final int DOCUMENT_EXTENSIONS = 20;
+    static final int DOCUMENT_DESCRIPTORS = 24;
+    static final int DOCUMENT_INDEX = 28;
+    static final int DOCUMENT_SIZE = 32;
+
+    static final int DESCRIPTOR_ID = 0;
+    static final int DESCRIPTOR_HREF = 4;
+    static final int DESCRIPTOR_DEFINITION = 8;
+    static final int DESCRIPTOR_NAME = 12;
+    static final int DESCRIPTOR_TITLE = 16;
+    static final int DESCRIPTOR_RETURN_TYPE = 20;
+    static final int DESCRIPTOR_TYPE = 24;
+    static final int DESCRIPTOR_TAGS = 28;
+    static final int DESCRIPTOR_DOCUMENTATION = 32;
+    static final int DESCRIPTOR_LINKS = 36;
+    static final int DESCRIPTOR_EXTENSIONS = 40;
+    static final int DESCRIPTOR_DESCRIPTORS = 44;
+    static final int DESCRIPTOR_SIZE = 48;
+
+    static final int DOCUMENTATION_HREF = 0;
+    static final int DOCUMENTATION_TYPE = 4;
+    static final int DOCUMENTATION_VALUE = 8;
+    static final int DOCUMENTATION_TAGS = 12;
+    static final int DOCUMENTATION_SIZE = 16;
+
+    static final int LINK_HREF = 0;
+    static final int LINK_REL = 4;
+    static final int LINK_TITLE = 8;
+    static final int LINK_TAGS = 12;
+    static final int LINK_SIZE = 16;
+
+    static final int EXTENSION_ID = 0;
+    static final int EXTENSION_HREF = 4;
+    static final int EXTENSION_VALUE = 8;
+    static final int EXTENSION_TAGS = 12;
+    static final int EXTENSION_ATTRIBUTES = 16;
+    static final int EXTENSION_SIZE = 20;
+
+    /** an absent string reference or an empty list */
+    static final int NONE = 0;
+
+    private CatalogFormat() {
+    }
+
+    static final int hash(final int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+
+import com.apicatalog.alps.dom.element.Link;
+
+final class CatalogLink extends CatalogRecord implements Link {
+
+    CatalogLink(final CatalogBuffer buffer, final int offset) {
+        super(buffer, offset);
+    }
+
+    @Override
+    public URI href() {
+        return buffer.uri(field(CatalogFormat.LINK_HREF));
+    }
+
+    @Override
+    public String rel() {
+        return buffer.string(field(CatalogFormat.LINK_REL));
+    }
+
+    @Override
+    public List<String> tag() {
+        return buffer.strings(field(CatalogFormat.LINK_TAGS));
+    }
+
+    @Override
+    public Optional<String> title() {
+        return Optional.ofNullable(buffer.string(field(CatalogFormat.LINK_TITLE)));
+    }
+}
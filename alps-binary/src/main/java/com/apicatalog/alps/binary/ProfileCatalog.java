@@ -0,0 +1,195 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.error.DocumentParserException;
+
+/**
+ * A read-only store of many documents in a single memory-mapped file.
+ * <p>
+ * Documents are returned as views decoding their values from the mapped
+ * file on access, so opening a catalog reads only its header and the
+ * documents do not occupy the heap. Profiles and top level descriptors are
+ * found by an index without scanning the catalog. A catalog is safe to use
+ * from many threads.
+ * </p>
+ */
+public final class ProfileCatalog {
+
+    private final CatalogBuffer buffer;
+
+    private final int profileCount;
+    private final int profileIndex;
+
+    private ProfileCatalog(final CatalogBuffer buffer) {
+        this.buffer = buffer;
+        this.profileCount = buffer.getInt(CatalogFormat.HEADER_PROFILE_COUNT);
+        this.profileIndex = buffer.getInt(CatalogFormat.HEADER_PROFILE_INDEX);
+    }
+
+    /**
+     * Writes the documents into a new catalog file. An existing file is replaced.
+     *
+     * @param path a catalog file
+     * @param documents documents by their profile URIs
+     * @throws IOException if the catalog cannot be written
+     */
+    public static final void write(final Path path, final Map<URI, ? extends Document> documents) throws IOException {
+
+        if (path == null || documents == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final CatalogEncoder encoder = new CatalogEncoder();
+
+        encoder.encode(documents);
+
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            encoder.writeTo(channel);
+        }
+    }
+
+    /**
+     * Maps the catalog file into memory. The file must not be modified while
+     * the catalog is in use.
+     *
+     * @param path a catalog file
+     * @return the opened catalog
+     * @throws IOException if the file cannot be mapped
+     * @throws DocumentParserException if the file is not a catalog
+     */
+    public static final ProfileCatalog open(final Path path) throws IOException, DocumentParserException {
+
+        if (path == null) {
+            throw new IllegalArgumentException();
+        }
+
+        // a mapping remains valid after the channel is closed
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            final long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                throw new DocumentParserException("The catalog size " + size + " exceeds the maximum size of " + Integer.MAX_VALUE + " bytes.");
+            }
+
+            return of(channel.map(MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    static final ProfileCatalog of(final ByteBuffer buffer) throws DocumentParserException {
+
+        if (buffer.limit() < CatalogFormat.HEADER_SIZE) {
+            throw new DocumentParserException("The input is not a profile catalog.");
+        }
+
+        for (int i = 0; i < CatalogFormat.MAGIC.length; i++) {
+            if (buffer.get(i) != CatalogFormat.MAGIC[i]) {
+                throw new DocumentParserException("The input is not a profile catalog.");
+            }
+        }
+
+        final int formatVersion = buffer.getInt(CatalogFormat.MAGIC.length);
+
+        if (formatVersion != CatalogFormat.FORMAT_VERSION) {
+            throw new DocumentParserException("Unsupported catalog format version " + formatVersion + ", expected " + CatalogFormat.FORMAT_VERSION + ".");
+        }
+
+        for (int field = CatalogFormat.HEADER_STRING_COUNT; field < CatalogFormat.HEADER_SIZE; field += 4) {
+            if (buffer.getInt(field) < 0 || buffer.getInt(field) > buffer.limit()) {
+                throw new DocumentParserException("The profile catalog is corrupted.");
+            }
+        }
+
+        return new ProfileCatalog(new CatalogBuffer(buffer));
+    }
+
+    /**
+     * Finds a document by its profile URI.
+     *
+     * @param profile a profile URI the document has been written with
+     * @return the document or {@link Optional#empty()} if the catalog does not contain the profile
+     */
+    public Optional<Document> find(final URI profile) {
+
+        final int document = buffer.search(profileIndex, buffer.find(profile.toString()));
+
+        return document != CatalogFormat.NONE ? Optional.of(new CatalogDocument(buffer, document)) : Optional.empty();
+    }
+
+    /**
+     * Returns profile URIs of all documents in the catalog.
+     *
+     * @return a set of profile URIs, never <code>null</code>
+     */
+    public Set<URI> profiles() {
+
+        return new AbstractSet<URI>() {
+
+            @Override
+            public Iterator<URI> iterator() {
+                return new Iterator<URI>() {
+
+                    int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < profileCount;
+                    }
+
+                    @Override
+                    public URI next() {
+
+                        if (index >= profileCount) {
+                            throw new NoSuchElementException();
+                        }
+
+                        return buffer.uri(buffer.getInt(profileIndex + 4 + 8 * index++));
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(final Object o) {
+                return o instanceof URI && find((URI) o).isPresent();
+            }
+
+            @Override
+            public int size() {
+                return profileCount;
+            }
+        };
+    }
+
+    public int size() {
+        return profileCount;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.alps.Alps;
+import com.apicatalog.alps.DescriptorBuilder;
+import com.apicatalog.alps.DocumentStatistics;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.DocumentVersion;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.dom.element.DescriptorType;
+import com.apicatalog.alps.dom.element.Extension;
+import com.apicatalog.alps.error.DocumentError;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.DocumentWriterException;
+import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.io.ParserOptions;
+
+class BinaryDocumentTest {
+
+    static final URI BASE = URI.create("http://example.com");
+
+    @Test
+    void testRoundTrip() throws IOException, DocumentParserException, DocumentWriterException {
+
+        final Document document = Alps.createDocument(DocumentVersion.VERSION_1_0)
+                    .title("Contacts")
+                    .add(Alps.createDocumentation().type("markdown").append("A *list* of contacts"))
+                    .add(Alps.createLink().href(URI.create("http://example.com/profile")).rel("self").tag(List.of("a", "b")))
+                    .add(Alps.createExtension().id(URI.create("http://example.com/ext")).value("x").attribute("lang", "en"))
+                    .add(Alps.createDescriptor()
+                            .id(URI.create("contact"))
+                            .type(DescriptorType.SAFE)
+                            .returnType(URI.create("#contact"))
+                            .add(Alps.createDescriptor().href(URI.create("#name")).name("name").title("Name"))
+                            )
+                    .build();
+
+        final Document decoded = parse(write(document));
+
+        assertEquals("Contacts", decoded.title().orElse(null));
+        assertEquals("text/markdown", decoded.documentation().iterator().next().content().get().type());
+        assertEquals(List.of("a", "b"), decoded.links().iterator().next().tag());
+
+        final Extension extension = decoded.extensions().iterator().next();
+
+        assertEquals("x", extension.value().orElse(null));
+        assertEquals("en", extension.attributes().get("lang"));
+
+        final Descriptor contact = decoded.descriptors().iterator().next();
+
+        assertEquals(DescriptorType.SAFE, contact.type());
+        assertEquals(URI.create("#contact"), contact.returnType().orElse(null));
+        assertEquals("Name", contact.descriptors().iterator().next().title().orElse(null));
+
+        assertArrayEquals(write(document), write(decoded));
+    }
+
+    @Test
+    void testSharedStrings() throws IOException, DocumentParserException, DocumentWriterException {
+
+        final Document document = Alps.createDocument(DocumentVersion.VERSION_1_0)
+                    .add(Alps.createDescriptor().href(URI.create("http://example.com/a-very-long-reference")))
+                    .add(Alps.createDescriptor().href(URI.create("http://example.com/a-very-long-reference")))
+                    .build();
+
+        final byte[] bytes = write(document);
+
+        assertEquals(1, count(bytes, "a-very-long-reference".getBytes()));
+    }
+
+    @Test
+    void testDeepNesting() throws IOException, DocumentParserException, DocumentWriterException {
+
+        final int depth = 100_000;
+
+        DescriptorBuilder descriptor = Alps.createDescriptor().id(URI.create("d" + depth));
+
+        for (int i = depth - 1; i > 0; i--) {
+            descriptor = Alps.createDescriptor().id(URI.create("d" + i)).add(descriptor.build());
+        }
+
+        final byte[] bytes = write(Alps.createDocument(DocumentVersion.VERSION_1_0).add(descriptor).build());
+
+        final Document document = new BinaryDocumentParser(new ParserOptions().maxDepth(depth)).parse(BASE, new ByteArrayInputStream(bytes));
+
+        assertEquals(depth, DocumentStatistics.of(document).getDescriptors());
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class, () -> parse(bytes));
+
+        assertEquals(DocumentError.MAX_DEPTH_EXCEEDED, e.getCode());
+    }
+
+    @Test
+    void testMalformed() throws IOException, DocumentParserException, DocumentWriterException {
+
+        final byte[] bytes = write(Alps.createDocument(DocumentVersion.VERSION_1_0).title("Test").build());
+
+        // not a binary document
+        assertThrows(DocumentParserException.class, () -> parse("{\"alps\":{}}".getBytes()));
+
+        // truncated
+        assertThrows(DocumentParserException.class, () -> parse(Arrays.copyOf(bytes, bytes.length - 1)));
+
+        // unknown format version
+        final byte[] version = bytes.clone();
+        version[BinaryFormat.MAGIC.length] = 99;
+        assertThrows(DocumentParserException.class, () -> parse(version));
+
+        // a character stream
+        assertThrows(DocumentParserException.class, () -> new BinaryDocumentParser().parse(BASE, new StringReader("")));
+    }
+
+    static final byte[] write(final Document document) throws IOException, DocumentWriterException {
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        BinaryDocumentWriter.create(output).write(document);
+
+        assertTrue(output.size() > BinaryFormat.MAGIC.length);
+
+        return output.toByteArray();
+    }
+
+    static final Document parse(final byte[] bytes) throws IOException, DocumentParserException {
+        return new BinaryDocumentParser().parse(BASE, new ByteArrayInputStream(bytes));
+    }
+
+    static final int count(final byte[] bytes, final byte[] pattern) {
+
+        int count = 0;
+
+        for (int i = 0; i <= bytes.length - pattern.length; i++) {
+            if (Arrays.equals(bytes, i, i + pattern.length, pattern, 0, pattern.length)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.binary;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.apicatalog.alps.Alps;
+import com.apicatalog.alps.DescriptorBuilder;
+import com.apicatalog.alps.DocumentStatistics;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.DocumentVersion;
+import com.apicatalog.alps.dom.element.DescriptorType;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.DocumentWriterException;
+import com.apicatalog.alps.error.InvalidDocumentException;
+
+class ProfileCatalogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testFind() throws IOException, DocumentParserException, DocumentWriterException {
+
+        final Map<URI, Document> documents = new LinkedHashMap<>();
+
+        for (int i = 0; i < 100; i++) {
+            documents.put(URI.create("http://example.com/profile/" + i), document(i));
+        }
+
+        final Path path = directory.resolve("catalog.bin");
+
+        ProfileCatalog.write(path, documents);
+
+        final ProfileCatalog catalog = ProfileCatalog.open(path);
+
+        assertEquals(100, catalog.size());
+        assertEquals(documents.keySet(), catalog.profiles());
+
+        for (final Map.Entry<URI, Document> entry : documents.entrySet()) {
+
+            final Document document = catalog.find(entry.getKey()).orElseThrow();
+
+            // all values are decoded in the same order
+            assertArrayEquals(BinaryDocumentTest.write(entry.getValue()), BinaryDocumentTest.write(document));
+        }
+
+        assertFalse(catalog.find(URI.create("http://example.com/profile/100")).isPresent());
+        assertFalse(catalog.find(URI.create("http://example.com/unknown")).isPresent());
+    }
+
+    @Test
+    void testFindById() throws IOException, DocumentParserException {
+
+        final Path path = directory.resolve("catalog.bin");
+
+        ProfileCatalog.write(path, Map.of(URI.create("http://example.com/contacts"), document(7)));
+
+        final Document document = ProfileCatalog.open(path).find(URI.create("http://example.com/contacts")).orElseThrow();
+
+        assertEquals("Contact", document.findById(URI.create("contact")).orElseThrow().title().orElse(null));
+        assertEquals(URI.create("#value-7"), document.findById(URI.create("shared")).orElseThrow().href().orElse(null));
+        assertEquals(2, document.findByName("item").size());
+
+        assertFalse(document.findById(URI.create("name")).isPresent());
+        assertTrue(document.findByName("unknown").isEmpty());
+
+        assertEquals(7, DocumentStatistics.of(document).getDescriptors());
+        assertEquals(document.findById(URI.create("contact")), document.findById(URI.create("contact")));
+    }
+
+    @Test
+    void testDeepNesting() throws IOException, DocumentParserException {
+
+        final int depth = 100_000;
+
+        DescriptorBuilder descriptor = Alps.createDescriptor().id(URI.create("d" + depth));
+
+        for (int i = depth - 1; i > 0; i--) {
+            descriptor = Alps.createDescriptor().id(URI.create("d" + i)).add(descriptor.build());
+        }
+
+        final Path path = directory.resolve("catalog.bin");
+
+        ProfileCatalog.write(path, Map.of(URI.create("http://example.com/deep"), Alps.createDocument(DocumentVersion.VERSION_1_0).add(descriptor).build()));
+
+        final Document document = ProfileCatalog.open(path).find(URI.create("http://example.com/deep")).orElseThrow();
+
+        assertEquals(depth, DocumentStatistics.of(document).getDescriptors());
+    }
+
+    @Test
+    void testInvalid() throws IOException {
+
+        final Path path = directory.resolve("catalog.bin");
+
+        Files.write(path, "{\"alps\":{}}".getBytes());
+
+        assertThrows(DocumentParserException.class, () -> ProfileCatalog.open(path));
+    }
+
+    static final Document document(final int index) throws InvalidDocumentException {
+        return Alps.createDocument(DocumentVersion.VERSION_1_0)
+                    .title("Profile " + index)
+                    .add(Alps.createDocumentation().type("markdown").append("A *list* of contacts"))
+                    .add(Alps.createLink().href(URI.create("http://example.com/profile")).rel("self").tag(List.of("a", "b")))
+                    .add(Alps.createExtension().id(URI.create("http://example.com/ext")).value("x").attribute("lang", "en"))
+                    .add(Alps.createDescriptor()
+                            .id(URI.create("contact"))
+                            .type(DescriptorType.SAFE)
+                            .title("Contact")
+                            .returnType(URI.create("#contact"))
+                            .add(Alps.createDescriptor().id(URI.create("name")).name("name").title("Name"))
+                            .add(Alps.createDescriptor().href(URI.create("#email")).tag(List.of("x")))
+                            )
+                    .add(Alps.createDescriptor().id(URI.create("shared")).href(URI.create("#value-" + index)).name("item"))
+                    .add(Alps.createDescriptor().name("item")
+                            .add(Alps.createDescriptor().id(URI.create("nested"))
+                                    .add(Alps.createDescriptor().id(URI.create("deeper")))))
+                    .build();
+    }
+}
@@ -17,6 +17,8 @@ package com.apicatalog.alps.json;
 
 final class JsonConstants {
 
+    public static final String MEDIA_TYPE = "application/alps+json";
+
     public static final String ROOT = "alps";
 
     public static final String VERSION = "version";
@@ -16,9 +16,12 @@
 package com.apicatalog.alps.json;
 
 import java.net.URI;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -30,149 +33,247 @@ import com.apicatalog.alps.dom.element.Descriptor;
 import com.apicatalog.alps.dom.element.DescriptorType;
 import com.apicatalog.alps.error.DocumentError;
 import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.io.ParserLimits;
 
 import jakarta.json.JsonObject;
 import jakarta.json.JsonValue;
+import jakarta.json.JsonValue.ValueType;
 
 final class JsonDescriptorParser {
 
     private JsonDescriptorParser() {}
 
-    public static Set<Descriptor> parse(JsonValue jsonValue) throws InvalidDocumentException {
+    /**
+     * Parses the descriptors and all nested descriptors. Nested descriptors
+     * are parsed without recursion, a descriptor is built when all its nested
+     * descriptors have been built.
+     *
+     * @param jsonValue a descriptor object or an array of descriptor objects
+     * @param limits limits checked as descriptors are parsed
+     * @return a set of descriptors
+     * @throws InvalidDocumentException if a descriptor is not valid or a limit is exceeded
+     */
+    public static Set<Descriptor> parse(final JsonValue jsonValue, final ParserLimits limits) throws InvalidDocumentException {
 
-        if (JsonUtils.isObject(jsonValue)) {
+        final Set<Descriptor> descriptors = new LinkedHashSet<>();
+
+        final Deque<Frame> stack = new ArrayDeque<>();
+
+        for (final JsonValue item : getItems(jsonValue)) {
 
-            return Set.of(parseObject(jsonValue.asJsonObject()));
+            stack.push(begin(item, 1, limits));
 
-        } else if (JsonUtils.isArray(jsonValue)) {
+            while (!stack.isEmpty()) {
+
+                final Frame frame = stack.peek();
+
+                if (frame.descriptors.hasNext()) {
+                    stack.push(begin(frame.descriptors.next(), stack.size() + 1, limits));
+                    continue;
+                }
 
-            final HashSet<Descriptor> descriptors = new HashSet<>();
+                stack.pop();
 
-            for (final JsonValue item : jsonValue.asJsonArray()) {
+                final Descriptor descriptor = end(frame, limits);
 
-                if (JsonUtils.isObject(item)) {
-                    descriptors.add(parseObject(item.asJsonObject()));
+                if (stack.isEmpty()) {
+                    descriptors.add(descriptor);
 
                 } else {
-                    throw new InvalidDocumentException(DocumentError.INVALID_DESCRIPTOR, "The 'descriptor' property must be an object or an array of objects but was " + item.getValueType());
+                    stack.peek().builder.add(descriptor);
                 }
             }
+        }
+
+        return descriptors;
+    }
 
-            return descriptors;
+    private static List<JsonValue> getItems(final JsonValue jsonValue) throws InvalidDocumentException {
+
+        if (JsonUtils.isObject(jsonValue)) {
+            return List.of(jsonValue);
+        }
 
-        } else {
-            throw new InvalidDocumentException(DocumentError.INVALID_DESCRIPTOR, "The 'descriptor' property must be an object or an array of objects but was " + jsonValue.getValueType());
+        if (JsonUtils.isArray(jsonValue)) {
+            return jsonValue.asJsonArray();
         }
+
+        throw invalidDescriptor(jsonValue.getValueType());
     }
 
-    private static Descriptor parseObject(JsonObject jsonObject) throws InvalidDocumentException {
+    /**
+     * Parses descriptor properties preceding nested descriptors.
+     */
+    private static Frame begin(final JsonValue item, final int depth, final ParserLimits limits) throws InvalidDocumentException {
+
+        enter(depth, limits);
+
+        if (JsonUtils.isNotObject(item)) {
+            throw invalidDescriptor(item.getValueType());
+        }
+
+        final JsonObject jsonObject = item.asJsonObject();
 
         final DescriptorBuilder builder = Alps.createDescriptor();
 
+        parseProperties(builder, jsonObject, limits, JsonErrorHandler.FAIL);
+
+        // nested descriptors
+        final Iterator<JsonValue> descriptors = jsonObject.containsKey(JsonConstants.DESCRIPTOR)
+                                                    ? getItems(jsonObject.get(JsonConstants.DESCRIPTOR)).iterator()
+                                                    : Collections.emptyIterator();
+
+        return new Frame(jsonObject, builder, descriptors);
+    }
+
+    /**
+     * Parses descriptor properties following nested descriptors.
+     */
+    private static Descriptor end(final Frame frame, final ParserLimits limits) throws InvalidDocumentException {
+
+        parseExtensions(frame.builder, frame.jsonObject, limits, JsonErrorHandler.FAIL);
+
+        return frame.builder.build();
+    }
+
+    /**
+     * Checks limits of a descriptor found at the given nesting depth.
+     *
+     * @param depth a nesting depth, <code>1</code> for a top level descriptor
+     * @param limits limits to check
+     * @throws InvalidDocumentException if a limit is exceeded
+     */
+    static void enter(final int depth, final ParserLimits limits) throws InvalidDocumentException {
+        limits.checkDepth(depth);
+        limits.addDescriptor();
+    }
+
+    static InvalidDocumentException invalidDescriptor(final ValueType type) {
+        return new InvalidDocumentException(DocumentError.INVALID_DESCRIPTOR, "The 'descriptor' property must be an object or an array of objects but was " + type);
+    }
+
+    /**
+     * Parses descriptor properties preceding nested descriptors, an invalid
+     * property is passed to the handler and not set.
+     *
+     * @param builder a descriptor builder
+     * @param jsonObject a descriptor object, nested descriptors are ignored
+     * @param limits limits checked as properties are parsed
+     * @param errors receives invalid properties
+     * @throws InvalidDocumentException if the handler ends parsing
+     */
+    static void parseProperties(final DescriptorBuilder builder, final JsonObject jsonObject, final ParserLimits limits, final JsonErrorHandler errors) throws InvalidDocumentException {
+
         if (!jsonObject.containsKey(JsonConstants.ID) && !jsonObject.containsKey(JsonConstants.HREF)) {
-            throw new InvalidDocumentException(DocumentError.MISSING_ID, "Descriptor must define valid 'id' or 'href' property");
+            errors.error(null, -1, new InvalidDocumentException(DocumentError.MISSING_ID, "Descriptor must define valid 'id' or 'href' property"));
+        }
+
+        // id
+        if (jsonObject.containsKey(JsonConstants.ID)) {
+            errors.check(JsonConstants.ID, () -> builder.id(parseId(jsonObject.get(JsonConstants.ID))));
         }
 
-        parseId(builder, jsonObject);
-        parseHref(builder, jsonObject);
+        // href
+        if (jsonObject.containsKey(JsonConstants.HREF)) {
+            errors.check(JsonConstants.HREF, () -> builder.href(JsonUtils.getHref(jsonObject)));
+        }
+
+        if (jsonObject.containsKey(JsonConstants.DEFINITION)) {
+            errors.check(JsonConstants.DEFINITION, () -> builder.definition(JsonUtils.getDefinition(jsonObject)));
+        }
 
         // name
         if (jsonObject.containsKey(JsonConstants.NAME)) {
-            final JsonValue name = jsonObject.get(JsonConstants.NAME);
-
-            if (JsonUtils.isNotString(name)) {
-                throw new InvalidDocumentException(DocumentError.INVALID_NAME, "The 'name' property value must be JSON string but was " + name);
-            }
-
-            builder.name(JsonUtils.getString(name));
+            errors.check(JsonConstants.NAME, () -> builder.name(parseName(jsonObject.get(JsonConstants.NAME))));
         }
 
         // title
         if (jsonObject.containsKey(JsonConstants.TITLE)) {
-            final JsonValue title = jsonObject.get(JsonConstants.TITLE);
-
-            if (JsonUtils.isNotString(title)) {
-                throw new InvalidDocumentException(DocumentError.INVALID_TITLE, "The 'title' property value must be JSON string but was " + title);
-            }
-
-            builder.title(JsonUtils.getString(title));
+            errors.check(JsonConstants.TITLE, () -> builder.title(parseTitle(jsonObject.get(JsonConstants.TITLE))));
         }
 
-        parseType(builder, jsonObject);
+        // type
+        if (jsonObject.containsKey(JsonConstants.TYPE)) {
+            errors.check(JsonConstants.TYPE, () -> builder.type(parseType(jsonObject.get(JsonConstants.TYPE))));
+        }
 
         // documentation
-        if (jsonObject.containsKey(JsonConstants.DOCUMENTATION)) {
-            JsonDocumentationParser.parse(jsonObject.get(JsonConstants.DOCUMENTATION)).forEach(builder::add);
+        if (jsonObject.containsKey(JsonConstants.DOCUMENTATION) && !limits.getOptions().isDocumentationSkipped()) {
+            JsonDocumentationParser.parse(jsonObject.get(JsonConstants.DOCUMENTATION), limits, errors).forEach(builder::add);
         }
 
         // links
-        if (jsonObject.containsKey(JsonConstants.LINK)) {
-            JsonLinkParser.parse(jsonObject.get(JsonConstants.LINK)).forEach(builder::add);
+        if (jsonObject.containsKey(JsonConstants.LINK) && !limits.getOptions().isLinksSkipped()) {
+            JsonLinkParser.parse(jsonObject.get(JsonConstants.LINK), errors).forEach(builder::add);
         }
 
-        parseReturnType(builder, jsonObject);
-
-        builder.tag(parseTag(jsonObject));
-
-        // nested descriptors
-        if (jsonObject.containsKey(JsonConstants.DESCRIPTOR)) {
-            JsonDescriptorParser.parse(jsonObject.get(JsonConstants.DESCRIPTOR)).forEach(builder::add);
+        // return type
+        if (jsonObject.containsKey(JsonConstants.RETURN_TYPE)) {
+            errors.check(JsonConstants.RETURN_TYPE, () -> builder.returnType(parseReturnType(jsonObject.get(JsonConstants.RETURN_TYPE))));
         }
 
-        // extensions
-        if (jsonObject.containsKey(JsonConstants.EXTENSION)) {
-            JsonExtensionParser.parse(jsonObject.get(JsonConstants.EXTENSION)).forEach(builder::add);
-        }
+        errors.check(JsonConstants.TAG, () -> builder.tag(parseTag(jsonObject)));
+    }
 
-        return builder.build();
+    /**
+     * Parses descriptor extensions, an invalid extension is passed to the
+     * handler and not added.
+     *
+     * @param builder a descriptor builder
+     * @param jsonObject a descriptor object
+     * @param limits limits checked as extensions are parsed
+     * @param errors receives invalid extensions
+     * @throws InvalidDocumentException if the handler ends parsing
+     */
+    static void parseExtensions(final DescriptorBuilder builder, final JsonObject jsonObject, final ParserLimits limits, final JsonErrorHandler errors) throws InvalidDocumentException {
+        if (jsonObject.containsKey(JsonConstants.EXTENSION) && !limits.getOptions().isExtensionsSkipped()) {
+            JsonExtensionParser.parse(jsonObject.get(JsonConstants.EXTENSION), limits, errors).forEach(builder::add);
+        }
     }
 
-    private static void parseId(DescriptorBuilder builder, JsonObject jsonObject) throws InvalidDocumentException {
+    private static URI parseId(final JsonValue id) throws InvalidDocumentException {
 
-        // id
-        if (jsonObject.containsKey(JsonConstants.ID)) {
-            if (JsonUtils.isNotString(jsonObject.get(JsonConstants.ID))) {
-                throw new InvalidDocumentException(DocumentError.INVALID_ID, "The 'id' property value must be valid URI represented as JSON string but was " + jsonObject.get(JsonConstants.ID));
-            }
+        if (JsonUtils.isNotString(id)) {
+            throw new InvalidDocumentException(DocumentError.INVALID_ID, "The 'id' property value must be valid URI represented as JSON string but was " + id);
+        }
 
-            try {
-                builder.id(URI.create(jsonObject.getString(JsonConstants.ID)));
+        try {
+            return URI.create(JsonUtils.getString(id));
 
-            } catch (IllegalArgumentException e) {
-                throw new InvalidDocumentException(DocumentError.MALFORMED_URI, "The 'id' must be valid URI but was " + jsonObject.getString(JsonConstants.ID));
-            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDocumentException(DocumentError.MALFORMED_URI, "The 'id' must be valid URI but was " + JsonUtils.getString(id));
         }
     }
 
-    private static void parseHref(DescriptorBuilder builder, JsonObject jsonObject) throws InvalidDocumentException {
+    private static String parseName(final JsonValue name) throws InvalidDocumentException {
 
-        // href
-        if (jsonObject.containsKey(JsonConstants.HREF)) {
-            builder.href(JsonUtils.getHref(jsonObject));
+        if (JsonUtils.isNotString(name)) {
+            throw new InvalidDocumentException(DocumentError.INVALID_NAME, "The 'name' property value must be JSON string but was " + name);
         }
 
-        if (jsonObject.containsKey(JsonConstants.DEFINITION)) {
-            builder.definition(JsonUtils.getDefinition(jsonObject));
-        }
+        return JsonUtils.getString(name);
     }
 
-    private static void parseType(DescriptorBuilder builder, JsonObject jsonObject) throws InvalidDocumentException {
+    static String parseTitle(final JsonValue title) throws InvalidDocumentException {
 
-        // type
-        if (jsonObject.containsKey(JsonConstants.TYPE)) {
+        if (JsonUtils.isNotString(title)) {
+            throw new InvalidDocumentException(DocumentError.INVALID_TITLE, "The 'title' property value must be JSON string but was " + title);
+        }
 
-            final JsonValue type = jsonObject.get(JsonConstants.TYPE);
+        return JsonUtils.getString(title);
+    }
 
-            if (JsonUtils.isNotString(type)) {
-                throw new InvalidDocumentException(DocumentError.INVALID_TYPE, "The 'type' property value must be JSON string but was " + type);
-            }
+    private static DescriptorType parseType(final JsonValue type) throws InvalidDocumentException {
 
-            try {
-                builder.type(DescriptorType.valueOf(JsonUtils.getString(type).toUpperCase()));
+        if (JsonUtils.isNotString(type)) {
+            throw new InvalidDocumentException(DocumentError.INVALID_TYPE, "The 'type' property value must be JSON string but was " + type);
+        }
 
-            } catch (IllegalArgumentException e) {
-                throw new InvalidDocumentException(DocumentError.INVALID_TYPE, "The 'type' property value must be one of " + (Arrays.stream(DescriptorType.values()).map(Enum::name).map(String::toLowerCase).collect(Collectors.joining(", " ))) +  " but was " + type);
-            }
+        try {
+            return DescriptorType.valueOf(JsonUtils.getString(type).toUpperCase());
+
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDocumentException(DocumentError.INVALID_TYPE, "The 'type' property value must be one of " + (Arrays.stream(DescriptorType.values()).map(Enum::name).map(String::toLowerCase).collect(Collectors.joining(", " ))) +  " but was " + type);
         }
     }
 
@@ -203,23 +304,30 @@ final class JsonDescriptorParser {
     }
 
 
-    private static void parseReturnType(DescriptorBuilder builder, JsonObject jsonObject) throws InvalidDocumentException {
+    private static URI parseReturnType(final JsonValue returnType) throws InvalidDocumentException {
 
-        // return type
-        if (jsonObject.containsKey(JsonConstants.RETURN_TYPE)) {
+        if (JsonUtils.isNotString(returnType)) {
+            throw new InvalidDocumentException(DocumentError.INVALID_RT, "The 'rt' property value must be URI represented as JSON string but was " + returnType);
+        }
 
-            final JsonValue returnType = jsonObject.get(JsonConstants.RETURN_TYPE);
+        try {
+            return URI.create(JsonUtils.getString(returnType));
 
-            if (JsonUtils.isNotString(returnType)) {
-                throw new InvalidDocumentException(DocumentError.INVALID_RT, "The 'rt' property value must be URI represented as JSON string but was " + returnType);
-            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDocumentException(DocumentError.MALFORMED_URI, "The 'rt' property value must be URI represented as JSON string but was " + returnType);
+        }
+    }
 
-            try {
-                builder.returnType(URI.create(JsonUtils.getString(returnType)));
+    private static final class Frame {
 
-            } catch (IllegalArgumentException e) {
-                throw new InvalidDocumentException(DocumentError.MALFORMED_URI, "The 'rt' property value must be URI represented as JSON string but was " + returnType);
-            }
+        final JsonObject jsonObject;
+        final DescriptorBuilder builder;
+        final Iterator<JsonValue> descriptors;
+
+        Frame(final JsonObject jsonObject, final DescriptorBuilder builder, final Iterator<JsonValue> descriptors) {
+            this.jsonObject = jsonObject;
+            this.builder = builder;
+            this.descriptors = descriptors;
         }
     }
 }
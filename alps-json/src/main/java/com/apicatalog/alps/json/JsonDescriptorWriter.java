@@ -15,76 +15,141 @@
  */
 package com.apicatalog.alps.json;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.apicatalog.alps.dom.element.Descriptor;
 import com.apicatalog.alps.dom.element.DescriptorType;
 
-import jakarta.json.Json;
-import jakarta.json.JsonArrayBuilder;
-import jakarta.json.JsonObjectBuilder;
-import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonGenerator;
 
 final class JsonDescriptorWriter {
 
     private JsonDescriptorWriter() {}
 
-    public static final JsonValue toJson(final Set<Descriptor> descriptors, final boolean verbose) {
+    /**
+     * Writes the descriptors as <code>descriptor</code> property of the current
+     * object. Nested descriptors are written without recursion.
+     *
+     * @param generator a generator positioned in an object
+     * @param descriptors a non-empty set of descriptors
+     * @param verbose write default values
+     */
+    public static final void write(final JsonGenerator generator, final Set<Descriptor> descriptors, final boolean verbose) {
 
-        if (descriptors.size() == 1) {
-            return toJson(descriptors.iterator().next(), verbose);
-        }
+        final Deque<Frame> stack = new ArrayDeque<>();
+
+        stack.push(begin(generator, null, descriptors));
+
+        while (!stack.isEmpty()) {
+
+            final Frame frame = stack.peek();
+
+            if (frame.descriptors.hasNext()) {
+
+                final Descriptor descriptor = frame.descriptors.next();
 
-        final JsonArrayBuilder jsonDescriptors = Json.createArrayBuilder();
+                if (frame.array) {
+                    generator.writeStartObject();
 
-        descriptors.stream().map(d -> JsonDescriptorWriter.toJson(d, verbose)).forEach(jsonDescriptors::add);
+                } else {
+                    generator.writeStartObject(JsonConstants.DESCRIPTOR);
+                }
 
-        return jsonDescriptors.build();
+                writeHead(generator, descriptor, verbose);
+
+                if (JsonDocumentWriter.isNotEmpty(descriptor.descriptors())) {
+                    stack.push(begin(generator, descriptor, descriptor.descriptors()));
+                    continue;
+                }
+
+                writeTail(generator, descriptor);
+                generator.writeEnd();
+                continue;
+            }
+
+            stack.pop();
+
+            if (frame.array) {
+                generator.writeEnd();
+            }
+
+            if (frame.parent != null) {
+                writeTail(generator, frame.parent);
+                generator.writeEnd();
+            }
+        }
     }
 
-    public static final JsonValue toJson(final Descriptor descriptor, final boolean verbose) {
+    private static final Frame begin(final JsonGenerator generator, final Descriptor parent, final Set<Descriptor> descriptors) {
 
-        final JsonObjectBuilder jsonDescriptor = Json.createObjectBuilder();
+        final boolean array = descriptors.size() != 1;
 
-        descriptor.id().ifPresent(id -> jsonDescriptor.add(JsonConstants.ID, id.toString()));
+        if (array) {
+            generator.writeStartArray(JsonConstants.DESCRIPTOR);
+        }
+
+        return new Frame(parent, descriptors.iterator(), array);
+    }
+
+    /**
+     * Writes descriptor properties preceding nested descriptors.
+     */
+    private static final void writeHead(final JsonGenerator generator, final Descriptor descriptor, final boolean verbose) {
+
+        descriptor.id().ifPresent(id -> generator.write(JsonConstants.ID, id.toString()));
 
         if (descriptor.type() != null && !DescriptorType.SEMANTIC.equals(descriptor.type())) {
-            jsonDescriptor.add(JsonConstants.TYPE, descriptor.type().name().toLowerCase());
+            generator.write(JsonConstants.TYPE, descriptor.type().name().toLowerCase());
 
         } else if (verbose) {
-            jsonDescriptor.add(JsonConstants.TYPE, DescriptorType.SEMANTIC.name().toLowerCase());
+            generator.write(JsonConstants.TYPE, DescriptorType.SEMANTIC.name().toLowerCase());
         }
 
-        descriptor.href().ifPresent(href -> jsonDescriptor.add(JsonConstants.HREF, href.toString()));
-        descriptor.definition().ifPresent(def -> jsonDescriptor.add(JsonConstants.DEFINITION, def.toString()));
-        descriptor.name().ifPresent(name -> jsonDescriptor.add(JsonConstants.NAME, name));
-        descriptor.title().ifPresent(title -> jsonDescriptor.add(JsonConstants.TITLE, title));
-        descriptor.returnType().ifPresent(rt -> jsonDescriptor.add(JsonConstants.RETURN_TYPE, rt.toString()));
+        descriptor.href().ifPresent(href -> generator.write(JsonConstants.HREF, href.toString()));
+        descriptor.definition().ifPresent(def -> generator.write(JsonConstants.DEFINITION, def.toString()));
+        descriptor.name().ifPresent(name -> generator.write(JsonConstants.NAME, name));
+        descriptor.title().ifPresent(title -> generator.write(JsonConstants.TITLE, title));
+        descriptor.returnType().ifPresent(rt -> generator.write(JsonConstants.RETURN_TYPE, rt.toString()));
 
         // tag
         if (!descriptor.tag().isEmpty()) {
-            jsonDescriptor.add(JsonConstants.TAG, descriptor.tag().stream().map(Object::toString).collect(Collectors.joining(" ")));
+            generator.write(JsonConstants.TAG, descriptor.tag().stream().map(Object::toString).collect(Collectors.joining(" ")));
         }
 
         // documentation
-        JsonDocumentationWriter.toJson(descriptor.documentation(), verbose).ifPresent(doc -> jsonDescriptor.add(JsonConstants.DOCUMENTATION, doc));
+        JsonDocumentationWriter.toJson(descriptor.documentation(), verbose).ifPresent(doc -> generator.write(JsonConstants.DOCUMENTATION, doc));
+    }
 
-        // descriptors
-        if (JsonDocumentWriter.isNotEmpty(descriptor.descriptors())) {
-            jsonDescriptor.add(JsonConstants.DESCRIPTOR, toJson(descriptor.descriptors(), verbose));
-        }
+    /**
+     * Writes descriptor properties following nested descriptors.
+     */
+    private static final void writeTail(final JsonGenerator generator, final Descriptor descriptor) {
 
         // links
         if (JsonDocumentWriter.isNotEmpty(descriptor.links())) {
-            jsonDescriptor.add(JsonConstants.LINK, JsonLinkWriter.toJson(descriptor.links()));
+            generator.write(JsonConstants.LINK, JsonLinkWriter.toJson(descriptor.links()));
         }
 
         // extensions
         if (JsonDocumentWriter.isNotEmpty(descriptor.extensions())) {
-            jsonDescriptor.add(JsonConstants.EXTENSION, JsonExtensionWriter.toJson(descriptor.extensions()));
+            generator.write(JsonConstants.EXTENSION, JsonExtensionWriter.toJson(descriptor.extensions()));
         }
+    }
+
+    private static final class Frame {
 
-        return jsonDescriptor.build();
+        final Descriptor parent;
+        final Iterator<Descriptor> descriptors;
+        final boolean array;
+
+        Frame(final Descriptor parent, final Iterator<Descriptor> descriptors, final boolean array) {
+            this.parent = parent;
+            this.descriptors = descriptors;
+            this.array = array;
+        }
     }
 }
@@ -18,9 +18,12 @@ package com.apicatalog.alps.json;
 import java.io.InputStream;
 import java.io.Reader;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
 
 import com.apicatalog.alps.Alps;
 import com.apicatalog.alps.DocumentBuilder;
+import com.apicatalog.alps.DocumentStatistics;
 import com.apicatalog.alps.dom.Document;
 import com.apicatalog.alps.dom.DocumentVersion;
 import com.apicatalog.alps.error.DocumentError;
@@ -28,8 +31,11 @@ import com.apicatalog.alps.error.DocumentParserException;
 import com.apicatalog.alps.error.InvalidDocumentException;
 import com.apicatalog.alps.error.MalformedDocumentException;
 import com.apicatalog.alps.io.DocumentParser;
+import com.apicatalog.alps.io.ParserLimits;
+import com.apicatalog.alps.io.ValidationReport;
+import com.apicatalog.alps.io.ParseEvent;
+import com.apicatalog.alps.io.ParserOptions;
 
-import jakarta.json.Json;
 import jakarta.json.JsonException;
 import jakarta.json.JsonObject;
 import jakarta.json.JsonValue;
@@ -39,6 +45,16 @@ import jakarta.json.stream.JsonParsingException;
 
 public final class JsonDocumentParser implements DocumentParser {
 
+    private final ParserOptions options;
+
+    public JsonDocumentParser() {
+        this(new ParserOptions());
+    }
+
+    public JsonDocumentParser(final ParserOptions options) {
+        this.options = options;
+    }
+
     @Override
     public Document parse(final URI baseUri, final InputStream stream) throws DocumentParserException {
 
@@ -46,32 +62,170 @@ public final class JsonDocumentParser implements DocumentParser {
             throw new IllegalArgumentException();
         }
 
+        final ParserLimits limits = new ParserLimits(options);
+
+        final ParseEvent event = ParseEvent.start(JsonConstants.MEDIA_TYPE, limits);
+
+        try {
+            try {
+
+                return event.complete(parse(baseUri, JsonUtils.provider().createParser(limits.limit(stream)), limits), limits);
+
+            } catch (JsonException e) {
+                limits.checkInput();
+                throw new DocumentParserException(e);
+            }
+
+        } catch (DocumentParserException e) {
+            event.fail(e, limits);
+            throw e;
+        }
+    }
+
+    @Override
+    public Document parse(final URI baseUri, final Reader reader) throws DocumentParserException {
+
+        if (reader == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final ParserLimits limits = new ParserLimits(options);
+
+        final ParseEvent event = ParseEvent.start(JsonConstants.MEDIA_TYPE, limits);
+
+        try {
+            try {
+
+                return event.complete(parse(baseUri, JsonUtils.provider().createParser(limits.limit(reader)), limits), limits);
+
+            } catch (JsonException e) {
+                limits.checkInput();
+                throw new DocumentParserException(e);
+            }
+
+        } catch (DocumentParserException e) {
+            event.fail(e, limits);
+            throw e;
+        }
+    }
+
+    /**
+     * Checks the document while reading the input, the document is not built.
+     */
+    @Override
+    public DocumentStatistics validate(final URI baseUri, final InputStream stream) throws DocumentParserException {
+
+        if (stream == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final ParserLimits limits = new ParserLimits(options);
+
         try {
 
-            return parse(baseUri, Json.createParser(stream));
+            return validate(JsonUtils.provider().createParser(limits.limit(stream)), limits);
 
         } catch (JsonException e) {
+            limits.checkInput();
             throw new DocumentParserException(e);
         }
     }
 
+    /**
+     * Checks the document while reading the input, the document is not built.
+     */
     @Override
-    public Document parse(final URI baseUri, final Reader reader) throws DocumentParserException {
+    public DocumentStatistics validate(final URI baseUri, final Reader reader) throws DocumentParserException {
+
+        if (reader == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final ParserLimits limits = new ParserLimits(options);
+
+        try {
+
+            return validate(JsonUtils.provider().createParser(limits.limit(reader)), limits);
+
+        } catch (JsonException e) {
+            limits.checkInput();
+            throw new DocumentParserException(e);
+        }
+    }
+
+    /**
+     * Checks the document while reading the input and collects all errors
+     * found, the document is not built.
+     */
+    @Override
+    public ValidationReport validate(final URI baseUri, final InputStream stream, final int maxErrors) throws DocumentParserException {
+
+        if (stream == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final ValidationReport report = new ValidationReport(maxErrors);
+        final ParserLimits limits = new ParserLimits(options);
+
+        try {
+
+            validate(JsonUtils.provider().createParser(limits.limit(stream)), limits, report);
+            return report;
+
+        } catch (JsonException e) {
+            limits.checkInput();
+            throw new DocumentParserException(e);
+        }
+    }
+
+    /**
+     * Checks the document while reading the input and collects all errors
+     * found, the document is not built.
+     */
+    @Override
+    public ValidationReport validate(final URI baseUri, final Reader reader, final int maxErrors) throws DocumentParserException {
 
         if (reader == null) {
             throw new IllegalArgumentException();
         }
 
+        final ValidationReport report = new ValidationReport(maxErrors);
+        final ParserLimits limits = new ParserLimits(options);
+
         try {
 
-            return parse(baseUri, Json.createParser(reader));
+            validate(JsonUtils.provider().createParser(limits.limit(reader)), limits, report);
+            return report;
 
         } catch (JsonException e) {
+            limits.checkInput();
             throw new DocumentParserException(e);
         }
     }
 
-    private static final Document parse(URI baseUri, JsonParser parser)  throws DocumentParserException {
+    private static final DocumentStatistics validate(final JsonParser parser, final ParserLimits limits) throws DocumentParserException {
+        try {
+
+            return JsonDocumentValidator.validate(parser, limits);
+
+        } catch (JsonParsingException e) {
+            limits.checkInput();
+            throw new MalformedDocumentException(e.getLocation().getLineNumber(), e.getLocation().getColumnNumber(), "Document is not valid JSON document.");
+        }
+    }
+
+    private static final void validate(final JsonParser parser, final ParserLimits limits, final ValidationReport report) throws DocumentParserException {
+        try {
+
+            JsonDocumentValidator.validate(parser, limits, report);
+
+        } catch (JsonParsingException e) {
+            limits.checkInput();
+            throw new MalformedDocumentException(e.getLocation().getLineNumber(), e.getLocation().getColumnNumber(), "Document is not valid JSON document.");
+        }
+    }
+
+    private static final Document parse(URI baseUri, JsonParser parser, ParserLimits limits)  throws DocumentParserException {
 
         try {
 
@@ -85,60 +239,140 @@ public final class JsonDocumentParser implements DocumentParser {
                 throw new DocumentParserException("Expected JSON object but was " + event);
             }
 
-            final JsonObject rootObject = parser.getObject();
+            // limits are checked while reading and again when the document is built
+            final JsonObject rootObject = JsonUtils.readDocument(
+                                                parser,
+                                                getMaxStructureDepth(limits.getOptions().getMaxDepth()),
+                                                getSkipped(limits.getOptions()),
+                                                new ParserLimits(limits.getOptions())
+                                                );
 
             if (!rootObject.containsKey(JsonConstants.ROOT)) {
-                throw new InvalidDocumentException(DocumentError.MISSING_ROOT, "Property '" + JsonConstants.ROOT + "' is not present");
+                throw missingRoot();
             }
 
             final JsonValue alpsObject = rootObject.get(JsonConstants.ROOT);
 
             if (JsonUtils.isNotObject(alpsObject)) {
-                throw new InvalidDocumentException(DocumentError.MISSING_ROOT, "Property '" + JsonConstants.ROOT + "' does not contain JSON object");
+                throw invalidRoot();
             }
 
-            return parse(baseUri, alpsObject.asJsonObject());
+            return parse(baseUri, alpsObject.asJsonObject(), limits);
 
         } catch (JsonParsingException e) {
+            limits.checkInput();
             throw new MalformedDocumentException(e.getLocation().getLineNumber(), e.getLocation().getColumnNumber(), "Document is not valid JSON document.");
         }
     }
 
     public static final Document parse(final URI baseUri, final JsonObject alpsObject) throws DocumentParserException {
+        return parse(baseUri, alpsObject, new ParserOptions());
+    }
+
+    /**
+     * Builds a document of an object already read, the limits other than the
+     * input length are checked while the document is built.
+     *
+     * @param baseUri a document base URI
+     * @param alpsObject the value of the <code>alps</code> property
+     * @param options limits and skipped elements
+     * @return a document
+     * @throws DocumentParserException if the object is not a valid document or a limit is exceeded
+     */
+    public static final Document parse(final URI baseUri, final JsonObject alpsObject, final ParserOptions options) throws DocumentParserException {
+        return parse(baseUri, alpsObject, new ParserLimits(options));
+    }
+
+    private static final Document parse(final URI baseUri, final JsonObject alpsObject, final ParserLimits limits) throws DocumentParserException {
 
         final DocumentBuilder builder = Alps.createDocument(DocumentVersion.VERSION_1_0).base(baseUri);
 
-        // title
-        if (alpsObject.containsKey(JsonConstants.TITLE)) {
-            final JsonValue title = alpsObject.get(JsonConstants.TITLE);
+        parseProperties(builder, alpsObject, limits, JsonErrorHandler.FAIL);
 
-            if (JsonUtils.isNotString(title)) {
-                throw new InvalidDocumentException(DocumentError.INVALID_TITLE, "The 'title' property value must be JSON string but was " + title);
-            }
+        // descriptors
+        if (alpsObject.containsKey(JsonConstants.DESCRIPTOR)) {
+            JsonDescriptorParser.parse(alpsObject.get(JsonConstants.DESCRIPTOR), limits).forEach(builder::add);
+        }
+
+        parseExtensions(builder, alpsObject, limits, JsonErrorHandler.FAIL);
 
-            builder.title(JsonUtils.getString(title));            
+        return builder.build();
+    }
+
+    /**
+     * Parses document properties preceding descriptors, an invalid property is
+     * passed to the handler and not set.
+     *
+     * @param builder a document builder
+     * @param alpsObject the value of the <code>alps</code> property, descriptors are ignored
+     * @param limits limits checked as properties are parsed
+     * @param errors receives invalid properties
+     * @throws InvalidDocumentException if the handler ends parsing
+     */
+    static final void parseProperties(final DocumentBuilder builder, final JsonObject alpsObject, final ParserLimits limits, final JsonErrorHandler errors) throws InvalidDocumentException {
+
+        // title
+        if (alpsObject.containsKey(JsonConstants.TITLE)) {
+            errors.check(JsonConstants.TITLE, () -> builder.title(JsonDescriptorParser.parseTitle(alpsObject.get(JsonConstants.TITLE))));
         }
-        
+
         // documentation
-        if (alpsObject.containsKey(JsonConstants.DOCUMENTATION)) {
-            JsonDocumentationParser.parse(alpsObject.get(JsonConstants.DOCUMENTATION)).forEach(builder::add);
+        if (alpsObject.containsKey(JsonConstants.DOCUMENTATION) && !limits.getOptions().isDocumentationSkipped()) {
+            JsonDocumentationParser.parse(alpsObject.get(JsonConstants.DOCUMENTATION), limits, errors).forEach(builder::add);
         }
 
         // links
-        if (alpsObject.containsKey(JsonConstants.LINK)) {
-            JsonLinkParser.parse(alpsObject.get(JsonConstants.LINK)).forEach(builder::add);
+        if (alpsObject.containsKey(JsonConstants.LINK) && !limits.getOptions().isLinksSkipped()) {
+            JsonLinkParser.parse(alpsObject.get(JsonConstants.LINK), errors).forEach(builder::add);
         }
+    }
 
-        // descriptors
-        if (alpsObject.containsKey(JsonConstants.DESCRIPTOR)) {
-            JsonDescriptorParser.parse(alpsObject.get(JsonConstants.DESCRIPTOR)).forEach(builder::add);
+    /**
+     * Parses document extensions, an invalid extension is passed to the handler
+     * and not added.
+     *
+     * @param builder a document builder
+     * @param alpsObject the value of the <code>alps</code> property
+     * @param limits limits checked as extensions are parsed
+     * @param errors receives invalid extensions
+     * @throws InvalidDocumentException if the handler ends parsing
+     */
+    static final void parseExtensions(final DocumentBuilder builder, final JsonObject alpsObject, final ParserLimits limits, final JsonErrorHandler errors) throws InvalidDocumentException {
+        if (alpsObject.containsKey(JsonConstants.EXTENSION) && !limits.getOptions().isExtensionsSkipped()) {
+            JsonExtensionParser.parse(alpsObject.get(JsonConstants.EXTENSION), limits, errors).forEach(builder::add);
         }
+    }
+
+    static final InvalidDocumentException missingRoot() {
+        return new InvalidDocumentException(DocumentError.MISSING_ROOT, "Property '" + JsonConstants.ROOT + "' is not present");
+    }
+
+    static final InvalidDocumentException invalidRoot() {
+        return new InvalidDocumentException(DocumentError.MISSING_ROOT, "Property '" + JsonConstants.ROOT + "' does not contain JSON object");
+    }
 
-        // extensions
-        if (alpsObject.containsKey(JsonConstants.EXTENSION)) {
-            JsonExtensionParser.parse(alpsObject.get(JsonConstants.EXTENSION)).forEach(builder::add);
+    private static final Collection<String> getSkipped(final ParserOptions options) {
+
+        final Collection<String> skipped = new ArrayList<>(3);
+
+        if (options.isDocumentationSkipped()) {
+            skipped.add(JsonConstants.DOCUMENTATION);
+        }
+        if (options.isExtensionsSkipped()) {
+            skipped.add(JsonConstants.EXTENSION);
+        }
+        if (options.isLinksSkipped()) {
+            skipped.add(JsonConstants.LINK);
         }
 
-        return builder.build();
+        return skipped;
+    }
+
+    /**
+     * A descriptor nests at most two levels, an array and an object, the
+     * remaining levels are taken by the document root and descriptor properties.
+     */
+    static final int getMaxStructureDepth(final int maxDepth) {
+        return (int)Math.min(Integer.MAX_VALUE, 2L * maxDepth + 8);
     }
 }
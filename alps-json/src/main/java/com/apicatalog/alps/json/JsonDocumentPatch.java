@@ -0,0 +1,617 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.apicatalog.alps.Alps;
+import com.apicatalog.alps.DescriptorBuilder;
+import com.apicatalog.alps.DocumentBuilder;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.dom.element.Documentation;
+import com.apicatalog.alps.dom.element.Extension;
+import com.apicatalog.alps.dom.element.Link;
+import com.apicatalog.alps.error.DocumentError;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.error.MalformedDocumentException;
+import com.apicatalog.alps.io.DocumentWriter;
+import com.apicatalog.alps.io.ParserLimits;
+import com.apicatalog.alps.io.ParserOptions;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonException;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+
+/**
+ * Applies JSON Patch (RFC 6902) and JSON Merge Patch (RFC 7396) documents
+ * written against the ALPS+JSON representation of a document.
+ * <p>
+ * A JSON pointer is followed through <code>descriptor</code> properties to
+ * the addressed descriptor, only the descriptor is converted to JSON,
+ * patched and parsed again. The descriptors on the path are re-built, all
+ * other elements are shared with the original document. Operations with a
+ * <code>from</code> pointer and operations on the document object itself
+ * are applied to the JSON representation of the whole document.
+ * </p>
+ * <p>
+ * Pointers are resolved against the representation written by
+ * {@link JsonDocumentWriter}, i.e. descriptors are indexed in the order of
+ * {@link Document#descriptors()}, the source order of a parsed document, and
+ * a single descriptor is an object. An index or <code>-</code> segment is
+ * rejected unless there are at least two descriptors written as an array.
+ * Siblings are a set, an operation adding a descriptor equal to an existing
+ * sibling fails.
+ * </p>
+ */
+public final class JsonDocumentPatch {
+
+    private static final String OP = "op";
+    private static final String PATH = "path";
+    private static final String FROM = "from";
+
+    private static final String OP_ADD = "add";
+    private static final String OP_REMOVE = "remove";
+    private static final String OP_REPLACE = "replace";
+    private static final String OP_TEST = "test";
+
+    /** a segment is not an array index */
+    private static final int NOT_POSITION = -2;
+
+    /** the <code>-</code> index appending an item */
+    private static final int APPEND = -1;
+
+    private JsonDocumentPatch() {
+    }
+
+    public static final Document apply(final Document document, final JsonArray patch) throws DocumentParserException {
+        return apply(document, patch, new ParserOptions());
+    }
+
+    /**
+     * Applies the operations in order.
+     *
+     * @param document a document to patch
+     * @param patch an array of JSON Patch operations
+     * @param options limits checked as patched descriptors are parsed
+     * @return a patched document
+     * @throws DocumentParserException if an operation fails or the patched document is not valid
+     */
+    public static final Document apply(final Document document, final JsonArray patch, final ParserOptions options) throws DocumentParserException {
+
+        if (document == null || patch == null) {
+            throw new IllegalArgumentException("The document and the patch must not be null.");
+        }
+
+        final ParserLimits limits = new ParserLimits(options);
+
+        Document result = document;
+
+        for (final JsonValue operation : patch) {
+
+            if (JsonUtils.isNotObject(operation)) {
+                throw new InvalidDocumentException(DocumentError.INVALID_PATCH, "A patch operation must be JSON object but was " + operation.getValueType());
+            }
+
+            result = apply(result, operation.asJsonObject(), limits);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads a JSON object, e.g. a request carrying a document and a patch.
+     * The input length and the structure depth are limited as the input of
+     * a document, a document or a patch can be nested one level deeper.
+     *
+     * @param stream an input
+     * @param options limits checked as the input is read
+     * @return a JSON object
+     * @throws DocumentParserException if the input is not a JSON object or a limit is exceeded
+     */
+    public static final JsonObject read(final InputStream stream, final ParserOptions options) throws DocumentParserException {
+
+        if (stream == null || options == null) {
+            throw new IllegalArgumentException("The stream and the options must not be null.");
+        }
+
+        final ParserLimits limits = new ParserLimits(options);
+
+        try (final JsonParser parser = JsonUtils.provider().createParser(limits.limit(stream))) {
+
+            if (!parser.hasNext() || !Event.START_OBJECT.equals(parser.next())) {
+                throw new DocumentParserException("Expected JSON object.");
+            }
+
+            return JsonUtils.readObject(parser, JsonDocumentParser.getMaxStructureDepth(options.getMaxDepth()) + 1, Collections.emptyList());
+
+        } catch (JsonParsingException e) {
+            limits.checkInput();
+            throw new MalformedDocumentException(e.getLocation().getLineNumber(), e.getLocation().getColumnNumber(), "Input is not valid JSON object.");
+
+        } catch (JsonException e) {
+            limits.checkInput();
+            throw new DocumentParserException(e);
+        }
+    }
+
+    public static final Document merge(final Document document, final JsonValue patch) throws DocumentParserException {
+        return merge(document, patch, new ParserOptions());
+    }
+
+    /**
+     * Applies the merge patch. Document properties other than descriptors
+     * are merged into the document object, descriptors are merged only if
+     * the patch sets the <code>descriptor</code> property.
+     *
+     * @param document a document to patch
+     * @param patch a merge patch
+     * @param options limits checked as patched descriptors are parsed
+     * @return a patched document
+     * @throws DocumentParserException if the patched document is not valid
+     */
+    public static final Document merge(final Document document, final JsonValue patch, final ParserOptions options) throws DocumentParserException {
+
+        if (document == null || patch == null) {
+            throw new IllegalArgumentException("The document and the patch must not be null.");
+        }
+
+        final ParserLimits limits = new ParserLimits(options);
+
+        if (JsonUtils.isNotObject(patch)
+                || patch.asJsonObject().size() != 1
+                || JsonUtils.isNotObject(patch.asJsonObject().get(JsonConstants.ROOT))) {
+            return parse(document, merge(toJson(document), patch), limits);
+        }
+
+        final JsonObject alpsPatch = patch.asJsonObject().getJsonObject(JsonConstants.ROOT);
+
+        Document head = head(document);
+
+        if (alpsPatch.size() > 1 || !alpsPatch.containsKey(JsonConstants.DESCRIPTOR)) {
+            head = parse(document, merge(toJson(head), JsonUtils.provider()
+                                                            .createObjectBuilder()
+                                                            .add(JsonConstants.ROOT, JsonUtils.provider().createObjectBuilder(alpsPatch).remove(JsonConstants.DESCRIPTOR))
+                                                            .build()), limits);
+        }
+
+        if (!alpsPatch.containsKey(JsonConstants.DESCRIPTOR)) {
+            return append(head, document.descriptors());
+        }
+
+        final JsonValue descriptorPatch = alpsPatch.get(JsonConstants.DESCRIPTOR);
+
+        if (JsonUtils.isNull(descriptorPatch)) {
+            return head;
+        }
+
+        // a single descriptor is an object merged with the patch
+        if (JsonUtils.isObject(descriptorPatch) && document.descriptors().size() == 1) {
+
+            final JsonObject merged = merge(toJson(document.descriptors().iterator().next()), descriptorPatch).asJsonObject();
+
+            return append(head, Set.of(descriptor(merged, limits)));
+        }
+
+        // a patch object replacing an array or a missing value is merged with an empty object
+        return append(head, JsonDescriptorParser.parse(
+                                JsonUtils.isObject(descriptorPatch)
+                                    ? merge(JsonValue.EMPTY_JSON_OBJECT, descriptorPatch)
+                                    : descriptorPatch,
+                                limits));
+    }
+
+    private static final Document apply(final Document document, final JsonObject operation, final ParserLimits limits) throws DocumentParserException {
+
+        final String op = getString(operation, OP);
+        final String path = getString(operation, PATH);
+
+        final List<String> segments = parsePointer(path);
+
+        if (operation.containsKey(FROM) || segments.size() < 2 || !JsonConstants.ROOT.equals(segments.get(0))) {
+            return parse(document, patch(toJson(document), operation, path), limits);
+        }
+
+        // descriptors from a top level descriptor to the addressed one
+        final List<Descriptor> chain = new ArrayList<>();
+
+        Set<Descriptor> descriptors = document.descriptors();
+
+        int index = 1;
+
+        while (index + 1 < segments.size() && JsonConstants.DESCRIPTOR.equals(segments.get(index))) {
+
+            final int position = getPosition(segments.get(index + 1));
+
+            if (position == NOT_POSITION) {
+
+                // a single descriptor is written as an object
+                if (descriptors.size() != 1) {
+                    break;
+                }
+
+                final Descriptor descriptor = descriptors.iterator().next();
+
+                chain.add(descriptor);
+                descriptors = descriptor.descriptors();
+                index++;
+                continue;
+            }
+
+            // a single descriptor is an object, no descriptor is not written
+            if (descriptors.size() < 2) {
+                throw new InvalidDocumentException(DocumentError.INVALID_PATCH, path, "Path '" + path + "' does not exist.");
+            }
+
+            if (index + 2 == segments.size()) {
+                return apply(document, chain, descriptors, position, op, operation, limits);
+            }
+
+            if (position == APPEND || position >= descriptors.size()) {
+                throw new InvalidDocumentException(DocumentError.INVALID_PATCH, path, "Path '" + path + "' does not exist.");
+            }
+
+            final Descriptor descriptor = get(descriptors, position);
+
+            chain.add(descriptor);
+            descriptors = descriptor.descriptors();
+            index += 2;
+        }
+
+        final String relative = toPointer(segments, index);
+
+        if (chain.isEmpty()) {
+
+            // the document object or all top level descriptors
+            if (relative.isEmpty() || index < segments.size() && JsonConstants.DESCRIPTOR.equals(segments.get(index))) {
+                return parse(document, patch(toJson(document), operation, path), limits);
+            }
+
+            final Document head = head(document);
+
+            final JsonValue patched = patch(toJson(head), operation, "/" + JsonConstants.ROOT + relative);
+
+            if (OP_TEST.equals(op)) {
+                return document;
+            }
+
+            return append(parse(document, patched, limits), document.descriptors());
+        }
+
+        final Descriptor target = chain.get(chain.size() - 1);
+
+        final JsonValue patched = patch(toJson(target), operation, relative);
+
+        if (OP_TEST.equals(op)) {
+            return document;
+        }
+
+        if (JsonUtils.isNotObject(patched)) {
+            throw new InvalidDocumentException(DocumentError.INVALID_PATCH, path, "A descriptor must be JSON object but was " + patched.getValueType());
+        }
+
+        return Alps.createDocument(document)
+                    .replace(chain, descriptor(patched.asJsonObject(), limits))
+                    .build();
+    }
+
+    /**
+     * Applies an operation addressing a descriptor in a list of descriptors.
+     */
+    private static final Document apply(final Document document, final List<Descriptor> chain, final Set<Descriptor> descriptors, final int position, final String op, final JsonObject operation, final ParserLimits limits) throws DocumentParserException {
+
+        final String path = getString(operation, PATH);
+
+        if (position != APPEND && (position > descriptors.size() || position == descriptors.size() && !OP_ADD.equals(op))) {
+            throw new InvalidDocumentException(DocumentError.INVALID_PATCH, path, "Path '" + path + "' does not exist.");
+        }
+
+        if (!OP_ADD.equals(op) && position == APPEND) {
+            throw new InvalidDocumentException(DocumentError.INVALID_PATCH, path, "Operation '" + op + "' cannot address '-' index.");
+        }
+
+        if (OP_TEST.equals(op)) {
+
+            if (!toJson(get(descriptors, position)).equals(getValue(operation))) {
+                throw new InvalidDocumentException(DocumentError.INVALID_PATCH, path, "Test operation at '" + path + "' failed.");
+            }
+            return document;
+        }
+
+        final DocumentBuilder documentBuilder = Alps.createDocument(document);
+        final DescriptorBuilder parent = chain.isEmpty() ? null : Alps.createDescriptor(chain.get(chain.size() - 1));
+
+        final Consumer<Descriptor> add = chain.isEmpty() ? documentBuilder::add : parent::add;
+        final Consumer<Descriptor> remove = chain.isEmpty() ? documentBuilder::remove : parent::remove;
+
+        if (OP_ADD.equals(op)) {
+
+            final Descriptor descriptor = descriptor(getValue(operation), limits, path);
+
+            if (descriptors.contains(descriptor)) {
+                throw new InvalidDocumentException(DocumentError.INVALID_PATCH, path, "Descriptor added at '" + path + "' is equal to an existing descriptor.");
+            }
+
+            // descriptors following the position are moved after the added one
+            final List<Descriptor> following = new ArrayList<>();
+
+            if (position != APPEND) {
+                final Iterator<Descriptor> it = descriptors.iterator();
+
+                for (int i = 0; it.hasNext(); i++) {
+                    final Descriptor next = it.next();
+                    if (i >= position) {
+                        following.add(next);
+                    }
+                }
+            }
+
+            following.forEach(remove);
+            add.accept(descriptor);
+            following.forEach(add);
+
+        } else if (OP_REMOVE.equals(op)) {
+            remove.accept(get(descriptors, position));
+
+        } else if (OP_REPLACE.equals(op)) {
+
+            final Descriptor replaced = get(descriptors, position);
+            final Descriptor descriptor = descriptor(getValue(operation), limits, path);
+
+            if (!replaced.equals(descriptor) && descriptors.contains(descriptor)) {
+                throw new InvalidDocumentException(DocumentError.INVALID_PATCH, path, "Descriptor replacing '" + path + "' is equal to an existing descriptor.");
+            }
+
+            if (chain.isEmpty()) {
+                documentBuilder.replace(replaced, descriptor);
+
+            } else {
+                parent.replace(replaced, descriptor);
+            }
+
+        } else {
+            throw new InvalidDocumentException(DocumentError.INVALID_PATCH, path, "Unsupported patch operation '" + op + "'.");
+        }
+
+        if (!chain.isEmpty()) {
+            documentBuilder.replace(chain, parent.build());
+        }
+
+        return documentBuilder.build();
+    }
+
+    private static final JsonValue patch(final JsonValue json, final JsonObject operation, final String path) throws InvalidDocumentException {
+        try {
+            return JsonUtils.provider()
+                        .createPatch(JsonUtils.provider()
+                                        .createArrayBuilder()
+                                        .add(JsonUtils.provider().createObjectBuilder(operation).add(PATH, path))
+                                        .build())
+                        .apply(json.asJsonObject());
+
+        } catch (JsonException e) {
+            throw new InvalidDocumentException(DocumentError.INVALID_PATCH, getString(operation, PATH), e.getMessage());
+        }
+    }
+
+    private static final JsonValue merge(final JsonValue json, final JsonValue patch) throws InvalidDocumentException {
+        try {
+            return JsonUtils.provider().createMergePatch(patch).apply(json);
+
+        } catch (JsonException e) {
+            throw new InvalidDocumentException(DocumentError.INVALID_PATCH, e.getMessage());
+        }
+    }
+
+    /**
+     * Parses a patched JSON representation of a document.
+     */
+    private static final Document parse(final Document document, final JsonValue json, final ParserLimits limits) throws DocumentParserException {
+
+        if (JsonUtils.isNotObject(json) || JsonUtils.isNotObject(json.asJsonObject().get(JsonConstants.ROOT))) {
+            throw new InvalidDocumentException(DocumentError.MISSING_ROOT, "Property '" + JsonConstants.ROOT + "' is not present");
+        }
+
+        return JsonDocumentParser.parse(document.baseUri(), json.asJsonObject().getJsonObject(JsonConstants.ROOT), limits.getOptions());
+    }
+
+    private static final Descriptor descriptor(final JsonValue json, final ParserLimits limits, final String path) throws InvalidDocumentException {
+
+        if (JsonUtils.isNotObject(json)) {
+            throw new InvalidDocumentException(DocumentError.INVALID_PATCH, path, "A descriptor must be JSON object but was " + json.getValueType());
+        }
+
+        return descriptor(json.asJsonObject(), limits);
+    }
+
+    private static final Descriptor descriptor(final JsonObject json, final ParserLimits limits) throws InvalidDocumentException {
+        return JsonDescriptorParser.parse(json, limits).iterator().next();
+    }
+
+    /**
+     * Returns the document without descriptors.
+     */
+    private static final Document head(final Document document) {
+
+        final DocumentBuilder builder = Alps.createDocument(document.version())
+                                            .base(document.baseUri())
+                                            .title(document.title().orElse(null));
+
+        for (final Documentation documentation : document.documentation()) {
+            builder.add(documentation);
+        }
+        for (final Link link : document.links()) {
+            builder.add(link);
+        }
+        for (final Extension extension : document.extensions()) {
+            builder.add(extension);
+        }
+
+        return build(builder);
+    }
+
+    private static final Document append(final Document head, final Set<Descriptor> descriptors) {
+
+        final DocumentBuilder builder = Alps.createDocument(head);
+
+        for (final Descriptor descriptor : descriptors) {
+            builder.add(descriptor);
+        }
+
+        return build(builder);
+    }
+
+    private static final Document build(final DocumentBuilder builder) {
+        try {
+            return builder.build();
+
+        } catch (InvalidDocumentException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final JsonObject toJson(final Document document) throws InvalidDocumentException {
+
+        final StringWriter writer = new StringWriter();
+
+        try (final DocumentWriter documentWriter = JsonDocumentWriter.create(writer, false, false)) {
+            documentWriter.write(document);
+
+        } catch (Exception e) {
+            throw new InvalidDocumentException(DocumentError.INVALID_PATCH, null, e);
+        }
+
+        return read(writer.toString());
+    }
+
+    private static final JsonObject toJson(final Descriptor descriptor) {
+
+        final StringWriter writer = new StringWriter();
+
+        try (final JsonGenerator generator = JsonUtils.provider().createGenerator(writer)) {
+            generator.writeStartObject();
+            JsonDescriptorWriter.write(generator, Set.of(descriptor), false);
+            generator.writeEnd();
+        }
+
+        return read(writer.toString()).getJsonObject(JsonConstants.DESCRIPTOR);
+    }
+
+    private static final JsonObject read(final String json) {
+        return JsonUtils.provider().createReader(new StringReader(json)).readObject();
+    }
+
+    private static final String getString(final JsonObject operation, final String name) throws InvalidDocumentException {
+
+        final JsonValue value = operation.get(name);
+
+        if (value == null || JsonUtils.isNotString(value)) {
+            throw new InvalidDocumentException(DocumentError.INVALID_PATCH, "A patch operation '" + name + "' must be JSON string but was " + value);
+        }
+
+        return JsonUtils.getString(value);
+    }
+
+    private static final JsonValue getValue(final JsonObject operation) throws InvalidDocumentException {
+
+        final JsonValue value = operation.get(JsonConstants.VALUE);
+
+        if (value == null) {
+            throw new InvalidDocumentException(DocumentError.INVALID_PATCH, getString(operation, PATH), "A patch operation 'value' is missing.");
+        }
+
+        return value;
+    }
+
+    private static final Descriptor get(final Set<Descriptor> descriptors, final int position) {
+
+        final Iterator<Descriptor> it = descriptors.iterator();
+
+        for (int i = 0; i < position; i++) {
+            it.next();
+        }
+
+        return it.next();
+    }
+
+    private static final int getPosition(final String segment) {
+
+        if ("-".equals(segment)) {
+            return APPEND;
+        }
+
+        if (segment.isEmpty() || segment.length() > 9 || (segment.length() > 1 && segment.charAt(0) == '0')) {
+            return NOT_POSITION;
+        }
+
+        for (int i = 0; i < segment.length(); i++) {
+            if (segment.charAt(i) < '0' || segment.charAt(i) > '9') {
+                return NOT_POSITION;
+            }
+        }
+
+        return Integer.parseInt(segment);
+    }
+
+    private static final List<String> parsePointer(final String pointer) throws InvalidDocumentException {
+
+        final List<String> segments = new ArrayList<>();
+
+        if (pointer.isEmpty()) {
+            return segments;
+        }
+
+        if (pointer.charAt(0) != '/') {
+            throw new InvalidDocumentException(DocumentError.INVALID_PATCH, pointer, "Path '" + pointer + "' is not JSON pointer.");
+        }
+
+        int start = 1;
+
+        for (int i = 1; i <= pointer.length(); i++) {
+            if (i == pointer.length() || pointer.charAt(i) == '/') {
+                segments.add(pointer.substring(start, i).replace("~1", "/").replace("~0", "~"));
+                start = i + 1;
+            }
+        }
+
+        return segments;
+    }
+
+    private static final String toPointer(final List<String> segments, final int from) {
+
+        final StringBuilder pointer = new StringBuilder();
+
+        for (int i = from; i < segments.size(); i++) {
+            pointer.append('/').append(segments.get(i).replace("~", "~0").replace("/", "~1"));
+        }
+
+        return pointer.toString();
+    }
+}
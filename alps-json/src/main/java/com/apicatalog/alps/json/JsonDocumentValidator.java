@@ -0,0 +1,370 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.apicatalog.alps.Alps;
+import com.apicatalog.alps.DescriptorBuilder;
+import com.apicatalog.alps.DocumentBuilder;
+import com.apicatalog.alps.DocumentStatistics;
+import com.apicatalog.alps.dom.DocumentVersion;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.io.ParserLimits;
+import com.apicatalog.alps.io.ValidationReport;
+
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+/**
+ * Checks a document while reading parser events, the document is not built.
+ * Descriptors are read one by one, properties of the document or a descriptor
+ * other than nested descriptors are read and checked by the rules of
+ * {@link JsonDocumentParser} when the element ends.
+ * <p>
+ * A document breaking several rules can be reported with a different error
+ * than by the parser, a nested descriptor is checked before the descriptor
+ * containing it.
+ * </p>
+ * <p>
+ * If a report is given, an error is recorded with a JSON pointer to the
+ * invalid value and the validation continues.
+ * </p>
+ */
+final class JsonDocumentValidator {
+
+    private final JsonParser parser;
+    private final ParserLimits limits;
+    private final ValidationReport report;
+
+    /** the maximum number of nested JSON objects and arrays */
+    private final int maxDepth;
+
+    /** open elements and arrays of descriptors, the root object is not included */
+    private final Deque<Frame> stack;
+
+    private long descriptors;
+    private long docs;
+    private long links;
+    private long extensions;
+
+    private JsonDocumentValidator(final JsonParser parser, final ParserLimits limits, final ValidationReport report) {
+        this.parser = parser;
+        this.limits = limits;
+        this.report = report;
+        this.maxDepth = JsonDocumentParser.getMaxStructureDepth(limits.getOptions().getMaxDepth());
+        this.stack = new ArrayDeque<>();
+        this.descriptors = 0;
+        this.docs = 0;
+        this.links = 0;
+        this.extensions = 0;
+    }
+
+    public static final DocumentStatistics validate(final JsonParser parser, final ParserLimits limits) throws DocumentParserException {
+        return new JsonDocumentValidator(parser, limits, null).validate();
+    }
+
+    public static final void validate(final JsonParser parser, final ParserLimits limits, final ValidationReport report) throws DocumentParserException {
+        report.setStatistics(new JsonDocumentValidator(parser, limits, report).validate());
+    }
+
+    private final DocumentStatistics validate() throws DocumentParserException {
+
+        if (!parser.hasNext()) {
+            throw new DocumentParserException("Expected JSON object but was an empty input");
+        }
+
+        final Event start = parser.next();
+
+        if (!Event.START_OBJECT.equals(start)) {
+            throw new DocumentParserException("Expected JSON object but was " + start);
+        }
+
+        boolean root = false;
+
+        while (true) {
+
+            final Event event = next();
+
+            if (Event.END_OBJECT.equals(event)) {
+                break;
+            }
+
+            final String key = parser.getString();
+            final Event value = parser.next();
+
+            if (!JsonConstants.ROOT.equals(key)) {
+                read(value);
+                continue;
+            }
+
+            root = true;
+
+            if (!Event.START_OBJECT.equals(value)) {
+                read(value);
+                recover(pointer("", key, -1), JsonDocumentParser.invalidRoot());
+                continue;
+            }
+
+            document();
+        }
+
+        if (!root) {
+            recover("", JsonDocumentParser.missingRoot());
+        }
+
+        return DocumentStatistics.of(DocumentVersion.VERSION_1_0, descriptors, docs, links, extensions);
+    }
+
+    /**
+     * Reads the document object the parser is positioned at.
+     */
+    private final void document() throws DocumentParserException {
+
+        stack.push(new Frame(pointer("", JsonConstants.ROOT, -1), 0, true));
+
+        while (!stack.isEmpty()) {
+
+            final Event event = next();
+
+            final Frame frame = stack.peek();
+
+            // an array of descriptors
+            if (frame.properties == null) {
+
+                if (Event.END_ARRAY.equals(event)) {
+                    stack.pop();
+
+                } else {
+                    descriptor(pointer(frame.path, null, frame.items++), frame.level, event);
+                }
+                continue;
+            }
+
+            if (Event.END_OBJECT.equals(event)) {
+                stack.pop();
+                end(frame);
+                continue;
+            }
+
+            final String key = parser.getString();
+            final Event value = parser.next();
+
+            if (JsonConstants.DESCRIPTOR.equals(key)) {
+
+                if (Event.START_ARRAY.equals(value)) {
+                    open();
+                    stack.push(new Frame(pointer(frame.path, key, -1), frame.level + 1, false));
+
+                } else if (Event.START_OBJECT.equals(value)) {
+                    descriptor(pointer(frame.path, key, -1), frame.level + 1, value);
+
+                } else {
+                    recover(pointer(frame.path, key, -1), JsonDescriptorParser.invalidDescriptor(read(value).getValueType()));
+                }
+                continue;
+            }
+
+            if (isSkipped(key)) {
+                skip(value);
+                continue;
+            }
+
+            frame.properties.add(key, read(value));
+        }
+    }
+
+    /**
+     * Enters a descriptor, an invalid descriptor is skipped.
+     */
+    private final void descriptor(final String path, final int level, final Event event) throws DocumentParserException {
+
+        try {
+            JsonDescriptorParser.enter(level, limits);
+
+        } catch (InvalidDocumentException e) {
+            recover(path, e);
+        }
+
+        if (!Event.START_OBJECT.equals(event)) {
+            recover(path, JsonDescriptorParser.invalidDescriptor(read(event).getValueType()));
+            return;
+        }
+
+        open();
+        stack.push(new Frame(path, level, true));
+    }
+
+    /**
+     * Checks properties of a completed element.
+     */
+    private final void end(final Frame frame) throws InvalidDocumentException {
+
+        final JsonObject properties = frame.properties.build();
+
+        final JsonErrorHandler errors = (key, index, error) -> recover(pointer(frame.path, key, index), error);
+
+        if (frame.level == 0) {
+            final DocumentBuilder builder = Alps.createDocument(DocumentVersion.VERSION_1_0);
+
+            JsonDocumentParser.parseProperties(builder, properties, limits, errors);
+            JsonDocumentParser.parseExtensions(builder, properties, limits, errors);
+
+        } else {
+            final DescriptorBuilder builder = Alps.createDescriptor();
+
+            JsonDescriptorParser.parseProperties(builder, properties, limits, errors);
+            JsonDescriptorParser.parseExtensions(builder, properties, limits, errors);
+
+            descriptors++;
+        }
+
+        docs += count(properties.get(JsonConstants.DOCUMENTATION));
+        links += count(properties.get(JsonConstants.LINK));
+        extensions += count(properties.get(JsonConstants.EXTENSION));
+    }
+
+    /**
+     * Adds a location to the error and records it, or throws it if errors are
+     * not collected.
+     */
+    private final void recover(final String path, final InvalidDocumentException e) throws InvalidDocumentException {
+
+        final InvalidDocumentException error = new InvalidDocumentException(e.getCode(), path, e.getMessage());
+
+        if (report == null) {
+            throw error;
+        }
+
+        report.add(error);
+    }
+
+    /**
+     * Returns JSON pointer to a property, an item of a property value or an
+     * item of the value.
+     */
+    private static final String pointer(final String path, final String key, final int index) {
+
+        final StringBuilder pointer = new StringBuilder(path);
+
+        if (key != null) {
+            pointer.append('/').append(key.replace("~", "~0").replace("/", "~1"));
+        }
+
+        if (index != -1) {
+            pointer.append('/').append(index);
+        }
+
+        return pointer.toString();
+    }
+
+    private final boolean isSkipped(final String key) {
+        switch (key) {
+        case JsonConstants.DOCUMENTATION:
+            return limits.getOptions().isDocumentationSkipped();
+
+        case JsonConstants.LINK:
+            return limits.getOptions().isLinksSkipped();
+
+        case JsonConstants.EXTENSION:
+            return limits.getOptions().isExtensionsSkipped();
+
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of items of a property value, a single value is
+     * counted as an array of one item.
+     */
+    private static final long count(final JsonValue value) {
+
+        if (value == null) {
+            return 0;
+        }
+
+        return JsonUtils.isArray(value) ? value.asJsonArray().size() : 1;
+    }
+
+    private final Event next() throws DocumentParserException {
+
+        if (!parser.hasNext()) {
+            throw new DocumentParserException("Unexpected end of input, expected JSON object end");
+        }
+
+        return parser.next();
+    }
+
+    /**
+     * Checks the nesting of a structure to be entered, the root object and
+     * frames on the stack are open.
+     */
+    private final void open() throws InvalidDocumentException {
+        if (1 + stack.size() >= maxDepth) {
+            throw JsonUtils.maxDepthExceeded(maxDepth);
+        }
+    }
+
+    /**
+     * Reads a value checking the nesting as {@link JsonDocumentParser} does.
+     */
+    private final JsonValue read(final Event event) throws DocumentParserException {
+
+        if (Event.START_OBJECT.equals(event) || Event.START_ARRAY.equals(event)) {
+            open();
+        }
+
+        return JsonUtils.readValue(parser, event, maxDepth - 1 - stack.size());
+    }
+
+    private final void skip(final Event event) {
+
+        if (Event.START_OBJECT.equals(event)) {
+            parser.skipObject();
+
+        } else if (Event.START_ARRAY.equals(event)) {
+            parser.skipArray();
+        }
+    }
+
+    private static final class Frame {
+
+        /** JSON pointer to the element or the array */
+        final String path;
+
+        /** a descriptor nesting level, <code>0</code> for the document */
+        final int level;
+
+        /** properties read, <code>null</code> if the frame is an array of descriptors */
+        final JsonObjectBuilder properties;
+
+        /** the number of array items read */
+        int items;
+
+        Frame(final String path, final int level, final boolean element) {
+            this.path = path;
+            this.level = level;
+            this.properties = element ? JsonUtils.provider().createObjectBuilder() : null;
+            this.items = 0;
+        }
+    }
+}
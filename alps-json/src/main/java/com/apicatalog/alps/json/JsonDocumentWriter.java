@@ -15,83 +15,131 @@
  */
 package com.apicatalog.alps.json;
 
+import java.io.Flushable;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 
 import com.apicatalog.alps.dom.Document;
 import com.apicatalog.alps.io.DocumentWriter;
+import com.apicatalog.alps.io.WriteEvent;
 
-import jakarta.json.Json;
-import jakarta.json.JsonObject;
-import jakarta.json.JsonObjectBuilder;
-import jakarta.json.JsonWriter;
 import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
 
 public final class JsonDocumentWriter implements DocumentWriter {
 
-    private final JsonWriter writer;
+    private final JsonGenerator generator;
     private final boolean verbose;
 
-    public JsonDocumentWriter(JsonWriter writer, boolean verbose) {
-        this.writer = writer;
+    /** a counted output, or null */
+    private final Flushable output;
+
+    public JsonDocumentWriter(JsonGenerator generator, boolean verbose) {
+        this(generator, verbose, null);
+    }
+
+    private JsonDocumentWriter(JsonGenerator generator, boolean verbose, Flushable output) {
+        this.generator = generator;
         this.verbose = verbose;
+        this.output = output;
     }
 
     public static final DocumentWriter create(final Writer writer, final boolean prettyPrint, final boolean verbose) {
 
-        final Map<String, Object> properties = new HashMap<>(1);
+        final Writer output = WriteEvent.count(writer);
 
-        if (prettyPrint) {
-            properties.put(JsonGenerator.PRETTY_PRINTING, true);
-        }
+        return new JsonDocumentWriter(
+                        (prettyPrint ? GeneratorFactories.PRETTY : GeneratorFactories.COMPACT).createGenerator(output),
+                        verbose,
+                        output
+                        );
+    }
+
+    public static final DocumentWriter create(final OutputStream stream, final boolean prettyPrint, final boolean verbose) {
+
+        final OutputStream output = WriteEvent.count(stream);
 
-        return new JsonDocumentWriter(Json.createWriterFactory(properties).createWriter(writer), verbose);
+        return new JsonDocumentWriter(
+                        (prettyPrint ? GeneratorFactories.PRETTY : GeneratorFactories.COMPACT).createGenerator(output, StandardCharsets.UTF_8),
+                        verbose,
+                        output
+                        );
     }
 
+    /**
+     * Writes the document as a sequence of events, a JSON representation of
+     * the whole document is not built.
+     */
     @Override
     public void write(final Document document) {
-        writer.write(toJson(document, verbose));
-    }
 
-    @Override
-    public void close() throws Exception {
-        writer.close();
+        final WriteEvent event = WriteEvent.start(JsonConstants.MEDIA_TYPE);
+
+        try {
+            writeDocument(document);
+
+        } catch (RuntimeException e) {
+            event.complete(document, output, e);
+            throw e;
+        }
+
+        event.complete(document, output, null);
     }
 
-    protected static final JsonObject toJson(final Document document, final boolean verbose) {
+    private void writeDocument(final Document document) {
 
-        final JsonObjectBuilder alps = Json.createObjectBuilder();
+        generator.writeStartObject();
+        generator.writeStartObject(JsonConstants.ROOT);
 
         // version
-        alps.add(JsonConstants.VERSION, JsonConstants.VERSION_1_0);
+        generator.write(JsonConstants.VERSION, JsonConstants.VERSION_1_0);
 
         // title
-        document.title().ifPresent(title -> alps.add(JsonConstants.TITLE, title));
-        
+        document.title().ifPresent(title -> generator.write(JsonConstants.TITLE, title));
+
         // documentation
-        JsonDocumentationWriter.toJson(document.documentation(), verbose).ifPresent(doc -> alps.add(JsonConstants.DOCUMENTATION, doc));
+        JsonDocumentationWriter.toJson(document.documentation(), verbose).ifPresent(doc -> generator.write(JsonConstants.DOCUMENTATION, doc));
 
         // links
         if (isNotEmpty(document.links())) {
-            alps.add(JsonConstants.LINK, JsonLinkWriter.toJson(document.links()));
+            generator.write(JsonConstants.LINK, JsonLinkWriter.toJson(document.links()));
         }
 
         // descriptors
         if (isNotEmpty(document.descriptors())) {
-            alps.add(JsonConstants.DESCRIPTOR, JsonDescriptorWriter.toJson(document.descriptors(), verbose));
+            JsonDescriptorWriter.write(generator, document.descriptors(), verbose);
         }
 
         // extensions
         if (isNotEmpty(document.extensions())) {
-            alps.add(JsonConstants.EXTENSION, JsonExtensionWriter.toJson(document.extensions()));
+            generator.write(JsonConstants.EXTENSION, JsonExtensionWriter.toJson(document.extensions()));
         }
 
-        return Json.createObjectBuilder().add(JsonConstants.ROOT, alps).build();
+        generator.writeEnd();
+        generator.writeEnd();
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws Exception {
+        generator.close();
     }
 
     protected static final boolean isNotEmpty(final Collection<?> collection) {
         return collection != null && !collection.isEmpty();
     }
+
+    // generator factories are thread-safe and expensive to look up, initialized on the first use
+    private static final class GeneratorFactories {
+
+        static final JsonGeneratorFactory PRETTY = JsonUtils.provider().createGeneratorFactory(Map.of(JsonGenerator.PRETTY_PRINTING, true));
+
+        static final JsonGeneratorFactory COMPACT = JsonUtils.provider().createGeneratorFactory(Map.of());
+
+        private GeneratorFactories() {
+        }
+    }
 }
@@ -16,7 +16,7 @@
 package com.apicatalog.alps.json;
 
 import java.net.URI;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import com.apicatalog.alps.Alps;
@@ -24,7 +24,9 @@ import com.apicatalog.alps.DocumentationBuilder;
 import com.apicatalog.alps.dom.element.Documentation;
 import com.apicatalog.alps.error.DocumentError;
 import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.io.ParserLimits;
 
+import jakarta.json.JsonArray;
 import jakarta.json.JsonObject;
 import jakarta.json.JsonString;
 import jakarta.json.JsonValue;
@@ -33,34 +35,56 @@ final class JsonDocumentationParser {
 
     private JsonDocumentationParser() {}
 
-    public static Set<Documentation> parse(final JsonValue jsonValue) throws InvalidDocumentException {
+    /**
+     * Parses the documentation, an invalid item is passed to the handler and
+     * skipped.
+     *
+     * @param jsonValue a documentation or an array of documentation
+     * @param limits limits checked as items are parsed
+     * @param errors receives invalid items
+     * @return a set of valid items
+     * @throws InvalidDocumentException if the handler ends parsing
+     */
+    public static Set<Documentation> parse(final JsonValue jsonValue, final ParserLimits limits, final JsonErrorHandler errors) throws InvalidDocumentException {
 
-        final Set<Documentation> docs = new HashSet<>();
+        final Set<Documentation> docs = new LinkedHashSet<>();
 
-        for (final JsonValue item : JsonUtils.toArray(jsonValue)) {
+        final JsonArray items = JsonUtils.toArray(jsonValue);
 
-            if (JsonUtils.isString(item)) {
-                docs.add(parseString((JsonString)item));
+        for (int index = 0; index < items.size(); index++) {
 
-            } else if (JsonUtils.isObject(item)) {
-                docs.add(parseObject(item.asJsonObject()));
+            final JsonValue item = items.get(index);
 
-            } else {
-                throw new InvalidDocumentException(DocumentError.INVALID_DOC, "Expected JSON string or object but was " + item.getValueType());
+            try {
+                if (JsonUtils.isString(item)) {
+                    docs.add(parseString((JsonString)item, limits));
+
+                } else if (JsonUtils.isObject(item)) {
+                    docs.add(parseObject(item.asJsonObject(), limits));
+
+                } else {
+                    throw new InvalidDocumentException(DocumentError.INVALID_DOC, "Expected JSON string or object but was " + item.getValueType());
+                }
+
+            } catch (InvalidDocumentException e) {
+                errors.error(JsonConstants.DOCUMENTATION, JsonUtils.isArray(jsonValue) ? index : -1, e);
             }
         }
 
         return docs;
     }
 
-    private static Documentation parseString(final JsonString value) {
+    private static Documentation parseString(final JsonString value, final ParserLimits limits) throws InvalidDocumentException {
+
+        limits.checkDocumentation(value.getString().length());
+
         return Alps.createDocumentation()
                     .type(JsonConstants.MEDIA_TYPE_TEXT_PLAIN)
                     .append(value.getString())
                     .build();
     }
 
-    private static Documentation parseObject(final JsonObject value) throws InvalidDocumentException {
+    private static Documentation parseObject(final JsonObject value, final ParserLimits limits) throws InvalidDocumentException {
 
         final DocumentationBuilder doc = Alps.createDocumentation().type(JsonConstants.MEDIA_TYPE_TEXT_PLAIN);
 
@@ -72,7 +96,11 @@ final class JsonDocumentationParser {
                 throw new InvalidDocumentException(DocumentError.INVALID_DOC_VALUE, "doc.value property must be string but was " + contentValue.getValueType());
             }
 
-            doc.append(JsonUtils.getString(contentValue));
+            final String content = JsonUtils.getString(contentValue);
+
+            limits.checkDocumentation(content.length());
+
+            doc.append(content);
 
         } else if (value.containsKey(JsonConstants.HREF)) {
 
@@ -23,7 +23,6 @@ import java.util.stream.Collectors;
 import com.apicatalog.alps.dom.element.Documentation;
 import com.apicatalog.alps.dom.element.Documentation.Content;
 
-import jakarta.json.Json;
 import jakarta.json.JsonArray;
 import jakarta.json.JsonArrayBuilder;
 import jakarta.json.JsonObject;
@@ -44,7 +43,7 @@ final class JsonDocumentationWriter {
             return toJson(documentation.iterator().next(), verbose);
         }
 
-        final JsonArrayBuilder jsonDocs = Json.createArrayBuilder();
+        final JsonArrayBuilder jsonDocs = JsonUtils.provider().createArrayBuilder();
 
         documentation.stream().map(d -> JsonDocumentationWriter.toJson(d, verbose)).flatMap(Optional::stream).forEach(jsonDocs::add);
 
@@ -61,7 +60,9 @@ final class JsonDocumentationWriter {
 
         final Optional<Content> content = documentation.content();
 
+        // a plain text without tags is written as a string
         if (documentation.href().isEmpty()
+                && documentation.tag().isEmpty()
                 && content.isPresent()
                 && content
                        .map(Documentation.Content::type)
@@ -69,10 +70,10 @@ final class JsonDocumentationWriter {
                        .isPresent()
                 ) {
 
-            return Optional.of(Json.createValue(content.get().value()));
+            return Optional.of(JsonUtils.provider().createValue(content.get().value()));
         }
 
-        final JsonObjectBuilder doc = Json.createObjectBuilder();
+        final JsonObjectBuilder doc = JsonUtils.provider().createObjectBuilder();
 
         documentation.href().ifPresent(href -> doc.add(JsonConstants.HREF, href.toString()));
 
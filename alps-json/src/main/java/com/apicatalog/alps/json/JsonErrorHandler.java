@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import com.apicatalog.alps.error.InvalidDocumentException;
+
+/**
+ * Receives an error found in an element. A parser stops on the first error, a
+ * validation records the error and checks the remaining properties.
+ */
+@FunctionalInterface
+interface JsonErrorHandler {
+
+    /** throws the error, the first error ends parsing */
+    static final JsonErrorHandler FAIL = (key, index, error) -> { throw error; };
+
+    /**
+     * Handles an error of the element, a property or an item of a property value.
+     *
+     * @param key a property name or <code>null</code> if the element itself is invalid
+     * @param index an index of an invalid item of an array value or <code>-1</code>
+     * @param error an error found
+     * @throws InvalidDocumentException if the error ends processing
+     */
+    void error(String key, int index, InvalidDocumentException error) throws InvalidDocumentException;
+
+    /**
+     * Runs a check of a property value and handles its error.
+     *
+     * @param key a property name
+     * @param check a check to run
+     * @throws InvalidDocumentException if the error ends processing
+     */
+    default void check(final String key, final Check check) throws InvalidDocumentException {
+        try {
+            check.run();
+
+        } catch (InvalidDocumentException e) {
+            error(key, -1, e);
+        }
+    }
+
+    @FunctionalInterface
+    interface Check {
+        void run() throws InvalidDocumentException;
+    }
+}
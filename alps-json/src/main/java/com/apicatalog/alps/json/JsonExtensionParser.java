@@ -16,7 +16,7 @@
 package com.apicatalog.alps.json;
 
 import java.net.URI;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -25,7 +25,9 @@ import com.apicatalog.alps.ExtensionBuilder;
 import com.apicatalog.alps.dom.element.Extension;
 import com.apicatalog.alps.error.DocumentError;
 import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.io.ParserLimits;
 
+import jakarta.json.JsonArray;
 import jakarta.json.JsonObject;
 import jakarta.json.JsonValue;
 
@@ -33,17 +35,37 @@ final class JsonExtensionParser {
 
     private JsonExtensionParser() {}
 
-    protected static final Set<Extension> parse(final JsonValue jsonValue) throws InvalidDocumentException {
+    /**
+     * Parses the extensions, an invalid extension is passed to the handler and
+     * skipped.
+     *
+     * @param jsonValue an extension or an array of extensions
+     * @param limits limits checked as extensions are parsed
+     * @param errors receives invalid extensions
+     * @return a set of valid extensions
+     * @throws InvalidDocumentException if the handler ends parsing
+     */
+    protected static final Set<Extension> parse(final JsonValue jsonValue, final ParserLimits limits, final JsonErrorHandler errors) throws InvalidDocumentException {
 
-        final Set<Extension> extension = new HashSet<>();
+        final Set<Extension> extension = new LinkedHashSet<>();
 
-        for (final JsonValue item : JsonUtils.toArray(jsonValue)) {
+        final JsonArray items = JsonUtils.toArray(jsonValue);
 
-            if (JsonUtils.isObject(item)) {
-                extension.add(parseObject(item.asJsonObject()));
+        for (int index = 0; index < items.size(); index++) {
 
-            } else {
-                throw new InvalidDocumentException(DocumentError.INVALID_EXTENSION, "Expected JSON string or object but was " + item.getValueType());
+            final JsonValue item = items.get(index);
+
+            try {
+                if (JsonUtils.isObject(item)) {
+                    limits.addExtension();
+                    extension.add(parseObject(item.asJsonObject()));
+
+                } else {
+                    throw new InvalidDocumentException(DocumentError.INVALID_EXTENSION, "Expected JSON string or object but was " + item.getValueType());
+                }
+
+            } catch (InvalidDocumentException e) {
+                errors.error(JsonConstants.EXTENSION, JsonUtils.isArray(jsonValue) ? index : -1, e);
             }
         }
         return extension;
@@ -20,7 +20,6 @@ import java.util.stream.Collectors;
 
 import com.apicatalog.alps.dom.element.Extension;
 
-import jakarta.json.Json;
 import jakarta.json.JsonArrayBuilder;
 import jakarta.json.JsonObjectBuilder;
 import jakarta.json.JsonValue;
@@ -35,7 +34,7 @@ final class JsonExtensionWriter {
             return toJson(extensions.iterator().next());
         }
 
-        final JsonArrayBuilder jsonExt = Json.createArrayBuilder();
+        final JsonArrayBuilder jsonExt = JsonUtils.provider().createArrayBuilder();
 
         extensions.stream().map(JsonExtensionWriter::toJson).forEach(jsonExt::add);
 
@@ -44,7 +43,7 @@ final class JsonExtensionWriter {
 
     public static final JsonValue toJson(Extension extension) {
 
-        final JsonObjectBuilder jsonExt = Json.createObjectBuilder();
+        final JsonObjectBuilder jsonExt = JsonUtils.provider().createObjectBuilder();
 
         jsonExt.add(JsonConstants.ID, extension.id().toString());
 
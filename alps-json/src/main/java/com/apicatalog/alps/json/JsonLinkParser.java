@@ -16,7 +16,7 @@
 package com.apicatalog.alps.json;
 
 import java.net.URI;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import com.apicatalog.alps.Alps;
@@ -24,6 +24,7 @@ import com.apicatalog.alps.dom.element.Link;
 import com.apicatalog.alps.error.DocumentError;
 import com.apicatalog.alps.error.InvalidDocumentException;
 
+import jakarta.json.JsonArray;
 import jakarta.json.JsonObject;
 import jakarta.json.JsonString;
 import jakarta.json.JsonValue;
@@ -32,17 +33,34 @@ final class JsonLinkParser {
 
     private JsonLinkParser() {}
 
-    public static final Set<Link> parse(final JsonValue value) throws InvalidDocumentException {
+    /**
+     * Parses the links, an invalid link is passed to the handler and skipped.
+     *
+     * @param value a link or an array of links
+     * @param errors receives invalid links
+     * @return a set of valid links
+     * @throws InvalidDocumentException if the handler ends parsing
+     */
+    public static final Set<Link> parse(final JsonValue value, final JsonErrorHandler errors) throws InvalidDocumentException {
 
-        final Set<Link> links = new HashSet<>();
+        final Set<Link> links = new LinkedHashSet<>();
 
-        for (final JsonValue item : JsonUtils.toArray(value)) {
+        final JsonArray items = JsonUtils.toArray(value);
 
-            if (JsonUtils.isNotObject(item)) {
-                throw new InvalidDocumentException(DocumentError.INVALID_LINK, "Link property must be JSON object but was " + item.getValueType());
-            }
+        for (int index = 0; index < items.size(); index++) {
+
+            final JsonValue item = items.get(index);
+
+            try {
+                if (JsonUtils.isNotObject(item)) {
+                    throw new InvalidDocumentException(DocumentError.INVALID_LINK, "Link property must be JSON object but was " + item.getValueType());
+                }
 
-            links.add(parseObject(item.asJsonObject()));
+                links.add(parseObject(item.asJsonObject()));
+
+            } catch (InvalidDocumentException e) {
+                errors.error(JsonConstants.LINK, JsonUtils.isArray(value) ? index : -1, e);
+            }
         }
 
         return links;
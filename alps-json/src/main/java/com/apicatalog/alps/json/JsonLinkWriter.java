@@ -20,7 +20,6 @@ import java.util.stream.Collectors;
 
 import com.apicatalog.alps.dom.element.Link;
 
-import jakarta.json.Json;
 import jakarta.json.JsonArrayBuilder;
 import jakarta.json.JsonObjectBuilder;
 import jakarta.json.JsonValue;
@@ -35,7 +34,7 @@ final class JsonLinkWriter {
             return toJson(links.iterator().next());
         }
 
-        final JsonArrayBuilder jsonLinks = Json.createArrayBuilder();
+        final JsonArrayBuilder jsonLinks = JsonUtils.provider().createArrayBuilder();
 
         links.stream().map(JsonLinkWriter::toJson).forEach(jsonLinks::add);
 
@@ -44,7 +43,7 @@ final class JsonLinkWriter {
 
     public static final JsonValue toJson(Link link) {
 
-        final JsonObjectBuilder jsonLink = Json.createObjectBuilder();
+        final JsonObjectBuilder jsonLink = JsonUtils.provider().createObjectBuilder();
 
         link.title().ifPresent(title -> jsonLink.add(JsonConstants.TITLE, title));
 
@@ -16,16 +16,26 @@
 package com.apicatalog.alps.json;
 
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 
 import com.apicatalog.alps.error.DocumentError;
+import com.apicatalog.alps.error.DocumentParserException;
 import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.io.ParserLimits;
 
-import jakarta.json.Json;
 import jakarta.json.JsonArray;
+import jakarta.json.JsonArrayBuilder;
 import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
 import jakarta.json.JsonString;
 import jakarta.json.JsonValue;
 import jakarta.json.JsonValue.ValueType;
+import jakarta.json.spi.JsonProvider;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
 
 final class JsonUtils {
 
@@ -56,7 +66,7 @@ final class JsonUtils {
     public static final JsonArray toArray(final JsonValue value) {
         return isArray(value)
                     ? value.asJsonArray()
-                    : Json.createArrayBuilder().add(value).build();
+                    : provider().createArrayBuilder().add(value).build();
     }
 
     public static final URI getHref(final JsonObject object) throws InvalidDocumentException {
@@ -94,6 +104,262 @@ final class JsonUtils {
     private JsonUtils() {
     }
 
+    /**
+     * Returns a shared provider, {@link jakarta.json.Json} static methods look
+     * a provider up on each call.
+     *
+     * @return a provider instance
+     */
+    public static final JsonProvider provider() {
+        return Provider.INSTANCE;
+    }
+
+    /**
+     * Reads an object the parser is positioned at, i.e. the last event was
+     * {@link Event#START_OBJECT}. Nested values are read without recursion.
+     *
+     * <p>
+     * Properties of the ALPS document object and descriptor objects with the
+     * given names are skipped without materializing their values.
+     * </p>
+     *
+     * @param parser a parser positioned at an object start
+     * @param maxDepth the maximum depth of nested objects and arrays
+     * @param skipped names of skipped ALPS element properties
+     * @return the object read
+     * @throws DocumentParserException if the nesting exceeds the given depth or the input ends
+     */
+    public static final JsonObject readObject(final JsonParser parser, final int maxDepth, final Collection<String> skipped) throws DocumentParserException {
+        return readObject(parser, maxDepth, skipped, null);
+    }
+
+    /**
+     * Reads an ALPS document object the parser is positioned at and checks the
+     * number of descriptors and extensions and the documentation length as the
+     * input is read, i.e. before the whole input is materialized.
+     *
+     * @param parser a parser positioned at an object start
+     * @param maxDepth the maximum depth of nested objects and arrays
+     * @param skipped names of skipped ALPS element properties
+     * @param limits limits checked while reading
+     * @return the object read
+     * @throws DocumentParserException if a limit is exceeded or the input ends
+     */
+    static final JsonObject readDocument(final JsonParser parser, final int maxDepth, final Collection<String> skipped, final ParserLimits limits) throws DocumentParserException {
+
+        if (limits == null) {
+            throw new IllegalArgumentException("The limits must not be null.");
+        }
+
+        return readObject(parser, maxDepth, skipped, limits);
+    }
+
+    /**
+     * Reads a value the parser is positioned at, i.e. the last event was the
+     * given event. Nested values are read without recursion.
+     *
+     * @param parser a parser positioned at a value
+     * @param event the last event
+     * @param maxDepth the maximum depth of nested objects and arrays, the value included
+     * @return the value read
+     * @throws DocumentParserException if the nesting exceeds the given depth or the input ends
+     */
+    static final JsonValue readValue(final JsonParser parser, final Event event, final int maxDepth) throws DocumentParserException {
+
+        switch (event) {
+        case START_OBJECT:
+            return read(parser, new Structure(provider().createObjectBuilder(), null, false, null), maxDepth, Collections.emptySet(), null);
+
+        case START_ARRAY:
+            return read(parser, new Structure(null, provider().createArrayBuilder(), false, null), maxDepth, Collections.emptySet(), null);
+
+        default:
+            return parser.getValue();
+        }
+    }
+
+    private static final JsonObject readObject(final JsonParser parser, final int maxDepth, final Collection<String> skipped, final ParserLimits limits) throws DocumentParserException {
+        return read(parser, new Structure(provider().createObjectBuilder(), null, false, null), maxDepth, skipped, limits).asJsonObject();
+    }
+
+    private static final JsonValue read(final JsonParser parser, final Structure first, final int maxDepth, final Collection<String> skipped, final ParserLimits limits) throws DocumentParserException {
+
+        final JsonProvider provider = provider();
+
+        final Deque<Structure> stack = new ArrayDeque<>();
+
+        stack.push(first);
+
+        while (parser.hasNext()) {
+
+            final Event event = parser.next();
+
+            switch (event) {
+            case START_OBJECT:
+            case START_ARRAY:
+                if (stack.size() >= maxDepth) {
+                    throw maxDepthExceeded(maxDepth);
+                }
+
+                final boolean element = isElement(stack);
+                final String property = getProperty(stack.peek());
+
+                if (limits != null && Event.START_OBJECT.equals(event)) {
+
+                    // the ALPS document object is pushed on the top level object
+                    if (element && stack.size() > 1) {
+                        limits.addDescriptor();
+
+                    } else if (JsonConstants.EXTENSION.equals(property)) {
+                        limits.addExtension();
+                    }
+                }
+
+                stack.push(Event.START_OBJECT.equals(event)
+                                ? new Structure(provider.createObjectBuilder(), null, element, property)
+                                : new Structure(null, provider.createArrayBuilder(), element, property)
+                                );
+                break;
+
+            case KEY_NAME:
+                final Structure structure = stack.peek();
+
+                structure.key = parser.getString();
+
+                if (structure.element && skipped.contains(structure.key)) {
+                    skipValue(parser);
+                }
+                break;
+
+            case END_OBJECT:
+            case END_ARRAY:
+                final JsonValue value = stack.pop().build();
+
+                if (stack.isEmpty()) {
+                    return value;
+                }
+
+                stack.peek().add(value);
+                break;
+
+            case VALUE_STRING:
+                if (limits != null && isDocumentation(stack.peek())) {
+                    limits.checkDocumentation(parser.getString().length());
+                }
+                stack.peek().add(parser.getValue());
+                break;
+
+            default:
+                stack.peek().add(parser.getValue());
+            }
+        }
+
+        throw new DocumentParserException("Unexpected end of input, expected JSON " + (first.object != null ? "object" : "array") + " end");
+    }
+
+    static final InvalidDocumentException maxDepthExceeded(final int maxDepth) {
+        return new InvalidDocumentException(DocumentError.MAX_DEPTH_EXCEEDED, "The document nesting exceeds the maximum depth of " + maxDepth + " JSON objects and arrays");
+    }
+
+    /**
+     * Returns <code>true</code> if a structure to be pushed is the ALPS document
+     * object, a descriptor object or an array of descriptor objects.
+     */
+    private static final boolean isElement(final Deque<Structure> stack) {
+
+        final Structure parent = stack.peek();
+
+        if (stack.size() == 1) {
+            return JsonConstants.ROOT.equals(parent.key);
+        }
+
+        return parent.element
+                    && (parent.array != null || JsonConstants.DESCRIPTOR.equals(parent.key));
+    }
+
+    /**
+     * Returns a name of the ALPS element property a structure to be pushed on
+     * the given parent is the value of, or an item of the value of.
+     */
+    private static final String getProperty(final Structure parent) {
+
+        if (parent.element) {
+            return parent.object != null ? parent.key : null;
+        }
+
+        return parent.array != null ? parent.property : null;
+    }
+
+    /**
+     * Returns <code>true</code> if a string value added to the given structure
+     * is a documentation content, i.e. a <code>doc</code> string, an item of a
+     * <code>doc</code> array or a <code>value</code> of a <code>doc</code> object.
+     */
+    private static final boolean isDocumentation(final Structure structure) {
+
+        if (structure.element) {
+            return structure.object != null && JsonConstants.DOCUMENTATION.equals(structure.key);
+        }
+
+        return JsonConstants.DOCUMENTATION.equals(structure.property)
+                    && (structure.array != null || JsonConstants.VALUE.equals(structure.key));
+    }
+
+    private static final void skipValue(final JsonParser parser) {
+
+        final Event event = parser.next();
+
+        if (Event.START_OBJECT.equals(event)) {
+            parser.skipObject();
+
+        } else if (Event.START_ARRAY.equals(event)) {
+            parser.skipArray();
+        }
+    }
+
+    private static final class Structure {
+
+        final JsonObjectBuilder object;
+        final JsonArrayBuilder array;
+
+        /** the ALPS document object, a descriptor or an array of descriptors */
+        final boolean element;
+
+        /** an ALPS element property the structure is the value of, or an item of the value of */
+        final String property;
+
+        String key;
+
+        Structure(final JsonObjectBuilder object, final JsonArrayBuilder array, final boolean element, final String property) {
+            this.object = object;
+            this.array = array;
+            this.element = element;
+            this.property = property;
+        }
+
+        void add(final JsonValue value) {
+            if (object != null) {
+                object.add(key, value);
+
+            } else {
+                array.add(value);
+            }
+        }
+
+        JsonValue build() {
+            return object != null ? object.build() : array.build();
+        }
+    }
+
+    // the provider look-up is expensive, initialized on the first use
+    private static final class Provider {
+
+        static final JsonProvider INSTANCE = JsonProvider.provider();
+
+        private Provider() {
+        }
+    }
+
     public static boolean isNull(JsonValue jsonValue) {
         return jsonValue == null || ValueType.NULL.equals(jsonValue.getValueType());
     }
@@ -124,13 +390,13 @@ final class JsonUtils {
         }
 
         try {
-            return Json.createValue(Double.parseDouble(value));
+            return provider().createValue(Double.parseDouble(value));
         } catch (NumberFormatException e) {/*ignored*/}
 
         try {
-            return Json.createValue(Long.parseLong(value));
+            return provider().createValue(Long.parseLong(value));
         } catch (NumberFormatException e) {/*ignored*/}
 
-        return Json.createValue(value);
+        return provider().createValue(value);
     }
 }
@@ -15,13 +15,17 @@
  */
 package com.apicatalog.alps.json;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.net.URI;
 import java.util.HashMap;
@@ -31,8 +35,13 @@ import java.util.stream.Stream;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import com.apicatalog.alps.DocumentStatistics;
+import com.apicatalog.alps.binary.BinaryDocumentParser;
+import com.apicatalog.alps.binary.BinaryDocumentWriter;
 import com.apicatalog.alps.dom.Document;
 import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.DocumentWriterException;
+import com.apicatalog.alps.error.InvalidDocumentException;
 
 import jakarta.json.Json;
 import jakarta.json.JsonArray;
@@ -51,9 +60,6 @@ class AlpsJsonSuiteTest {
         assertNotNull(testCase);
         assertNotNull(testCase.getInput());
 
-        //TODO fix tags
-        assumeFalse("#t006".equals(testCase.getId()));
-        
         Document document = null;
 
         try (final InputStream is = AlpsJsonSuiteTest.class.getResourceAsStream(testCase.getInput())) {
@@ -83,6 +89,76 @@ class AlpsJsonSuiteTest {
         compare(testCase, document);
     }
 
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("testCaseMethodSource")
+    void testValidate(final TestDescription testCase) throws IOException {
+
+        Document document = null;
+        DocumentParserException error = null;
+
+        try (final InputStream is = AlpsJsonSuiteTest.class.getResourceAsStream(testCase.getInput())) {
+            document = (new JsonDocumentParser()).parse(URI.create("http://example.com"), is);
+
+        } catch (DocumentParserException e) {
+            error = e;
+        }
+
+        try (final InputStream is = AlpsJsonSuiteTest.class.getResourceAsStream(testCase.getInput())) {
+
+            final DocumentStatistics stats = (new JsonDocumentParser()).validate(URI.create("http://example.com"), is);
+
+            if (error != null) {
+                fail("Expected error " + error.getMessage());
+            }
+
+            final DocumentStatistics expected = DocumentStatistics.of(document);
+
+            assertEquals(expected.getVersion(), stats.getVersion());
+            assertEquals(expected.getDescriptors(), stats.getDescriptors());
+            assertEquals(expected.getDocs(), stats.getDocs());
+            assertEquals(expected.getLinks(), stats.getLinks());
+            assertEquals(expected.getExtensions(), stats.getExtensions());
+
+        } catch (DocumentParserException e) {
+
+            if (error == null) {
+                fail(e.getMessage(), e);
+            }
+
+            if (error instanceof InvalidDocumentException) {
+                assertTrue(e instanceof InvalidDocumentException, "Expected " + InvalidDocumentException.class.getSimpleName() + " but was " + e);
+                assertEquals(((InvalidDocumentException)error).getCode(), ((InvalidDocumentException)e).getCode());
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("testCaseMethodSource")
+    void testBinaryRoundTrip(final TestDescription testCase) throws IOException {
+
+        assumeFalse(testCase.getExpected() == null);
+
+        final Document document;
+
+        try (final InputStream is = AlpsJsonSuiteTest.class.getResourceAsStream(testCase.getInput())) {
+            document = (new JsonDocumentParser()).parse(URI.create("http://example.com"), is);
+
+        } catch (DocumentParserException e) {
+            return;
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try {
+            BinaryDocumentWriter.create(output).write(document);
+
+            compare(testCase, (new BinaryDocumentParser()).parse(URI.create("http://example.com"), new ByteArrayInputStream(output.toByteArray())));
+
+        } catch (DocumentParserException | DocumentWriterException e) {
+            fail(e.getMessage(), e);
+        }
+    }
+
     static final Stream<TestDescription> testCaseMethodSource() throws IOException {
 
         try (final InputStream is = AlpsJsonSuiteTest.class.getResourceAsStream("manifest.json")) {
@@ -111,7 +187,11 @@ class AlpsJsonSuiteTest {
 
             final JsonObject expectedObject = expectedParser.getObject();
 
-            final JsonObject outputObject = JsonDocumentWriter.toJson(document, false);
+            final StringWriter output = new StringWriter();
+
+            JsonDocumentWriter.create(output, false, false).write(document);
+
+            final JsonObject outputObject = Json.createReader(new StringReader(output.toString())).readObject();
 
             final boolean match = JsonComparison.equals(expectedObject, outputObject);
 
@@ -145,7 +225,7 @@ class AlpsJsonSuiteTest {
             }
 
 
-        } catch (IOException e) {
+        } catch (IOException | DocumentWriterException e) {
             fail(e.getMessage(), e);
         }
     }
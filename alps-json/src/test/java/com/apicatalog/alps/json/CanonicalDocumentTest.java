@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import static com.apicatalog.alps.json.TestDocuments.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.alps.Alps;
+import com.apicatalog.alps.CanonicalDocument;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.DocumentVersion;
+import com.apicatalog.alps.dom.element.DescriptorType;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.DocumentWriterException;
+
+class CanonicalDocumentTest {
+
+    static final String PROFILE = "{\"alps\":{\"title\":\"Contacts\",\"doc\":{\"format\":\"text\",\"value\":\"A list of contacts\"},"
+                                + "\"descriptor\":[{\"id\":\"contact\",\"descriptor\":[{\"href\":\"#name\"},{\"href\":\"#email\"}]},"
+                                + "{\"id\":\"name\",\"ext\":{\"id\":\"http://example.com/ext\",\"b\":\"2\",\"a\":\"1\"}}]}}";
+
+    static final String REORDERED = "{\"alps\":{\"version\":\"1.0\",\"title\":\"Contacts\",\"doc\":\"A list of contacts\","
+                                + "\"descriptor\":[{\"id\":\"name\",\"type\":\"semantic\",\"ext\":{\"a\":\"1\",\"id\":\"http://example.com/ext\",\"b\":\"2\"}},"
+                                + "{\"id\":\"contact\",\"descriptor\":[{\"href\":\"#email\",\"type\":\"semantic\"},{\"href\":\"#name\"}]}]}}";
+
+    @Test
+    void testHash() throws DocumentParserException {
+
+        final Document document = parse(PROFILE);
+
+        assertEquals(64, CanonicalDocument.hash(document).length());
+        assertEquals(CanonicalDocument.hash(document), CanonicalDocument.hash(parse(REORDERED)));
+        assertEquals(CanonicalDocument.hash(document), CanonicalDocument.hash(CanonicalDocument.of(document)));
+
+        assertNotEquals(CanonicalDocument.hash(document), CanonicalDocument.hash(parse(PROFILE.replace("#email", "#phone"))));
+        assertNotEquals(CanonicalDocument.hash(document), CanonicalDocument.hash(parse(PROFILE.replace("\"1\"", "\"3\""))));
+    }
+
+    @Test
+    void testBuiltDocument() throws DocumentParserException {
+
+        final Document document = Alps.createDocument(DocumentVersion.VERSION_1_0)
+                                    .title("Contacts")
+                                    .add(Alps.createDescriptor().id(URI.create("name")).type(DescriptorType.SEMANTIC)
+                                            .add(Alps.createExtension().id(URI.create("http://example.com/ext")).attribute("a", "1").attribute("b", "2")))
+                                    .add(Alps.createDescriptor().id(URI.create("contact"))
+                                            .add(Alps.createDescriptor().href(URI.create("#email")))
+                                            .add(Alps.createDescriptor().href(URI.create("#name"))))
+                                    .add(Alps.createDocumentation().type("text/plain").append("A list of contacts"))
+                                    .build();
+
+        assertEquals(CanonicalDocument.hash(parse(PROFILE)), CanonicalDocument.hash(document));
+    }
+
+    @Test
+    void testWrite() throws IOException, DocumentParserException, DocumentWriterException {
+
+        final String canonical = write(CanonicalDocument.of(parse(PROFILE)), false);
+
+        assertEquals(canonical, write(CanonicalDocument.of(parse(REORDERED)), false));
+        assertEquals(write(CanonicalDocument.of(parse(PROFILE)), true), write(CanonicalDocument.of(parse(REORDERED)), true));
+
+        final String profile = PROFILE.replace(",\"b\":\"2\",\"a\":\"1\"", ",\"value\":\"x\"");
+
+        assertEquals(CanonicalDocument.hash(parse(profile)), CanonicalDocument.hash(parse(write(CanonicalDocument.of(parse(profile)), false))));
+    }
+
+    static final String write(final Document document, final boolean verbose) throws IOException, DocumentWriterException {
+
+        final StringWriter writer = new StringWriter();
+
+        JsonDocumentWriter.create(writer, false, verbose).write(document);
+
+        return writer.toString();
+    }
+}
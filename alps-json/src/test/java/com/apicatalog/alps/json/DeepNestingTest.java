@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.alps.DocumentDiff;
+import com.apicatalog.alps.DocumentStatistics;
+import com.apicatalog.alps.ElementInterner;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.error.DocumentError;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.DocumentWriterException;
+import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.io.ParserOptions;
+
+class DeepNestingTest {
+
+    static final int DEPTH = 100_000;
+
+    static final URI BASE = URI.create("http://example.com");
+
+    @Test
+    void testParseAndWrite() throws IOException, DocumentParserException, DocumentWriterException {
+
+        final String input = createDocument(DEPTH);
+
+        final Document document = new JsonDocumentParser(new ParserOptions().maxDepth(DEPTH)).parse(BASE, new StringReader(input));
+
+        assertEquals(DEPTH, DocumentStatistics.of(document).getDescriptors());
+
+        final StringWriter output = new StringWriter();
+
+        JsonDocumentWriter.create(output, false, false).write(document);
+
+        assertEquals(input, output.toString());
+    }
+
+    @Test
+    void testEquals() throws IOException, DocumentParserException {
+
+        final String input = createDocument(DEPTH);
+
+        final JsonDocumentParser parser = new JsonDocumentParser(new ParserOptions().maxDepth(DEPTH));
+
+        final Document a = parser.parse(BASE, new StringReader(input));
+        final Document b = parser.parse(BASE, new StringReader(input));
+        final Document c = parser.parse(BASE, new StringReader(input.replace("\"d" + (DEPTH - 1) + "\"", "\"changed\"")));
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, c);
+
+        assertEquals(1, new HashSet<>(List.of(a.descriptors().iterator().next(), b.descriptors().iterator().next())).size());
+
+        assertEquals(a, new ElementInterner().intern(b));
+        assertTrue(DocumentDiff.of(a, b).isEmpty());
+        assertFalse(DocumentDiff.of(a, c).isEmpty());
+    }
+
+    @Test
+    void testDefaultMaxDepth() throws IOException, DocumentParserException {
+
+        final Document document = new JsonDocumentParser().parse(BASE, new StringReader(createDocument(ParserOptions.DEFAULT_MAX_DEPTH)));
+
+        assertEquals(ParserOptions.DEFAULT_MAX_DEPTH, DocumentStatistics.of(document).getDescriptors());
+    }
+
+    @Test
+    void testMaxDepthExceeded() {
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class,
+                () -> new JsonDocumentParser().parse(BASE, new StringReader(createDocument(ParserOptions.DEFAULT_MAX_DEPTH + 1))));
+
+        assertEquals(DocumentError.MAX_DEPTH_EXCEEDED, e.getCode());
+    }
+
+    @Test
+    void testMaxStructureDepthExceeded() {
+
+        final String input = "{\"alps\":{\"version\":\"1.0\",\"doc\":" + "[".repeat(DEPTH) + "]".repeat(DEPTH) + "}}";
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class,
+                () -> new JsonDocumentParser().parse(BASE, new StringReader(input)));
+
+        assertEquals(DocumentError.MAX_DEPTH_EXCEEDED, e.getCode());
+    }
+
+    static final String createDocument(final int depth) {
+
+        final StringBuilder json = new StringBuilder("{\"alps\":{\"version\":\"1.0\"");
+
+        for (int i = 0; i < depth; i++) {
+            json.append(",\"descriptor\":{\"id\":\"d").append(i).append('"');
+        }
+
+        return json.append("}".repeat(depth)).append("}}").toString();
+    }
+}
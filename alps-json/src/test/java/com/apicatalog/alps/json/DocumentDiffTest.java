@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import static com.apicatalog.alps.json.TestDocuments.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.alps.Alps;
+import com.apicatalog.alps.DescriptorBuilder;
+import com.apicatalog.alps.DocumentBuilder;
+import com.apicatalog.alps.DocumentDiff;
+import com.apicatalog.alps.DocumentDiff.Change;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.DocumentVersion;
+import com.apicatalog.alps.error.DocumentParserException;
+
+class DocumentDiffTest {
+
+    @Test
+    void testChanges() throws DocumentParserException {
+
+        final Document source = parse("{\"alps\":{\"title\":\"Contacts\",\"descriptor\":["
+                                    + "{\"id\":\"contact\",\"descriptor\":[{\"href\":\"#name\"},{\"href\":\"#email\",\"name\":\"email\",\"doc\":{\"value\":\"An email\"}}]},"
+                                    + "{\"id\":\"name\",\"title\":\"Name\"},"
+                                    + "{\"id\":\"phone\"}]}}");
+
+        final Document target = parse("{\"alps\":{\"title\":\"Contacts\",\"descriptor\":["
+                                    + "{\"id\":\"contact\",\"descriptor\":[{\"href\":\"#name\"},{\"href\":\"#email\",\"name\":\"email\",\"doc\":{\"value\":\"An e-mail\"}}]},"
+                                    + "{\"id\":\"name\",\"title\":\"Full Name\"},"
+                                    + "{\"id\":\"address\",\"link\":{\"rel\":\"help\",\"href\":\"http://example.com\"}}]}}");
+
+        assertEquals(
+                Set.of(
+                    "REMOVED DESCRIPTOR [/phone]",
+                    "ADDED DESCRIPTOR [/address]",
+                    "REMOVED DOCUMENTATION [/contact/email]",
+                    "ADDED DOCUMENTATION [/contact/email]",
+                    "CHANGED DESCRIPTOR [/name]"
+                    ),
+                Set.copyOf(changes(DocumentDiff.of(source, target))));
+
+        assertTrue(DocumentDiff.of(source, parse("{\"alps\":{\"title\":\"Contacts\",\"descriptor\":["
+                                    + "{\"id\":\"contact\",\"descriptor\":[{\"href\":\"#name\"},{\"href\":\"#email\",\"name\":\"email\",\"doc\":{\"value\":\"An email\"}}]},"
+                                    + "{\"id\":\"name\",\"title\":\"Name\"},"
+                                    + "{\"id\":\"phone\"}]}}")).isEmpty());
+    }
+
+    @Test
+    void testDocument() throws DocumentParserException {
+
+        final Document source = parse("{\"alps\":{\"title\":\"Contacts\",\"doc\":{\"value\":\"Contacts\"}}}");
+        final Document target = parse("{\"alps\":{\"title\":\"Persons\",\"ext\":{\"id\":\"http://example.com/ext\"}}}");
+
+        assertEquals(
+                List.of(
+                    "CHANGED DOCUMENT []",
+                    "REMOVED DOCUMENTATION []",
+                    "ADDED EXTENSION []"
+                    ),
+                changes(DocumentDiff.of(source, target)));
+    }
+
+    @Test
+    void testLargeDocument() throws DocumentParserException {
+
+        final Document source = generate(100_000, "leaf");
+        final Document target = generate(100_000, "changed");
+
+        final DocumentDiff diff = DocumentDiff.of(source, target);
+
+        assertEquals(List.of("CHANGED DESCRIPTOR [/d99/d99-998]"), changes(diff));
+    }
+
+    @Test
+    void testBaseUri() throws DocumentParserException {
+
+        final String json = "{\"alps\":{\"title\":\"Contacts\"}}";
+
+        final Document target = new JsonDocumentParser().parse(URI.create("http://example.org"), new StringReader(json));
+
+        assertEquals(List.of("CHANGED DOCUMENT []"), changes(DocumentDiff.of(parse(json), target)));
+    }
+
+    @Test
+    void testManyLinks() throws DocumentParserException {
+
+        final DocumentBuilder source = Alps.createDocument(DocumentVersion.VERSION_1_0);
+
+        for (int i = 0; i < 50_000; i++) {
+            source.add(Alps.createLink().href(URI.create("http://example.com/" + i)).rel("help"));
+        }
+
+        final Document document = source.build();
+
+        final Document target = Alps.createDocument(document)
+                                    .add(Alps.createLink().href(URI.create("http://example.com/added")).rel("help"))
+                                    .build();
+
+        assertEquals(List.of("ADDED LINK []"), changes(DocumentDiff.of(document, target)));
+    }
+
+    static final Document generate(final int count, final String title) throws DocumentParserException {
+
+        final DocumentBuilder document = Alps.createDocument(DocumentVersion.VERSION_1_0);
+
+        for (int i = 0; i < count / 1000; i++) {
+
+            final DescriptorBuilder descriptor = Alps.createDescriptor().id(URI.create("d" + i));
+
+            for (int j = 0; j < 999; j++) {
+                descriptor.add(Alps.createDescriptor()
+                                    .id(URI.create("d" + i + "-" + j))
+                                    .title(i == count / 1000 - 1 && j == 998 ? title : "leaf")
+                                    .add(Alps.createDocumentation().append("Descriptor " + j)));
+            }
+
+            document.add(descriptor);
+        }
+
+        return document.build();
+    }
+
+    static final List<String> changes(final DocumentDiff diff) {
+        return diff.getChanges().stream().map(Change::toString).collect(Collectors.toList());
+    }
+}
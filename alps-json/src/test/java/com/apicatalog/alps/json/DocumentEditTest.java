@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import static com.apicatalog.alps.json.TestDocuments.CONTACTS;
+import static com.apicatalog.alps.json.TestDocuments.load;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.alps.Alps;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.error.DocumentParserException;
+
+class DocumentEditTest {
+
+    @Test
+    void testReplaceNested() throws DocumentParserException {
+
+        final Document original = DocumentDiffTest.generate(100_000, "leaf");
+
+        final Descriptor parent = original.findById(URI.create("d99")).get();
+        final Descriptor child = parent.descriptors().stream().filter(d -> d.id().get().toString().equals("d99-998")).findFirst().get();
+
+        final Document edited = Alps.createDocument(original)
+                                    .replace(List.of(parent, child), Alps.createDescriptor(child).title("changed").build())
+                                    .build();
+
+        assertEquals(DocumentDiffTest.generate(100_000, "changed"), edited);
+        assertEquals(DocumentDiffTest.generate(100_000, "leaf"), original);
+
+        // only the path is re-built
+        final Iterator<Descriptor> originals = original.descriptors().iterator();
+
+        for (final Descriptor descriptor : edited.descriptors()) {
+
+            final Descriptor source = originals.next();
+
+            if (source == parent) {
+                assertNotEquals(source, descriptor);
+                assertSame(source.documentation(), descriptor.documentation());
+
+                final Iterator<Descriptor> children = source.descriptors().iterator();
+
+                for (final Descriptor nested : descriptor.descriptors()) {
+                    final Descriptor sourceNested = children.next();
+                    if (sourceNested != child) {
+                        assertSame(sourceNested, nested);
+                    }
+                }
+
+            } else {
+                assertSame(source, descriptor);
+            }
+        }
+
+        assertSame(original.documentation(), edited.documentation());
+        assertSame(original.links(), edited.links());
+    }
+
+    @Test
+    void testEdit() throws DocumentParserException {
+
+        final Document original = load(CONTACTS);
+
+        final Descriptor name = original.findById(URI.create("name")).get();
+
+        final Document edited = Alps.createDocument(original)
+                                    .title("Persons")
+                                    .remove(name)
+                                    .add(Alps.createDescriptor(name).id(URI.create("fullName")))
+                                    .build();
+
+        assertEquals(Optional.of("Persons"), edited.title());
+        assertEquals(Optional.of("Contacts"), original.title());
+        assertEquals(2, edited.descriptors().size());
+        assertEquals(Optional.of("Name"), edited.findById(URI.create("fullName")).get().title());
+        assertEquals(Optional.empty(), edited.findById(URI.create("name")));
+        assertSame(original.documentation(), edited.documentation());
+
+        assertThrows(IllegalArgumentException.class, () -> Alps.createDocument(edited).replace(name, name));
+    }
+
+    @Test
+    void testForeignDescriptor() throws DocumentParserException {
+
+        final Descriptor source = load(CONTACTS).findById(URI.create("contact")).get();
+
+        final Set<Descriptor> nested = new LinkedHashSet<>(source.descriptors());
+
+        // an unmodifiable view over a set changed later by its owner
+        final Descriptor foreign = (Descriptor)Proxy.newProxyInstance(
+                                        Descriptor.class.getClassLoader(),
+                                        new Class<?>[] { Descriptor.class },
+                                        (proxy, method, args) -> "descriptors".equals(method.getName())
+                                                                    ? Collections.unmodifiableSet(nested)
+                                                                    : method.invoke(source, args)
+                                        );
+
+        final Descriptor built = Alps.createDescriptor(foreign).build();
+
+        final int hashCode = built.hashCode();
+
+        nested.clear();
+
+        assertEquals(source.descriptors().size(), built.descriptors().size());
+        assertEquals(hashCode, built.hashCode());
+        assertEquals(source, built);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.loader.DocumentFetcher;
+import com.apicatalog.alps.loader.DocumentLoader;
+import com.apicatalog.alps.loader.DocumentSource;
+import com.apicatalog.alps.loader.FileDocumentFetcher;
+
+class DocumentLoaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testLoadReferenced() throws IOException, DocumentParserException {
+
+        write("a.json", "{\"alps\":{\"descriptor\":[{\"id\":\"x\",\"href\":\"b.json#y\"},{\"id\":\"w\",\"href\":\"c.json#z\"}]}}");
+        write("b.json", "{\"alps\":{\"descriptor\":[{\"id\":\"y\",\"href\":\"c.json#z\"},{\"id\":\"v\",\"href\":\"a.json#x\"}]}}");
+        write("c.json", "{\"alps\":{\"descriptor\":{\"id\":\"z\"}}}");
+
+        final DocumentLoader loader = loader();
+
+        final Document a = loader.load(uri("a.json"));
+
+        assertEquals(2, loader.loadReferenced(a).size());
+        assertEquals(3, loader.getLoadedCount());
+
+        assertEquals("z", loader.resolve(a, URI.create("c.json#z")).flatMap(d -> d.id()).map(URI::toString).orElse(null));
+        assertFalse(loader.resolve(a, URI.create("c.json#unknown")).isPresent());
+
+        // each document is parsed once
+        assertSame(a, loader.load(uri("a.json")));
+        assertEquals(3, loader.getLoadedCount());
+    }
+
+    @Test
+    void testLoadReferencedFailed() throws IOException, DocumentParserException {
+
+        write("a.json", "{\"alps\":{\"descriptor\":[{\"id\":\"x\",\"href\":\"missing.json#y\"},{\"id\":\"w\",\"href\":\"c.json#z\"}]}}");
+        write("c.json", "{\"alps\":{\"descriptor\":{\"id\":\"z\"}}}");
+
+        final DocumentLoader loader = loader();
+
+        final Document a = loader.load(uri("a.json"));
+
+        final Map<URI, Exception> failed = new LinkedHashMap<>();
+
+        final Map<URI, Document> documents = loader.loadReferenced(a, failed);
+
+        assertEquals(1, documents.size());
+        assertTrue(documents.containsKey(uri("c.json")));
+
+        assertEquals(1, failed.size());
+        assertTrue(failed.get(uri("missing.json")) instanceof IOException);
+    }
+
+    @Test
+    void testConcurrentLoad() throws Exception {
+
+        write("a.json", "{\"alps\":{}}");
+        write("slow.json", "{\"alps\":{}}");
+
+        final CountDownLatch fetching = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final DocumentFetcher files = new FileDocumentFetcher();
+
+        final DocumentLoader loader = new DocumentLoader()
+                .parser(DocumentSource.MEDIA_TYPE_ALPS_JSON, new JsonDocumentParser())
+                .fetcher(new DocumentFetcher() {
+
+                    @Override
+                    public boolean isSupported(URI uri) {
+                        return files.isSupported(uri);
+                    }
+
+                    @Override
+                    public DocumentSource fetch(URI uri) throws IOException {
+                        if (uri.getPath().endsWith("slow.json")) {
+                            fetching.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                throw new IOException(e);
+                            }
+                        }
+                        return files.fetch(uri);
+                    }
+                });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            final Future<Document> first = executor.submit(() -> loader.load(uri("slow.json")));
+
+            assertTrue(fetching.await(10, TimeUnit.SECONDS));
+
+            final Future<Document> second = executor.submit(() -> loader.load(uri("slow.json")));
+
+            // other documents are not blocked by the pending fetch
+            loader.load(uri("a.json"));
+
+            release.countDown();
+
+            assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+            assertEquals(2, loader.getLoadedCount());
+
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testEviction() throws IOException, DocumentParserException {
+
+        write("a.json", "{\"alps\":{}}");
+        write("b.json", "{\"alps\":{}}");
+
+        final DocumentLoader loader = loader().maxCacheSize(1);
+
+        loader.load(uri("a.json"));
+        loader.load(uri("b.json"));
+        loader.load(uri("a.json"));
+
+        assertEquals(1, loader.getCacheSize());
+        assertEquals(3, loader.getLoadedCount());
+    }
+
+    @Test
+    void testRevalidation() throws IOException, DocumentParserException {
+
+        write("a.json", "{\"alps\":{}}");
+
+        final DocumentLoader loader = loader().revalidateAfter(Duration.ZERO);
+
+        final Document document = loader.load(uri("a.json"));
+
+        // not modified
+        assertSame(document, loader.load(uri("a.json")));
+
+        write("a.json", "{\"alps\":{\"descriptor\":{\"id\":\"x\"}}}");
+
+        final Document modified = loader.load(uri("a.json"));
+
+        assertTrue(modified.descriptors().size() == 1);
+        assertEquals(2, loader.getLoadedCount());
+    }
+
+    DocumentLoader loader() {
+        return new DocumentLoader()
+                    .parser(DocumentSource.MEDIA_TYPE_ALPS_JSON, new JsonDocumentParser())
+                    .fetcher(new FileDocumentFetcher());
+    }
+
+    URI uri(final String name) {
+        return directory.resolve(name).toUri();
+    }
+
+    void write(final String name, final String content) throws IOException {
+        Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
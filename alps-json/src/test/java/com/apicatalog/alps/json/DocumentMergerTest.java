@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import static com.apicatalog.alps.json.TestDocuments.CONTACTS;
+import static com.apicatalog.alps.json.TestDocuments.load;
+import static com.apicatalog.alps.json.TestDocuments.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.alps.DocumentMerger;
+import com.apicatalog.alps.DocumentMerger.ConflictPolicy;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.error.DocumentError;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.InvalidDocumentException;
+
+class DocumentMergerTest {
+
+    static final String ORDERS = "{\"alps\":{\"doc\":{\"value\":\"Orders\"},\"descriptor\":["
+                                    + "{\"id\":\"order\",\"descriptor\":[{\"href\":\"#name\"}]},"
+                                    + "{\"id\":\"name\",\"title\":\"Name\"}]}}";
+
+    static final String INVOICES = "{\"alps\":{\"title\":\"Invoices\",\"descriptor\":["
+                                    + "{\"id\":\"invoice\",\"descriptor\":[{\"id\":\"email\",\"title\":\"Billing e-mail\"}]},"
+                                    + "{\"id\":\"name\",\"title\":\"Full name\"}]}}";
+
+    @Test
+    void testMerge() throws DocumentParserException {
+
+        final Document merged = new DocumentMerger().merge(load(CONTACTS), parse(ORDERS));
+
+        assertEquals(Optional.of("Contacts"), merged.title());
+        assertEquals(Set.of("contact", "name", "order"), ids(merged));
+        assertEquals(2, merged.documentation().size());
+    }
+
+    @Test
+    void testFail() throws DocumentParserException {
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class,
+                    () -> new DocumentMerger().merge(load(CONTACTS), parse(INVOICES)));
+
+        assertEquals(DocumentError.DUPLICATED_ID, e.getCode());
+    }
+
+    @Test
+    void testKeepFirst() throws DocumentParserException {
+
+        final Document merged = new DocumentMerger()
+                                        .policy(ConflictPolicy.KEEP_FIRST)
+                                        .title("Service")
+                                        .merge(load(CONTACTS), parse(INVOICES));
+
+        assertEquals(Optional.of("Service"), merged.title());
+        assertEquals(Set.of("contact", "name"), ids(merged));
+        assertEquals(Optional.of("Name"), find(merged, "name").title());
+    }
+
+    @Test
+    void testKeepLast() throws DocumentParserException {
+
+        final Document merged = new DocumentMerger()
+                                        .policy(ConflictPolicy.KEEP_LAST)
+                                        .merge(load(CONTACTS), parse(INVOICES));
+
+        assertEquals(Set.of("invoice", "name"), ids(merged));
+        assertEquals(Optional.of("Full name"), find(merged, "name").title());
+    }
+
+    @Test
+    void testLargeDocuments() throws DocumentParserException {
+
+        final Document first = DocumentDiffTest.generate(100_000, "first");
+        final Document last = DocumentDiffTest.generate(100_000, "last");
+
+        final Document merged = new DocumentMerger().policy(ConflictPolicy.KEEP_LAST).merge(first, last);
+
+        assertEquals(100, merged.descriptors().size());
+
+        assertThrows(InvalidDocumentException.class, () -> new DocumentMerger().merge(first, last));
+    }
+
+    static final Set<String> ids(final Document document) {
+        return document.descriptors().stream().map(d -> d.id().get().toString()).collect(Collectors.toSet());
+    }
+
+    static final Descriptor find(final Document document, final String id) {
+        return document.descriptors().stream().filter(d -> d.id().get().toString().equals(id)).findFirst().get();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import static com.apicatalog.alps.json.TestDocuments.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.alps.Alps;
+import com.apicatalog.alps.ElementInterner;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.error.DocumentParserException;
+
+class ElementEqualityTest {
+
+    static final String PROFILE = "{\"alps\":{\"title\":\"Contacts\",\"doc\":{\"value\":\"A list of contacts\"},"
+                                + "\"descriptor\":[{\"id\":\"contact\",\"type\":\"semantic\",\"descriptor\":[{\"href\":\"#name\",\"doc\":{\"value\":\"A name\"}},{\"href\":\"#email\"}]},"
+                                + "{\"id\":\"name\",\"doc\":{\"value\":\"A name\"}}]}}";
+
+    @Test
+    void testEquals() throws DocumentParserException {
+
+        final Document a = parse(PROFILE);
+        final Document b = parse(PROFILE);
+
+        assertNotSame(a, b);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+
+        assertEquals(a.findById(URI.create("contact")), b.findById(URI.create("contact")));
+
+        assertNotEquals(a, parse(PROFILE.replace("#email", "#phone")));
+        assertNotEquals(a.findById(URI.create("contact")), parse(PROFILE.replace("#email", "#phone")).findById(URI.create("contact")));
+    }
+
+    @Test
+    void testIntern() throws DocumentParserException {
+
+        final ElementInterner interner = new ElementInterner();
+
+        final Document a = interner.intern(parse(PROFILE));
+        final Document b = interner.intern(parse(PROFILE.replace("Contacts", "Persons")));
+
+        assertNotEquals(a, b);
+
+        // equal subtrees are shared across documents
+        assertSame(a.findById(URI.create("contact")).get(), b.findById(URI.create("contact")).get());
+        assertSame(a.documentation().iterator().next(), b.documentation().iterator().next());
+
+        // equal documentation is shared within a document
+        final Iterator<Descriptor> nested = a.findById(URI.create("contact")).get().descriptors().iterator();
+
+        assertSame(nested.next().documentation().iterator().next(), a.findById(URI.create("name")).get().documentation().iterator().next());
+
+        final int size = interner.size();
+
+        assertEquals(a, interner.intern(parse(PROFILE)));
+        assertEquals(size, interner.size());
+    }
+
+    @Test
+    void testHashCollision() {
+
+        // "Aa" and "BB" have the same hash code
+        final Descriptor a = parent("Aa");
+        final Descriptor b = parent("BB");
+
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, b);
+
+        final Set<Descriptor> ab = new LinkedHashSet<>(List.of(a, b));
+
+        assertEquals(2, ab.size());
+
+        final Descriptor x = Alps.createDescriptor().id(URI.create("x")).add(parent("Aa")).add(parent("BB")).build();
+        final Descriptor y = Alps.createDescriptor().id(URI.create("x")).add(parent("BB")).add(parent("Aa")).build();
+        final Descriptor z = Alps.createDescriptor().id(URI.create("x")).add(parent("BB")).add(parent("Ab")).build();
+
+        assertEquals(x, y);
+        assertNotEquals(x, z);
+    }
+
+    static final Descriptor parent(final String name) {
+        return Alps.createDescriptor()
+                    .href(URI.create("#parent"))
+                    .add(Alps.createDescriptor().href(URI.create("#child")).name(name))
+                    .build();
+    }
+}
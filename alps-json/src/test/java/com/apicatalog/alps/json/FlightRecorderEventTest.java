@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.error.DocumentParserException;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightRecorderEventTest {
+
+    static final String DOCUMENT = "{\"alps\":{\"descriptor\":[{\"id\":\"a\",\"descriptor\":{\"id\":\"b\"}}]}}";
+
+    @Test
+    void testParseAndWrite() throws Exception {
+
+        try (final Recording recording = new Recording()) {
+
+            recording.enable("com.apicatalog.alps.Parse");
+            recording.enable("com.apicatalog.alps.Write");
+            recording.start();
+
+            final Document document = new JsonDocumentParser().parse(null, new StringReader(DOCUMENT));
+
+            final StringWriter output = new StringWriter();
+
+            JsonDocumentWriter.create(output, false, false).write(document);
+
+            assertThrows(DocumentParserException.class, () -> new JsonDocumentParser().parse(null, new StringReader("{")));
+
+            recording.stop();
+
+            final List<RecordedEvent> events = read(recording);
+
+            assertEquals(3, events.size());
+
+            assertEquals("com.apicatalog.alps.Parse", events.get(0).getEventType().getName());
+            assertEquals(JsonConstants.MEDIA_TYPE, events.get(0).getString("format"));
+            assertEquals(DOCUMENT.length(), events.get(0).getLong("inputLength"));
+            assertEquals(2, events.get(0).getLong("descriptors"));
+
+            assertEquals("com.apicatalog.alps.Write", events.get(1).getEventType().getName());
+            assertEquals(output.toString().length(), events.get(1).getLong("outputLength"));
+            assertEquals(2, events.get(1).getLong("descriptors"));
+
+            assertEquals("com.apicatalog.alps.Parse", events.get(2).getEventType().getName());
+            assertEquals("MalformedDocumentException", events.get(2).getString("error"));
+        }
+    }
+
+    static final List<RecordedEvent> read(final Recording recording) throws IOException {
+
+        final Path file = Files.createTempFile("alps", ".jfr");
+
+        try {
+            recording.dump(file);
+
+            return RecordingFile.readAllEvents(file)
+                        .stream()
+                        .filter(event -> event.getEventType().getName().startsWith("com.apicatalog.alps."))
+                        .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                        .collect(Collectors.toList());
+
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import static com.apicatalog.alps.json.TestDocuments.PERSONS;
+import static com.apicatalog.alps.json.TestDocuments.load;
+import static com.apicatalog.alps.json.TestDocuments.parse;
+import static com.apicatalog.alps.json.TestDocuments.read;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.error.DocumentError;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.io.ParserOptions;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonException;
+import jakarta.json.JsonValue;
+
+class JsonDocumentPatchTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "[{\"op\":\"add\",\"path\":\"/alps/descriptor/0/title\",\"value\":\"Changed\"}]",
+            "[{\"op\":\"add\",\"path\":\"/alps/descriptor/1/descriptor/1/doc\",\"value\":{\"value\":\"A nested descriptor\"}}]",
+            "[{\"op\":\"remove\",\"path\":\"/alps/descriptor/2/descriptor/0\"}]",
+            "[{\"op\":\"add\",\"path\":\"/alps/descriptor/1\",\"value\":{\"id\":\"address\"}}]",
+            "[{\"op\":\"add\",\"path\":\"/alps/descriptor/-\",\"value\":{\"id\":\"address\"}}]",
+            "[{\"op\":\"add\",\"path\":\"/alps/descriptor/0/descriptor/0\",\"value\":{\"id\":\"address\"}}]",
+            "[{\"op\":\"replace\",\"path\":\"/alps/descriptor/1\",\"value\":{\"id\":\"address\",\"title\":\"Address\"}}]",
+            "[{\"op\":\"remove\",\"path\":\"/alps/descriptor/1\"}]",
+            "[{\"op\":\"replace\",\"path\":\"/alps/title\",\"value\":\"Persons\"}]",
+            "[{\"op\":\"add\",\"path\":\"/alps/link\",\"value\":{\"rel\":\"self\",\"href\":\"http://example.com\"}}]",
+            "[{\"op\":\"remove\",\"path\":\"/alps/descriptor\"}]",
+            "[{\"op\":\"move\",\"from\":\"/alps/descriptor/0/descriptor/1\",\"path\":\"/alps/descriptor/-\"}]",
+            "[{\"op\":\"test\",\"path\":\"/alps/title\",\"value\":\"Contacts\"},{\"op\":\"replace\",\"path\":\"/alps/descriptor/2/descriptor/1/id\",\"value\":\"surname\"}]",
+    })
+    void testPatch(final String patch) throws DocumentParserException {
+
+        final Document document = load(PERSONS);
+
+        // the patch is written against the original text
+        final Document expected = parse(Json.createPatch(Json.createReader(new StringReader(patch)).readArray()).apply(Json.createReader(new StringReader(read(PERSONS))).readObject()).toString());
+
+        assertEquals(expected, JsonDocumentPatch.apply(document, Json.createReader(new StringReader(patch)).readArray()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"alps\":{\"title\":\"Persons\"}}",
+            "{\"alps\":{\"title\":null,\"doc\":{\"value\":\"Persons\"}}}",
+            "{\"alps\":{\"descriptor\":null}}",
+            "{\"alps\":{\"title\":\"Persons\",\"descriptor\":[{\"id\":\"address\"}]}}",
+            "{\"alps\":{\"descriptor\":{\"id\":\"address\"}}}",
+            "{\"alps\":{\"descriptor\":{\"id\":\"address\",\"title\":null}}}",
+            "{\"alps\":{\"descriptor\":{\"id\":\"address\",\"descriptor\":{\"id\":\"street\",\"doc\":null}}}}",
+    })
+    void testMergePatch(final String patch) throws DocumentParserException {
+
+        final Document document = load(PERSONS);
+
+        final JsonValue mergePatch = Json.createReader(new StringReader(patch)).readValue();
+
+        final Document expected = parse(Json.createMergePatch(mergePatch).apply(Json.createReader(new StringReader(read(PERSONS))).readObject()).toString());
+
+        assertEquals(expected, JsonDocumentPatch.merge(document, mergePatch));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 0, 1, 2, 3, 4 })
+    void testSourceOrder(final int index) throws DocumentParserException {
+
+        final String input = "{\"alps\":{\"descriptor\":[{\"id\":\"alpha\"},{\"id\":\"beta\"},{\"id\":\"gamma\"},{\"id\":\"delta\"},{\"id\":\"epsilon\"}]}}";
+
+        final String patch = "[{\"op\":\"remove\",\"path\":\"/alps/descriptor/" + index + "\"}]";
+
+        final Document expected = parse(Json.createPatch(Json.createReader(new StringReader(patch)).readArray()).apply(Json.createReader(new StringReader(input)).readObject()).toString());
+
+        final Document patched = JsonDocumentPatch.apply(parse(input), Json.createReader(new StringReader(patch)).readArray());
+
+        assertEquals(expected, patched);
+        assertEquals(ids(expected), ids(patched));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "[{\"op\":\"add\",\"path\":\"/alps/descriptor/0/descriptor/-\",\"value\":{\"href\":\"#name\"}}]",
+            "[{\"op\":\"replace\",\"path\":\"/alps/descriptor/0/descriptor/1\",\"value\":{\"href\":\"#name\"}}]",
+    })
+    void testDuplicatedDescriptor(final String patch) throws DocumentParserException {
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class, () -> JsonDocumentPatch.apply(load(PERSONS), Json.createReader(new StringReader(patch)).readArray()));
+
+        assertEquals(DocumentError.INVALID_PATCH, e.getCode());
+    }
+
+    @Test
+    void testMergeNullMember() throws DocumentParserException {
+
+        final JsonValue mergePatch = Json.createReader(new StringReader("{\"alps\":{\"descriptor\":{\"id\":\"x\",\"title\":null}}}")).readValue();
+
+        final Document patched = JsonDocumentPatch.merge(load(PERSONS), mergePatch);
+
+        assertEquals(parse("{\"alps\":{\"title\":\"Contacts\",\"doc\":{\"value\":\"Contacts\"},\"descriptor\":{\"id\":\"x\"}}}"), patched);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "[{\"op\":\"replace\",\"path\":\"/alps/descriptor/0\",\"value\":{\"id\":\"address\"}}]",
+            "[{\"op\":\"remove\",\"path\":\"/alps/descriptor/0\"}]",
+            "[{\"op\":\"add\",\"path\":\"/alps/descriptor/0/title\",\"value\":\"Changed\"}]",
+            "[{\"op\":\"replace\",\"path\":\"/alps/descriptor/descriptor/0\",\"value\":{\"id\":\"address\"}}]",
+    })
+    void testSingleDescriptorIndex(final String patch) throws DocumentParserException {
+
+        final String input = "{\"alps\":{\"descriptor\":{\"id\":\"contact\",\"descriptor\":{\"id\":\"email\"}}}}";
+
+        final JsonArray operations = Json.createReader(new StringReader(patch)).readArray();
+
+        // a single descriptor is an object, the pointer does not exist
+        assertThrows(JsonException.class, () -> Json.createPatch(operations).apply(Json.createReader(new StringReader(input)).readObject()));
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class, () -> JsonDocumentPatch.apply(parse(input), operations));
+
+        assertEquals(DocumentError.INVALID_PATCH, e.getCode());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "[{\"op\":\"add\",\"path\":\"/alps/descriptor/-\",\"value\":{\"id\":\"address\"}}]",
+            "[{\"op\":\"add\",\"path\":\"/alps/descriptor/0\",\"value\":{\"id\":\"address\"}}]",
+            "[{\"op\":\"add\",\"path\":\"/alps/descriptor/descriptor/-\",\"value\":{\"id\":\"address\"}}]",
+    })
+    void testSingleDescriptorAppend(final String patch) throws DocumentParserException {
+
+        // a JSON patch would add a member named as the index to the descriptor object
+        final Document document = parse("{\"alps\":{\"descriptor\":{\"id\":\"contact\",\"descriptor\":{\"id\":\"email\"}}}}");
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class, () -> JsonDocumentPatch.apply(document, Json.createReader(new StringReader(patch)).readArray()));
+
+        assertEquals(DocumentError.INVALID_PATCH, e.getCode());
+    }
+
+    @Test
+    void testReadMaxDepth() throws DocumentParserException {
+
+        final String request = "{\"document\":{\"alps\":{}},\"patch\":" + "[".repeat(100_000) + "]".repeat(100_000) + "}";
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class, () -> JsonDocumentPatch.read(new ByteArrayInputStream(request.getBytes(StandardCharsets.UTF_8)), new ParserOptions()));
+
+        assertEquals(DocumentError.MAX_DEPTH_EXCEEDED, e.getCode());
+
+        assertEquals(2, JsonDocumentPatch.read(new ByteArrayInputStream("{\"document\":{\"alps\":{}},\"patch\":[]}".getBytes(StandardCharsets.UTF_8)), new ParserOptions()).size());
+    }
+
+    @Test
+    void testSharing() throws DocumentParserException {
+
+        final Document document = load(PERSONS);
+
+        final Document patched = JsonDocumentPatch.apply(document, Json.createReader(new StringReader(
+                                        "[{\"op\":\"add\",\"path\":\"/alps/descriptor/1/descriptor/1/title\",\"value\":\"Changed\"}]")).readArray());
+
+        assertSame(document.documentation(), patched.documentation());
+
+        final Iterator<Descriptor> original = document.descriptors().iterator();
+        final Iterator<Descriptor> changed = patched.descriptors().iterator();
+
+        assertSame(original.next(), changed.next());
+        original.next();
+        changed.next();
+        assertSame(original.next(), changed.next());
+    }
+
+    @Test
+    void testFailedTest() throws DocumentParserException {
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class, () -> JsonDocumentPatch.apply(load(PERSONS), Json.createReader(new StringReader(
+                                        "[{\"op\":\"test\",\"path\":\"/alps/descriptor/0\",\"value\":{\"id\":\"unknown\"}}]")).readArray()));
+
+        assertEquals(DocumentError.INVALID_PATCH, e.getCode());
+        assertEquals("/alps/descriptor/0", e.getPath());
+    }
+
+    static final List<String> ids(final Document document) {
+        return document.descriptors().stream().map(d -> d.id().get().toString()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.alps.DocumentStatistics;
+import com.apicatalog.alps.error.DocumentError;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.io.ParserOptions;
+
+class ParserLimitsTest {
+
+    static final URI BASE = URI.create("http://example.com");
+
+    static final String DOCUMENT = "{\"alps\":{\"version\":\"1.0\",\"doc\":\"0123456789\",\"descriptor\":["
+                                    + "{\"id\":\"a\",\"ext\":{\"id\":\"x\"}},"
+                                    + "{\"id\":\"b\",\"link\":{\"rel\":\"help\",\"href\":\"http://example.com/help\"},\"descriptor\":{\"id\":\"c\"}}"
+                                    + "]}}";
+
+    @Test
+    void testWithinLimits() throws IOException, DocumentParserException {
+
+        final ParserOptions options = new ParserOptions()
+                                            .maxInputLength(DOCUMENT.length())
+                                            .maxDepth(2)
+                                            .maxDescriptors(3)
+                                            .maxExtensions(1)
+                                            .maxDocumentationLength(10);
+
+        assertNotNull(new JsonDocumentParser(options).parse(BASE, new StringReader(DOCUMENT)));
+    }
+
+    @Test
+    void testMaxInputLength() {
+        assertError(DocumentError.MAX_INPUT_LENGTH_EXCEEDED, new ParserOptions().maxInputLength(DOCUMENT.length() - 1));
+    }
+
+    @Test
+    void testMaxDescriptors() {
+        assertError(DocumentError.MAX_DESCRIPTORS_EXCEEDED, new ParserOptions().maxDescriptors(2));
+    }
+
+    @Test
+    void testMaxExtensions() {
+        assertError(DocumentError.MAX_EXTENSIONS_EXCEEDED, new ParserOptions().maxExtensions(0));
+    }
+
+    @Test
+    void testMaxDocumentationLength() {
+        assertError(DocumentError.MAX_DOC_LENGTH_EXCEEDED, new ParserOptions().maxDocumentationLength(9));
+    }
+
+    @Test
+    void testFailFast() {
+
+        // the input is truncated after the exceeded limits
+        final String truncated = "{\"alps\":{\"descriptor\":[{\"id\":\"a\",\"doc\":{\"value\":\"0123456789\"},\"ext\":[{\"id\":\"x\"},{\"id\":\"y\"}]},{\"id\":\"b\"},";
+
+        assertError(DocumentError.MAX_DESCRIPTORS_EXCEEDED, new ParserOptions().maxDescriptors(1), truncated);
+        assertError(DocumentError.MAX_EXTENSIONS_EXCEEDED, new ParserOptions().maxExtensions(1), truncated);
+        assertError(DocumentError.MAX_DOC_LENGTH_EXCEEDED, new ParserOptions().maxDocumentationLength(9), truncated);
+    }
+
+    @Test
+    void testSkip() throws IOException, DocumentParserException {
+
+        final ParserOptions options = new ParserOptions()
+                                            .skipDocumentation(true)
+                                            .skipExtensions(true)
+                                            .skipLinks(true)
+                                            .maxExtensions(0)
+                                            .maxDocumentationLength(0);
+
+        final DocumentStatistics stats = DocumentStatistics.of(new JsonDocumentParser(options).parse(BASE, new StringReader(DOCUMENT)));
+
+        assertEquals(3, stats.getDescriptors());
+        assertEquals(0, stats.getDocs());
+        assertEquals(0, stats.getLinks());
+        assertEquals(0, stats.getExtensions());
+    }
+
+    static final void assertError(final DocumentError code, final ParserOptions options) {
+        assertError(code, options, DOCUMENT);
+    }
+
+    static final void assertError(final DocumentError code, final ParserOptions options, final String document) {
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class,
+                () -> new JsonDocumentParser(options).parse(BASE, new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8))));
+
+        assertEquals(code, e.getCode());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.alps.ReferenceResolver;
+import com.apicatalog.alps.dom.element.Descriptor;
+import com.apicatalog.alps.dom.element.DescriptorType;
+import com.apicatalog.alps.error.DocumentParserException;
+
+class ReferenceResolverTest {
+
+    static final URI BASE = URI.create("http://example.com/profile.json");
+
+    static final String DOCUMENT = "{\"alps\":{\"descriptor\":["
+                                    + "{\"id\":\"contact\",\"title\":\"Contact\",\"descriptor\":[{\"id\":\"name\"},{\"id\":\"email\"}]},"
+                                    + "{\"id\":\"search\",\"type\":\"safe\",\"rt\":\"#contact\",\"descriptor\":{\"href\":\"#name\"}},"
+                                    + "{\"id\":\"person\",\"href\":\"http://example.com/profile.json#contact\",\"title\":\"Person\"},"
+                                    + "{\"id\":\"missing\",\"href\":\"#unknown\"},"
+                                    + "{\"id\":\"remote\",\"href\":\"other.json#item\"},"
+                                    + "{\"id\":\"a\",\"href\":\"#b\"},{\"id\":\"b\",\"href\":\"#a\"},{\"id\":\"c\",\"href\":\"#a\"}"
+                                    + "]}}";
+
+    @Test
+    void testResolve() throws IOException, DocumentParserException {
+
+        final ReferenceResolver resolver = resolver();
+
+        // nested descriptors are indexed
+        assertTrue(resolver.findById("email").isPresent());
+        assertEquals("name", resolver.resolve(URI.create("#name")).flatMap(Descriptor::id).map(URI::toString).orElse(null));
+        assertFalse(resolver.resolve(URI.create("#unknown")).isPresent());
+
+        assertEquals("missing", ids(resolver.getDanglingReferences()));
+        assertEquals("remote", ids(resolver.getExternalReferences()));
+        assertFalse(resolver.isResolved());
+    }
+
+    @Test
+    void testCycles() throws IOException, DocumentParserException {
+
+        final ReferenceResolver resolver = resolver();
+
+        assertEquals(1, resolver.getCycles().size());
+        assertEquals("a, b", ids(resolver.getCycles().get(0)));
+
+        // a reference into a cycle is resolved, references within the cycle are not
+        assertTrue(resolver.getTarget(resolver.findById("c").get()).isPresent());
+        assertFalse(resolver.getTarget(resolver.findById("a").get()).isPresent());
+    }
+
+    @Test
+    void testInline() throws IOException, DocumentParserException {
+
+        final ReferenceResolver resolver = resolver();
+
+        final Descriptor person = resolver.inline(resolver.findById("person").get());
+
+        assertEquals("Person", person.title().orElse(null));
+        assertFalse(person.href().isPresent());
+        assertEquals("email, name", ids(person.descriptors()));
+
+        // a nested reference is inlined too
+        final Descriptor search = resolver.inline(resolver.findById("search").get());
+        assertEquals(DescriptorType.SAFE, search.type());
+        assertFalse(search.descriptors().iterator().next().href().isPresent());
+
+        // a dangling reference is kept
+        assertEquals("#unknown", resolver.inline(resolver.findById("missing").get()).href().map(URI::toString).orElse(null));
+    }
+
+    static final ReferenceResolver resolver() throws IOException, DocumentParserException {
+        return ReferenceResolver.of(new JsonDocumentParser().parse(BASE, new StringReader(DOCUMENT)));
+    }
+
+    /** the parser does not keep the order of descriptors */
+    static final String ids(final Collection<Descriptor> descriptors) {
+        return descriptors.stream().map(d -> d.id().map(URI::toString).orElse("")).sorted().collect(Collectors.joining(", "));
+    }
+}
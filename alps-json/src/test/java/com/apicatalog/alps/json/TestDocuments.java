@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.error.DocumentParserException;
+
+/**
+ * Documents shared by tests, fixtures are read from the test resources.
+ */
+final class TestDocuments {
+
+    static final URI BASE = URI.create("http://example.com");
+
+    /** contacts with a nested descriptor */
+    static final String CONTACTS = "contacts.json";
+
+    /** contacts and persons referencing a shared name descriptor */
+    static final String PERSONS = "persons.json";
+
+    private TestDocuments() {
+    }
+
+    static final Document parse(final String json) throws DocumentParserException {
+        return new JsonDocumentParser().parse(BASE, new StringReader(json));
+    }
+
+    static final Document load(final String name) throws DocumentParserException {
+        return parse(read(name));
+    }
+
+    static final String read(final String name) {
+
+        try (final InputStream is = TestDocuments.class.getResourceAsStream(name)) {
+
+            if (is == null) {
+                throw new IllegalArgumentException("Test resource '" + name + "' does not exist.");
+            }
+
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
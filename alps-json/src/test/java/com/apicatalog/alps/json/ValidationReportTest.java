@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.alps.error.DocumentError;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.io.ParserOptions;
+import com.apicatalog.alps.io.ValidationReport;
+
+class ValidationReportTest {
+
+    static final String DOCUMENT = "{\"alps\":{\"descriptor\":["
+                                    + "{\"id\":\"a\",\"type\":\"unknown\",\"descriptor\":[{\"name\":1}]},"
+                                    + "{\"href\":[\"b\"],\"link\":{\"href\":\"http://example.com\"}},"
+                                    + "{\"id\":\"c\"}"
+                                    + "],\"ext\":{\"value\":\"x\"}}}";
+
+    @Test
+    void testCollectErrors() throws IOException, DocumentParserException {
+
+        final ValidationReport report = new JsonDocumentParser().validate(null, new StringReader(DOCUMENT), 100);
+
+        assertFalse(report.isValid());
+        assertFalse(report.isTruncated());
+        assertEquals(6, report.getErrorCount());
+
+        assertEquals(
+                "MISSING_ID /alps/descriptor/0/descriptor/0, "
+                + "INVALID_NAME /alps/descriptor/0/descriptor/0/name, "
+                + "INVALID_TYPE /alps/descriptor/0/type, "
+                + "MALFORMED_URI /alps/descriptor/1/href, "
+                + "MISSING_REL /alps/descriptor/1/link, "
+                + "MISSING_ID /alps/ext",
+                report.getErrors().stream().map(e -> e.getCode() + " " + e.getPath()).collect(Collectors.joining(", "))
+                );
+
+        assertEquals(4, report.getStatistics().getDescriptors());
+        assertEquals(1, report.getStatistics().getLinks());
+        assertEquals(1, report.getStatistics().getExtensions());
+    }
+
+    @Test
+    void testMaxErrors() throws IOException, DocumentParserException {
+
+        final ValidationReport report = new JsonDocumentParser().validate(null, new StringReader(DOCUMENT), 2);
+
+        assertTrue(report.isTruncated());
+        assertEquals(2, report.getErrors().size());
+        assertEquals(6, report.getErrorCount());
+    }
+
+    @Test
+    void testParserError() {
+
+        // the properties are checked in the parser order, not in the input order
+        final String document = "{\"alps\":{\"descriptor\":{\"type\":\"unknown\",\"name\":1,\"id\":\"a\"}}}";
+
+        final InvalidDocumentException expected = assertThrows(InvalidDocumentException.class, () ->
+                new JsonDocumentParser().parse(null, new StringReader(document))
+                );
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class, () ->
+                new JsonDocumentParser().validate(null, new StringReader(document))
+                );
+
+        assertEquals(DocumentError.INVALID_NAME, expected.getCode());
+        assertEquals(expected.getCode(), e.getCode());
+        assertEquals(expected.getMessage(), e.getMessage());
+        assertEquals("/alps/descriptor/name", e.getPath());
+    }
+
+    @Test
+    void testExceededLimit() {
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class, () ->
+                new JsonDocumentParser(new ParserOptions().maxDescriptors(2)).validate(null, new StringReader(DOCUMENT), 100)
+                );
+
+        assertEquals(DocumentError.MAX_DESCRIPTORS_EXCEEDED, e.getCode());
+    }
+}
@@ -23,12 +23,17 @@ import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
+import com.apicatalog.alps.DocumentStatistics;
 import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.error.DocumentError;
 import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.io.ParserLimits;
+import com.apicatalog.alps.io.ValidationReport;
 
 final class DocumentHandler extends DefaultHandler {
 
-    private enum State { INIT, DOCUMENT, DOCUMENTATION, DONE }
+    private enum State { INIT, DOCUMENT, DOCUMENTATION, SKIPPED, DONE }
 
     private State state;
 
@@ -36,9 +41,36 @@ final class DocumentHandler extends DefaultHandler {
 
     private final URI baseUri;
 
-    public DocumentHandler(URI baseUri) {
+    private final ParserLimits limits;
+
+    /** elements are checked and counted only, a document is not built */
+    private final boolean validation;
+
+    /** collects errors of invalid elements, the first error is thrown if not present */
+    private final ValidationReport report;
+
+    private int depth;
+
+    private long descriptors;
+    private long docs;
+    private long links;
+    private long extensions;
+
+    private long documentationLength;
+
+    /** the number of open elements within a skipped element */
+    private int skipped;
+
+    public DocumentHandler(URI baseUri, ParserLimits limits, boolean validation) {
+        this(baseUri, limits, validation, null);
+    }
+
+    public DocumentHandler(URI baseUri, ParserLimits limits, boolean validation, ValidationReport report) {
         this.stack = new ArrayDeque<>(10);
         this.baseUri = baseUri;
+        this.limits = limits;
+        this.validation = validation;
+        this.report = report;
     }
 
     @Override
@@ -46,6 +78,11 @@ final class DocumentHandler extends DefaultHandler {
         super.startDocument();
         stack.clear();
         state = State.INIT;
+        depth = 0;
+        descriptors = 0;
+        docs = 0;
+        links = 0;
+        extensions = 0;
     }
 
     @Override
@@ -63,6 +100,11 @@ final class DocumentHandler extends DefaultHandler {
             return;
         }
 
+        if (State.SKIPPED.equals(state)) {
+            skipped++;
+            return;
+        }
+
         try {
 
             if (XmlConstants.DOCUMENT.equals(elementName)) {
@@ -78,19 +120,34 @@ final class DocumentHandler extends DefaultHandler {
                 return;
             }
 
-            if (XmlConstants.DOCUMENTATION.equals(elementName)) {
+            if (isSkipped(elementName)) {
+                state = State.SKIPPED;
+                skipped = 1;
+
+            } else if (XmlConstants.DOCUMENTATION.equals(elementName)) {
                 stack.peek().beginDocumentation(stack, attributes);
                 state = State.DOCUMENTATION;
+                documentationLength = 0;
 
             } else if (XmlConstants.DESCRIPTOR.equals(elementName)) {
+
+                if (++depth > limits.getOptions().getMaxDepth()) {
+                    throw new InvalidDocumentException(DocumentError.MAX_DEPTH_EXCEEDED, XPathUtil.getPath(stack, XmlConstants.DESCRIPTOR), "Descriptors nesting exceeds the maximum depth of " + limits.getOptions().getMaxDepth());
+                }
+
+                limits.addDescriptor();
+
                 stack.peek().beginDescriptor(stack, attributes);
+                report(stack.peek());
 
             } else if (XmlConstants.LINK.equals(elementName)) {
                 stack.peek().beginLink(stack, attributes);
 
             } else if (XmlConstants.EXTENSION.equals(elementName)) {
+                limits.addExtension();
                 stack.peek().beginExtension(stack, attributes);
-                
+                report(stack.peek());
+
             } else if (XmlConstants.TITLE.equals(elementName)) {
                 stack.peek().beginTitle(stack, attributes);
             }
@@ -111,7 +168,13 @@ final class DocumentHandler extends DefaultHandler {
             return;
         }
 
-        if (State.DOCUMENT.equals(state)) {
+        if (State.SKIPPED.equals(state)) {
+
+            if (--skipped == 0) {
+                state = State.DOCUMENT;
+            }
+
+        } else if (State.DOCUMENT.equals(state)) {
 
             if (XmlConstants.DOCUMENT.equals(elementName)) {
                 state = State.DONE;
@@ -121,15 +184,25 @@ final class DocumentHandler extends DefaultHandler {
                 XmlElement child =  stack.pop();
 
                 if (XmlConstants.DESCRIPTOR.equals(elementName)) {
-                    stack.peek().complete((XmlDescriptor)child);
+                    if (!validation) {
+                        stack.peek().complete((XmlDescriptor)child);
+                    }
+                    descriptors++;
+                    depth--;
 
                 } else if (XmlConstants.LINK.equals(elementName)) {
-                    stack.peek().complete((XmlLink)child);
+                    if (!validation) {
+                        stack.peek().complete((XmlLink)child);
+                    }
+                    links++;
 
                 } else if (XmlConstants.EXTENSION.equals(elementName)) {
-                    stack.peek().complete((XmlExtension)child);
-                    
-                } else if (XmlConstants.TITLE.equals(elementName)) {
+                    if (!validation) {
+                        stack.peek().complete((XmlExtension)child);
+                    }
+                    extensions++;
+
+                } else if (XmlConstants.TITLE.equals(elementName) && !validation) {
                     stack.peek().complete((XmlTitle)child);
                 }
             }
@@ -138,7 +211,10 @@ final class DocumentHandler extends DefaultHandler {
 
             final XmlDocumentation doc = (XmlDocumentation)stack.pop();
 
-            stack.peek().complete(doc);
+            if (!validation) {
+                stack.peek().complete(doc);
+            }
+            docs++;
 
             state = State.DOCUMENT;
         }
@@ -147,11 +223,41 @@ final class DocumentHandler extends DefaultHandler {
     @Override
     public void characters(char[] ch, int start, int length) throws SAXException {
         super.characters(ch, start, length);
-        stack.peek().addText(ch, start, length);
+
+        if (State.SKIPPED.equals(state)) {
+            return;
+        }
+
+        if (State.DOCUMENTATION.equals(state)) {
+            try {
+                limits.checkDocumentation(documentationLength += length);
+
+            } catch (DocumentParserException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        if (!validation) {
+            stack.peek().addText(ch, start, length);
+        }
     }
 
     public Document getDocument() throws DocumentParserException {
 
+        checkCompleted();
+
+        return ((XmlDocument)stack.peek()).build(baseUri);
+    }
+
+    public DocumentStatistics getStatistics() throws DocumentParserException {
+
+        checkCompleted();
+
+        return DocumentStatistics.of(((XmlDocument)stack.peek()).version, descriptors, docs, links, extensions);
+    }
+
+    private final void checkCompleted() throws DocumentParserException {
+
         if (State.INIT.equals(state)) {
             throw new DocumentParserException("The document does not contain ALPS declaration.");
         }
@@ -159,8 +265,27 @@ final class DocumentHandler extends DefaultHandler {
         if (!State.DONE.equals(state))  {
             throw new DocumentParserException("The ALPS document declaration is unenclosed, expected " + stack.peek());
         }
+    }
 
-        return ((XmlDocument)stack.peek()).build(baseUri);
+    /**
+     * Reports errors of the element created without invalid attributes.
+     */
+    private final void report(final XmlElement element) throws InvalidDocumentException {
+
+        for (final InvalidDocumentException error : element.getErrors()) {
+
+            if (report == null) {
+                throw error;
+            }
+
+            report.add(error);
+        }
+    }
+
+    private final boolean isSkipped(final String elementName) {
+        return (XmlConstants.DOCUMENTATION.equals(elementName) && limits.getOptions().isDocumentationSkipped())
+                || (XmlConstants.EXTENSION.equals(elementName) && limits.getOptions().isExtensionsSkipped())
+                || (XmlConstants.LINK.equals(elementName) && limits.getOptions().isLinksSkipped());
     }
 
     private static final String getElementName(String localName, String qName) {
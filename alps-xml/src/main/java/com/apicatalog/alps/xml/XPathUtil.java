@@ -16,12 +16,22 @@
 package com.apicatalog.alps.xml;
 
 import java.util.Deque;
-import java.util.stream.Collectors;
+import java.util.Iterator;
 
 class XPathUtil {
 
     public static final String getPath(Deque<XmlElement> stack) {
-        return stack.stream().map(XPathUtil::getElementPath).collect(Collectors.joining());
+
+        final StringBuilder path = new StringBuilder();
+
+        // the stack top is the innermost element
+        final Iterator<XmlElement> elements = stack.descendingIterator();
+
+        while (elements.hasNext()) {
+            path.append(getElementPath(elements.next()));
+        }
+
+        return path.toString();
     }
 
     public static final String getPath(Deque<XmlElement> stack, final String element) {
@@ -29,9 +39,7 @@ class XPathUtil {
     }
 
     public static final String getPath(Deque<XmlElement> stack, final String element, final int index) {
-        return  stack.stream().map(XPathUtil::getElementPath).collect(Collectors.joining())
-                + getElementPath(element, index)
-                ;
+        return getPath(stack) + getElementPath(element, index);
     }
 
     private static final String getElementPath(XmlElement element) {
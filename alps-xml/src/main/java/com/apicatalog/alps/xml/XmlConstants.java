@@ -17,6 +17,8 @@ package com.apicatalog.alps.xml;
 
 final class XmlConstants {
 
+    public static final String MEDIA_TYPE = "application/alps+xml";
+
     public static final String DOCUMENT = "alps";
 
     public static final String DOCUMENTATION = "doc";
@@ -27,6 +29,8 @@ final class XmlConstants {
 
     public static final String VERSION_1_0 = "1.0";
 
+    public static final String ENCODING = "UTF-8";
+
     public static final String ID = "id";
 
     public static final String TYPE = "type";
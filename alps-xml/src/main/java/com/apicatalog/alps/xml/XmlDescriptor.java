@@ -16,9 +16,11 @@
 package com.apicatalog.alps.xml;
 
 import java.net.URI;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -32,12 +34,18 @@ import com.apicatalog.alps.DescriptorBuilder;
 import com.apicatalog.alps.dom.element.Descriptor;
 import com.apicatalog.alps.dom.element.DescriptorType;
 import com.apicatalog.alps.error.DocumentError;
-import com.apicatalog.alps.error.DocumentParserException;
 import com.apicatalog.alps.error.DocumentWriterException;
 import com.apicatalog.alps.error.InvalidDocumentException;
 
 public class XmlDescriptor extends XmlElement {
 
+    /**
+     * The maximum depth of nested descriptors written. The default StAX writer
+     * tracks elements depth as a short value, two levels are taken by
+     * the document and descriptor title or documentation elements.
+     */
+    public static final int MAX_WRITE_DEPTH = Short.MAX_VALUE - 2;
+
     final DescriptorBuilder builder;
 
     private XmlDescriptor(int index) {
@@ -46,7 +54,11 @@ public class XmlDescriptor extends XmlElement {
         this.builder = Alps.createDescriptor();
     }
 
-    public static final XmlDescriptor create(final Deque<XmlElement> stack, int index, final Attributes attrs) throws DocumentParserException {
+    /**
+     * Creates a descriptor, invalid attributes are ignored and reported by
+     * {@link #getErrors()}.
+     */
+    public static final XmlDescriptor create(final Deque<XmlElement> stack, int index, final Attributes attrs) {
 
         final XmlDescriptor descriptor = new XmlDescriptor(index);
 
@@ -57,15 +69,30 @@ public class XmlDescriptor extends XmlElement {
                 descriptor.builder.id(URI.create(id));
 
             } catch (IllegalArgumentException e) {
-                throw new InvalidDocumentException(DocumentError.MALFORMED_URI, XPathUtil.getPath(stack, XmlConstants.DESCRIPTOR, index), "Descriptor id must be valid URI but was " + id);
+                descriptor.addError(new InvalidDocumentException(DocumentError.MALFORMED_URI, XPathUtil.getPath(stack, XmlConstants.DESCRIPTOR, index), "Descriptor id must be valid URI but was " + id));
             }
         }
 
-        parseHref(stack, index, attrs).ifPresent(descriptor.builder::href);
+        try {
+            parseHref(stack, index, attrs).ifPresent(descriptor.builder::href);
+
+        } catch (InvalidDocumentException e) {
+            descriptor.addError(e);
+        }
+
+        try {
+            parseDefinition(stack, index, attrs).ifPresent(descriptor.builder::definition);
+
+        } catch (InvalidDocumentException e) {
+            descriptor.addError(e);
+        }
 
-        parseDefinition(stack, index, attrs).ifPresent(descriptor.builder::definition);
+        try {
+            descriptor.builder.type(parseType(stack, index, attrs));
 
-        descriptor.builder.type(parseType(stack, attrs));
+        } catch (InvalidDocumentException e) {
+            descriptor.addError(e);
+        }
 
         final String rt = attrs.getValue(XmlConstants.RETURN_TYPE);
 
@@ -120,7 +147,7 @@ public class XmlDescriptor extends XmlElement {
         return Optional.empty();
     }
 
-    private static final DescriptorType parseType(final Deque<XmlElement> stack, final Attributes attrs) throws InvalidDocumentException {
+    private static final DescriptorType parseType(final Deque<XmlElement> stack, int index, final Attributes attrs) throws InvalidDocumentException {
 
         final String value = attrs.getValue(XmlConstants.TYPE);
 
@@ -132,7 +159,7 @@ public class XmlDescriptor extends XmlElement {
             return DescriptorType.valueOf(value.toUpperCase());
 
         } catch (IllegalArgumentException e) {
-            throw new InvalidDocumentException(DocumentError.INVALID_TYPE, XPathUtil.getPath(stack, XmlConstants.TYPE), "Expected one of " + Arrays.toString(DescriptorType.values()) + " but was " + value);
+            throw new InvalidDocumentException(DocumentError.INVALID_TYPE, XPathUtil.getPath(stack, XmlConstants.DESCRIPTOR, index), "Expected one of " + Arrays.toString(DescriptorType.values()) + " but was " + value);
         }
     }
 
@@ -146,29 +173,53 @@ public class XmlDescriptor extends XmlElement {
         return Collections.emptyList();
     }
 
+    /**
+     * Writes the descriptors and all nested descriptors. Nested descriptors are
+     * written without recursion.
+     */
     public static void write(final Set<Descriptor> descriptors, final DocumentStreamWriter writer, final boolean verbose) throws DocumentWriterException {
         if (descriptors == null || descriptors.isEmpty()) {
             return;
         }
 
-        for (final Descriptor descriptor : descriptors) {
+        final Deque<Frame> stack = new ArrayDeque<>();
+
+        stack.push(new Frame(null, descriptors.iterator()));
+
+        while (!stack.isEmpty()) {
 
-            final boolean selfClose = descriptor.descriptors().isEmpty()
-                    && descriptor.documentation().isEmpty()
-                    && descriptor.links().isEmpty()
-                    && descriptor.extensions().isEmpty()
-                    && descriptor.title().isEmpty();
+            final Frame frame = stack.peek();
 
-            writer.startDescriptor(descriptor, selfClose, verbose);
+            if (frame.descriptors.hasNext()) {
 
-            if (!selfClose) {
-                XmlDocumentation.write(descriptor.documentation(), writer, verbose);
+                final Descriptor descriptor = frame.descriptors.next();
 
-                XmlLink.write(descriptor.links(), writer);
+                if (stack.size() > MAX_WRITE_DEPTH) {
+                    throw new DocumentWriterException("Descriptors nesting exceeds the maximum depth of " + MAX_WRITE_DEPTH + " supported by XML output.");
+                }
 
-                XmlDescriptor.write(descriptor.descriptors(), writer, verbose);
+                final boolean selfClose = descriptor.descriptors().isEmpty()
+                        && descriptor.documentation().isEmpty()
+                        && descriptor.links().isEmpty()
+                        && descriptor.extensions().isEmpty()
+                        && descriptor.title().isEmpty();
 
-                XmlExtension.write(descriptor.extensions(), writer);
+                writer.startDescriptor(descriptor, selfClose, verbose);
+
+                if (!selfClose) {
+                    XmlDocumentation.write(descriptor.documentation(), writer, verbose);
+
+                    XmlLink.write(descriptor.links(), writer);
+
+                    stack.push(new Frame(descriptor, descriptor.descriptors().iterator()));
+                }
+                continue;
+            }
+
+            stack.pop();
+
+            if (frame.parent != null) {
+                XmlExtension.write(frame.parent.extensions(), writer);
 
                 writer.endDescriptor();
             }
@@ -199,4 +250,15 @@ public class XmlDescriptor extends XmlElement {
     public void complete(XmlTitle title) {
         builder.title(title.getText());
     }
+
+    private static final class Frame {
+
+        final Descriptor parent;
+        final Iterator<Descriptor> descriptors;
+
+        Frame(final Descriptor parent, final Iterator<Descriptor> descriptors) {
+            this.parent = parent;
+            this.descriptors = descriptors;
+        }
+    }
 }
@@ -31,11 +31,14 @@ import com.apicatalog.alps.error.InvalidDocumentException;
 
 final class XmlDocument extends XmlElement {
 
+    final DocumentVersion version;
+
     final DocumentBuilder builder;
 
     public XmlDocument(DocumentVersion version) {
         super(XmlConstants.DOCUMENT, -1);
 
+        this.version = version;
         this.builder = Alps.createDocument(version);
     }
 
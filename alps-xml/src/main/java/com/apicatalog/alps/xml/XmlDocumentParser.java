@@ -28,45 +28,133 @@ import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
+import com.apicatalog.alps.DocumentStatistics;
 import com.apicatalog.alps.dom.Document;
 import com.apicatalog.alps.error.DocumentParserException;
 import com.apicatalog.alps.error.MalformedDocumentException;
 import com.apicatalog.alps.io.DocumentParser;
+import com.apicatalog.alps.io.ParseEvent;
+import com.apicatalog.alps.io.ParserLimits;
+import com.apicatalog.alps.io.ParserOptions;
+import com.apicatalog.alps.io.ValidationReport;
 
 public class XmlDocumentParser implements DocumentParser {
 
     private final SAXParserFactory factory;
+    private final ParserOptions options;
 
     public XmlDocumentParser() {
-        this(SAXParserFactory.newDefaultInstance());
+        this(new ParserOptions());
+    }
+
+    public XmlDocumentParser(final ParserOptions options) {
+        this(SAXParserFactory.newDefaultInstance(), options);
     }
 
     public XmlDocumentParser(final SAXParserFactory factory) {
+        this(factory, new ParserOptions());
+    }
+
+    public XmlDocumentParser(final SAXParserFactory factory, final ParserOptions options) {
         this.factory = factory;
+        this.options = options;
     }
 
     @Override
     public Document parse(final URI baseUri, final InputStream stream) throws IOException, DocumentParserException {
-        return parse(baseUri, new InputSource(stream));
+        final ParserLimits limits = new ParserLimits(options);
+
+        final ParseEvent event = ParseEvent.start(XmlConstants.MEDIA_TYPE, limits);
+
+        try {
+            return event.complete(read(baseUri, new InputSource(limits.limit(stream)), limits, false).getDocument(), limits);
+
+        } catch (DocumentParserException | IOException e) {
+            event.fail(e, limits);
+            throw e;
+        }
     }
 
     @Override
     public Document parse(final URI baseUri, final Reader reader) throws DocumentParserException, IOException {
-        return parse(baseUri, new InputSource(reader));
+        final ParserLimits limits = new ParserLimits(options);
+
+        final ParseEvent event = ParseEvent.start(XmlConstants.MEDIA_TYPE, limits);
+
+        try {
+            return event.complete(read(baseUri, new InputSource(limits.limit(reader)), limits, false).getDocument(), limits);
+
+        } catch (DocumentParserException | IOException e) {
+            event.fail(e, limits);
+            throw e;
+        }
+    }
+
+    /**
+     * Checks the document while reading the input, the document is not built.
+     */
+    @Override
+    public DocumentStatistics validate(final URI baseUri, final InputStream stream) throws IOException, DocumentParserException {
+        final ParserLimits limits = new ParserLimits(options);
+        return read(baseUri, new InputSource(limits.limit(stream)), limits, true).getStatistics();
+    }
+
+    /**
+     * Checks the document while reading the input, the document is not built.
+     */
+    @Override
+    public DocumentStatistics validate(final URI baseUri, final Reader reader) throws IOException, DocumentParserException {
+        final ParserLimits limits = new ParserLimits(options);
+        return read(baseUri, new InputSource(limits.limit(reader)), limits, true).getStatistics();
+    }
+
+    /**
+     * Checks the document while reading the input and collects all errors
+     * found, the document is not built.
+     */
+    @Override
+    public ValidationReport validate(final URI baseUri, final InputStream stream, final int maxErrors) throws IOException, DocumentParserException {
+        final ValidationReport report = new ValidationReport(maxErrors);
+        final ParserLimits limits = new ParserLimits(options);
+        report.setStatistics(read(baseUri, new InputSource(limits.limit(stream)), limits, true, report).getStatistics());
+        return report;
+    }
+
+    /**
+     * Checks the document while reading the input and collects all errors
+     * found, the document is not built.
+     */
+    @Override
+    public ValidationReport validate(final URI baseUri, final Reader reader, final int maxErrors) throws IOException, DocumentParserException {
+        final ValidationReport report = new ValidationReport(maxErrors);
+        final ParserLimits limits = new ParserLimits(options);
+        report.setStatistics(read(baseUri, new InputSource(limits.limit(reader)), limits, true, report).getStatistics());
+        return report;
+    }
+
+    private DocumentHandler read(final URI baseUri, final InputSource soure, final ParserLimits limits, final boolean validation) throws DocumentParserException, IOException {
+        return read(baseUri, soure, limits, validation, null);
     }
 
-    private Document parse(final URI baseUri, final InputSource soure) throws DocumentParserException, IOException {
+    private DocumentHandler read(final URI baseUri, final InputSource soure, final ParserLimits limits, final boolean validation, final ValidationReport report) throws DocumentParserException, IOException {
         try {
             final SAXParser parser = factory.newSAXParser();
 
-            final DocumentHandler handler = new DocumentHandler(baseUri);
+            final DocumentHandler handler = new DocumentHandler(baseUri, limits, validation, report);
 
             parser.parse(soure, handler);
 
-            return handler.getDocument();
+            return handler;
+
+        } catch (IOException e) {
+
+            limits.checkInput();
+            throw e;
 
         } catch (SAXParseException e) {
 
+            limits.checkInput();
+
             throw new MalformedDocumentException(e.getLineNumber(), e.getColumnNumber(), e.getMessage());
 
         } catch (ParserConfigurationException e) {
@@ -75,6 +163,8 @@ public class XmlDocumentParser implements DocumentParser {
 
         } catch (SAXException e) {
 
+            limits.checkInput();
+
             if (e.getCause() instanceof DocumentParserException) {
                 throw (DocumentParserException)e.getCause();
             }
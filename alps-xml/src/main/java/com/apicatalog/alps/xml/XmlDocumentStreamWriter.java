@@ -16,7 +16,6 @@
 package com.apicatalog.alps.xml;
 
 import java.net.URI;
-import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
@@ -51,7 +50,7 @@ final class XmlDocumentStreamWriter implements DocumentStreamWriter {
     public void startDocument(final Document document) throws DocumentWriterException {
         try {
 
-          writer.writeStartDocument(Charset.defaultCharset().name(), "1.0");
+          writer.writeStartDocument(XmlConstants.ENCODING, "1.0");
 
           if (isPrettyPrint()) {
               writer.writeCharacters("\n");
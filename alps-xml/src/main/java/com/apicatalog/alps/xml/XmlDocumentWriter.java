@@ -15,7 +15,9 @@
  */
 package com.apicatalog.alps.xml;
 
+import java.io.Flushable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 
 import javax.xml.stream.XMLOutputFactory;
@@ -25,6 +27,7 @@ import javax.xml.stream.XMLStreamWriter;
 import com.apicatalog.alps.dom.Document;
 import com.apicatalog.alps.error.DocumentWriterException;
 import com.apicatalog.alps.io.DocumentWriter;
+import com.apicatalog.alps.io.WriteEvent;
 
 public class XmlDocumentWriter implements DocumentWriter {
 
@@ -32,19 +35,36 @@ public class XmlDocumentWriter implements DocumentWriter {
     private final int indentLength;
     private final boolean verbose;
 
+    /** a counted output, or null */
+    private final Flushable output;
+
     public XmlDocumentWriter(final XMLStreamWriter writer, final int indentLength, final boolean verbose) {
+        this(writer, indentLength, verbose, null);
+    }
+
+    private XmlDocumentWriter(final XMLStreamWriter writer, final int indentLength, final boolean verbose, final Flushable output) {
         this.writer = writer;
         this.indentLength = indentLength;
         this.verbose = verbose;
+        this.output = output;
     }
 
     public static final DocumentWriter create(final Writer writer, final boolean prettyPrint, final boolean verbose) throws DocumentWriterException {
+        try {
+            final Writer output = WriteEvent.count(writer);
+
+            return new XmlDocumentWriter(OutputFactory.INSTANCE.createXMLStreamWriter(output), prettyPrint ? 4 : -1, verbose, output);
 
-        final XMLOutputFactory factory = XMLOutputFactory.newDefaultFactory();
-        factory.setProperty("escapeCharacters", false);
+        } catch (XMLStreamException e) {
+            throw new DocumentWriterException(e);
+        }
+    }
 
+    public static final DocumentWriter create(final OutputStream stream, final boolean prettyPrint, final boolean verbose) throws DocumentWriterException {
         try {
-            return new XmlDocumentWriter(factory.createXMLStreamWriter(writer), prettyPrint ? 4 : -1, verbose);
+            final OutputStream output = WriteEvent.count(stream);
+
+            return new XmlDocumentWriter(OutputFactory.INSTANCE.createXMLStreamWriter(output, XmlConstants.ENCODING), prettyPrint ? 4 : -1, verbose, output);
 
         } catch (XMLStreamException e) {
             throw new DocumentWriterException(e);
@@ -53,11 +73,35 @@ public class XmlDocumentWriter implements DocumentWriter {
 
     @Override
     public void write(Document document) throws IOException, DocumentWriterException {
-        XmlDocument.write(document, new XmlDocumentStreamWriter(writer, indentLength), verbose);
+
+        final WriteEvent event = WriteEvent.start(XmlConstants.MEDIA_TYPE);
+
+        try {
+            XmlDocument.write(document, new XmlDocumentStreamWriter(writer, indentLength), verbose);
+
+        } catch (DocumentWriterException | RuntimeException e) {
+            event.complete(document, output, e);
+            throw e;
+        }
+
+        event.complete(document, output, null);
     }
 
     @Override
     public void close() throws Exception {
         //ignored
     }
+
+    // the factory is configured once and shared, initialized on the first use
+    private static final class OutputFactory {
+
+        static final XMLOutputFactory INSTANCE = XMLOutputFactory.newDefaultFactory();
+
+        static {
+            INSTANCE.setProperty("escapeCharacters", false);
+        }
+
+        private OutputFactory() {
+        }
+    }
 }
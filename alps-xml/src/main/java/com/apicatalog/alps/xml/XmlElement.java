@@ -15,11 +15,15 @@
  */
 package com.apicatalog.alps.xml;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.List;
 
 import org.xml.sax.Attributes;
 
 import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.InvalidDocumentException;
 
 abstract class XmlElement {
 
@@ -31,6 +35,9 @@ abstract class XmlElement {
     private int docs;
     private int exts;
 
+    /** invalid attributes, an element is created without them */
+    private List<InvalidDocumentException> errors;
+
     protected XmlElement(String elementName, int elementIndex) {
         this.elementName = elementName;
         this.elementIndex = elementIndex;
@@ -49,6 +56,17 @@ abstract class XmlElement {
         return elementIndex;
     }
 
+    protected void addError(final InvalidDocumentException error) {
+        if (errors == null) {
+            errors = new ArrayList<>(2);
+        }
+        errors.add(error);
+    }
+
+    public List<InvalidDocumentException> getErrors() {
+        return errors != null ? errors : Collections.emptyList();
+    }
+
     public void beginDescriptor(final Deque<XmlElement> stack, Attributes attrs) throws DocumentParserException {
         final XmlDescriptor dsc = XmlDescriptor.create(stack, descriptors++, attrs);
         stack.push(dsc);
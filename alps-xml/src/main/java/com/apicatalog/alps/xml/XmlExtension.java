@@ -37,7 +37,11 @@ final class XmlExtension extends XmlElement {
         this.builder = Alps.createExtension();
     }
 
-    public static final XmlExtension create(Deque<XmlElement> stack, int elementIndex, Attributes attributes) throws InvalidDocumentException {
+    /**
+     * Creates an extension, invalid attributes are ignored and reported by
+     * {@link #getErrors()}.
+     */
+    public static final XmlExtension create(Deque<XmlElement> stack, int elementIndex, Attributes attributes) {
 
         final XmlExtension ext = new XmlExtension(elementIndex);
 
@@ -48,11 +52,11 @@ final class XmlExtension extends XmlElement {
             try {
                 ext.builder.id(URI.create(id));
             } catch (IllegalArgumentException e) {
-                throw new InvalidDocumentException(DocumentError.MALFORMED_URI, XPathUtil.getPath(stack, XmlConstants.EXTENSION, elementIndex), "Extension id must be valid URI but was " + id);
+                ext.addError(new InvalidDocumentException(DocumentError.MALFORMED_URI, XPathUtil.getPath(stack, XmlConstants.EXTENSION, elementIndex), "Extension id must be valid URI but was " + id));
             }
 
         } else {
-            throw new InvalidDocumentException(DocumentError.MISSING_ID, XPathUtil.getPath(stack, XmlConstants.EXTENSION, elementIndex));
+            ext.addError(new InvalidDocumentException(DocumentError.MISSING_ID, XPathUtil.getPath(stack, XmlConstants.EXTENSION, elementIndex), "An extension must have valid 'id' attribute"));
         }
 
         final String href = attributes.getValue(XmlConstants.HREF);
@@ -61,7 +65,7 @@ final class XmlExtension extends XmlElement {
             try {
                 ext.builder.href(URI.create(href));
             } catch (IllegalArgumentException e) {
-                throw new InvalidDocumentException(DocumentError.MALFORMED_URI, XPathUtil.getPath(stack, XmlConstants.EXTENSION, elementIndex), "Extension href must be valid URI but was " + href);
+                ext.addError(new InvalidDocumentException(DocumentError.MALFORMED_URI, XPathUtil.getPath(stack, XmlConstants.EXTENSION, elementIndex), "Extension href must be valid URI but was " + href));
             }
         }
 
@@ -15,6 +15,7 @@
  */
 package com.apicatalog.alps.xml;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -36,9 +37,13 @@ import javax.xml.transform.stream.StreamSource;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import com.apicatalog.alps.DocumentStatistics;
+import com.apicatalog.alps.binary.BinaryDocumentParser;
+import com.apicatalog.alps.binary.BinaryDocumentWriter;
 import com.apicatalog.alps.dom.Document;
 import com.apicatalog.alps.error.DocumentParserException;
 import com.apicatalog.alps.error.DocumentWriterException;
+import com.apicatalog.alps.error.InvalidDocumentException;
 
 import jakarta.json.Json;
 import jakarta.json.JsonArray;
@@ -76,6 +81,73 @@ class AlpsXmlSuiteTest {
         compare(testCase, document);
     }
 
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("testCaseMethodSource")
+    void testValidate(final TestDescription testCase) throws IOException {
+
+        Document document = null;
+        DocumentParserException error = null;
+
+        try (final InputStream is = AlpsXmlSuiteTest.class.getResourceAsStream(testCase.getInput())) {
+            document = (new XmlDocumentParser()).parse(URI.create("http://example.com"), is);
+
+        } catch (DocumentParserException e) {
+            error = e;
+        }
+
+        try (final InputStream is = AlpsXmlSuiteTest.class.getResourceAsStream(testCase.getInput())) {
+
+            final DocumentStatistics stats = (new XmlDocumentParser()).validate(URI.create("http://example.com"), is);
+
+            if (error != null) {
+                fail("Expected error " + error.getMessage());
+            }
+
+            final DocumentStatistics expected = DocumentStatistics.of(document);
+
+            assertEquals(expected.getVersion(), stats.getVersion());
+            assertEquals(expected.getDescriptors(), stats.getDescriptors());
+            assertEquals(expected.getDocs(), stats.getDocs());
+            assertEquals(expected.getLinks(), stats.getLinks());
+            assertEquals(expected.getExtensions(), stats.getExtensions());
+
+        } catch (DocumentParserException e) {
+
+            if (error == null) {
+                fail(e.getMessage(), e);
+            }
+
+            if (error instanceof InvalidDocumentException) {
+                assertEquals(((InvalidDocumentException)error).getCode(), ((InvalidDocumentException)e).getCode());
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("testCaseMethodSource")
+    void testBinaryRoundTrip(final TestDescription testCase) throws IOException {
+
+        final Document document;
+
+        try (final InputStream is = AlpsXmlSuiteTest.class.getResourceAsStream(testCase.getInput())) {
+            document = (new XmlDocumentParser()).parse(URI.create("http://example.com"), is);
+
+        } catch (DocumentParserException e) {
+            return;
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try {
+            BinaryDocumentWriter.create(output).write(document);
+
+            compare(testCase, (new BinaryDocumentParser()).parse(URI.create("http://example.com"), new ByteArrayInputStream(output.toByteArray())));
+
+        } catch (DocumentParserException | DocumentWriterException e) {
+            fail(e.getMessage(), e);
+        }
+    }
+
     static final Stream<TestDescription> testCaseMethodSource() throws IOException {
 
         try (final InputStream is = AlpsXmlSuiteTest.class.getResourceAsStream("manifest.json")) {
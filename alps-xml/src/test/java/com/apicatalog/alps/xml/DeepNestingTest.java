@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.alps.DocumentStatistics;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.error.DocumentError;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.DocumentWriterException;
+import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.io.DocumentParser;
+import com.apicatalog.alps.io.ParserOptions;
+
+class DeepNestingTest {
+
+    static final int DEPTH = 100_000;
+
+    static final URI BASE = URI.create("http://example.com");
+
+    @Test
+    void testParse() throws IOException, DocumentParserException {
+
+        final Document document = new XmlDocumentParser(new ParserOptions().maxDepth(DEPTH)).parse(BASE, new StringReader(createDocument(DEPTH)));
+
+        assertEquals(DEPTH, DocumentStatistics.of(document).getDescriptors());
+    }
+
+    @Test
+    void testWrite() throws IOException, DocumentParserException, DocumentWriterException {
+
+        final int depth = XmlDescriptor.MAX_WRITE_DEPTH;
+
+        final DocumentParser parser = new XmlDocumentParser(new ParserOptions().maxDepth(depth));
+
+        final Document document = parser.parse(BASE, new StringReader(createDocument(depth)));
+
+        final StringWriter output = new StringWriter();
+
+        XmlDocumentWriter.create(output, false, false).write(document);
+
+        assertEquals(depth, DocumentStatistics.of(parser.parse(BASE, new StringReader(output.toString()))).getDescriptors());
+    }
+
+    @Test
+    void testMaxWriteDepthExceeded() throws IOException, DocumentParserException {
+
+        final Document document = new XmlDocumentParser(new ParserOptions().maxDepth(DEPTH)).parse(BASE, new StringReader(createDocument(DEPTH)));
+
+        assertThrows(DocumentWriterException.class, () -> XmlDocumentWriter.create(new StringWriter(), false, false).write(document));
+    }
+
+    @Test
+    void testMaxDepthExceeded() {
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class,
+                () -> new XmlDocumentParser().parse(BASE, new StringReader(createDocument(ParserOptions.DEFAULT_MAX_DEPTH + 1))));
+
+        assertEquals(DocumentError.MAX_DEPTH_EXCEEDED, e.getCode());
+    }
+
+    static final String createDocument(final int depth) {
+
+        final StringBuilder xml = new StringBuilder("<alps version=\"1.0\">");
+
+        for (int i = 0; i < depth; i++) {
+            xml.append("<descriptor id=\"d").append(i).append("\">");
+        }
+
+        return xml.append("</descriptor>".repeat(depth)).append("</alps>").toString();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.alps.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.alps.error.DocumentError;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.InvalidDocumentException;
+import com.apicatalog.alps.io.ParserOptions;
+import com.apicatalog.alps.io.ValidationReport;
+
+class ValidationReportTest {
+
+    static final String DOCUMENT = "<alps version=\"1.0\">"
+                                    + "<descriptor id=\"a\" type=\"unknown\"><descriptor id=\"b c\"/><ext/></descriptor>"
+                                    + "<descriptor id=\"d\"><ext id=\"e\" href=\"f g\"/></descriptor>"
+                                    + "</alps>";
+
+    @Test
+    void testCollectErrors() throws IOException, DocumentParserException {
+
+        final ValidationReport report = new XmlDocumentParser().validate(null, new StringReader(DOCUMENT), 100);
+
+        assertFalse(report.isValid());
+        assertFalse(report.isTruncated());
+        assertEquals(4, report.getErrorCount());
+
+        assertEquals(
+                "INVALID_TYPE /alps/descriptor[position()=1], "
+                + "MALFORMED_URI /alps/descriptor[position()=1]/descriptor[position()=1], "
+                + "MISSING_ID /alps/descriptor[position()=1]/ext[position()=1], "
+                + "MALFORMED_URI /alps/descriptor[position()=2]/ext[position()=1]",
+                report.getErrors().stream().map(e -> e.getCode() + " " + e.getPath()).collect(Collectors.joining(", "))
+                );
+
+        assertEquals(3, report.getStatistics().getDescriptors());
+        assertEquals(2, report.getStatistics().getExtensions());
+    }
+
+    @Test
+    void testMaxErrors() throws IOException, DocumentParserException {
+
+        final ValidationReport report = new XmlDocumentParser().validate(null, new StringReader(DOCUMENT), 1);
+
+        assertTrue(report.isTruncated());
+        assertEquals(1, report.getErrors().size());
+        assertEquals(4, report.getErrorCount());
+    }
+
+    @Test
+    void testExceededLimit() {
+
+        final InvalidDocumentException e = assertThrows(InvalidDocumentException.class, () ->
+                new XmlDocumentParser(new ParserOptions().maxExtensions(1)).validate(null, new StringReader(DOCUMENT), 100)
+                );
+
+        assertEquals(DocumentError.MAX_EXTENSIONS_EXCEEDED, e.getCode());
+    }
+}
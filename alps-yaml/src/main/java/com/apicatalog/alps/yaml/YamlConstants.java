@@ -17,6 +17,8 @@ package com.apicatalog.alps.yaml;
 
 final class YamlConstants {
 
+    public static final String MEDIA_TYPE = "application/alps+yaml";
+
     public static final String ROOT = "alps";
 
     public static final String VERSION = "version";
@@ -15,80 +15,175 @@
  */
 package com.apicatalog.alps.yaml;
 
-import java.util.Objects;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.apicatalog.alps.dom.element.Descriptor;
 import com.apicatalog.alps.dom.element.DescriptorType;
-import com.apicatalog.yaml.Yaml;
+import com.apicatalog.yaml.YamlException;
 import com.apicatalog.yaml.node.YamlNode;
-import com.apicatalog.yaml.node.builder.YamlMappingBuilder;
-import com.apicatalog.yaml.node.builder.YamlSequenceBuilder;
+import com.apicatalog.yaml.printer.YamlPrinter;
+import com.apicatalog.yaml.writer.YamlWriter;
 
 final class YamlDescriptorWriter {
 
     private YamlDescriptorWriter() {}
 
-    public static final YamlNode toYaml(final Set<Descriptor> descriptors, final boolean verbose) {
+    /**
+     * Prints the descriptors as <code>descriptor</code> key of the current
+     * mapping. Nested descriptors are printed without recursion.
+     *
+     * @param printer a printer positioned in a mapping
+     * @param writer a writer printing nodes by the given printer
+     * @param descriptors a non-empty set of descriptors
+     * @param verbose print default values
+     */
+    public static final void write(final YamlPrinter printer, final YamlWriter writer, final Set<Descriptor> descriptors, final boolean verbose) throws IOException, YamlException {
 
-        if (descriptors.size() == 1) {
-            return toYaml(descriptors.iterator().next(), verbose);
-        }
+        final Deque<Frame> stack = new ArrayDeque<>();
+
+        stack.push(begin(printer, null, descriptors));
+
+        while (!stack.isEmpty()) {
+
+            final Frame frame = stack.peek();
+
+            if (frame.descriptors.hasNext()) {
+
+                final Descriptor descriptor = frame.descriptors.next();
+
+                if (descriptor == null) {
+                    continue;
+                }
+
+                printer.beginBlockMapping();
+
+                writeHead(printer, writer, descriptor, verbose);
 
-        final YamlSequenceBuilder yamlDescriptors = Yaml.createSequenceBuilder();
+                if (YamlDocumentWriter.isNotEmpty(descriptor.descriptors())) {
+                    stack.push(begin(printer, descriptor, descriptor.descriptors()));
+                    continue;
+                }
 
-        descriptors.stream().filter(Objects::nonNull).map(d -> YamlDescriptorWriter.toYaml(d, verbose)).forEach(yamlDescriptors::add);
+                writeTail(printer, writer, descriptor);
+                printer.endBlockdMapping();
+                continue;
+            }
 
-        return yamlDescriptors.build();
+            stack.pop();
+
+            if (frame.sequence) {
+                printer.endBlockSequence();
+            }
+
+            if (frame.parent != null) {
+                writeTail(printer, writer, frame.parent);
+                printer.endBlockdMapping();
+            }
+        }
     }
 
-    public static final YamlNode toYaml(final Descriptor descriptor, final boolean verbose) {
+    private static final Frame begin(final YamlPrinter printer, final Descriptor parent, final Set<Descriptor> descriptors) throws IOException {
+
+        final boolean sequence = descriptors.size() != 1;
 
-        if (descriptor == null) {
-            throw new IllegalArgumentException("The 'descriptor' parameter cannot be null.");
+        YamlDocumentWriter.printScalar(printer, YamlConstants.DESCRIPTOR);
+
+        if (sequence) {
+            printer.beginBlockSequence();
         }
 
-        final YamlMappingBuilder yamlDescriptor = Yaml.createMappingBuilder();
+        return new Frame(parent, descriptors.iterator(), sequence);
+    }
+
+    /**
+     * Prints descriptor entries preceding nested descriptors.
+     */
+    private static final void writeHead(final YamlPrinter printer, final YamlWriter writer, final Descriptor descriptor, final boolean verbose) throws IOException, YamlException {
 
-        descriptor.id().ifPresent(id -> yamlDescriptor.add(YamlConstants.ID, id.toString()));
+        if (descriptor.id().isPresent()) {
+            printEntry(printer, YamlConstants.ID, descriptor.id().get().toString());
+        }
 
         if (descriptor.type() != null && !DescriptorType.SEMANTIC.equals(descriptor.type())) {
-            yamlDescriptor.add(YamlConstants.TYPE, descriptor.type().name().toLowerCase());
+            printEntry(printer, YamlConstants.TYPE, descriptor.type().name().toLowerCase());
 
         } else if (verbose) {
-            yamlDescriptor.add(YamlConstants.TYPE, DescriptorType.SEMANTIC.name().toLowerCase());
+            printEntry(printer, YamlConstants.TYPE, DescriptorType.SEMANTIC.name().toLowerCase());
         }
 
-        descriptor.href().ifPresent(href -> yamlDescriptor.add(YamlConstants.HREF, href.toString()));
-        descriptor.definition().ifPresent(def -> yamlDescriptor.add(YamlConstants.DEFINITION, def.toString()));
-        descriptor.name().ifPresent(name -> yamlDescriptor.add(YamlConstants.NAME, name));
-        descriptor.returnType().ifPresent(rt -> yamlDescriptor.add(YamlConstants.RETURN_TYPE, rt.toString()));
-        descriptor.title().ifPresent(title -> yamlDescriptor.add(YamlConstants.TITLE, title));
+        if (descriptor.href().isPresent()) {
+            printEntry(printer, YamlConstants.HREF, descriptor.href().get().toString());
+        }
+
+        if (descriptor.definition().isPresent()) {
+            printEntry(printer, YamlConstants.DEFINITION, descriptor.definition().get().toString());
+        }
+
+        if (descriptor.name().isPresent()) {
+            printEntry(printer, YamlConstants.NAME, descriptor.name().get());
+        }
+
+        if (descriptor.returnType().isPresent()) {
+            printEntry(printer, YamlConstants.RETURN_TYPE, descriptor.returnType().get().toString());
+        }
+
+        if (descriptor.title().isPresent()) {
+            printEntry(printer, YamlConstants.TITLE, descriptor.title().get());
+        }
 
         // tag
         if (YamlDocumentWriter.isNotEmpty(descriptor.tag())) {
-            yamlDescriptor.add(YamlConstants.TAG, descriptor.tag().stream().map(Object::toString).collect(Collectors.joining(" ")));
+            printEntry(printer, YamlConstants.TAG, descriptor.tag().stream().map(Object::toString).collect(Collectors.joining(" ")));
         }
 
         // documentation
-        YamlDocumentationWriter.toYaml(descriptor.documentation(), verbose).ifPresent(doc -> yamlDescriptor.add(YamlConstants.DOCUMENTATION, doc));
+        final Optional<YamlNode> documentation = YamlDocumentationWriter.toYaml(descriptor.documentation(), verbose);
 
-        // descriptors
-        if (YamlDocumentWriter.isNotEmpty(descriptor.descriptors())) {
-            yamlDescriptor.add(YamlConstants.DESCRIPTOR, toYaml(descriptor.descriptors(), verbose));
+        if (documentation.isPresent()) {
+            YamlDocumentWriter.printScalar(printer, YamlConstants.DOCUMENTATION);
+            writer.write(documentation.get());
         }
+    }
+
+    /**
+     * Prints descriptor entries following nested descriptors.
+     */
+    private static final void writeTail(final YamlPrinter printer, final YamlWriter writer, final Descriptor descriptor) throws IOException, YamlException {
 
         // links
         if (YamlDocumentWriter.isNotEmpty(descriptor.links())) {
-            yamlDescriptor.add(YamlConstants.LINK, YamlLinkWriter.toYaml(descriptor.links()));
+            YamlDocumentWriter.printScalar(printer, YamlConstants.LINK);
+            writer.write(YamlLinkWriter.toYaml(descriptor.links()));
         }
 
         // extensions
         if (YamlDocumentWriter.isNotEmpty(descriptor.extensions())) {
-            yamlDescriptor.add(YamlConstants.EXTENSION, YamlExtensionWriter.toYaml(descriptor.extensions()));
+            YamlDocumentWriter.printScalar(printer, YamlConstants.EXTENSION);
+            writer.write(YamlExtensionWriter.toYaml(descriptor.extensions()));
         }
+    }
+
+    private static final void printEntry(final YamlPrinter printer, final String key, final String value) throws IOException {
+        YamlDocumentWriter.printScalar(printer, key);
+        YamlDocumentWriter.printScalar(printer, value);
+    }
+
+    private static final class Frame {
 
-        return yamlDescriptor.build();
+        final Descriptor parent;
+        final Iterator<Descriptor> descriptors;
+        final boolean sequence;
+
+        Frame(final Descriptor parent, final Iterator<Descriptor> descriptors, final boolean sequence) {
+            this.parent = parent;
+            this.descriptors = descriptors;
+            this.sequence = sequence;
+        }
     }
 }
@@ -15,33 +15,63 @@
  */
 package com.apicatalog.alps.yaml;
 
+import java.io.BufferedWriter;
+import java.io.Flushable;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.Optional;
 
 import com.apicatalog.alps.dom.Document;
 import com.apicatalog.alps.error.DocumentWriterException;
 import com.apicatalog.alps.io.DocumentWriter;
-import com.apicatalog.yaml.Yaml;
+import com.apicatalog.alps.io.WriteEvent;
 import com.apicatalog.yaml.YamlException;
-import com.apicatalog.yaml.node.YamlMapping;
-import com.apicatalog.yaml.node.builder.YamlMappingBuilder;
+import com.apicatalog.yaml.node.YamlNode;
+import com.apicatalog.yaml.printer.DefaultYamlPrinter;
+import com.apicatalog.yaml.printer.YamlPrinter;
+import com.apicatalog.yaml.writer.DefaultYamlWriter;
+import com.apicatalog.yaml.writer.YamlPrintStyle;
 import com.apicatalog.yaml.writer.YamlWriter;
 
 public final class YamlDocumentWriter implements DocumentWriter {
 
+    private final YamlPrinter printer;
     private final YamlWriter writer;
     private final boolean verbose;
 
-    public YamlDocumentWriter(YamlWriter writer, boolean verbose) {
-        this.writer = writer;
+    /** a counted output, or null */
+    private final Flushable output;
+
+    public YamlDocumentWriter(YamlPrinter printer, boolean verbose) {
+        this(printer, verbose, null);
+    }
+
+    private YamlDocumentWriter(YamlPrinter printer, boolean verbose, Flushable output) {
+        this.printer = printer;
+        this.writer = new DefaultYamlWriter(printer);
         this.verbose = verbose;
+        this.output = output;
     }
 
     public static final DocumentWriter create(final Writer writer, final boolean verbose) {
-        return new YamlDocumentWriter(Yaml.createWriterBuilder(writer).build(), verbose);
+
+        final Writer output = WriteEvent.count(writer);
+
+        return new YamlDocumentWriter(new DefaultYamlPrinter(output, new YamlPrintStyle()), verbose, output);
+    }
+
+    public static final DocumentWriter create(final OutputStream stream, final boolean verbose) {
+        return create(new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8)), verbose);
     }
 
+    /**
+     * Prints the document as a sequence of events, a YAML representation of
+     * the whole document is not built.
+     */
     @Override
     public void write(Document document) throws IOException, DocumentWriterException {
 
@@ -49,48 +79,77 @@ public final class YamlDocumentWriter implements DocumentWriter {
             throw new IllegalArgumentException("The 'document' must not be null.");
         }
 
+        final WriteEvent event = WriteEvent.start(YamlConstants.MEDIA_TYPE);
+
         try {
-            writer.write(toYaml(document, verbose));
+            writeDocument(document);
 
-        } catch (YamlException e) {
-            throw new DocumentWriterException(e);
+        } catch (IOException | DocumentWriterException | RuntimeException e) {
+            event.complete(document, output, e);
+            throw e;
         }
-    }
 
-    @Override
-    public void close() throws Exception {
-        writer.close();
+        event.complete(document, output, null);
     }
 
-    private static final YamlMapping toYaml(final Document document, final boolean verbose) {
+    private void writeDocument(Document document) throws IOException, DocumentWriterException {
 
-        final YamlMappingBuilder alps = Yaml.createMappingBuilder();
-
-        // version
-        alps.add(YamlConstants.VERSION, Yaml.createScalar(YamlConstants.VERSION_1_0));
-
-        // title
-        document.title().ifPresent(title -> alps.add(YamlConstants.TITLE, title));
-        
-        // documentation
-        YamlDocumentationWriter.toYaml(document.documentation(), verbose).ifPresent(doc -> alps.add(YamlConstants.DOCUMENTATION, doc));
-
-        // links
-        if (isNotEmpty(document.links())) {
-            alps.add(YamlConstants.LINK, YamlLinkWriter.toYaml(document.links()));
-        }
+        try {
+            printer.beginBlockMapping();
+            printScalar(printer, YamlConstants.ROOT);
+            printer.beginBlockMapping();
+
+            // version
+            printScalar(printer, YamlConstants.VERSION);
+            printScalar(printer, YamlConstants.VERSION_1_0);
+
+            // title
+            if (document.title().isPresent()) {
+                printScalar(printer, YamlConstants.TITLE);
+                printScalar(printer, document.title().get());
+            }
+
+            // documentation
+            final Optional<YamlNode> documentation = YamlDocumentationWriter.toYaml(document.documentation(), verbose);
+
+            if (documentation.isPresent()) {
+                printScalar(printer, YamlConstants.DOCUMENTATION);
+                writer.write(documentation.get());
+            }
+
+            // links
+            if (isNotEmpty(document.links())) {
+                printScalar(printer, YamlConstants.LINK);
+                writer.write(YamlLinkWriter.toYaml(document.links()));
+            }
+
+            // descriptors
+            if (isNotEmpty(document.descriptors())) {
+                YamlDescriptorWriter.write(printer, writer, document.descriptors(), verbose);
+            }
+
+            // extensions
+            if (isNotEmpty(document.extensions())) {
+                printScalar(printer, YamlConstants.EXTENSION);
+                writer.write(YamlExtensionWriter.toYaml(document.extensions()));
+            }
+
+            printer.endBlockdMapping();
+            printer.endBlockdMapping();
 
-        // descriptors
-        if (isNotEmpty(document.descriptors())) {
-            alps.add(YamlConstants.DESCRIPTOR, YamlDescriptorWriter.toYaml(document.descriptors(), verbose));
+        } catch (YamlException e) {
+            throw new DocumentWriterException(e);
         }
+    }
 
-        // extensions
-        if (isNotEmpty(document.extensions())) {
-            alps.add(YamlConstants.EXTENSION, YamlExtensionWriter.toYaml(document.extensions()));
-        }
+    @Override
+    public void close() throws Exception {
+        printer.close();
+    }
 
-        return Yaml.createMappingBuilder().add(YamlConstants.ROOT, alps).build();
+    protected static final void printScalar(final YamlPrinter printer, final String value) throws IOException {
+        final char[] chars = value.toCharArray();
+        printer.printScalar(chars, 0, chars.length);
     }
 
     protected static final boolean isNotEmpty(final Collection<?> collection) {
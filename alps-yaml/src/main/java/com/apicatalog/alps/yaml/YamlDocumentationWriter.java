@@ -60,7 +60,9 @@ final class YamlDocumentationWriter {
 
         final Optional<Content> content = documentation.content();
 
+        // a plain text without tags is written as a string
         if (documentation.href().isEmpty()
+                && !YamlDocumentWriter.isNotEmpty(documentation.tag())
                 && content.isPresent()
                 && content
                        .map(Documentation.Content::type)
@@ -8,7 +8,7 @@ import picocli.CommandLine.ParseResult;
 @Command(
     name = "eiger",
     description = "Transform and validate ALPS documents",
-    subcommands = { Transformer.class, Validator.class },
+    subcommands = { Transformer.class, Validator.class, Merger.class, Daemon.class },
     mixinStandardHelpOptions = false,
     descriptionHeading = "%n",
     parameterListHeading = "%nParameters:%n",
@@ -41,6 +41,16 @@ public final class App {
                 return;
             }
 
+            if (isForwardable(result)) {
+
+                final Integer exitCode = DaemonClient.execute(args, System.out, System.err);
+
+                if (exitCode != null) {
+                    System.exit(exitCode);
+                    return;
+                }
+            }
+
             System.exit(cli.execute(args));
 
         } catch (Exception ex) {
@@ -48,4 +58,33 @@ public final class App {
             System.exit(cli.getCommandSpec().exitCodeOnExecutionException());
         }
     }
+
+    /**
+     * Commands reading files are executed by a running daemon, commands reading
+     * the standard input or watching files run locally.
+     */
+    private static final boolean isForwardable(final ParseResult result) {
+
+        if (result.subcommand() == null || result.subcommand().isUsageHelpRequested()) {
+            return false;
+        }
+
+        final Object command = result.subcommand().commandSpec().userObject();
+
+        if (command instanceof Transformer) {
+            final Transformer transformer = (Transformer)command;
+            return transformer.files != null && !transformer.files.isEmpty() && !transformer.watch;
+        }
+
+        if (command instanceof Merger) {
+            return true;
+        }
+
+        if (command instanceof Validator) {
+            final Validator validator = (Validator)command;
+            return validator.files != null && !validator.files.isEmpty() && !validator.watch;
+        }
+
+        return false;
+    }
 }
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.IFactory;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+/**
+ * A long-running process keeping parsers and writers warm. Regular commands
+ * working with files are forwarded to a running daemon by {@link DaemonClient}.
+ * <p>
+ * The daemon listens on a loopback socket, the port and an access token are
+ * published in a file readable by the current user only.
+ * </p>
+ * <p>
+ * A command output is sent while the command runs as frames of the standard
+ * or the error output, a frame carrying the exit code ends the response.
+ * </p>
+ */
+@Command(
+        name = "daemon",
+        mixinStandardHelpOptions = false,
+        description =  "Run a background process serving transform, validate and merge commands",
+        sortOptions = false,
+        descriptionHeading = "%n",
+        parameterListHeading = "%nParameters:%n",
+        optionListHeading = "%nOptions:%n"
+        )
+final class Daemon implements Callable<Integer> {
+
+    static final String REQUEST_EXECUTE = "execute";
+    static final String REQUEST_PING = "ping";
+    static final String REQUEST_STOP = "stop";
+
+    static final int TOKEN_LENGTH = 32;
+
+    // a request is read by a worker, a client must send it in time
+    static final int REQUEST_TIMEOUT_MILLIS = 10_000;
+
+    static final int MAX_ARGS = 10_000;
+    static final int MAX_ARGS_LENGTH = 1024 * 1024;
+
+    // response frame types, a frame is a type, a length and bytes
+    static final byte FRAME_EXIT = 0;
+    static final byte FRAME_OUT = 1;
+    static final byte FRAME_ERR = 2;
+
+    static final int MAX_FRAME_LENGTH = 64 * 1024;
+
+    @Option(names = { "-h", "--help" },  hidden = true, usageHelp = true)
+    boolean help = false;
+
+    @Option(names = { "--stop" }, description = "stop a running daemon")
+    boolean stop = false;
+
+    @Option(names = { "-j", "--threads" }, description = "number of requests served in parallel, defaults to the number of processors", paramLabel = "<count>")
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    @Spec CommandSpec spec;
+
+    Daemon() {
+    }
+
+    @Override
+    public Integer call() throws Exception {
+
+        if (stop) {
+            if (!DaemonClient.stop()) {
+                spec.commandLine().getErr().println("No daemon is running.");
+                return spec.exitCodeOnExecutionException();
+            }
+            return spec.exitCodeOnSuccess();
+        }
+
+        if (threads < 1) {
+            spec.commandLine().getErr().println("Invalid '--threads=" + threads + "' option, must be greater than zero.");
+            return spec.exitCodeOnInvalidInput();
+        }
+
+        if (DaemonClient.ping()) {
+            spec.commandLine().getErr().println("A daemon is already running.");
+            return spec.exitCodeOnExecutionException();
+        }
+
+        return serve();
+    }
+
+    private final int serve() throws IOException {
+
+        final Path portFile = getPortFile();
+
+        final byte[] token = newToken();
+
+        // a fixed pool keeps threads, and so parsers cached by them, alive between requests
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try (final ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+
+            writePortFile(portFile, server.getLocalPort(), token);
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> deletePortFile(portFile, server.getLocalPort())));
+
+            spec.commandLine().getErr().println("Listening on " + server.getLocalSocketAddress() + ", press Ctrl+C or run 'eiger daemon --stop' to stop.");
+
+            while (!server.isClosed()) {
+
+                final Socket socket;
+
+                try {
+                    socket = server.accept();
+
+                } catch (SocketException e) {
+                    // closed by a stop request
+                    break;
+                }
+
+                executor.execute(() -> handle(server, socket, token));
+            }
+
+            deletePortFile(portFile, server.getLocalPort());
+
+        } finally {
+            executor.shutdown();
+        }
+
+        return spec.exitCodeOnSuccess();
+    }
+
+    private final void handle(final ServerSocket server, final Socket socket, final byte[] token) {
+
+        try (socket;
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))
+            ) {
+
+            socket.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+
+            // the token is read first, nothing else is read from an unknown client
+            final byte[] received = new byte[TOKEN_LENGTH];
+            in.readFully(received);
+
+            if (!MessageDigest.isEqual(token, received)) {
+                return;
+            }
+
+            final String request = in.readUTF();
+
+            if (REQUEST_EXECUTE.equals(request)) {
+
+                final Path workingDirectory = Paths.get(in.readUTF());
+
+                final int count = in.readInt();
+
+                if (count < 0 || count > MAX_ARGS) {
+                    throw new IOException("Invalid number of arguments " + count + ", expected at most " + MAX_ARGS + ".");
+                }
+
+                final String[] args = new String[count];
+
+                long length = 0;
+
+                for (int i = 0; i < args.length; i++) {
+
+                    args[i] = in.readUTF();
+
+                    length += args[i].length();
+
+                    if (length > MAX_ARGS_LENGTH) {
+                        throw new IOException("Arguments exceed the maximum length of " + MAX_ARGS_LENGTH + " characters.");
+                    }
+                }
+
+                // the output is sent in frames while the command runs
+                final int exitCode = execute(
+                                        workingDirectory,
+                                        args,
+                                        new PrintWriter(new OutputStreamWriter(new FrameOutputStream(out, FRAME_OUT), StandardCharsets.UTF_8)),
+                                        new PrintWriter(new OutputStreamWriter(new FrameOutputStream(out, FRAME_ERR), StandardCharsets.UTF_8))
+                                        );
+
+                synchronized (out) {
+                    out.writeByte(FRAME_EXIT);
+                    out.writeInt(exitCode);
+                }
+
+            } else if (REQUEST_PING.equals(request)) {
+                out.writeInt(spec.exitCodeOnSuccess());
+
+            } else if (REQUEST_STOP.equals(request)) {
+                out.writeInt(spec.exitCodeOnSuccess());
+                out.flush();
+                server.close();
+            }
+
+            out.flush();
+
+        } catch (IOException e) {
+            spec.commandLine().getErr().println("Request failed [" + e.getMessage() + "].");
+        }
+    }
+
+    static final int execute(final Path workingDirectory, final String[] args, final PrintWriter out, final PrintWriter err) {
+
+        final CommandLine cli = new CommandLine(new App(), new WorkingDirectoryFactory(workingDirectory));
+        cli.setCaseInsensitiveEnumValuesAllowed(true);
+        cli.setOut(out);
+        cli.setErr(err);
+
+        final int exitCode = cli.execute(args);
+
+        out.flush();
+        err.flush();
+
+        return exitCode;
+    }
+
+    /**
+     * Returns the file announcing a running daemon. A temporary directory is
+     * shared by all users on POSIX systems, the file is protected by its
+     * permissions, otherwise the file is kept in the user home directory.
+     *
+     * @return the port file path
+     */
+    static final Path getPortFile() {
+
+        if (isPosix()) {
+            return Paths.get(System.getProperty("java.io.tmpdir"), "eiger-" + System.getProperty("user.name") + ".daemon");
+        }
+
+        return Paths.get(System.getProperty("user.home"), ".eiger", "eiger.daemon");
+    }
+
+    static final boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    private static final byte[] newToken() {
+        final byte[] token = new byte[TOKEN_LENGTH];
+        new SecureRandom().nextBytes(token);
+        return token;
+    }
+
+    private static final void writePortFile(final Path portFile, final int port, final byte[] token) throws IOException {
+
+        Files.deleteIfExists(portFile);
+
+        if (isPosix()) {
+            Files.createFile(portFile, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+
+        } else {
+            Files.createDirectories(portFile.getParent());
+        }
+
+        final StringBuilder content = new StringBuilder().append(port).append(' ');
+
+        for (final byte b : token) {
+            content.append(String.format("%02x", b));
+        }
+
+        Files.write(portFile, content.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static final void deletePortFile(final Path portFile, final int port) {
+        try {
+            // do not remove a file published by another daemon started meanwhile
+            if (Files.exists(portFile) && new String(Files.readAllBytes(portFile), StandardCharsets.US_ASCII).startsWith(port + " ")) {
+                Files.delete(portFile);
+            }
+
+        } catch (IOException e) {
+            // ignore, the file is re-written by the next daemon
+        }
+    }
+
+    /**
+     * Sends written bytes as frames of the given type, each write is sent to
+     * the client at once. The output is shared by both frame types.
+     */
+    private static final class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final byte type;
+
+        FrameOutputStream(final DataOutputStream out, final byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[] { (byte)b }, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+
+            synchronized (out) {
+
+                for (int i = 0; i < length; i += MAX_FRAME_LENGTH) {
+
+                    final int frame = Math.min(MAX_FRAME_LENGTH, length - i);
+
+                    out.writeByte(type);
+                    out.writeInt(frame);
+                    out.write(bytes, offset + i, frame);
+                }
+
+                out.flush();
+            }
+        }
+    }
+
+    private static final class WorkingDirectoryFactory implements IFactory {
+
+        private final Path workingDirectory;
+
+        WorkingDirectoryFactory(final Path workingDirectory) {
+            this.workingDirectory = workingDirectory;
+        }
+
+        @Override
+        public <K> K create(final Class<K> type) throws Exception {
+
+            if (Transformer.class.equals(type)) {
+                return type.cast(new Transformer(workingDirectory));
+            }
+
+            if (Validator.class.equals(type)) {
+                return type.cast(new Validator(workingDirectory));
+            }
+
+            if (Merger.class.equals(type)) {
+                return type.cast(new Merger(workingDirectory));
+            }
+
+            return CommandLine.defaultFactory().create(type);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.UserPrincipal;
+
+import picocli.CommandLine;
+
+/**
+ * Forwards commands to a running {@link Daemon}.
+ */
+final class DaemonClient {
+
+    static final int CONNECT_TIMEOUT_MILLIS = 200;
+
+    static final int MAX_UTF_LENGTH = 65535;
+
+    private DaemonClient() {
+    }
+
+    /**
+     * Executes the command by a running daemon and copies its output.
+     *
+     * @param args command line arguments
+     * @param out standard output
+     * @param err error output
+     * @return an exit code or <code>null</code> if no daemon is running or the
+     *          arguments cannot be sent and the command should run locally
+     */
+    static final Integer execute(final String[] args, final OutputStream out, final OutputStream err) {
+
+        final String workingDirectory = Paths.get("").toAbsolutePath().toString();
+
+        if (!isSendable(workingDirectory, args)) {
+            return null;
+        }
+
+        final Connection connection;
+
+        try {
+            connection = Connection.open();
+
+        } catch (IOException e) {
+            // the daemon is not available, run locally
+            return null;
+        }
+
+        if (connection == null) {
+            return null;
+        }
+
+        try (connection) {
+
+            connection.out.writeUTF(Daemon.REQUEST_EXECUTE);
+            connection.out.writeUTF(workingDirectory);
+            connection.out.writeInt(args.length);
+
+            for (final String arg : args) {
+                connection.out.writeUTF(arg);
+            }
+
+            connection.out.flush();
+
+            final byte[] buffer = new byte[Daemon.MAX_FRAME_LENGTH];
+
+            while (true) {
+
+                final byte type = connection.in.readByte();
+
+                if (type == Daemon.FRAME_EXIT) {
+                    return connection.in.readInt();
+                }
+
+                if (type != Daemon.FRAME_OUT && type != Daemon.FRAME_ERR) {
+                    throw new IOException("Invalid response frame type " + type + ".");
+                }
+
+                final int length = connection.in.readInt();
+
+                if (length < 0 || length > Daemon.MAX_FRAME_LENGTH) {
+                    throw new IOException("Invalid response frame length " + length + ".");
+                }
+
+                connection.in.readFully(buffer, 0, length);
+
+                final OutputStream target = type == Daemon.FRAME_OUT ? out : err;
+
+                target.write(buffer, 0, length);
+                target.flush();
+            }
+
+        } catch (IOException e) {
+            // the command might have been executed, do not run it again
+            try {
+                err.write(("Daemon request failed [" + e.getMessage() + "].\n").getBytes(StandardCharsets.UTF_8));
+                err.flush();
+
+            } catch (IOException e1) {
+                // ignore
+            }
+            return CommandLine.ExitCode.SOFTWARE;
+        }
+    }
+
+    static final boolean ping() {
+        return request(Daemon.REQUEST_PING);
+    }
+
+    static final boolean stop() {
+        return request(Daemon.REQUEST_STOP);
+    }
+
+    private static final boolean request(final String request) {
+
+        try (final Connection connection = Connection.open()) {
+
+            if (connection == null) {
+                return false;
+            }
+
+            connection.out.writeUTF(request);
+            connection.out.flush();
+
+            connection.in.readInt();
+            return true;
+
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks that the request fits the daemon limits and each string can be
+     * sent by {@link DataOutputStream#writeUTF(String)}.
+     */
+    static final boolean isSendable(final String workingDirectory, final String[] args) {
+
+        if (args.length > Daemon.MAX_ARGS || !isSendable(workingDirectory)) {
+            return false;
+        }
+
+        long length = 0;
+
+        for (final String arg : args) {
+
+            length += arg.length();
+
+            if (length > Daemon.MAX_ARGS_LENGTH || !isSendable(arg)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * A string is encoded in modified UTF-8 of at most 65535 bytes.
+     */
+    static final boolean isSendable(final String value) {
+
+        // a char is encoded in three bytes at most
+        if (value.length() <= MAX_UTF_LENGTH / 3) {
+            return true;
+        }
+
+        long length = 0;
+
+        for (int i = 0; i < value.length(); i++) {
+
+            final char ch = value.charAt(i);
+
+            if (ch >= 0x0001 && ch <= 0x007F) {
+                length++;
+
+            } else if (ch <= 0x07FF) {
+                length += 2;
+
+            } else {
+                length += 3;
+            }
+
+            if (length > MAX_UTF_LENGTH) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static final class Connection implements AutoCloseable {
+
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+
+        private Connection(final Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        static final Connection open() throws IOException {
+
+            final Path portFile = Daemon.getPortFile();
+
+            if (!Files.isReadable(portFile) || !isPrivate(portFile)) {
+                return null;
+            }
+
+            final String[] content = new String(Files.readAllBytes(portFile), StandardCharsets.US_ASCII).trim().split(" ");
+
+            if (content.length != 2 || content[1].length() != 2 * Daemon.TOKEN_LENGTH) {
+                return null;
+            }
+
+            final int port;
+            final byte[] token = new byte[content[1].length() / 2];
+
+            try {
+                port = Integer.parseInt(content[0]);
+
+                for (int i = 0; i < token.length; i++) {
+                    token[i] = (byte)Integer.parseInt(content[1].substring(2 * i, 2 * i + 2), 16);
+                }
+
+            } catch (NumberFormatException e) {
+                return null;
+            }
+
+            final Socket socket = new Socket();
+
+            try {
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT_MILLIS);
+
+                final Connection connection = new Connection(socket);
+
+                connection.out.write(token);
+
+                return connection;
+
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        /**
+         * A port file is trusted only if it's a regular file owned by the current
+         * user and not accessible by anyone else.
+         */
+        private static final boolean isPrivate(final Path portFile) {
+
+            try {
+                if (!Files.isRegularFile(portFile, LinkOption.NOFOLLOW_LINKS)) {
+                    return false;
+                }
+
+                final UserPrincipal user = portFile.getFileSystem()
+                                                .getUserPrincipalLookupService()
+                                                .lookupPrincipalByName(System.getProperty("user.name"));
+
+                if (!user.equals(Files.getOwner(portFile, LinkOption.NOFOLLOW_LINKS))) {
+                    return false;
+                }
+
+                return !Daemon.isPosix()
+                        || Files.getPosixFilePermissions(portFile, LinkOption.NOFOLLOW_LINKS)
+                                .stream()
+                                .allMatch(permission -> permission == PosixFilePermission.OWNER_READ
+                                                        || permission == PosixFilePermission.OWNER_WRITE);
+
+            } catch (IOException | UnsupportedOperationException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.cli;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Channel based file input and output.
+ */
+final class FileIO {
+
+    /** files of this size or larger are memory-mapped */
+    static final long MAP_THRESHOLD = 4L * 1024 * 1024;
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /** direct buffers are expensive to allocate, each thread reuses a buffer released by a closed stream */
+    private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<>();
+
+    private FileIO() {
+    }
+
+    /**
+     * Opens the given file for reading. Large files are memory-mapped, other
+     * files are read through a direct buffer reused by the current thread once
+     * the stream is closed.
+     *
+     * @param path a file to read
+     * @return a new input stream
+     * @throws IOException if the file cannot be opened
+     */
+    static final InputStream newInputStream(final Path path) throws IOException {
+
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            final long size = channel.size();
+
+            if (size >= MAP_THRESHOLD && size <= Integer.MAX_VALUE) {
+                // a mapping remains valid after the channel is closed
+                try (channel) {
+                    return new ByteBufferInputStream(channel.map(MapMode.READ_ONLY, 0, size));
+                }
+            }
+
+            return new ChannelInputStream(channel, acquireBuffer());
+
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static final ByteBuffer acquireBuffer() {
+
+        final ByteBuffer buffer = BUFFERS.get();
+
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+
+        // the buffer is held by one stream only, a stream opened before the buffer is released gets a new one
+        BUFFERS.set(null);
+
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Opens the given file for writing, the file is created or truncated.
+     *
+     * @param path a file to write
+     * @return a new buffered output stream
+     * @throws IOException if the file cannot be opened
+     */
+    static final OutputStream newOutputStream(final Path path) throws IOException {
+        return new BufferedOutputStream(
+                    Channels.newOutputStream(
+                        FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)
+                        ),
+                    BUFFER_SIZE
+                    );
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) {
+
+            if (length == 0) {
+                return 0;
+            }
+
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            final int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final int count = (int)Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    private static final class ChannelInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        private boolean closed;
+
+        ChannelInputStream(final FileChannel channel, final ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.buffer.flip();
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+
+            if (length == 0) {
+                return 0;
+            }
+
+            if (!fill()) {
+                return -1;
+            }
+
+            final int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return closed ? 0 : buffer.remaining();
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+
+            try {
+                channel.close();
+
+            } finally {
+                BUFFERS.set(buffer);
+            }
+        }
+
+        private boolean fill() throws IOException {
+
+            // the buffer might be held by another stream already
+            if (closed) {
+                throw new IOException("Stream closed.");
+            }
+
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+
+            buffer.clear();
+
+            int count;
+
+            do {
+                count = channel.read(buffer);
+            } while (count == 0);
+
+            buffer.flip();
+
+            return count > 0;
+        }
+    }
+}
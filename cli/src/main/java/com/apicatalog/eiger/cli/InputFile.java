@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An input file resolved from a file, directory or glob pattern
+ * given on the command line.
+ */
+final class InputFile {
+
+    private final Path path;
+
+    /** path relative to the expanded directory or glob base, used to place outputs */
+    private final Path relative;
+
+    /** path as given on the command line, used in messages */
+    private final Path display;
+
+    private InputFile(final Path path, final Path relative, final Path display) {
+        this.path = path;
+        this.relative = relative;
+        this.display = display;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public Path getRelative() {
+        return relative;
+    }
+
+    /**
+     * Returns the file as given on the command line, intended for messages.
+     * Use {@link #getPath()} to access the file.
+     *
+     * @return the file as given on the command line
+     */
+    public File toFile() {
+        return display.toFile();
+    }
+
+    @Override
+    public String toString() {
+        return display.toString();
+    }
+
+    static final boolean isGlob(final String input) {
+        return input.chars().anyMatch(InputFile::isGlobChar);
+    }
+
+    private static final boolean isGlobChar(final int ch) {
+        return ch == '*' || ch == '?' || ch == '[' || ch == '{';
+    }
+
+    /**
+     * Expands the given files, directories and glob patterns into a list of
+     * distinct regular files. Directories are walked recursively and only files
+     * with a media type that can be parsed are included, e.g. YAML files are skipped.
+     * Relative inputs are resolved against the given working directory.
+     *
+     * @param workingDirectory a directory relative inputs are resolved against
+     * @param inputs files, directories or glob patterns
+     * @return distinct input files in the order they were given
+     * @throws IOException if a directory cannot be walked
+     */
+    static final List<InputFile> expand(final Path workingDirectory, final Collection<String> inputs) throws IOException {
+
+        final Map<Path, InputFile> files = new LinkedHashMap<>();
+
+        for (final String input : inputs) {
+
+            if (isGlob(input)) {
+                expandGlob(workingDirectory, input).forEach(file -> files.putIfAbsent(file.path.toAbsolutePath().normalize(), file));
+                continue;
+            }
+
+            final Path path = Paths.get(input);
+
+            if (Files.isDirectory(workingDirectory.resolve(path))) {
+                expandDirectory(workingDirectory, path).forEach(file -> files.putIfAbsent(file.path.toAbsolutePath().normalize(), file));
+                continue;
+            }
+
+            files.putIfAbsent(
+                    workingDirectory.resolve(path).toAbsolutePath().normalize(),
+                    new InputFile(workingDirectory.resolve(path), path.getFileName(), path)
+                    );
+        }
+
+        return new ArrayList<>(files.values());
+    }
+
+    private static final List<InputFile> expandDirectory(final Path workingDirectory, final Path directory) throws IOException {
+
+        final Path base = workingDirectory.resolve(directory);
+
+        try (final Stream<Path> paths = Files.walk(base)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> Utils.isParsable(Utils.detectMediaType(path.toFile())))
+                    .sorted()
+                    .map(path -> new InputFile(path, base.relativize(path), directory.resolve(base.relativize(path))))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static final List<InputFile> expandGlob(final Path workingDirectory, final String glob) throws IOException {
+
+        final String pattern = glob.replace(File.separatorChar, '/');
+
+        final int baseEnd = getBaseEnd(pattern);
+
+        final Path display = getGlobBase(pattern);
+        final Path base = workingDirectory.resolve(display);
+        final String relativePattern = pattern.substring(baseEnd + 1);
+
+        if (!Files.isDirectory(base)) {
+            return List.of();
+        }
+
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + relativePattern);
+
+        final int maxDepth = relativePattern.contains("**")
+                                ? Integer.MAX_VALUE
+                                : (int)relativePattern.chars().filter(ch -> ch == '/').count() + 1;
+
+        try (final Stream<Path> paths = Files.walk(base, maxDepth)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(base.relativize(path)))
+                    .sorted()
+                    .map(path -> new InputFile(
+                                        path,
+                                        base.relativize(path),
+                                        baseEnd == -1 ? base.relativize(path) : display.resolve(base.relativize(path))
+                                        ))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns the base directory of the given glob pattern, the longest leading
+     * path without glob characters.
+     *
+     * @param glob a glob pattern
+     * @return the base directory
+     */
+    static final Path getGlobBase(final String glob) {
+
+        final String pattern = glob.replace(File.separatorChar, '/');
+
+        final int baseEnd = getBaseEnd(pattern);
+
+        return baseEnd == -1 ? Paths.get(".") : Paths.get(baseEnd == 0 ? "/" : pattern.substring(0, baseEnd));
+    }
+
+    private static final int getBaseEnd(final String pattern) {
+
+        int firstGlob = 0;
+
+        while (firstGlob < pattern.length() && !isGlobChar(pattern.charAt(firstGlob))) {
+            firstGlob++;
+        }
+
+        return pattern.lastIndexOf('/', firstGlob);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.cli;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Detects a media type from a bounded prefix of the content. The prefix is
+ * read ahead and the stream is reset, so a parser receives the whole content.
+ */
+final class MediaTypeSniffer {
+
+    /** the number of bytes inspected */
+    static final int PREFIX_LENGTH = 1024;
+
+    private static final Pattern JSON_KEY = Pattern.compile("\"(alps|openapi|swagger)\"\\s*:");
+
+    private static final Pattern YAML_KEY = Pattern.compile("^(alps|openapi|swagger)\\s*:", Pattern.MULTILINE);
+
+    private MediaTypeSniffer() {
+    }
+
+    /**
+     * Returns a stream supporting mark and reset, the given stream if possible.
+     *
+     * @param stream a stream to wrap
+     * @return a stream supporting mark and reset
+     */
+    static final InputStream markable(final InputStream stream) {
+        return stream.markSupported() ? stream : new BufferedInputStream(stream);
+    }
+
+    /**
+     * Detects a media type of the content, the stream position is not changed.
+     *
+     * @param stream a stream supporting mark and reset
+     * @return the detected media type or <code>null</code>
+     * @throws IOException if the prefix cannot be read
+     */
+    static final String sniff(final InputStream stream) throws IOException {
+
+        if (!stream.markSupported()) {
+            throw new IllegalArgumentException("The stream does not support mark and reset.");
+        }
+
+        final byte[] prefix = new byte[PREFIX_LENGTH];
+
+        int length = 0;
+
+        stream.mark(PREFIX_LENGTH);
+
+        try {
+            int count;
+
+            while (length < prefix.length && (count = stream.read(prefix, length, prefix.length - length)) != -1) {
+                length += count;
+            }
+
+        } finally {
+            stream.reset();
+        }
+
+        return sniff(prefix, length);
+    }
+
+    static final String sniff(final byte[] prefix, final int length) {
+
+        int offset = 0;
+        Charset charset = StandardCharsets.UTF_8;
+
+        // byte order mark
+        if (length >= 3 && (prefix[0] & 0xff) == 0xef && (prefix[1] & 0xff) == 0xbb && (prefix[2] & 0xff) == 0xbf) {
+            offset = 3;
+
+        } else if (length >= 2 && (prefix[0] & 0xff) == 0xfe && (prefix[1] & 0xff) == 0xff) {
+            offset = 2;
+            charset = StandardCharsets.UTF_16BE;
+
+        } else if (length >= 2 && (prefix[0] & 0xff) == 0xff && (prefix[1] & 0xff) == 0xfe) {
+            offset = 2;
+            charset = StandardCharsets.UTF_16LE;
+        }
+
+        // a truncated trailing character is decoded as a replacement character
+        final String content = new String(prefix, offset, length - offset, charset);
+
+        int index = 0;
+
+        while (index < content.length() && Character.isWhitespace(content.charAt(index))) {
+            index++;
+        }
+
+        if (index == content.length()) {
+            return null;
+        }
+
+        final char first = content.charAt(index);
+
+        if (first == '<') {
+            return Constants.MEDIA_TYPE_ALPS_XML;
+        }
+
+        if (first == '{') {
+            final Matcher matcher = JSON_KEY.matcher(content);
+            return matcher.find(index) && !"alps".equals(matcher.group(1))
+                        ? Constants.MEDIA_TYPE_OPEN_API
+                        : Constants.MEDIA_TYPE_ALPS_JSON;
+        }
+
+        final Matcher matcher = YAML_KEY.matcher(content);
+
+        if (matcher.find(index)) {
+            return "alps".equals(matcher.group(1))
+                        ? Constants.MEDIA_TYPE_ALPS_YAML
+                        : Constants.MEDIA_TYPE_OPEN_API;
+        }
+
+        return null;
+    }
+}
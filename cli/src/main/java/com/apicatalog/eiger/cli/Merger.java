@@ -0,0 +1,271 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.cli;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.apicatalog.alps.CanonicalDocument;
+import com.apicatalog.alps.DocumentMerger;
+import com.apicatalog.alps.DocumentMerger.ConflictPolicy;
+import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.error.DocumentParserException;
+import com.apicatalog.alps.error.DocumentWriterException;
+import com.apicatalog.alps.io.DocumentWriter;
+import com.apicatalog.eiger.cli.Transformer.Target;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+
+@Command(
+        name = "merge",
+        mixinStandardHelpOptions = false,
+        sortOptions = false,
+        description =  "Merge documents into one ALPS document",
+        descriptionHeading = "%n",
+        parameterListHeading = "%nParameters:%n",
+        optionListHeading = "%nOptions:%n"
+        )
+final class Merger implements Callable<Integer> {
+
+    enum Conflict { FAIL, FIRST, LAST }
+
+    @Spec CommandSpec spec;
+
+    @Option(names = { "-s", "--source" },  description = "source media type, e.g. --source=oas for OpenAPI", paramLabel = "(xml|json|oas)")
+    Transformer.Source source = null;
+
+    @Option(names = { "-t", "--target" },  description = "target media type, e.g. --target=yaml for alps+yaml", paramLabel = "(xml|json|yaml)", required = true)
+    Target target = null;
+
+    @Option(names = { "-h", "--help" },  hidden = true, usageHelp = true)
+    boolean help = false;
+
+    @Parameters(arity = "1..*", description = "input files, directories or glob patterns", paramLabel = "<file>")
+    List<String> files;
+
+    @Option(names = { "-r", "--on-conflict" }, description = "a duplicated id fails the merge, keeps the first or the last descriptor, defaults to fail", paramLabel = "(fail|first|last)")
+    Conflict conflict = Conflict.FAIL;
+
+    @Option(names = { "--title" }, description = "title of the merged document, defaults to the first title found", paramLabel = "<title>")
+    String title;
+
+    @Option(names = { "-p", "--pretty" }, description = "print pretty JSON|XML")
+    boolean pretty = false;
+
+    @Option(names = { "-v", "--verbose" }, description = "include default values")
+    boolean verbose = false;
+
+    @Option(names = { "-c", "--canonical" }, description = "write elements in a stable order with normalized values")
+    boolean canonical = false;
+
+    @Option(names = { "-o", "--output" }, description = "output file, defaults to the standard output", paramLabel = "<file>")
+    File output;
+
+    @Option(names = { "-j", "--threads" }, description = "number of parallel parsers, defaults to the number of processors", paramLabel = "<count>")
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    /** a directory relative inputs and outputs are resolved against */
+    private final Path workingDirectory;
+
+    Merger() {
+        this(Paths.get(""));
+    }
+
+    Merger(final Path workingDirectory) {
+        this.workingDirectory = workingDirectory;
+    }
+
+    public final int merge() throws Exception {
+
+        if (threads < 1) {
+            spec.commandLine().getErr().println("Invalid '--threads=" + threads + "' option, must be greater than zero.");
+            return spec.exitCodeOnInvalidInput();
+        }
+
+        final List<InputFile> inputs = InputFile.expand(workingDirectory, files);
+
+        if (inputs.isEmpty()) {
+            spec.commandLine().getErr().println("No input files found.");
+            return spec.exitCodeOnInvalidInput();
+        }
+
+        final List<Document> documents = parseAll(inputs);
+
+        if (documents == null) {
+            return spec.exitCodeOnExecutionException();
+        }
+
+        final Document document;
+
+        try {
+            document = new DocumentMerger()
+                            .policy(getPolicy())
+                            .title(title)
+                            .merge(documents);
+
+        } catch (DocumentParserException e) {
+            Validator.printError(spec.commandLine().getErr(), e, null, null);
+            return spec.exitCodeOnExecutionException();
+        }
+
+        try {
+            if (output == null) {
+                try (final DocumentWriter writer = Transformer.getWriter(target, pretty, verbose, spec.commandLine().getOut())) {
+                    writer.write(canonical ? CanonicalDocument.of(document) : document);
+                }
+
+            } else {
+                try (final OutputStream stream = FileIO.newOutputStream(workingDirectory.resolve(output.toPath()));
+                     final DocumentWriter writer = Transformer.getWriter(target, pretty, verbose, stream)) {
+                    writer.write(canonical ? CanonicalDocument.of(document) : document);
+                }
+            }
+
+        } catch (DocumentWriterException e) {
+            spec.commandLine().getErr().println(e.getMessage());
+            return spec.exitCodeOnExecutionException();
+        }
+
+        return spec.exitCodeOnSuccess();
+    }
+
+    /**
+     * Parses the inputs in parallel, the documents are returned in the order
+     * of the inputs.
+     *
+     * @return the documents or <code>null</code> if an input cannot be parsed
+     */
+    private final List<Document> parseAll(final List<InputFile> inputs) throws Exception {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, inputs.size())));
+
+        try {
+            final List<Future<Document>> results = new ArrayList<>(inputs.size());
+
+            for (final InputFile input : inputs) {
+                results.add(executor.submit(() -> parse(input)));
+            }
+
+            final List<Document> documents = new ArrayList<>(inputs.size());
+
+            boolean failed = false;
+
+            for (final Future<Document> result : results) {
+
+                final Document document = result.get();
+
+                if (document == null) {
+                    failed = true;
+
+                } else {
+                    documents.add(document);
+                }
+            }
+
+            return failed ? null : documents;
+
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof Exception) ? (Exception)e.getCause() : e;
+
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private final Document parse(final InputFile input) throws Exception {
+
+        final PrintWriter err = spec.commandLine().getErr();
+
+        String mediaType = getSourceMediaType(input);
+
+        try (final InputStream fileStream = FileIO.newInputStream(input.getPath())) {
+
+            InputStream inputStream = fileStream;
+
+            if (mediaType == null) {
+                inputStream = MediaTypeSniffer.markable(fileStream);
+                mediaType = MediaTypeSniffer.sniff(inputStream);
+            }
+
+            if (mediaType == null) {
+                err.println("Input file '" + input + "' has unknown media type, use '--source=(xml|json|oas)' option.");
+                return null;
+            }
+
+            final Document document = Utils.getCachedParser(mediaType).parse(null, inputStream);
+
+            if (document == null) {
+                err.println("Input file '" + input + "' does not contain a document.");
+            }
+
+            return document;
+
+        } catch (DocumentParserException e) {
+            synchronized (err) {
+                Validator.printError(err, e, mediaType, input.toFile());
+            }
+        }
+
+        return null;
+    }
+
+    private final String getSourceMediaType(final InputFile input) {
+
+        if (Transformer.Source.JSON.equals(source)) {
+            return Constants.MEDIA_TYPE_ALPS_JSON;
+
+        } else if (Transformer.Source.XML.equals(source)) {
+            return Constants.MEDIA_TYPE_ALPS_XML;
+
+        } else if (Transformer.Source.OAS.equals(source)) {
+            return Constants.MEDIA_TYPE_OPEN_API;
+        }
+
+        return Utils.detectMediaType(input.toFile());
+    }
+
+    private final ConflictPolicy getPolicy() {
+
+        if (Conflict.FIRST.equals(conflict)) {
+            return ConflictPolicy.KEEP_FIRST;
+
+        } else if (Conflict.LAST.equals(conflict)) {
+            return ConflictPolicy.KEEP_LAST;
+        }
+
+        return ConflictPolicy.FAIL;
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        return merge();
+    }
+}
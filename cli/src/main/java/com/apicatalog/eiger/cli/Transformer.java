@@ -16,12 +16,28 @@
 package com.apicatalog.eiger.cli;
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.Callable;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.apicatalog.alps.CanonicalDocument;
 import com.apicatalog.alps.dom.Document;
 import com.apicatalog.alps.error.DocumentParserException;
 import com.apicatalog.alps.error.DocumentWriterException;
@@ -60,8 +76,8 @@ final class Transformer implements Callable<Integer> {
     @Option(names = { "-h", "--help" },  hidden = true, usageHelp = true)
     boolean help = false;
 
-    @Parameters(index = "0", arity = "0..1", description = "input file")
-    File file;
+    @Parameters(arity = "0..*", description = "input files, directories or glob patterns", paramLabel = "<file>")
+    List<String> files;
 
     @Option(names = { "-p", "--pretty" }, description = "print pretty JSON|XML")
     boolean pretty = false;
@@ -69,12 +85,65 @@ final class Transformer implements Callable<Integer> {
     @Option(names = { "-v", "--verbose" }, description = "include default values")
     boolean verbose = false;
 
+    @Option(names = { "-c", "--canonical" }, description = "write elements in a stable order with normalized values")
+    boolean canonical = false;
+
+    @Option(names = { "-o", "--output" }, description = "output directory, required when transforming many files", paramLabel = "<dir>")
+    File output;
+
+    @Option(names = { "-n", "--name" }, description = "output file name template, {name} and {ext} are replaced, e.g. --name={name}.alps.{ext}", paramLabel = "<template>")
+    String nameTemplate = "{name}.{ext}";
+
+    @Option(names = { "-j", "--threads" }, description = "number of parallel workers, defaults to the number of processors", paramLabel = "<count>")
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = { "-w", "--watch" }, description = "watch inputs and transform changed files until interrupted")
+    boolean watch = false;
+
     @Spec CommandSpec spec;
 
-    Transformer() {}
+    /** a directory relative inputs and outputs are resolved against */
+    private final Path workingDirectory;
+
+    Transformer() {
+        this(Paths.get(""));
+    }
+
+    Transformer(final Path workingDirectory) {
+        this.workingDirectory = workingDirectory;
+    }
 
     public final int transform() throws Exception {
 
+        if (watch && (files == null || files.isEmpty())) {
+            spec.commandLine().getErr().println("Option '--watch' requires input files.");
+            return spec.exitCodeOnInvalidInput();
+        }
+
+        if (output != null) {
+            output = workingDirectory.resolve(output.toPath()).toFile();
+        }
+
+        final String sourceMediaType = getSourceMediaType();
+
+        final int result;
+
+        if (isBatch()) {
+            result = transformAll(sourceMediaType);
+
+        } else {
+            result = transform(sourceMediaType, files != null && !files.isEmpty() ? workingDirectory.resolve(files.get(0)).toFile() : null);
+        }
+
+        if (!watch || result == spec.exitCodeOnInvalidInput()) {
+            return result;
+        }
+
+        return watch(sourceMediaType);
+    }
+
+    private final String getSourceMediaType() {
+
         String sourceMediaType = null;
 
         if (Source.JSON.equals(source)) {
@@ -87,6 +156,19 @@ final class Transformer implements Callable<Integer> {
             sourceMediaType = Constants.MEDIA_TYPE_OPEN_API;
         }
 
+        return sourceMediaType;
+    }
+
+    private final boolean isBatch() {
+        return output != null
+                || (files != null
+                        && (files.size() > 1
+                                || files.stream().anyMatch(f -> InputFile.isGlob(f) || Files.isDirectory(workingDirectory.resolve(f)))
+                                ));
+    }
+
+    private final int transform(String sourceMediaType, final File file) throws Exception {
+
         if (file != null) {
 
             if (!file.exists()) {
@@ -104,27 +186,20 @@ final class Transformer implements Callable<Integer> {
             }
         }
 
-        if (sourceMediaType == null) {
-            spec.commandLine().getErr().println("Missing '--source=(xml|json|oas)' option.");
-            return spec.exitCodeOnInvalidInput();
-        }
-
-        return transform(sourceMediaType);
-    }
-
-    private final int transform(final String sourceMediaType) throws Exception {
+        try (final InputStream fileStream = file != null ? FileIO.newInputStream(file.toPath()) : null) {
 
-        InputStream inputStream = null;
+            InputStream inputStream = fileStream != null ? fileStream : System.in;
 
-        if (file != null) {
-            inputStream = new FileInputStream(file);
-        }
+            if (sourceMediaType == null) {
+                inputStream = MediaTypeSniffer.markable(inputStream);
+                sourceMediaType = MediaTypeSniffer.sniff(inputStream);
+            }
 
-        if (inputStream == null) {
-            inputStream = System.in;
-        }
+            if (sourceMediaType == null) {
+                spec.commandLine().getErr().println("Missing '--source=(xml|json|oas)' option.");
+                return spec.exitCodeOnInvalidInput();
+            }
 
-        try {
             return transform(sourceMediaType, inputStream, spec.commandLine().getOut());
 
         } catch (DocumentParserException e) {
@@ -141,7 +216,7 @@ final class Transformer implements Callable<Integer> {
         final DocumentParser parser;
 
         try {
-            parser = Utils.getParser(sourceMediaType);
+            parser = Utils.getCachedParser(sourceMediaType);
 
         } catch (IllegalArgumentException e) {
             spec.commandLine().getErr().println(e.getMessage());
@@ -155,18 +230,238 @@ final class Transformer implements Callable<Integer> {
         }
 
         try (final DocumentWriter writer = getWriter(target)) {
-            writer.write(document);
+            writer.write(canonical ? CanonicalDocument.of(document) : document);
         }
 
         return spec.exitCodeOnSuccess();
     }
 
+    private final int transformAll(final String sourceMediaType) throws Exception {
+
+        if (output == null) {
+            spec.commandLine().getErr().println("Missing '--output=<dir>' option.");
+            return spec.exitCodeOnInvalidInput();
+        }
+
+        if (threads < 1) {
+            spec.commandLine().getErr().println("Invalid '--threads=" + threads + "' option, must be greater than zero.");
+            return spec.exitCodeOnInvalidInput();
+        }
+
+        if (output.exists() && !output.isDirectory()) {
+            spec.commandLine().getErr().println("Output '" + output + "' is not a directory.");
+            return spec.exitCodeOnInvalidInput();
+        }
+
+        final List<InputFile> inputs = InputFile.expand(workingDirectory, files);
+
+        // do not pick up outputs of previous runs as inputs
+        inputs.removeIf(this::isOutput);
+
+        final Map<Path, InputFile> targets = new HashMap<>(inputs.size());
+
+        for (final InputFile input : inputs) {
+
+            final Path target = getOutputPath(input);
+
+            final InputFile previous = targets.putIfAbsent(target.toAbsolutePath().normalize(), input);
+
+            if (previous != null) {
+                spec.commandLine().getErr().println("Input files '" + previous + "' and '" + input + "' would be written to the same output file '" + target + "'.");
+                return spec.exitCodeOnInvalidInput();
+            }
+        }
+
+        Files.createDirectories(output.toPath());
+
+        final AtomicLong bytes = new AtomicLong();
+
+        final long start = System.nanoTime();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, inputs.size())));
+
+        int failed = 0;
+
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>(inputs.size());
+
+            for (final InputFile input : inputs) {
+                results.add(executor.submit(() -> transform(sourceMediaType, input, bytes)));
+            }
+
+            for (final Future<Boolean> result : results) {
+                if (!result.get()) {
+                    failed++;
+                }
+            }
+
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof Exception) ? (Exception)e.getCause() : e;
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        printSummary(spec.commandLine().getOut(), inputs.size(), failed, bytes.get(), System.nanoTime() - start);
+
+        return failed == 0
+                    ? spec.exitCodeOnSuccess()
+                    : spec.exitCodeOnExecutionException();
+    }
+
+    private final boolean transform(final String sourceMediaType, final InputFile input, final AtomicLong bytes) {
+
+        final PrintWriter err = spec.commandLine().getErr();
+
+        String mediaType = sourceMediaType != null ? sourceMediaType : Utils.detectMediaType(input.toFile());
+
+        try (final InputStream fileStream = FileIO.newInputStream(input.getPath())) {
+
+            InputStream inputStream = fileStream;
+
+            if (mediaType == null) {
+                inputStream = MediaTypeSniffer.markable(fileStream);
+                mediaType = MediaTypeSniffer.sniff(inputStream);
+            }
+
+            if (mediaType == null) {
+                err.println("Input file '" + input + "' has unknown media type, use '--source=(xml|json|oas)' option.");
+                return false;
+            }
+
+            final Document document = Utils.getCachedParser(mediaType).parse(null, inputStream);
+
+            if (document == null) {
+                err.println("Input file '" + input + "' does not contain a document.");
+                return false;
+            }
+
+            final Path target = getOutputPath(input);
+
+            try {
+                if (target.getParent() != null) {
+                    Files.createDirectories(target.getParent());
+                }
+
+                try (final OutputStream targetStream = FileIO.newOutputStream(target);
+                     final DocumentWriter writer = getWriter(targetStream)) {
+
+                    writer.write(canonical ? CanonicalDocument.of(document) : document);
+                }
+
+            } catch (IOException e) {
+                err.println("Output file '" + target + "' could not be written [" + e.getMessage() + "].");
+                return false;
+            }
+
+            bytes.addAndGet(Files.size(input.getPath()));
+            return true;
+
+        } catch (DocumentParserException e) {
+            synchronized (err) {
+                Validator.printError(err, e, mediaType, input.toFile());
+            }
+
+        } catch (IOException e) {
+            err.println("Input file '" + input + "' could not be read [" + e.getMessage() + "].");
+
+        } catch (Exception e) {
+            err.println("Input file '" + input + "' transformation failed [" + e.getMessage() + "].");
+        }
+
+        return false;
+    }
+
+    private final int watch(final String sourceMediaType) throws Exception {
+
+        final boolean batch = isBatch();
+
+        final PrintWriter out = spec.commandLine().getOut();
+
+        try (final Watcher watcher = Watcher.of(workingDirectory, files)) {
+
+            spec.commandLine().getErr().println("Watching for changes, press Ctrl+C to stop.");
+
+            watcher.watch(changed -> {
+
+                for (final InputFile input : changed) {
+
+                    if (!batch) {
+                        transform(sourceMediaType, input.getPath().toFile());
+                        continue;
+                    }
+
+                    if (isOutput(input)) {
+                        continue;
+                    }
+
+                    final long start = System.nanoTime();
+
+                    if (transform(sourceMediaType, input, new AtomicLong())) {
+                        out.println("# Transformed");
+                        out.println("- file: " + input);
+                        out.println("  output: " + getOutputPath(input));
+                        out.println("  elapsed: " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+                    }
+                }
+
+                out.flush();
+            });
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return spec.exitCodeOnSuccess();
+    }
+
+    private final boolean isOutput(final InputFile input) {
+        return output != null
+                && input.getPath().toAbsolutePath().normalize().startsWith(output.toPath().toAbsolutePath().normalize());
+    }
+
+    private final Path getOutputPath(final InputFile input) {
+
+        final String fileName = input.getRelative().getFileName().toString();
+
+        final int extension = fileName.lastIndexOf('.');
+
+        final String name = nameTemplate
+                                .replace("{name}", extension > 0 ? fileName.substring(0, extension) : fileName)
+                                .replace("{ext}", target.name().toLowerCase());
+
+        final Path directory = input.getRelative().getParent();
+
+        return directory != null
+                    ? output.toPath().resolve(directory).resolve(name)
+                    : output.toPath().resolve(name);
+    }
+
+    private static final void printSummary(final PrintWriter out, final int files, final int failed, final long bytes, final long nanos) {
+
+        final double seconds = Math.max(nanos, 1) / (double)TimeUnit.SECONDS.toNanos(1);
+
+        out.println("# Transformation summary");
+        out.println("- files: " + files);
+        out.println("  transformed: " + (files - failed));
+        out.println("  failed: " + failed);
+        out.println("  elapsed: " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms");
+        out.println("  throughput: "
+                        + String.format(Locale.ROOT, "%.1f", (files - failed) / seconds) + " files/s, "
+                        + String.format(Locale.ROOT, "%.2f", bytes / seconds / (1024 * 1024)) + " MB/s"
+                        );
+    }
+
     @Override
     public Integer call() throws Exception {
         return transform();
     }
 
     private final DocumentWriter getWriter(final Writer writer) throws DocumentWriterException {
+        return getWriter(target, pretty, verbose, writer);
+    }
+
+    static final DocumentWriter getWriter(final Target target, final boolean pretty, final boolean verbose, final Writer writer) throws DocumentWriterException {
 
         if (Target.JSON.equals(target)) {
             return JsonDocumentWriter.create(writer, pretty, verbose);
@@ -180,4 +475,23 @@ final class Transformer implements Callable<Integer> {
 
         throw new IllegalStateException();
     }
+
+    private final DocumentWriter getWriter(final OutputStream stream) throws DocumentWriterException {
+        return getWriter(target, pretty, verbose, stream);
+    }
+
+    static final DocumentWriter getWriter(final Target target, final boolean pretty, final boolean verbose, final OutputStream stream) throws DocumentWriterException {
+
+        if (Target.JSON.equals(target)) {
+            return JsonDocumentWriter.create(stream, pretty, verbose);
+
+        } else if (Target.XML.equals(target)) {
+            return XmlDocumentWriter.create(stream, pretty, verbose);
+
+        } else if (Target.YAML.equals(target)) {
+            return YamlDocumentWriter.create(stream, verbose);
+        }
+
+        throw new IllegalStateException();
+    }
 }
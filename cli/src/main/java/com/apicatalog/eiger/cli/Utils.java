@@ -16,6 +16,8 @@
 package com.apicatalog.eiger.cli;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.apicatalog.alps.io.DocumentParser;
 import com.apicatalog.alps.json.JsonDocumentParser;
@@ -24,6 +26,9 @@ import com.apicatalog.alps.xml.XmlDocumentParser;
 
 final class Utils {
 
+    /** parser instances are not guaranteed to be thread-safe, each worker reuses its own */
+    private static final ThreadLocal<Map<String, DocumentParser>> PARSERS = ThreadLocal.withInitial(HashMap::new);
+
     private Utils() {
     }
 
@@ -44,6 +49,18 @@ final class Utils {
         return null;
     }
 
+    /**
+     * Returns <code>true</code> if {@link #getParser(String)} accepts the given media type.
+     *
+     * @param mediaType a media type or <code>null</code>
+     * @return <code>true</code> if the media type can be parsed
+     */
+    static final boolean isParsable(final String mediaType) {
+        return Constants.MEDIA_TYPE_ALPS_JSON.equals(mediaType)
+                || Constants.MEDIA_TYPE_ALPS_XML.equals(mediaType)
+                || Constants.MEDIA_TYPE_OPEN_API.equals(mediaType);
+    }
+
     static final DocumentParser getParser(final String mediaType) {
 
         if (Constants.MEDIA_TYPE_ALPS_JSON.equals(mediaType)) {
@@ -60,4 +77,25 @@ final class Utils {
 
         throw new IllegalArgumentException("Unsupported source media type [" + mediaType + "].");
     }
+
+    /**
+     * Returns a parser bound to the current thread, the parser is created
+     * on the first request and reused afterwards.
+     *
+     * @param mediaType source media type
+     * @return a parser instance reused by the current thread
+     */
+    static final DocumentParser getCachedParser(final String mediaType) {
+
+        final Map<String, DocumentParser> parsers = PARSERS.get();
+
+        DocumentParser parser = parsers.get(mediaType);
+
+        if (parser == null) {
+            parser = getParser(mediaType);
+            parsers.put(mediaType, parser);
+        }
+
+        return parser;
+    }
 }
@@ -16,19 +16,35 @@
 package com.apicatalog.eiger.cli;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import com.apicatalog.alps.DocumentStatistics;
-import com.apicatalog.alps.dom.Document;
+import com.apicatalog.alps.dom.DocumentVersion;
 import com.apicatalog.alps.error.DocumentParserException;
 import com.apicatalog.alps.error.InvalidDocumentException;
 import com.apicatalog.alps.error.MalformedDocumentException;
 import com.apicatalog.alps.io.DocumentParser;
+import com.apicatalog.alps.io.ValidationReport;
 
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
@@ -54,15 +70,62 @@ final class Validator implements Callable<Integer> {
     @Option(names = { "-h", "--help" },  hidden = true, usageHelp = true)
     boolean help = false;
 
-    @Parameters(index = "0", arity = "0..1", description = "input file")
-    File file;
+    @Parameters(arity = "0..*", description = "input files, directories or glob patterns", paramLabel = "<file>")
+    List<String> files;
+
+    @Option(names = { "-r", "--report" }, description = "write an aggregated JSON report into the file", paramLabel = "<file>")
+    File report;
+
+    @Option(names = { "-j", "--threads" }, description = "number of parallel workers, defaults to the number of processors", paramLabel = "<count>")
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = { "-w", "--watch" }, description = "watch inputs and validate changed files until interrupted")
+    boolean watch = false;
+
+    @Option(names = { "-e", "--max-errors" }, description = "report up to the given number of errors found in a document, defaults to the first error", paramLabel = "<count>")
+    int maxErrors = 1;
 
     @Spec CommandSpec spec;
 
-    private Validator() {
+    /** a directory relative inputs and outputs are resolved against */
+    private final Path workingDirectory;
+
+    Validator() {
+        this(Paths.get(""));
+    }
+
+    Validator(final Path workingDirectory) {
+        this.workingDirectory = workingDirectory;
     }
 
-    public int validate() throws IOException {
+    public int validate() throws Exception {
+
+        if (watch && (files == null || files.isEmpty())) {
+            spec.commandLine().getErr().println("Option '--watch' requires input files.");
+            return spec.exitCodeOnInvalidInput();
+        }
+
+        if (maxErrors < 1) {
+            spec.commandLine().getErr().println("Invalid '--max-errors=" + maxErrors + "' option, must be greater than zero.");
+            return spec.exitCodeOnInvalidInput();
+        }
+
+        if (report != null) {
+            report = workingDirectory.resolve(report.toPath()).toFile();
+        }
+
+        final String sourceMediaType = getSourceMediaType();
+
+        final int result = validate(sourceMediaType);
+
+        if (!watch || result == spec.exitCodeOnInvalidInput()) {
+            return result;
+        }
+
+        return watch(sourceMediaType);
+    }
+
+    private final String getSourceMediaType() {
 
         String sourceMediaType = null;
 
@@ -73,6 +136,17 @@ final class Validator implements Callable<Integer> {
             sourceMediaType = Constants.MEDIA_TYPE_ALPS_XML;
         }
 
+        return sourceMediaType;
+    }
+
+    private final int validate(String sourceMediaType) throws IOException {
+
+        if (isBatch()) {
+            return validateAll(sourceMediaType);
+        }
+
+        final File file = files != null && !files.isEmpty() ? workingDirectory.resolve(files.get(0)).toFile() : null;
+
         if (file != null) {
 
             if (!file.exists()) {
@@ -90,78 +164,252 @@ final class Validator implements Callable<Integer> {
             }
         }
 
-        if (sourceMediaType == null) {
-            spec.commandLine().getErr().println("Missing '--source=(xml|json)' option.");
-            return spec.exitCodeOnInvalidInput();
-        }
+        return validate(sourceMediaType, file);
+    }
 
-        return validate(sourceMediaType);
+    private final boolean isBatch() {
+        return report != null
+                || (files != null
+                        && (files.size() > 1
+                                || files.stream().anyMatch(f -> InputFile.isGlob(f) || Files.isDirectory(workingDirectory.resolve(f)))
+                                ));
     }
 
-    private final int validate(final String sourceMediaType) throws IOException {
+    private final int validate(String sourceMediaType, final File file) throws IOException {
+
+        try (final InputStream fileStream = file != null ? FileIO.newInputStream(file.toPath()) : null) {
 
-        final DocumentParser parser;
+            InputStream inputStream = fileStream != null ? fileStream : System.in;
+
+            if (sourceMediaType == null) {
+                inputStream = MediaTypeSniffer.markable(inputStream);
+                sourceMediaType = MediaTypeSniffer.sniff(inputStream);
+            }
+
+            if (sourceMediaType == null) {
+                spec.commandLine().getErr().println("Missing '--source=(xml|json)' option.");
+                return spec.exitCodeOnInvalidInput();
+            }
+
+            final DocumentParser parser;
+
+            try {
+                parser = Utils.getCachedParser(sourceMediaType);
+
+            } catch (IllegalArgumentException e) {
+                spec.commandLine().getErr().println(e.getMessage());
+                return spec.exitCodeOnInvalidInput();
+            }
+
+            return print(parser, inputStream, sourceMediaType, file);
+        }
+    }
+
+    private  final int print(final DocumentParser parser, final InputStream inputStream, String sourceMediaType, final File file) throws IOException {
 
         try {
-            parser = Utils.getParser(sourceMediaType);
+            final ValidationReport validation = parser.validate(null, inputStream, maxErrors);
+
+            if (!validation.isValid()) {
+                printErrors(spec.commandLine().getErr(), validation, sourceMediaType, file);
+                return spec.exitCodeOnExecutionException();
+            }
+
+            printDocInfo(spec.commandLine().getOut(), validation.getStatistics().getVersion(), validation.getStatistics(), sourceMediaType, file);
+
+        } catch (DocumentParserException e) {
+            printError(spec.commandLine().getErr(), e, sourceMediaType, file);
+            return spec.exitCodeOnExecutionException();
+        }
+
+        return spec.exitCodeOnSuccess();
+    }
 
-        } catch (IllegalArgumentException e) {
-            spec.commandLine().getErr().println(e.getMessage());
+    private final int validateAll(final String sourceMediaType) throws IOException {
+
+        if (threads < 1) {
+            spec.commandLine().getErr().println("Invalid '--threads=" + threads + "' option, must be greater than zero.");
             return spec.exitCodeOnInvalidInput();
         }
 
-        if (file != null) {
-            try (InputStream inputStream = new FileInputStream(file)) {
-                return print(parser, inputStream, sourceMediaType);
+        final List<InputFile> inputs = InputFile.expand(workingDirectory, files);
+
+        final long start = System.nanoTime();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, inputs.size())));
+
+        final Result[] results = new Result[inputs.size()];
+
+        int invalid = 0;
+
+        try {
+            final CompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+
+            for (int i = 0; i < inputs.size(); i++) {
+                final int index = i;
+                final InputFile input = inputs.get(i);
+                completion.submit(() -> validate(index, sourceMediaType, input, maxErrors));
+            }
+
+            // print results as they complete, report them in the input order
+            for (int i = 0; i < inputs.size(); i++) {
+
+                final Result result = completion.take().get();
+
+                results[result.index] = result;
+
+                if (!result.isValid()) {
+                    invalid++;
+                }
+
+                print(result);
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final long elapsed = System.nanoTime() - start;
+
+        printSummary(spec.commandLine().getOut(), inputs.size(), invalid, elapsed);
+
+        if (report != null) {
+            try (final OutputStream os = Files.newOutputStream(report.toPath())) {
+                writeReport(os, results, invalid, elapsed);
             }
         }
 
-        return print(parser, System.in, sourceMediaType);
+        return invalid == 0
+                    ? spec.exitCodeOnSuccess()
+                    : spec.exitCodeOnExecutionException();
     }
 
-    private  final int print(final DocumentParser parser, final InputStream inputStream, String sourceMediaType) throws IOException {
+    private final int watch(final String sourceMediaType) throws Exception {
 
-        try {
-            printDocInfo(spec.commandLine().getOut(), parser.parse(null, inputStream), sourceMediaType);
+        try (final Watcher watcher = Watcher.of(workingDirectory, files)) {
 
-        } catch (DocumentParserException e) {
-            printError(spec.commandLine().getErr(), e, sourceMediaType, file);
+            spec.commandLine().getErr().println("Watching for changes, press Ctrl+C to stop.");
+
+            watcher.watch(changed -> {
+                for (final InputFile input : changed) {
+                    print(validate(0, sourceMediaType, input, maxErrors));
+                }
+            });
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
 
         return spec.exitCodeOnSuccess();
     }
 
+    private final void print(final Result result) {
+        if (result.isValid()) {
+            printDocInfo(spec.commandLine().getOut(), result.validation.getStatistics().getVersion(), result.validation.getStatistics(), result.mediaType, result.input.toFile());
+
+        } else if (result.error != null) {
+            printError(spec.commandLine().getErr(), result.error, result.mediaType, result.input.toFile());
+
+        } else {
+            printErrors(spec.commandLine().getErr(), result.validation, result.mediaType, result.input.toFile());
+        }
+    }
+
+    private static final Result validate(final int index, final String sourceMediaType, final InputFile input, final int maxErrors) {
+
+        final long start = System.nanoTime();
+
+        final Result result = new Result(index, input, sourceMediaType != null ? sourceMediaType : Utils.detectMediaType(input.toFile()));
+
+        try (final InputStream fileStream = FileIO.newInputStream(input.getPath())) {
+
+            InputStream inputStream = fileStream;
+
+            if (result.mediaType == null) {
+                inputStream = MediaTypeSniffer.markable(fileStream);
+                result.mediaType = MediaTypeSniffer.sniff(inputStream);
+            }
+
+            if (result.mediaType == null) {
+                result.error = new DocumentParserException("Unknown source media type, use '--source=(xml|json)' option.");
+
+            } else {
+
+                result.validation = Utils.getCachedParser(result.mediaType).validate(null, inputStream, maxErrors);
+            }
+
+        } catch (DocumentParserException e) {
+            result.error = e;
+
+        } catch (IllegalArgumentException | IOException e) {
+            result.error = new DocumentParserException(e);
+        }
+
+        result.elapsed = System.nanoTime() - start;
+        return result;
+    }
+
     @Override
     public Integer call() throws Exception {
         return validate();
     }
 
-    private final void printDocInfo(final PrintWriter out, final Document document, final String mediaType) {
-        out.println("# Valid ALPS document");
-        out.println("- document: ");
+    private static final void printDocInfo(final PrintWriter out, final DocumentVersion version, final DocumentStatistics stats, final String mediaType, final File file) {
 
-        if (mediaType != null) {
-            out.println("    media_type: " + mediaType);
+        synchronized (out) {
+            out.println("# Valid ALPS document");
+            out.println("- document: ");
+
+            if (mediaType != null) {
+                out.println("    media_type: " + mediaType);
+            }
+
+            if (file != null) {
+                out.println("    file: " + file);
+            }
+
+            out.println("    version: " + PrintUtils.versionToString(version));
+            out.println("    statistics:");
+
+            out.println("      descriptors: " + stats.getDescriptors());
+            out.println("      docs: " + stats.getDocs());
+            out.println("      links: " + stats.getLinks());
+            out.println("      extensions: " + stats.getExtensions());
         }
+    }
 
-        if (file != null) {
-            out.println("    file: " + file);
+    public static final void printError(final PrintWriter err, final DocumentParserException e, final String mediaType, final File file) {
+
+        synchronized (err) {
+            err.println("# Invalid ALPS document");
+            printErrorItem(err, e, mediaType, file);
         }
+    }
 
-        out.println("    version: " + PrintUtils.versionToString(document.version()));
-        out.println("    statistics:");
+    private static final void printErrors(final PrintWriter err, final ValidationReport validation, final String mediaType, final File file) {
 
-        final DocumentStatistics stats = DocumentStatistics.of(document);
+        synchronized (err) {
+            err.println("# Invalid ALPS document");
 
-        out.println("      descriptors: " + stats.getDescriptors());
-        out.println("      docs: " + stats.getDocs());
-        out.println("      links: " + stats.getLinks());
-        out.println("      extensions: " + stats.getExtensions());
+            for (final InvalidDocumentException e : validation.getErrors()) {
+                printErrorItem(err, e, mediaType, file);
+            }
+
+            if (validation.isTruncated()) {
+                err.println("# " + (validation.getErrorCount() - validation.getErrors().size()) + " more errors not reported, use '--max-errors' option to report them");
+            }
+        }
     }
 
-    public static final void printError(final PrintWriter err, final DocumentParserException e, final String mediaType, final File file) {
+    private static final void printErrorItem(final PrintWriter err, final DocumentParserException e, final String mediaType, final File file) {
 
-        err.println("# Invalid ALPS document");
         err.println("- error:");
         err.println("    message: " + e.getMessage());
 
@@ -177,8 +425,12 @@ final class Validator implements Callable<Integer> {
 
             final InvalidDocumentException ie = (InvalidDocumentException)e;
 
+            if (ie.getCode() != null) {
+                err.println("    code: " + ie.getCode().name());
+            }
+
             if (ie.getPath() != null) {
-                err.println("  path:" + ie.getPath());
+                err.println("    path: " + ie.getPath());
             }
         }
 
@@ -190,4 +442,137 @@ final class Validator implements Callable<Integer> {
             err.println("    file: " + file);
         }
     }
+
+    private static final void printSummary(final PrintWriter out, final int files, final int invalid, final long nanos) {
+
+        final double seconds = Math.max(nanos, 1) / (double)TimeUnit.SECONDS.toNanos(1);
+
+        out.println("# Validation summary");
+        out.println("- files: " + files);
+        out.println("  valid: " + (files - invalid));
+        out.println("  invalid: " + invalid);
+        out.println("  elapsed: " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms");
+        out.println("  throughput: " + String.format(Locale.ROOT, "%.1f", files / seconds) + " files/s");
+    }
+
+    private static final void writeReport(final OutputStream os, final Result[] results, final int invalid, final long elapsed) {
+
+        try (final JsonGenerator generator = Json.createGenerator(os)) {
+
+            generator.writeStartObject();
+            generator.write("files", results.length);
+            generator.write("valid", results.length - invalid);
+            generator.write("invalid", invalid);
+            generator.write("elapsed_ms", toMillis(elapsed));
+
+            generator.writeStartArray("results");
+
+            for (final Result result : results) {
+
+                generator.writeStartObject();
+                generator.write("file", result.input.toString());
+
+                if (result.mediaType != null) {
+                    generator.write("media_type", result.mediaType);
+                }
+
+                generator.write("valid", result.isValid());
+                generator.write("elapsed_ms", toMillis(result.elapsed));
+
+                if (result.isValid()) {
+                    final DocumentStatistics statistics = result.validation.getStatistics();
+
+                    generator.write("version", PrintUtils.versionToString(statistics.getVersion()));
+                    generator.writeStartObject("statistics");
+                    generator.write("descriptors", statistics.getDescriptors());
+                    generator.write("docs", statistics.getDocs());
+                    generator.write("links", statistics.getLinks());
+                    generator.write("extensions", statistics.getExtensions());
+                    generator.writeEnd();
+
+                } else if (result.error != null) {
+                    generator.writeStartObject("error");
+                    writeError(generator, result.error);
+                    generator.writeEnd();
+
+                } else {
+                    // the first error is written as an error stopping the validation
+                    generator.writeStartObject("error");
+                    writeError(generator, result.validation.getErrors().get(0));
+                    generator.writeEnd();
+
+                    generator.write("error_count", result.validation.getErrorCount());
+                    generator.writeStartArray("errors");
+
+                    for (final InvalidDocumentException error : result.validation.getErrors()) {
+                        generator.writeStartObject();
+                        writeError(generator, error);
+                        generator.writeEnd();
+                    }
+
+                    generator.writeEnd();
+                }
+
+                generator.writeEnd();
+            }
+
+            generator.writeEnd();
+            generator.writeEnd();
+        }
+    }
+
+    private static final void writeError(final JsonGenerator generator, final DocumentParserException e) {
+
+        if (e.getMessage() != null) {
+            generator.write("message", e.getMessage());
+        }
+
+        if (e instanceof MalformedDocumentException) {
+
+            final MalformedDocumentException me = (MalformedDocumentException)e;
+
+            generator.writeStartObject("location");
+            generator.write("line", me.getLineNumber());
+            generator.write("column", me.getColumnNumber());
+            generator.writeEnd();
+
+        } else if (e instanceof InvalidDocumentException) {
+
+            final InvalidDocumentException ie = (InvalidDocumentException)e;
+
+            if (ie.getCode() != null) {
+                generator.write("code", ie.getCode().name());
+            }
+
+            if (ie.getPath() != null) {
+                generator.write("path", ie.getPath());
+            }
+        }
+    }
+
+    private static final BigDecimal toMillis(final long nanos) {
+        return BigDecimal.valueOf(TimeUnit.NANOSECONDS.toMicros(nanos), 3);
+    }
+
+    private static final class Result {
+
+        final int index;
+        final InputFile input;
+
+        String mediaType;
+
+        ValidationReport validation;
+        DocumentParserException error;
+        long elapsed;
+
+        Result(final int index, final InputFile input, final String mediaType) {
+            this.index = index;
+            this.input = input;
+            this.mediaType = mediaType;
+        }
+
+        boolean isValid() {
+            return error == null && validation.isValid();
+        }
+    }
 }
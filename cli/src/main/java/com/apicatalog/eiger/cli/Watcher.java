@@ -0,0 +1,202 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.cli;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Watches files, directories and glob patterns given on the command line
+ * and reports changed input files.
+ */
+final class Watcher implements Closeable {
+
+    /** a quiet period after the last event before changes are reported, editors often emit several events per save */
+    static final long DEBOUNCE_MILLIS = 50;
+
+    @FunctionalInterface
+    interface Listener {
+        void changed(List<InputFile> files) throws Exception;
+    }
+
+    /** a directory relative inputs are resolved against */
+    private final Path workingDirectory;
+
+    private final Collection<String> inputs;
+
+    private final WatchService service;
+
+    private final Map<WatchKey, Path> directories;
+
+    /** directories watched including sub-directories created later */
+    private final Set<Path> recursive;
+
+    private Watcher(final Path workingDirectory, final Collection<String> inputs, final WatchService service) {
+        this.workingDirectory = workingDirectory;
+        this.inputs = inputs;
+        this.service = service;
+        this.directories = new HashMap<>();
+        this.recursive = new HashSet<>();
+    }
+
+    /**
+     * Creates a watcher of the given files, directories and glob patterns.
+     *
+     * @param workingDirectory a directory relative inputs are resolved against
+     * @param inputs files, directories or glob patterns
+     * @return a new watcher
+     * @throws IOException if a directory cannot be registered
+     */
+    static final Watcher of(final Path workingDirectory, final Collection<String> inputs) throws IOException {
+
+        final Watcher watcher = new Watcher(workingDirectory, inputs, FileSystems.getDefault().newWatchService());
+
+        try {
+            for (final String input : inputs) {
+
+                if (InputFile.isGlob(input)) {
+                    watcher.registerAll(workingDirectory.resolve(InputFile.getGlobBase(input)));
+                    continue;
+                }
+
+                final Path path = normalize(workingDirectory.resolve(input));
+
+                if (Files.isDirectory(path)) {
+                    watcher.registerAll(path);
+
+                } else if (path.getParent() != null) {
+                    watcher.register(path.getParent());
+                }
+            }
+
+        } catch (IOException e) {
+            watcher.close();
+            throw e;
+        }
+
+        return watcher;
+    }
+
+    /**
+     * Blocks the current thread and reports changed input files until the thread is interrupted.
+     *
+     * @param listener receives changed input files
+     * @throws Exception if the listener fails or the watch service is closed
+     */
+    void watch(final Listener listener) throws Exception {
+
+        while (!Thread.currentThread().isInterrupted()) {
+
+            final Set<Path> changed = new HashSet<>();
+
+            WatchKey key = service.take();
+
+            do {
+                collect(key, changed);
+            } while ((key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null);
+
+            // re-expand to keep relative paths of directory and glob inputs
+            final List<InputFile> files = InputFile.expand(workingDirectory, inputs)
+                                            .stream()
+                                            .filter(file -> changed.contains(normalize(file.getPath())))
+                                            .filter(file -> Files.isRegularFile(file.getPath()))
+                                            .collect(Collectors.toList());
+
+            if (!files.isEmpty()) {
+                listener.changed(files);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+
+    private final void collect(final WatchKey key, final Set<Path> changed) throws IOException {
+
+        final Path directory = directories.get(key);
+
+        for (final WatchEvent<?> event : key.pollEvents()) {
+
+            if (directory == null || OVERFLOW.equals(event.kind())) {
+                continue;
+            }
+
+            final Path path = directory.resolve((Path)event.context());
+
+            if (ENTRY_CREATE.equals(event.kind()) && Files.isDirectory(path)) {
+
+                if (recursive.contains(directory)) {
+                    registerAll(path);
+
+                    try (final Stream<Path> paths = Files.walk(path)) {
+                        paths.filter(Files::isRegularFile).map(Watcher::normalize).forEach(changed::add);
+                    }
+                }
+                continue;
+            }
+
+            changed.add(path);
+        }
+
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    private final void register(final Path directory) throws IOException {
+        final Path path = normalize(directory);
+        directories.put(path.register(service, ENTRY_CREATE, ENTRY_MODIFY), path);
+    }
+
+    private final void registerAll(final Path directory) throws IOException {
+
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try (final Stream<Path> paths = Files.walk(directory)) {
+            for (final Path path : paths.filter(Files::isDirectory).collect(Collectors.toList())) {
+                register(path);
+                recursive.add(normalize(path));
+            }
+        }
+    }
+
+    private static final Path normalize(final Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.cli;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class DaemonClientTest {
+
+    @Test
+    void testSendable() {
+        assertTrue(DaemonClient.isSendable("a".repeat(65535)));
+        assertTrue(DaemonClient.isSendable("é".repeat(30_000)));
+    }
+
+    @Test
+    void testNotSendable() {
+        assertFalse(DaemonClient.isSendable("a".repeat(65536)));
+        assertFalse(DaemonClient.isSendable("\u0000".repeat(40_000)));
+        assertFalse(DaemonClient.isSendable("€".repeat(30_000)));
+    }
+
+    @Test
+    void testArgsLimits() {
+        assertTrue(DaemonClient.isSendable("/tmp", new String[] { "validate", "a.json" }));
+        assertFalse(DaemonClient.isSendable("/tmp", new String[] { "validate", "a".repeat(70_000) }));
+        assertFalse(DaemonClient.isSendable("/tmp", new String[Daemon.MAX_ARGS + 1]));
+    }
+}
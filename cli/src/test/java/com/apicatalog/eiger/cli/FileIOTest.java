@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.cli;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileIOTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReuseBuffer() throws IOException {
+
+        final Path a = write("a.json", "{\"alps\":{\"version\":\"1.0\"}}");
+        final Path b = write("b.json", "{}");
+
+        try (final InputStream is = FileIO.newInputStream(a)) {
+            assertArrayEquals(Files.readAllBytes(a), is.readAllBytes());
+        }
+
+        try (final InputStream is = FileIO.newInputStream(b)) {
+            assertArrayEquals(Files.readAllBytes(b), is.readAllBytes());
+        }
+    }
+
+    @Test
+    void testNestedStreams() throws IOException {
+
+        final Path a = write("a.json", "a".repeat(3 * FileIO.BUFFER_SIZE));
+        final Path b = write("b.json", "b".repeat(2 * FileIO.BUFFER_SIZE));
+
+        try (final InputStream first = FileIO.newInputStream(a)) {
+
+            try (final InputStream second = FileIO.newInputStream(b)) {
+                assertArrayEquals(Files.readAllBytes(b), second.readAllBytes());
+            }
+
+            // the released buffer is taken by the third stream
+            try (final InputStream third = FileIO.newInputStream(b)) {
+                assertArrayEquals(Files.readAllBytes(a), first.readAllBytes());
+                assertArrayEquals(Files.readAllBytes(b), third.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void testReadClosed() throws IOException {
+
+        final InputStream is = FileIO.newInputStream(write("a.json", "{}"));
+        is.close();
+
+        assertThrows(IOException.class, is::read);
+    }
+
+    private final Path write(final String name, final String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
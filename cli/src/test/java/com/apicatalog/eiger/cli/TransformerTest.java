@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import picocli.CommandLine;
+
+class TransformerTest {
+
+    @TempDir
+    Path directory;
+
+    final StringWriter err = new StringWriter();
+
+    @Test
+    void testSkipUnparsableFiles() throws IOException {
+
+        copy("contacts.min.json", "in/api.json");
+        Files.writeString(directory.resolve("in/api.yaml"), "alps:\n  version: '1.0'\n");
+
+        assertEquals(0, transform("--target=xml", "--output=out", "in"), err.toString());
+
+        assertTrue(Files.isRegularFile(directory.resolve("out/api.xml")));
+        assertFalse(Files.exists(directory.resolve("out/api.yaml")));
+    }
+
+    @Test
+    void testOutputCollision() throws IOException {
+
+        copy("contacts.min.json", "a/api.json");
+        copy("contacts.min.json", "b/api.json");
+
+        assertEquals(2, transform("--target=xml", "--output=out", "a/api.json", "b/api.json"));
+
+        assertTrue(err.toString().contains("same output file"), err.toString());
+        assertFalse(Files.exists(directory.resolve("out/api.xml")));
+    }
+
+    @Test
+    void testOutputCollisionMediaType() throws IOException {
+
+        copy("contacts.min.json", "api.json");
+        copy("contacts.min.xml", "api.xml");
+
+        assertEquals(2, transform("--target=yaml", "--output=out", "api.json", "api.xml"));
+
+        assertTrue(err.toString().contains("same output file"), err.toString());
+    }
+
+    @Test
+    void testOutputDirectories() throws IOException {
+
+        copy("contacts.min.json", "in/a/api.json");
+        copy("contacts.min.json", "in/b/api.json");
+
+        assertEquals(0, transform("--target=xml", "--output=out", "in"), err.toString());
+
+        assertTrue(Files.isRegularFile(directory.resolve("out/a/api.xml")));
+        assertTrue(Files.isRegularFile(directory.resolve("out/b/api.xml")));
+    }
+
+    private final int transform(final String... args) {
+        return new CommandLine(new Transformer(directory))
+                    .setCaseInsensitiveEnumValuesAllowed(true)
+                    .setOut(new PrintWriter(new StringWriter()))
+                    .setErr(new PrintWriter(err))
+                    .execute(args);
+    }
+
+    private final void copy(final String name, final String target) throws IOException {
+
+        final Path path = directory.resolve(target);
+
+        Files.createDirectories(path.getParent());
+
+        try (final InputStream is = TransformerTest.class.getResourceAsStream("/com/apicatalog/alps/cli/" + name)) {
+            Files.copy(is, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.Collections;
 import java.util.Map;
@@ -22,6 +23,9 @@ import com.apicatalog.alps.error.DocumentError;
 import com.apicatalog.alps.error.DocumentParserException;
 import com.apicatalog.alps.error.InvalidDocumentException;
 import com.apicatalog.alps.io.DocumentParser;
+import com.apicatalog.alps.io.ParseEvent;
+import com.apicatalog.alps.io.ParserLimits;
+import com.apicatalog.alps.io.ParserOptions;
 
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
@@ -41,22 +45,61 @@ import io.swagger.v3.parser.core.models.SwaggerParseResult;
 
 public final class OpenApiReader implements DocumentParser {
 
+    private static final String MEDIA_TYPE = "application/vnd.oai.openapi";
+
+    private final ParserOptions options;
+
+    public OpenApiReader() {
+        this(new ParserOptions());
+    }
+
+    public OpenApiReader(final ParserOptions options) {
+        this.options = options;
+    }
+
     @Override
     public Document parse(URI baseUri, InputStream stream) throws IOException, DocumentParserException {
 
-        final String content = new BufferedReader(new InputStreamReader(stream)).lines().collect(Collectors.joining("\n"));
+        final ParserLimits limits = new ParserLimits(options);
+
+        final ParseEvent event = ParseEvent.start(MEDIA_TYPE, limits);
 
-        return parseContent(content);
+        try {
+            return event.complete(parseContent(read(new InputStreamReader(limits.limit(stream)), limits), limits), limits);
+
+        } catch (DocumentParserException | IOException e) {
+            event.fail(e, limits);
+            throw e;
+        }
     }
 
     @Override
     public Document parse(URI baseUri, Reader reader) throws IOException, DocumentParserException {
-        final String content = new BufferedReader(reader).lines().collect(Collectors.joining("\n"));
 
-        return parseContent(content);
+        final ParserLimits limits = new ParserLimits(options);
+
+        final ParseEvent event = ParseEvent.start(MEDIA_TYPE, limits);
+
+        try {
+            return event.complete(parseContent(read(limits.limit(reader), limits), limits), limits);
+
+        } catch (DocumentParserException | IOException e) {
+            event.fail(e, limits);
+            throw e;
+        }
     }
 
-    private static final Document parseContent(final String content) throws InvalidDocumentException {
+    private static final String read(final Reader reader, final ParserLimits limits) throws IOException, InvalidDocumentException {
+        try {
+            return new BufferedReader(reader).lines().collect(Collectors.joining("\n"));
+
+        } catch (UncheckedIOException e) {
+            limits.checkInput();
+            throw e.getCause();
+        }
+    }
+
+    private static final Document parseContent(final String content, final ParserLimits limits) throws InvalidDocumentException {
 
         final SwaggerParseResult result = new OpenAPIV3Parser().readContents(content);
         
@@ -73,7 +116,9 @@ public final class OpenApiReader implements DocumentParser {
         final DocumentBuilder document = Alps.createDocument(DocumentVersion.VERSION_1_0);
 
         // OAS info
-        Optional.ofNullable(oas.getInfo()).ifPresent(info -> parseInfo(info, document));
+        if (oas.getInfo() != null) {
+            parseInfo(oas.getInfo(), document, limits);
+        }
 
         // OAS servers
         Optional.ofNullable(oas.getServers())
@@ -81,24 +126,24 @@ public final class OpenApiReader implements DocumentParser {
                 .forEach(server -> parseServer(server, document));
 
         // OAS paths
-        Optional.ofNullable(oas.getPaths())
-                .map(Paths::entrySet)
-                .orElse(Collections.emptySet())
-                .forEach(e -> parsePath(e.getValue(), document));
+        for (final PathItem path : Optional.ofNullable(oas.getPaths()).map(Paths::values).orElse(Collections.emptyList())) {
+            parsePath(path, document, limits);
+        }
 
         // OAS components
-        Optional.ofNullable(oas.getComponents())
-                .map(Components::getSchemas)
-                .map(Map::entrySet)
-                .orElse(Collections.emptySet())
-                .forEach(e -> parseSchema(e.getKey(), e.getValue(), document));
+        for (@SuppressWarnings("rawtypes") final Map.Entry<String, Schema> e : Optional.ofNullable(oas.getComponents()).map(Components::getSchemas).map(Map::entrySet).orElse(Collections.emptySet())) {
+            parseSchema(e.getKey(), e.getValue(), document, limits);
+        }
 
         //TODO
 
         return document.build();
     }
 
-    private static final DescriptorBuilder parseSchema(String key, String name, Schema<?> value) {
+    private static final DescriptorBuilder parseSchema(String key, String name, Schema<?> value, int depth, ParserLimits limits) throws InvalidDocumentException {
+
+        limits.checkDepth(depth);
+        limits.addDescriptor();
 
         final DescriptorBuilder builder = Alps.createDescriptor().type(DescriptorType.SEMANTIC);
 
@@ -114,7 +159,7 @@ public final class OpenApiReader implements DocumentParser {
         if ("object".equals(value.getType()) && value.getProperties() != null) {
 
             for (@SuppressWarnings("rawtypes") Entry<String, Schema> e : value.getProperties().entrySet()) {
-                builder.add(parseSchema(key + "-" + e.getKey().toLowerCase(), e.getKey(), e.getValue()));
+                builder.add(parseSchema(key + "-" + e.getKey().toLowerCase(), e.getKey(), e.getValue(), depth + 1, limits));
             }
 
         } else if ("array".equals(value.getType())) {
@@ -122,15 +167,15 @@ public final class OpenApiReader implements DocumentParser {
             final Schema<?> items = ((ArraySchema)value).getItems();
 
             if (items != null) {
-                builder.add(parseSchema(key + "-items", null, items));
+                builder.add(parseSchema(key + "-items", null, items, depth + 1, limits));
             }
         }
 
         return builder;
     }
 
-    private static final void parseSchema(String key, Schema<?> value, DocumentBuilder document) {
-        document.add(parseSchema("model" + "-" + key.toLowerCase(), key, value));
+    private static final void parseSchema(String key, Schema<?> value, DocumentBuilder document, ParserLimits limits) throws InvalidDocumentException {
+        document.add(parseSchema("model" + "-" + key.toLowerCase(), key, value, 1, limits));
     }
 
     private static final URI toHref(String ref) {
@@ -140,10 +185,12 @@ public final class OpenApiReader implements DocumentParser {
         return URI.create(ref);
     }
 
-    private static final void parsePath(PathItem item, DocumentBuilder document) {
+    private static final void parsePath(PathItem item, DocumentBuilder document, ParserLimits limits) throws InvalidDocumentException {
 
         for (final Map.Entry<HttpMethod, Operation> op : item.readOperationsMap().entrySet()) {
 
+            limits.addDescriptor();
+
             final DescriptorBuilder builder = Alps.createDescriptor().type(parseMethod(op.getKey()));
 
             Optional.ofNullable(op.getValue().getOperationId())
@@ -153,11 +200,9 @@ public final class OpenApiReader implements DocumentParser {
             Optional.ofNullable(op.getValue().getSummary())
                     .ifPresent(builder::title);
 
-            Optional.ofNullable(op.getValue().getParameters())
-                    .orElse(Collections.emptyList())
-                    .stream()
-                    .map(OpenApiReader::parseParameter)
-                    .forEach(builder::add);
+            for (final Parameter parameter : Optional.ofNullable(op.getValue().getParameters()).orElse(Collections.emptyList())) {
+                builder.add(parseParameter(parameter, limits));
+            }
 
             Optional.ofNullable(op.getValue().getResponses())
                     .map(OpenApiReader::parseResponses)
@@ -201,7 +246,10 @@ public final class OpenApiReader implements DocumentParser {
         return null;
     }
 
-    private static final DescriptorBuilder parseParameter(final Parameter parameter) {
+    private static final DescriptorBuilder parseParameter(final Parameter parameter, final ParserLimits limits) throws InvalidDocumentException {
+
+        limits.checkDepth(2);
+        limits.addDescriptor();
 
         final DescriptorBuilder descriptor = Alps.createDescriptor().type(DescriptorType.SEMANTIC);
 
@@ -210,12 +258,14 @@ public final class OpenApiReader implements DocumentParser {
         return descriptor;
     }
 
-    private static final void parseInfo(final Info info, final DocumentBuilder builder) {
+    private static final void parseInfo(final Info info, final DocumentBuilder builder, final ParserLimits limits) throws InvalidDocumentException {
         if (info.getTitle() != null && !info.getTitle().isBlank()) {
+            limits.checkDocumentation(info.getTitle().strip().length());
             builder.add(Alps.createDocumentation().type("text/plain").append(info.getTitle().strip()));
         }
 
         if (info.getDescription() != null && !info.getDescription().isBlank()) {
+            limits.checkDocumentation(info.getDescription().length());
             builder.add(Alps.createDocumentation().type("text/plain").append(info.getDescription()));
         }
     }
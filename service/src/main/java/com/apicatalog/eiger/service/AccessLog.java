@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.service;
+
+import java.io.PrintStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Prints access log entries on a dedicated thread, an event loop only queues
+ * an entry. Queued entries are encoded and printed in batches, an entry that
+ * does not fit the queue is dropped and counted.
+ */
+final class AccessLog {
+
+    static final int CAPACITY = 10_000;
+
+    static final int MAX_BATCH = 256;
+
+    static final long POLL_MILLIS = 100;
+
+    private final PrintStream out;
+
+    private final BlockingQueue<JsonObject> entries;
+
+    private final LongAdder dropped;
+
+    private final Thread thread;
+
+    private volatile boolean closed;
+
+    private AccessLog(final PrintStream out) {
+        this.out = out;
+        this.entries = new ArrayBlockingQueue<>(CAPACITY);
+        this.dropped = new LongAdder();
+        this.thread = new Thread(this::run, "eiger-access-log");
+        this.thread.setDaemon(true);
+        this.closed = false;
+    }
+
+    static final AccessLog start(final PrintStream out) {
+
+        final AccessLog log = new AccessLog(out);
+
+        log.thread.start();
+
+        return log;
+    }
+
+    /**
+     * Queues the entry, never blocks.
+     *
+     * @param entry an entry to print
+     */
+    void log(final JsonObject entry) {
+        if (closed || !entries.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Prints queued entries and stops the thread.
+     *
+     * @throws InterruptedException if interrupted while waiting for the thread
+     */
+    void close() throws InterruptedException {
+        closed = true;
+        thread.join(TimeUnit.SECONDS.toMillis(1));
+    }
+
+    private void run() {
+
+        final StringBuilder batch = new StringBuilder();
+
+        try {
+            while (!closed || !entries.isEmpty()) {
+
+                final JsonObject entry = entries.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (entry == null) {
+                    continue;
+                }
+
+                batch.append(entry.encode()).append(System.lineSeparator());
+
+                JsonObject next;
+
+                for (int i = 1; i < MAX_BATCH && (next = entries.poll()) != null; i++) {
+                    batch.append(next.encode()).append(System.lineSeparator());
+                }
+
+                final long count = dropped.sumThenReset();
+
+                if (count > 0) {
+                    batch.append(new JsonObject().put("droppedEntries", count).encode()).append(System.lineSeparator());
+                }
+
+                // a batch is printed at once, lines printed by other threads are not split
+                out.print(batch);
+                out.flush();
+
+                batch.setLength(0);
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.service;
+
+import java.io.OutputStream;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Appends written bytes to a {@link Buffer} sent as a response body.
+ */
+final class BufferOutputStream extends OutputStream {
+
+    private final Buffer buffer;
+
+    BufferOutputStream(final Buffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void write(final int b) {
+        buffer.appendByte((byte)b);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) {
+        buffer.appendBytes(bytes, offset, length);
+    }
+
+    Buffer getBuffer() {
+        return buffer;
+    }
+}
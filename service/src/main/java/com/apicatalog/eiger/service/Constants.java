@@ -28,15 +28,49 @@ final class Constants {
     static final String MEDIA_TYPE_YAML = "application/yaml";
     static final String MEDIA_TYPE_JSON = "application/json";
 
+    // Prometheus text exposition format
+    static final String MEDIA_TYPE_PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+
     static final String PARAM_PRETTY = "pretty";
     static final String PARAM_VERBOSE = "verbose";
     static final String PARAM_BASE = "base";
+    static final String PARAM_MAX_ERRORS = "maxErrors";
 
     static final String SOURCE = "source";
+    static final String REQUEST_EVENT = "requestEvent";
+    static final String TIMING = "timing";
 
     static final String PATH_TRANSFORM = "/transform";
+    static final String PATH_VALIDATE = "/validate";
+    static final String PATH_PATCH = "/patch";
+    static final String PATH_METRICS = "/metrics";
+
+    // patch request properties
+    static final String PATCH_DOCUMENT = "document";
+    static final String PATCH_PATCH = "patch";
+    static final String PATCH_ROOT = "alps";
 
     static final String HEADER_CONTENT_TYPE = "content-type";
+    static final String HEADER_ACCEPT = "accept";
+    static final String HEADER_SERVER_TIMING = "server-timing";
+    static final String HEADER_REQUEST_ID = "x-request-id";
+
+    // a longer request id is replaced by a generated one
+    static final int MAX_REQUEST_ID_LENGTH = 200;
+
+    // verticle configuration
+    static final String CONFIG_MAX_INPUT_LENGTH = "maxInputLength";
+    static final String CONFIG_MAX_DEPTH = "maxDepth";
+    static final String CONFIG_MAX_DESCRIPTORS = "maxDescriptors";
+    static final String CONFIG_MAX_EXTENSIONS = "maxExtensions";
+    static final String CONFIG_MAX_DOC_LENGTH = "maxDocumentationLength";
+    static final String CONFIG_ACCESS_LOG = "accessLog";
+
+    static final long DEFAULT_MAX_INPUT_LENGTH = 250000;
+
+    // the number of errors reported by a validation
+    static final int DEFAULT_MAX_ERRORS = 100;
+    static final int MAX_ERRORS_LIMIT = 1000;
 
     private Constants() {
     }
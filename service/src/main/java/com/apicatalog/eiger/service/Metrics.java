@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.service;
+
+import static com.apicatalog.eiger.service.Constants.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vertx.ext.web.MIMEHeader;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * A registry of the service metrics printed in Prometheus text format.
+ * <p>
+ * Label values are limited to known paths and media types, any other value
+ * is reported as <code>other</code>, so a client cannot grow the registry.
+ * </p>
+ */
+final class Metrics {
+
+    // latency bucket bounds in seconds
+    static final double[] LATENCY_BUCKETS = { 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5 };
+
+    // size bucket bounds in bytes
+    static final double[] SIZE_BUCKETS = { 256, 1024, 4096, 16384, 65536, 262144, 1048576, 4194304 };
+
+    static final String OTHER = "other";
+    static final String NONE = "none";
+
+    static final Set<String> PATHS = Set.of(PATH_TRANSFORM, PATH_VALIDATE, PATH_PATCH, PATH_METRICS);
+
+    static final Set<String> MEDIA_TYPES = Set.of(
+                                                MEDIA_TYPE_ALPS_JSON,
+                                                MEDIA_TYPE_ALPS_XML,
+                                                MEDIA_TYPE_ALPS_YAML,
+                                                MEDIA_TYPE_OPEN_API,
+                                                MEDIA_TYPE_JSON
+                                                );
+
+    private final ConcurrentMap<String, LongAdder> requests;
+
+    private final ConcurrentMap<String, Histogram> requestSeconds;
+    private final ConcurrentMap<String, Histogram> requestBytes;
+    private final ConcurrentMap<String, Histogram> responseBytes;
+
+    private final ConcurrentMap<String, Histogram> parseSeconds;
+    private final ConcurrentMap<String, Histogram> writeSeconds;
+
+    private final LongAdder active;
+
+    private final long startTime;
+
+    Metrics() {
+        this.requests = new ConcurrentHashMap<>();
+        this.requestSeconds = new ConcurrentHashMap<>();
+        this.requestBytes = new ConcurrentHashMap<>();
+        this.responseBytes = new ConcurrentHashMap<>();
+        this.parseSeconds = new ConcurrentHashMap<>();
+        this.writeSeconds = new ConcurrentHashMap<>();
+        this.active = new LongAdder();
+        this.startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Starts measuring the request, the request and its stages are recorded
+     * when the response is sent or the connection is closed.
+     *
+     * @param ctx a new request
+     * @param timing the request stages
+     */
+    void begin(final RoutingContext ctx, final Timing timing) {
+
+        active.increment();
+
+        ctx.addEndHandler(result -> {
+
+            active.decrement();
+
+            final String path = label(PATHS, ctx.normalizedPath());
+            final String source = source(ctx);
+            final String target = ctx.getAcceptableContentType() != null ? label(MEDIA_TYPES, ctx.getAcceptableContentType()) : NONE;
+
+            final String key = "path=\"" + path
+                                + "\",source=\"" + source
+                                + "\",target=\"" + target
+                                + "\",status=\"" + ctx.response().getStatusCode()
+                                + "\"";
+
+            requests.computeIfAbsent(key, k -> new LongAdder()).increment();
+
+            final String pathKey = "path=\"" + path + "\"";
+
+            requestSeconds.computeIfAbsent(pathKey, k -> new Histogram(LATENCY_BUCKETS, 1e9)).observe(timing.total());
+            requestBytes.computeIfAbsent(pathKey, k -> new Histogram(SIZE_BUCKETS, 1)).observe(ctx.request().bytesRead());
+            responseBytes.computeIfAbsent(pathKey, k -> new Histogram(SIZE_BUCKETS, 1)).observe(ctx.response().bytesWritten());
+
+            if (timing.parse >= 0) {
+                parseSeconds.computeIfAbsent("format=\"" + source + "\"", k -> new Histogram(LATENCY_BUCKETS, 1e9)).observe(timing.parse);
+            }
+
+            if (timing.write >= 0) {
+                writeSeconds.computeIfAbsent("format=\"" + target + "\"", k -> new Histogram(LATENCY_BUCKETS, 1e9)).observe(timing.write);
+            }
+        });
+    }
+
+    void print(final StringBuilder output) {
+
+        type(output, "eiger_requests_total", "counter", "Requests served by path, source and target media type and status.");
+
+        for (final Map.Entry<String, LongAdder> entry : new TreeMap<>(requests).entrySet()) {
+            sample(output, "eiger_requests_total", entry.getKey(), Long.toString(entry.getValue().sum()));
+        }
+
+        type(output, "eiger_requests_active", "gauge", "Requests being served.");
+        sample(output, "eiger_requests_active", null, Long.toString(active.sum()));
+
+        histograms(output, "eiger_request_duration_seconds", "Request latency from the first byte to the response end.", requestSeconds);
+        histograms(output, "eiger_request_size_bytes", "Request sizes.", requestBytes);
+        histograms(output, "eiger_response_size_bytes", "Response sizes.", responseBytes);
+        histograms(output, "eiger_parse_duration_seconds", "Document parsing latency by source media type.", parseSeconds);
+        histograms(output, "eiger_write_duration_seconds", "Document writing latency by target media type.", writeSeconds);
+
+        type(output, "eiger_start_time_seconds", "gauge", "Start time since unix epoch in seconds.");
+        sample(output, "eiger_start_time_seconds", null, Double.toString(startTime / 1e3));
+    }
+
+    static final String source(final RoutingContext ctx) {
+
+        final MIMEHeader contentType = ctx.parsedHeaders().contentType();
+
+        if (contentType == null || contentType.value() == null || contentType.value().isBlank()) {
+            return NONE;
+        }
+
+        return label(MEDIA_TYPES, contentType.value());
+    }
+
+    static final String label(final Set<String> known, final String value) {
+        return known.contains(value) ? value : OTHER;
+    }
+
+    static final void histograms(final StringBuilder output, final String name, final String help, final Map<String, Histogram> histograms) {
+
+        type(output, name, "histogram", help);
+
+        for (final Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            entry.getValue().print(output, name, entry.getKey());
+        }
+    }
+
+    static final void type(final StringBuilder output, final String name, final String type, final String help) {
+        output
+            .append("# HELP ").append(name).append(' ').append(help).append('\n')
+            .append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    static final void sample(final StringBuilder output, final String name, final String labels, final String value) {
+
+        output.append(name);
+
+        if (labels != null) {
+            output.append('{').append(labels).append('}');
+        }
+
+        output.append(' ').append(value).append('\n');
+    }
+
+    /**
+     * A histogram with fixed buckets, values are observed in units, e.g.
+     * nanoseconds, and printed divided by the scale, e.g. in seconds.
+     */
+    static final class Histogram {
+
+        final long[] bounds;
+        final String[] labels;
+        final double scale;
+
+        // not cumulative, the last bucket is +Inf
+        final LongAdder[] buckets;
+        final LongAdder sum;
+
+        Histogram(final double[] bounds, final double scale) {
+
+            this.bounds = new long[bounds.length];
+            this.labels = new String[bounds.length + 1];
+            this.scale = scale;
+
+            for (int i = 0; i < bounds.length; i++) {
+                this.bounds[i] = Math.round(bounds[i] * scale);
+                this.labels[i] = BigDecimal.valueOf(bounds[i]).stripTrailingZeros().toPlainString();
+            }
+            this.labels[bounds.length] = "+Inf";
+
+            this.buckets = new LongAdder[bounds.length + 1];
+
+            for (int i = 0; i < buckets.length; i++) {
+                this.buckets[i] = new LongAdder();
+            }
+
+            this.sum = new LongAdder();
+        }
+
+        void observe(final long value) {
+
+            int index = 0;
+
+            while (index < bounds.length && value > bounds[index]) {
+                index++;
+            }
+
+            buckets[index].increment();
+            sum.add(value);
+        }
+
+        void print(final StringBuilder output, final String name, final String labels) {
+
+            long count = 0;
+
+            for (int i = 0; i < buckets.length; i++) {
+                count += buckets[i].sum();
+                sample(output, name + "_bucket", labels + ",le=\"" + this.labels[i] + "\"", Long.toString(count));
+            }
+
+            sample(output, name + "_sum", labels, Double.toString(sum.sum() / scale));
+            sample(output, name + "_count", labels, Long.toString(count));
+        }
+    }
+}
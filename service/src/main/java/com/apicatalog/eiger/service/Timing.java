@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apicatalog.eiger.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Durations of request stages kept in a request context, returned in a
+ * <code>Server-Timing</code> response header and written to an access log.
+ * A stage not passed by the request has a negative duration.
+ */
+final class Timing {
+
+    static final String BODY = "body";
+    static final String PARSE = "parse";
+    static final String WRITE = "write";
+    static final String TOTAL = "total";
+
+    final long started;
+
+    // durations in nanoseconds
+    long body;
+    long parse;
+    long write;
+
+    Timing() {
+        this.started = System.nanoTime();
+        this.body = -1;
+        this.parse = -1;
+        this.write = -1;
+    }
+
+    static final Timing of(final RoutingContext ctx) {
+        return ctx.get(Constants.TIMING);
+    }
+
+    long total() {
+        return System.nanoTime() - started;
+    }
+
+    /**
+     * Returns a <code>Server-Timing</code> header value, the total duration
+     * is measured up to the call.
+     *
+     * @return a header value listing the passed stages
+     */
+    String toHeader() {
+
+        final StringBuilder header = new StringBuilder();
+
+        header(header, BODY, body);
+        header(header, PARSE, parse);
+        header(header, WRITE, write);
+        header(header, TOTAL, total());
+
+        return header.toString();
+    }
+
+    /**
+     * Puts passed stage durations in milliseconds.
+     *
+     * @param json an object to put durations in
+     * @param total the total duration in nanoseconds
+     * @return the given object
+     */
+    JsonObject toJson(final JsonObject json, final long total) {
+
+        json(json, BODY, body);
+        json(json, PARSE, parse);
+        json(json, WRITE, write);
+        json(json, TOTAL, total);
+
+        return json;
+    }
+
+    static final void header(final StringBuilder header, final String name, final long nanos) {
+
+        if (nanos < 0) {
+            return;
+        }
+
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+
+        header.append(name).append(";dur=").append(millis(nanos).toPlainString());
+    }
+
+    static final void json(final JsonObject json, final String name, final long nanos) {
+        if (nanos >= 0) {
+            json.put(name, millis(nanos));
+        }
+    }
+
+    static final BigDecimal millis(final long nanos) {
+        return BigDecimal.valueOf(nanos, 6).setScale(3, RoundingMode.HALF_UP);
+    }
+}
@@ -2,26 +2,31 @@ package com.apicatalog.eiger.service;
 
 import static com.apicatalog.eiger.service.Constants.*;
 import static io.vertx.ext.web.validation.builder.Parameters.*;
+import static io.vertx.json.schema.draft7.dsl.Keywords.*;
 import static io.vertx.json.schema.common.dsl.Schemas.*;
 
 import java.io.ByteArrayInputStream;
-import java.io.StringWriter;
-import java.io.Writer;
+import java.io.OutputStream;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.apache.commons.lang3.time.DurationFormatUtils;
 
 import com.apicatalog.alps.dom.Document;
 import com.apicatalog.alps.error.DocumentParserException;
 import com.apicatalog.alps.error.DocumentWriterException;
+import com.apicatalog.alps.error.InvalidDocumentException;
 import com.apicatalog.alps.error.MalformedDocumentException;
 import com.apicatalog.alps.io.DocumentParser;
 import com.apicatalog.alps.io.DocumentWriter;
+import com.apicatalog.alps.io.ParserOptions;
+import com.apicatalog.alps.io.ValidationReport;
 import com.apicatalog.alps.json.JsonDocumentParser;
+import com.apicatalog.alps.json.JsonDocumentPatch;
 import com.apicatalog.alps.json.JsonDocumentWriter;
 import com.apicatalog.alps.oas.OpenApiReader;
 import com.apicatalog.alps.xml.XmlDocumentParser;
@@ -31,11 +36,13 @@ import com.apicatalog.alps.yaml.YamlDocumentWriter;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
 import io.vertx.ext.web.handler.StaticHandler;
+import io.vertx.ext.web.validation.BadRequestException;
 import io.vertx.ext.web.validation.RequestParameter;
 import io.vertx.ext.web.validation.RequestParameters;
 import io.vertx.ext.web.validation.RequestPredicate;
@@ -44,35 +51,89 @@ import io.vertx.ext.web.validation.builder.ValidationHandlerBuilder;
 import io.vertx.json.schema.SchemaParser;
 import io.vertx.json.schema.SchemaRouter;
 import io.vertx.json.schema.SchemaRouterOptions;
+import jakarta.json.JsonValue;
+import jakarta.json.JsonValue.ValueType;
 
 public class TransformerVerticle extends AbstractVerticle {
 
     Instant startTime;
 
+    AccessLog accessLog;
+
     @Override
     public void start() throws Exception {
 
         final SchemaRouter schemaRouter = SchemaRouter.create(vertx, new SchemaRouterOptions());
         final SchemaParser schemaParser = SchemaParser.createDraft201909SchemaParser(schemaRouter);
 
+        final ParserOptions options = getParserOptions(config());
+
+        final Metrics metrics = new Metrics();
+
+        // entries are printed off the event loop
+        final AccessLog accessLog = config().getBoolean(CONFIG_ACCESS_LOG, false)
+                                        ? AccessLog.start(System.out)
+                                        : null;
+
+        this.accessLog = accessLog;
+
         final Router router = Router.router(vertx);
 
-        router.post().handler(BodyHandler.create().setBodyLimit(250000));
+        // all requests are timed and measured
+        router.route().handler(ctx -> {
 
-        // validate parameters
-        router.post(PATH_TRANSFORM)
-                // transformer options validation
-                .handler(
-                    ValidationHandlerBuilder
+            final Timing timing = new Timing();
+
+            ctx.put(TIMING, timing);
+            ctx.addHeadersEndHandler(v -> ctx.response().putHeader(HEADER_SERVER_TIMING, timing.toHeader()));
+
+            metrics.begin(ctx, timing);
+
+            if (accessLog != null) {
+
+                final String id = getRequestId(ctx.request().getHeader(HEADER_REQUEST_ID));
+
+                ctx.response().putHeader(HEADER_REQUEST_ID, id);
+                ctx.addEndHandler(result -> accessLog.log(getAccessLog(ctx, id, timing)));
+            }
+            ctx.next();
+        });
+
+        // a request event is recorded only if enabled in a running recording
+        router.route().handler(ctx -> {
+
+            final RequestEvent event = new RequestEvent();
+
+            if (event.isEnabled()) {
+                event.begin();
+                ctx.put(REQUEST_EVENT, event);
+                ctx.addBodyEndHandler(v -> commit(ctx, event));
+            }
+            ctx.next();
+        });
+
+        // a larger request is rejected before it is read completely
+        router.post().handler(BodyHandler.create().setBodyLimit(options.getMaxInputLength()));
+
+        router.post().handler(ctx -> {
+
+            final Timing timing = Timing.of(ctx);
+
+            timing.body = timing.total();
+            ctx.next();
+        });
+
+        // transformer options validation
+        final ValidationHandler transformerValidation = ValidationHandlerBuilder
                             .create(schemaParser)
                             .queryParameter(optionalParam(PARAM_PRETTY, booleanSchema()))
                             .queryParameter(optionalParam(PARAM_VERBOSE, booleanSchema()))
                             .queryParameter(optionalParam(PARAM_BASE, stringSchema()))
                             .predicate(RequestPredicate.BODY_REQUIRED)      // request body is required
-                            .build()
-                    )
-                // transformer options extraction
-                .handler(ctx -> {
+                            .build();
+
+        // transformer options extraction
+        final Handler<RoutingContext> transformerOptions = ctx -> {
                     final RequestParameters parameters = ctx.get(ValidationHandler.REQUEST_CONTEXT_KEY);
 
                     final RequestParameter pretty = parameters.queryParameter(PARAM_PRETTY);
@@ -93,7 +154,16 @@ public class TransformerVerticle extends AbstractVerticle {
 //                })
 //                .handler(ctx -> {
                     
-                });
+                };
+
+        // validate parameters
+        router.post(PATH_TRANSFORM)
+                .handler(transformerValidation)
+                .handler(transformerOptions);
+
+        router.post(PATH_PATCH)
+                .handler(transformerValidation)
+                .handler(transformerOptions);
 
         // XML -> XML | JSON | YAML
         router.post(PATH_TRANSFORM)
@@ -101,7 +171,7 @@ public class TransformerVerticle extends AbstractVerticle {
                 .produces(MEDIA_TYPE_ALPS_XML)
                 .produces(MEDIA_TYPE_ALPS_JSON)
                 .produces(MEDIA_TYPE_ALPS_YAML)
-                .handler(new ReaderHandler(new XmlDocumentParser()))
+                .handler(new ReaderHandler(new XmlDocumentParser(options)))
                 .handler(new WriterHandler())
                 .failureHandler(new ErrorHandler());
 
@@ -111,7 +181,7 @@ public class TransformerVerticle extends AbstractVerticle {
                 .produces(MEDIA_TYPE_ALPS_XML)
                 .produces(MEDIA_TYPE_ALPS_JSON)
                 .produces(MEDIA_TYPE_ALPS_YAML)
-                .handler(new ReaderHandler(new JsonDocumentParser()))
+                .handler(new ReaderHandler(new JsonDocumentParser(options)))
                 .handler(new WriterHandler())
                 .failureHandler(new ErrorHandler());
 
@@ -121,10 +191,79 @@ public class TransformerVerticle extends AbstractVerticle {
                 .produces(MEDIA_TYPE_ALPS_XML)
                 .produces(MEDIA_TYPE_ALPS_JSON)
                 .produces(MEDIA_TYPE_ALPS_YAML)
-                .handler(new ReaderHandler(new OpenApiReader()))
+                .handler(new ReaderHandler(new OpenApiReader(options)))
                 .handler(new WriterHandler())
                 .failureHandler(new ErrorHandler());
 
+        // JSON { document, patch } -> XML | JSON | YAML
+        router.post(PATH_PATCH)
+                .consumes(MEDIA_TYPE_JSON)
+                .produces(MEDIA_TYPE_ALPS_XML)
+                .produces(MEDIA_TYPE_ALPS_JSON)
+                .produces(MEDIA_TYPE_ALPS_YAML)
+                .handler(new PatchHandler(options))
+                .handler(new WriterHandler())
+                .failureHandler(new ErrorHandler());
+
+        // validate parameters
+        router.post(PATH_VALIDATE)
+                .handler(
+                    ValidationHandlerBuilder
+                            .create(schemaParser)
+                            .queryParameter(optionalParam(PARAM_PRETTY, booleanSchema()))
+                            .queryParameter(optionalParam(PARAM_BASE, stringSchema()))
+                            .queryParameter(optionalParam(PARAM_MAX_ERRORS, intSchema().with(minimum(1), maximum(MAX_ERRORS_LIMIT))))
+                            .predicate(RequestPredicate.BODY_REQUIRED)
+                            .build()
+                    )
+                .handler(ctx -> {
+                    final RequestParameters parameters = ctx.get(ValidationHandler.REQUEST_CONTEXT_KEY);
+
+                    final RequestParameter pretty = parameters.queryParameter(PARAM_PRETTY);
+                    ctx.put(PARAM_PRETTY, pretty != null && pretty.getBoolean());
+
+                    final RequestParameter maxErrors = parameters.queryParameter(PARAM_MAX_ERRORS);
+                    ctx.put(PARAM_MAX_ERRORS, maxErrors != null ? maxErrors.getInteger() : DEFAULT_MAX_ERRORS);
+
+                    final RequestParameter base = parameters.queryParameter(PARAM_BASE);
+
+                    try {
+                        ctx.put(PARAM_BASE, base != null && !base.getString().isBlank() ? URI.create(base.getString().strip()) : null);
+                        ctx.next();
+
+                    } catch (IllegalArgumentException e) {
+                        ctx.response().setStatusCode(400).putHeader(HEADER_CONTENT_TYPE, contentTypeValue(MEDIA_TYPE_TEXT_PLAIN)).end("Base [" + (base != null ? base.getString() : "null") + "] is not valid URI." );
+                    }
+                });
+
+        // XML | JSON | OpenAPI -> validation report
+        router.post(PATH_VALIDATE)
+                .consumes(MEDIA_TYPE_ALPS_XML)
+                .produces(MEDIA_TYPE_JSON)
+                .handler(new ValidatorHandler(new XmlDocumentParser(options)))
+                .failureHandler(new ErrorHandler());
+
+        router.post(PATH_VALIDATE)
+                .consumes(MEDIA_TYPE_ALPS_JSON)
+                .produces(MEDIA_TYPE_JSON)
+                .handler(new ValidatorHandler(new JsonDocumentParser(options)))
+                .failureHandler(new ErrorHandler());
+
+        router.post(PATH_VALIDATE)
+                .consumes(MEDIA_TYPE_OPEN_API)
+                .produces(MEDIA_TYPE_JSON)
+                .handler(new ValidatorHandler(new OpenApiReader(options)))
+                .failureHandler(new ErrorHandler());
+
+        // metrics in Prometheus text format
+        router
+            .get(PATH_METRICS)
+            .handler(ctx -> {
+                final StringBuilder output = new StringBuilder();
+                metrics.print(output);
+                ctx.response().putHeader(HEADER_CONTENT_TYPE, MEDIA_TYPE_PROMETHEUS).end(output.toString());
+            });
+
         // static resources
         router
             .get("/static/*")
@@ -158,11 +297,52 @@ public class TransformerVerticle extends AbstractVerticle {
 
     @Override
     public void stop() throws Exception {
+        if (accessLog != null) {
+            accessLog.close();
+        }
         if (startTime != null) {
             System.out.println("Transformer verticle stopped after running for " +  DurationFormatUtils.formatDurationWords(Duration.between(startTime, Instant.now()).toMillis(), true, true) + ".");
         }
     }
 
+    static final String getRequestId(final String id) {
+        return id != null && !id.isBlank() && id.length() <= MAX_REQUEST_ID_LENGTH ? id : UUID.randomUUID().toString();
+    }
+
+    static final JsonObject getAccessLog(final RoutingContext ctx, final String id, final Timing timing) {
+
+        final long total = timing.total();
+
+        return new JsonObject()
+                    .put("time", Instant.now().toString())
+                    .put("id", id)
+                    .put("method", ctx.request().method().name())
+                    .put("path", ctx.normalizedPath())
+                    .put("status", ctx.response().getStatusCode())
+                    .put("contentType", ctx.request().getHeader(HEADER_CONTENT_TYPE))
+                    .put("accept", ctx.getAcceptableContentType())
+                    .put("bytesIn", ctx.request().bytesRead())
+                    .put("bytesOut", ctx.response().bytesWritten())
+                    .put("durations", timing.toJson(new JsonObject(), total));
+    }
+
+    static void commit(final RoutingContext ctx, final RequestEvent event) {
+
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.method = ctx.request().method().name();
+            event.path = ctx.normalizedPath();
+            event.status = ctx.response().getStatusCode();
+            event.contentType = ctx.request().getHeader(HEADER_CONTENT_TYPE);
+            event.accept = ctx.request().getHeader(HEADER_ACCEPT);
+            event.bytesIn = ctx.request().bytesRead();
+            event.bytesOut = ctx.response().bytesWritten();
+            event.bodyTime = Math.max(0, Timing.of(ctx).body);
+            event.commit();
+        }
+    }
+
     static class ReaderHandler implements Handler<RoutingContext> {
 
         final DocumentParser parser;
@@ -180,7 +360,16 @@ public class TransformerVerticle extends AbstractVerticle {
                                         .map(Buffer::getBytes)
                                         .orElseThrow(() -> new DocumentParserException("Document is empty."));
 
-                final Document document = parser.parse(ctx.get(PARAM_BASE), new ByteArrayInputStream(body));
+                final Document document;
+
+                final long started = System.nanoTime();
+
+                try {
+                    document = parser.parse(ctx.get(PARAM_BASE), new ByteArrayInputStream(body));
+
+                } finally {
+                    Timing.of(ctx).parse = System.nanoTime() - started;
+                }
 
                 if (document == null) {
                     ctx.response().end();
@@ -195,6 +384,72 @@ public class TransformerVerticle extends AbstractVerticle {
         }
     }
 
+    /**
+     * Reads a JSON object with an ALPS+JSON <code>document</code> and a
+     * <code>patch</code>, an array is applied as JSON Patch and an object
+     * as JSON Merge Patch.
+     */
+    static class PatchHandler implements Handler<RoutingContext> {
+
+        final ParserOptions options;
+
+        public PatchHandler(ParserOptions options) {
+            this.options = options;
+        }
+
+        @Override
+        public void handle(RoutingContext ctx) {
+
+            final Document document;
+
+            final long started = System.nanoTime();
+
+            try {
+                document = read(ctx);
+
+            } catch (Exception e) {
+                ctx.fail(e);
+                return;
+
+            } finally {
+                Timing.of(ctx).parse = System.nanoTime() - started;
+            }
+
+            ctx.put(SOURCE, document).next();
+        }
+
+        Document read(RoutingContext ctx) throws DocumentParserException {
+
+            final byte[] body = Optional.ofNullable(ctx.getBody())
+                                    .map(Buffer::getBytes)
+                                    .orElseThrow(() -> new DocumentParserException("Request is empty."));
+
+            // the depth and the length are limited as of a document
+            final jakarta.json.JsonObject request = JsonDocumentPatch.read(new ByteArrayInputStream(body), options);
+
+            final JsonValue document = request.get(PATCH_DOCUMENT);
+
+            if (document == null
+                    || !ValueType.OBJECT.equals(document.getValueType())
+                    || !document.asJsonObject().containsKey(PATCH_ROOT)
+                    || !ValueType.OBJECT.equals(document.asJsonObject().get(PATCH_ROOT).getValueType())) {
+                throw new DocumentParserException("Property '" + PATCH_DOCUMENT + "' must be ALPS+JSON document.");
+            }
+
+            final JsonValue patch = request.get(PATCH_PATCH);
+
+            if (patch == null || (!ValueType.ARRAY.equals(patch.getValueType()) && !ValueType.OBJECT.equals(patch.getValueType()))) {
+                throw new DocumentParserException("Property '" + PATCH_PATCH + "' must be JSON Patch array or JSON Merge Patch object.");
+            }
+
+            final Document source = JsonDocumentParser.parse(ctx.get(PARAM_BASE), document.asJsonObject().getJsonObject(PATCH_ROOT), options);
+
+            return ValueType.ARRAY.equals(patch.getValueType())
+                        ? JsonDocumentPatch.apply(source, patch.asJsonArray(), options)
+                        : JsonDocumentPatch.merge(source, patch, options);
+        }
+    }
+
     static class WriterHandler implements Handler<RoutingContext> {
 
         @Override
@@ -202,7 +457,7 @@ public class TransformerVerticle extends AbstractVerticle {
 
             final String acceptableContentType = ctx.getAcceptableContentType();
 
-            final StringWriter target = new StringWriter();
+            final BufferOutputStream target = new BufferOutputStream(Buffer.buffer(ctx.getBody() != null ? ctx.getBody().length() : 1024));
 
             try (final DocumentWriter writer = getWriter(
                                                     acceptableContentType,
@@ -211,15 +466,111 @@ public class TransformerVerticle extends AbstractVerticle {
                                                     target
                                                     )) {
 
-                writer.write(ctx.get(SOURCE));
+                final long started = System.nanoTime();
 
-                ctx.response()
-                        .setStatusCode(200)
-                        .putHeader(HEADER_CONTENT_TYPE, contentTypeValue(acceptableContentType))
-                        .end(target.toString());
+                try {
+                    writer.write(ctx.get(SOURCE));
+
+                } finally {
+                    Timing.of(ctx).write = System.nanoTime() - started;
+                }
+
+            } catch (Exception e) {
+                ctx.fail(e);
+                return;
+            }
+
+            // the writer is closed, all bytes are flushed into the buffer
+            ctx.response()
+                    .setStatusCode(200)
+                    .putHeader(HEADER_CONTENT_TYPE, contentTypeValue(acceptableContentType))
+                    .end(target.getBuffer());
+        }
+    }
+
+    /**
+     * Validates the request body and returns all errors found, a malformed
+     * document or an exceeded limit fails the request.
+     */
+    static class ValidatorHandler implements Handler<RoutingContext> {
+
+        final DocumentParser parser;
+
+        public ValidatorHandler(DocumentParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public void handle(RoutingContext ctx) {
+
+            final ValidationReport report;
+
+            try {
+                final byte[] body = Optional.ofNullable(ctx.getBody())
+                                        .map(Buffer::getBytes)
+                                        .orElseThrow(() -> new DocumentParserException("Document is empty."));
+
+                final long started = System.nanoTime();
+
+                try {
+                    report = parser.validate(ctx.get(PARAM_BASE), new ByteArrayInputStream(body), ctx.get(PARAM_MAX_ERRORS));
+
+                } finally {
+                    Timing.of(ctx).parse = System.nanoTime() - started;
+                }
 
             } catch (Exception e) {
                 ctx.fail(e);
+                return;
+            }
+
+            final JsonObject result = new JsonObject();
+
+            result.put("valid", report.isValid());
+
+            if (report.getStatistics() != null) {
+                result.put("statistics", new JsonObject()
+                                                .put("descriptors", report.getStatistics().getDescriptors())
+                                                .put("docs", report.getStatistics().getDocs())
+                                                .put("links", report.getStatistics().getLinks())
+                                                .put("extensions", report.getStatistics().getExtensions())
+                                                );
+            }
+
+            if (!report.isValid()) {
+
+                final JsonArray errors = new JsonArray();
+
+                for (final InvalidDocumentException e : report.getErrors()) {
+
+                    final JsonObject error = new JsonObject();
+
+                    if (e.getCode() != null) {
+                        error.put("code", e.getCode().name());
+                    }
+
+                    if (e.getPath() != null) {
+                        error.put("path", e.getPath());
+                    }
+
+                    error.put("message", e.getMessage());
+
+                    errors.add(error);
+                }
+
+                result.put("errorCount", report.getErrorCount());
+                result.put("errors", errors);
+            }
+
+            ctx.response()
+                    .setStatusCode(200)
+                    .putHeader(HEADER_CONTENT_TYPE, contentTypeValue(MEDIA_TYPE_JSON));
+
+            if ((boolean)ctx.get(PARAM_PRETTY)) {
+                ctx.end(result.encodePrettily());
+
+            } else {
+                ctx.end(result.encode());
             }
         }
     }
@@ -231,11 +582,26 @@ public class TransformerVerticle extends AbstractVerticle {
 
             final Throwable e = ctx.failure();
 
+            // e.g. 413 if the request body exceeds the maximum input length
+            if (e == null) {
+                ctx.response().setStatusCode(ctx.statusCode()).end();
+                return;
+            }
+
             if (e instanceof DocumentParserException) {
                 returnFormattedError(ctx, e);
                 return;
             }
 
+            // invalid query parameters
+            if (e instanceof BadRequestException) {
+                ctx.response()
+                        .setStatusCode(400)
+                        .putHeader(HEADER_CONTENT_TYPE, contentTypeValue(MEDIA_TYPE_TEXT_PLAIN))
+                        .end(e.getMessage());
+                return;
+            }
+
             ctx.response()
                     .setStatusCode(500)
                     .putHeader(HEADER_CONTENT_TYPE, contentTypeValue(MEDIA_TYPE_TEXT_PLAIN))
@@ -243,21 +609,39 @@ public class TransformerVerticle extends AbstractVerticle {
         }
     }
 
-    static final DocumentWriter getWriter(final String target, final boolean pretty, final boolean verbose, final Writer writer) throws DocumentWriterException {
+    static final DocumentWriter getWriter(final String target, final boolean pretty, final boolean verbose, final OutputStream stream) throws DocumentWriterException {
 
         if (MEDIA_TYPE_ALPS_JSON.equals(target)) {
-            return JsonDocumentWriter.create(writer, pretty, verbose);
+            return JsonDocumentWriter.create(stream, pretty, verbose);
 
         } else if (MEDIA_TYPE_ALPS_XML.equals(target)) {
-            return XmlDocumentWriter.create(writer, pretty, verbose);
+            return XmlDocumentWriter.create(stream, pretty, verbose);
 
         } else if (MEDIA_TYPE_ALPS_YAML.equals(target)) {
-            return YamlDocumentWriter.create(writer, verbose);
+            return YamlDocumentWriter.create(stream, verbose);
         }
 
         throw new IllegalStateException();
     }
 
+    /**
+     * Returns parser limits set by the verticle configuration, e.g.
+     * <code>{ "maxInputLength": 100000, "maxDescriptors": 5000 }</code>.
+     * The input length is limited to {@value Constants#DEFAULT_MAX_INPUT_LENGTH} bytes by default.
+     */
+    static final ParserOptions getParserOptions(final JsonObject config) {
+
+        final ParserOptions options = new ParserOptions()
+                                            .maxInputLength(config.getLong(CONFIG_MAX_INPUT_LENGTH, DEFAULT_MAX_INPUT_LENGTH));
+
+        Optional.ofNullable(config.getInteger(CONFIG_MAX_DEPTH)).ifPresent(options::maxDepth);
+        Optional.ofNullable(config.getLong(CONFIG_MAX_DESCRIPTORS)).ifPresent(options::maxDescriptors);
+        Optional.ofNullable(config.getLong(CONFIG_MAX_EXTENSIONS)).ifPresent(options::maxExtensions);
+        Optional.ofNullable(config.getLong(CONFIG_MAX_DOC_LENGTH)).ifPresent(options::maxDocumentationLength);
+
+        return options;
+    }
+
     static final int getDefaultPort() {
         final String envPort = System.getenv("PORT");
 
@@ -267,8 +651,9 @@ public class TransformerVerticle extends AbstractVerticle {
         return 8080;
     }
 
+    // documents are always written, and text responses are sent by Vert.x, in UTF-8
     static final String contentTypeValue(final String mediaType) {
-        return mediaType + "; charset=" + Charset.defaultCharset();
+        return mediaType + "; charset=UTF-8";
     }
 
     static final void returnFormattedError(final RoutingContext ctx, Throwable e) { 
@@ -288,7 +673,7 @@ public class TransformerVerticle extends AbstractVerticle {
             error.put("base", ctx.get(Constants.PARAM_BASE));
         }
         
-        error.put("mediaType", ctx.parsedHeaders().contentType().component() + "/" + ctx.parsedHeaders().contentType().subComponent());
+        error.put("mediaType", ctx.parsedHeaders().contentType().value());
         
         ctx.response()
             .setStatusCode(400)